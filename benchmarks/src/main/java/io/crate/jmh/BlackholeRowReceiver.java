@@ -0,0 +1,71 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.core.collections.Row;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.RowReceiver;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * RowReceiver which hands every row to a {@link Blackhole}
+ * so the work of the upstream can't be eliminated by the JIT
+ */
+public class BlackholeRowReceiver implements RowReceiver {
+
+    private final Blackhole blackhole;
+    private int numRows = 0;
+
+    public BlackholeRowReceiver(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public boolean setNextRow(Row row) {
+        numRows++;
+        blackhole.consume(row.get(0));
+        return true;
+    }
+
+    @Override
+    public void finish() {
+        blackhole.consume(numRows);
+    }
+
+    @Override
+    public void fail(Throwable throwable) {
+        throw new IllegalStateException("benchmark failed", throwable);
+    }
+
+    @Override
+    public void prepare(ExecutionState executionState) {
+    }
+
+    @Override
+    public void setUpstream(RowUpstream rowUpstream) {
+    }
+
+    public int numRows() {
+        return numRows;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.action.sql.query.CrateSearchContext;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.jobs.KeepAliveListener;
+import io.crate.operation.Input;
+import io.crate.operation.collect.collectors.CrateDocCollector;
+import io.crate.operation.reference.doc.lucene.DocIdCollectorExpression;
+import io.crate.planner.node.dql.CollectPhase;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * collects all documents of an in-memory index, measuring the collector
+ * and row pipeline overhead without any network, fielddata or indexing costs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CrateDocCollectorBenchmark.NUM_DOCS)
+@State(Scope.Benchmark)
+public class CrateDocCollectorBenchmark {
+
+    static final int NUM_DOCS = 100_000;
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    private static final KeepAliveListener KEEP_ALIVE_LISTENER = new KeepAliveListener() {
+        @Override
+        public void keepAlive() {
+        }
+    };
+
+    private RAMDirectory directory;
+    private DirectoryReader reader;
+    private CrateSearchContext searchContext;
+    private CollectPhase collectPhase;
+
+    @Setup
+    public void prepare() throws IOException {
+        directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(Version.LUCENE_4_10_4, new KeywordAnalyzer()))) {
+            for (int i = 0; i < NUM_DOCS; i++) {
+                Document document = new Document();
+                document.add(new StringField("x", String.valueOf(i), Field.Store.NO));
+                writer.addDocument(document);
+            }
+            writer.commit();
+        }
+        reader = DirectoryReader.open(directory);
+
+        Engine.Searcher engineSearcher = new Engine.Searcher("benchmark", new IndexSearcher(reader));
+        searchContext = mock(CrateSearchContext.class);
+        ContextIndexSearcher contextIndexSearcher = new ContextIndexSearcher(searchContext, engineSearcher);
+        when(searchContext.engineSearcher()).thenReturn(engineSearcher);
+        when(searchContext.searcher()).thenReturn(contextIndexSearcher);
+        when(searchContext.query()).thenReturn(new MatchAllDocsQuery());
+        when(searchContext.minimumScore()).thenReturn(null);
+
+        collectPhase = mock(CollectPhase.class);
+        when(collectPhase.limit()).thenReturn(null);
+    }
+
+    @TearDown
+    public void cleanUp() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public int collectAllDocs(Blackhole blackhole) {
+        DocIdCollectorExpression docIdExpression = new DocIdCollectorExpression();
+        BlackholeRowReceiver rowReceiver = new BlackholeRowReceiver(blackhole);
+        CrateDocCollector collector = new CrateDocCollector(
+                searchContext,
+                MoreExecutors.directExecutor(),
+                KEEP_ALIVE_LISTENER,
+                collectPhase,
+                RAM_ACCOUNTING_CONTEXT,
+                rowReceiver,
+                ImmutableList.<Input<?>>of(docIdExpression),
+                ImmutableList.of(docIdExpression)
+        );
+        collector.doCollect();
+        return rowReceiver.numRows();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.RowN;
+import io.crate.jobs.ExecutionState;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Functions;
+import io.crate.operation.AggregationContext;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.impl.AggregationImplModule;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.operation.projectors.GroupingProjector;
+import io.crate.planner.symbol.Aggregation;
+import io.crate.planner.symbol.InputColumn;
+import io.crate.planner.symbol.Symbol;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(GroupingProjectorBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class GroupingProjectorBenchmark {
+
+    static final int NUM_ROWS = 100_000;
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    @Param({"10", "10000"})
+    public int numKeys;
+
+    private AggregationFunction sumAggregation;
+    private RowN[] intRows;
+    private RowN[] stringRows;
+
+    @Setup
+    public void prepare() {
+        Functions functions = new ModulesBuilder().add(new AggregationImplModule())
+                .createInjector().getInstance(Functions.class);
+        sumAggregation = (AggregationFunction) functions.get(
+                new FunctionIdent(SumAggregation.NAME, Arrays.<DataType>asList(DataTypes.INTEGER)));
+
+        intRows = new RowN[NUM_ROWS];
+        stringRows = new RowN[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            int key = i % numKeys;
+            intRows[i] = new RowN(new Object[]{key, i});
+            stringRows[i] = new RowN(new Object[]{new BytesRef("key_" + key), i});
+        }
+    }
+
+    private GroupingProjector groupingProjector(DataType keyType, Blackhole blackhole) {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(1);
+        List<Input<?>> keyInputs = Arrays.<Input<?>>asList(keyInput);
+        CollectExpression[] collectExpressions = new CollectExpression[]{keyInput, valueInput};
+
+        FunctionInfo sumInfo = new FunctionInfo(sumAggregation.info().ident(), DataTypes.LONG, FunctionInfo.Type.AGGREGATE);
+        Aggregation aggregation = Aggregation.finalAggregation(sumInfo,
+                Arrays.<Symbol>asList(new InputColumn(1)), Aggregation.Step.ITER);
+        AggregationContext aggregationContext = new AggregationContext(sumAggregation, aggregation);
+        aggregationContext.addInput(valueInput);
+
+        GroupingProjector groupingProjector = new GroupingProjector(
+                Arrays.asList(keyType), keyInputs, collectExpressions,
+                new AggregationContext[]{aggregationContext}, RAM_ACCOUNTING_CONTEXT);
+        groupingProjector.downstream(new BlackholeRowReceiver(blackhole));
+        groupingProjector.prepare(mock(ExecutionState.class));
+        return groupingProjector;
+    }
+
+    @Benchmark
+    public void groupByIntegerSum(Blackhole blackhole) {
+        GroupingProjector groupingProjector = groupingProjector(DataTypes.INTEGER, blackhole);
+        for (RowN row : intRows) {
+            groupingProjector.setNextRow(row);
+        }
+        groupingProjector.finish();
+    }
+
+    @Benchmark
+    public void groupByStringSum(Blackhole blackhole) {
+        GroupingProjector groupingProjector = groupingProjector(DataTypes.STRING, blackhole);
+        for (RowN row : stringRows) {
+            groupingProjector.setNextRow(row);
+        }
+        groupingProjector.finish();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.analyze.WhereClause;
+import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.metadata.*;
+import io.crate.operation.operator.*;
+import io.crate.operation.operator.any.AnyEqOperator;
+import io.crate.planner.RowGranularity;
+import io.crate.planner.symbol.Function;
+import io.crate.planner.symbol.Literal;
+import io.crate.planner.symbol.Reference;
+import io.crate.planner.symbol.Symbol;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.index.cache.IndexCache;
+import org.elasticsearch.index.cache.filter.FilterCache;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.mapper.MapperService;
+import org.mockito.Answers;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * conversion of a where clause into a lucene query, done for every shard of a query
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class LuceneQueryBuilderBenchmark {
+
+    private static final TableIdent TABLE_IDENT = new TableIdent(null, "t");
+
+    private LuceneQueryBuilder builder;
+    private MapperService mapperService;
+    private IndexFieldDataService fieldDataService;
+    private IndexCache indexCache;
+
+    private WhereClause eqWhereClause;
+    private WhereClause complexWhereClause;
+
+    @Setup
+    public void prepare() {
+        Functions functions = new ModulesBuilder()
+                .add(new OperatorModule()).createInjector().getInstance(Functions.class);
+        builder = new LuceneQueryBuilder(functions);
+        mapperService = mock(MapperService.class, Answers.RETURNS_MOCKS.get());
+        fieldDataService = mock(IndexFieldDataService.class, Answers.RETURNS_MOCKS.get());
+        indexCache = mock(IndexCache.class, Answers.RETURNS_MOCKS.get());
+        FilterCache filterCache = mock(FilterCache.class);
+        when(indexCache.filter()).thenReturn(filterCache);
+        when(filterCache.cache(Matchers.any(Filter.class))).thenAnswer(new Answer<Filter>() {
+            @Override
+            public Filter answer(InvocationOnMock invocation) throws Throwable {
+                return (Filter) invocation.getArguments()[0];
+            }
+        });
+
+        Reference x = reference("x", DataTypes.INTEGER);
+        Reference name = reference("name", DataTypes.STRING);
+        Reference tags = reference("tags", new ArrayType(DataTypes.STRING));
+
+        // x = 10
+        eqWhereClause = new WhereClause(function(EqOperator.NAME, x, Literal.newLiteral(10)));
+        // (x > 10 and x <= 1000 and name like 'foo%') or 'bar' = any(tags)
+        complexWhereClause = new WhereClause(function(OrOperator.NAME,
+                function(AndOperator.NAME,
+                        function(AndOperator.NAME,
+                                function(GtOperator.NAME, x, Literal.newLiteral(10)),
+                                function(LteOperator.NAME, x, Literal.newLiteral(1000))),
+                        function(LikeOperator.NAME, name, Literal.newLiteral("foo%"))),
+                function(AnyEqOperator.NAME, Literal.newLiteral("bar"), tags)));
+    }
+
+    private static Reference reference(String name, DataType type) {
+        return new Reference(new ReferenceInfo(new ReferenceIdent(TABLE_IDENT, name), RowGranularity.DOC, type));
+    }
+
+    private static Function function(String name, Symbol... arguments) {
+        DataType[] argumentTypes = new DataType[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            argumentTypes[i] = arguments[i].valueType();
+        }
+        return new Function(
+                new FunctionInfo(new FunctionIdent(name, Arrays.asList(argumentTypes)), DataTypes.BOOLEAN),
+                Arrays.asList(arguments));
+    }
+
+    @Benchmark
+    public Query convertEq() {
+        return builder.convert(eqWhereClause, mapperService, fieldDataService, indexCache).query();
+    }
+
+    @Benchmark
+    public Query convertComplex() {
+        return builder.convert(complexWhereClause, mapperService, fieldDataService, indexCache).query();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.RowN;
+import io.crate.executor.transport.distributed.ModuloBucketBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ModuloBucketBuilderBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class ModuloBucketBuilderBenchmark {
+
+    static final int NUM_ROWS = 10_000;
+
+    @Param({"1", "8"})
+    public int numBuckets;
+
+    private RowN[] rows;
+
+    @Setup
+    public void prepare() {
+        rows = StreamBucketBenchmark.rows(NUM_ROWS);
+    }
+
+    @Benchmark
+    public Bucket[] addAndBuild() {
+        ModuloBucketBuilder builder = new ModuloBucketBuilder(StreamBucketBenchmark.STREAMERS, numBuckets);
+        for (RowN row : rows) {
+            builder.add(row);
+        }
+        Bucket[] buckets = new Bucket[numBuckets];
+        builder.build(buckets);
+        return buckets;
+    }
+}
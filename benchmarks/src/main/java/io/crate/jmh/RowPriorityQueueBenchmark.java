@@ -0,0 +1,65 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import com.google.common.collect.Ordering;
+import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.operation.projectors.sorting.RowPriorityQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(RowPriorityQueueBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class RowPriorityQueueBenchmark {
+
+    static final int NUM_ROWS = 100_000;
+
+    @Param({"10", "10000"})
+    public int maxSize;
+
+    private Object[][] rows;
+    private Ordering<Object[]> ordering;
+
+    @Setup
+    public void prepare() {
+        ordering = OrderingByPosition.arrayOrdering(new int[]{0, 1}, new boolean[]{false, true}, new Boolean[]{null, null});
+        Random random = new Random(42L);
+        rows = new Object[NUM_ROWS][];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = new Object[]{random.nextInt(100), random.nextLong()};
+        }
+    }
+
+    @Benchmark
+    public void insertWithOverflow(Blackhole blackhole) {
+        RowPriorityQueue<Object[]> queue = new RowPriorityQueue<>(maxSize, ordering);
+        for (Object[] row : rows) {
+            blackhole.consume(queue.insertWithOverflow(row));
+        }
+        blackhole.consume(queue.top());
+    }
+}
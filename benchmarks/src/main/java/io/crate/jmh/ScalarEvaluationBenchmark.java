@@ -0,0 +1,149 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Functions;
+import io.crate.operation.ImplementationSymbolVisitor;
+import io.crate.operation.Input;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.OperatorModule;
+import io.crate.operation.scalar.ScalarFunctionModule;
+import io.crate.operation.scalar.SubstrFunction;
+import io.crate.operation.scalar.arithmetic.AddFunction;
+import io.crate.operation.scalar.arithmetic.MultiplyFunction;
+import io.crate.planner.RowGranularity;
+import io.crate.planner.symbol.Function;
+import io.crate.planner.symbol.InputColumn;
+import io.crate.planner.symbol.Literal;
+import io.crate.planner.symbol.Symbol;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * evaluates scalar functions the way projections do:
+ * symbols are converted into {@link Input}s by the {@link ImplementationSymbolVisitor}
+ * and evaluated for every row
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ScalarEvaluationBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class ScalarEvaluationBenchmark {
+
+    static final int NUM_ROWS = 10_000;
+
+    private static final InputColumn X = new InputColumn(0, DataTypes.LONG);
+    private static final InputColumn NAME = new InputColumn(1, DataTypes.STRING);
+
+    private RowN[] rows;
+    private Evaluation arithmetic;
+    private Evaluation substr;
+    private Evaluation predicate;
+
+    @Setup
+    public void prepare() {
+        Functions functions = new ModulesBuilder()
+                .add(new ScalarFunctionModule())
+                .add(new OperatorModule())
+                .createInjector().getInstance(Functions.class);
+        ImplementationSymbolVisitor visitor = new ImplementationSymbolVisitor(null, functions, RowGranularity.DOC);
+
+        rows = new RowN[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = new RowN(new Object[]{(long) i, new BytesRef("name_" + i)});
+        }
+
+        // x * 2 + 1
+        arithmetic = new Evaluation(visitor, function(AddFunction.NAME, DataTypes.LONG,
+                function(MultiplyFunction.NAME, DataTypes.LONG, X, Literal.newLiteral(2L)),
+                Literal.newLiteral(1L)));
+        // substr(name, 1, 4)
+        substr = new Evaluation(visitor, function(SubstrFunction.NAME, DataTypes.STRING,
+                NAME, Literal.newLiteral(1), Literal.newLiteral(4)));
+        // x > 100 and x * 2 > 1000
+        predicate = new Evaluation(visitor, function(AndOperator.NAME, DataTypes.BOOLEAN,
+                function(GtOperator.NAME, DataTypes.BOOLEAN, X, Literal.newLiteral(100L)),
+                function(GtOperator.NAME, DataTypes.BOOLEAN,
+                        function(MultiplyFunction.NAME, DataTypes.LONG, X, Literal.newLiteral(2L)),
+                        Literal.newLiteral(1000L))));
+    }
+
+    private static Function function(String name, DataType returnType, Symbol... arguments) {
+        DataType[] argumentTypes = new DataType[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            argumentTypes[i] = arguments[i].valueType();
+        }
+        return new Function(
+                new FunctionInfo(new FunctionIdent(name, Arrays.asList(argumentTypes)), returnType),
+                Arrays.asList(arguments));
+    }
+
+    @Benchmark
+    public void arithmetic(Blackhole blackhole) {
+        arithmetic.evaluate(rows, blackhole);
+    }
+
+    @Benchmark
+    public void substr(Blackhole blackhole) {
+        substr.evaluate(rows, blackhole);
+    }
+
+    @Benchmark
+    public void predicate(Blackhole blackhole) {
+        predicate.evaluate(rows, blackhole);
+    }
+
+    private static class Evaluation {
+
+        private final Input<?> input;
+        private final Set<CollectExpression<Row, ?>> collectExpressions;
+
+        Evaluation(ImplementationSymbolVisitor visitor, Symbol symbol) {
+            ImplementationSymbolVisitor.Context context = visitor.extractImplementations(symbol);
+            input = context.topLevelInputs().get(0);
+            collectExpressions = context.collectExpressions();
+        }
+
+        void evaluate(RowN[] rows, Blackhole blackhole) {
+            for (RowN row : rows) {
+                for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                    collectExpression.setNextRow(row);
+                }
+                blackhole.consume(input.value());
+            }
+        }
+    }
+}
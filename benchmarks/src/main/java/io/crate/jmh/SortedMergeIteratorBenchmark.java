@@ -0,0 +1,74 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.operation.merge.SortedPagingIterator;
+import io.crate.operation.projectors.sorting.OrderingByPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * merges sorted buckets (like the pages of sorted shard results on the handler)
+ * using the {@link io.crate.operation.merge.SortedMergeIterator} behind {@link SortedPagingIterator}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(SortedMergeIteratorBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class SortedMergeIteratorBenchmark {
+
+    static final int NUM_ROWS = 100_000;
+
+    @Param({"2", "20"})
+    public int numBuckets;
+
+    private List<List<Row>> buckets;
+
+    @Setup
+    public void prepare() {
+        buckets = new ArrayList<>(numBuckets);
+        for (int b = 0; b < numBuckets; b++) {
+            buckets.add(new ArrayList<Row>(NUM_ROWS / numBuckets));
+        }
+        // every bucket is sorted, values are interleaved across the buckets
+        for (int i = 0; i < NUM_ROWS; i++) {
+            buckets.get(i % numBuckets).add(new RowN(new Object[]{i}));
+        }
+    }
+
+    @Benchmark
+    public void mergeSortedBuckets(Blackhole blackhole) {
+        SortedPagingIterator<Row> iterator = new SortedPagingIterator<>(
+                OrderingByPosition.rowOrdering(0, false, null));
+        iterator.merge(buckets);
+        iterator.finish();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
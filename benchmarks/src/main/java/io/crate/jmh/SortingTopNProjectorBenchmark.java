@@ -0,0 +1,85 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.Input;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.operation.projectors.SortingTopNProjector;
+import io.crate.operation.projectors.sorting.OrderingByPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(SortingTopNProjectorBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class SortingTopNProjectorBenchmark {
+
+    static final int NUM_ROWS = 100_000;
+
+    private static final Ordering<Object[]> FIRST_CELL_ORDERING = OrderingByPosition.arrayOrdering(0, false, null);
+
+    @Param({"10", "10000"})
+    public int limit;
+
+    private RowN[] rows;
+
+    @Setup
+    public void prepare() {
+        Random random = new Random(42L);
+        rows = new RowN[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = new RowN(new Object[]{random.nextInt(), i});
+        }
+    }
+
+    @Benchmark
+    public void sortingTopN(Blackhole blackhole) {
+        InputCollectExpression first = new InputCollectExpression(0);
+        InputCollectExpression second = new InputCollectExpression(1);
+        SortingTopNProjector projector = new SortingTopNProjector(
+                ImmutableList.<Input<?>>of(first, second),
+                ImmutableList.<CollectExpression<Row, ?>>of(first, second),
+                2,
+                FIRST_CELL_ORDERING,
+                limit,
+                0
+        );
+        projector.downstream(new BlackholeRowReceiver(blackhole));
+        projector.prepare(mock(ExecutionState.class));
+        for (RowN row : rows) {
+            projector.setNextRow(row);
+        }
+        projector.finish();
+    }
+}
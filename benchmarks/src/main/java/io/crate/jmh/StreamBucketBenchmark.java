@@ -0,0 +1,93 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jmh;
+
+import io.crate.Streamer;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(StreamBucketBenchmark.NUM_ROWS)
+@State(Scope.Benchmark)
+public class StreamBucketBenchmark {
+
+    static final int NUM_ROWS = 10_000;
+
+    static final Streamer<?>[] STREAMERS = new Streamer[]{
+            DataTypes.INTEGER.streamer(),
+            DataTypes.LONG.streamer(),
+            DataTypes.STRING.streamer(),
+            DataTypes.DOUBLE.streamer()
+    };
+
+    private RowN[] rows;
+    private BytesReference serialized;
+
+    static RowN[] rows(int numRows) {
+        RowN[] rows = new RowN[numRows];
+        for (int i = 0; i < numRows; i++) {
+            rows[i] = new RowN(new Object[]{i, (long) i * 31, new BytesRef("value_" + i), i / 3.0d});
+        }
+        return rows;
+    }
+
+    @Setup
+    public void prepare() throws IOException {
+        rows = rows(NUM_ROWS);
+        serialized = serialize();
+    }
+
+    private BytesReference serialize() throws IOException {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS);
+        for (RowN row : rows) {
+            builder.add(row);
+        }
+        BytesStreamOutput out = new BytesStreamOutput();
+        builder.build().writeTo(out);
+        return out.bytes();
+    }
+
+    @Benchmark
+    public BytesReference serializeBucket() throws IOException {
+        return serialize();
+    }
+
+    @Benchmark
+    public void deserializeBucket(Blackhole blackhole) throws IOException {
+        StreamBucket bucket = new StreamBucket(STREAMERS);
+        bucket.readFrom(serialized.streamInput());
+        for (Row row : bucket) {
+            blackhole.consume(row.get(0));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.core.collections;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, thread-safe queue which overwrites its oldest element once it is full.
+ *
+ * The slots are preallocated and writers claim a slot with a single atomic increment,
+ * so {@link #offer(Object)} never blocks and never contends on a lock.
+ *
+ * Iteration is weakly consistent: it returns the elements from oldest to newest
+ * as they were at the time the iterator was created, but an element might already
+ * have been replaced by a newer one if writers overtake the iterator.
+ *
+ * {@link #poll()} removes the oldest element. If writers overtake a concurrent poll the
+ * returned element might already have been overwritten in the buffer.
+ */
+public class RingBuffer<E> extends AbstractQueue<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLong offered = new AtomicLong(0L);
+    private final AtomicLong polled = new AtomicLong(0L);
+
+    public RingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be greater than 0");
+        slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Preconditions.checkNotNull(e, "element must not be null");
+        long pos = offered.getAndIncrement();
+        slots.set(slot(pos), e);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        while (true) {
+            long head = polled.get();
+            long end = offered.get();
+            long pos = start(head, end);
+            if (pos >= end) {
+                return null;
+            }
+            int slot = slot(pos);
+            E e = slots.get(slot);
+            if (polled.compareAndSet(head, pos + 1)) {
+                if (e != null) {
+                    // a writer which overtook the poll may have replaced the element already
+                    slots.compareAndSet(slot, e, null);
+                    return e;
+                }
+                // the slot was claimed but not written yet, skip it
+            }
+        }
+    }
+
+    @Override
+    public E peek() {
+        long end = offered.get();
+        for (long pos = start(polled.get(), end); pos < end; pos++) {
+            E e = slots.get(slot(pos));
+            if (e != null) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        long end = offered.get();
+        return (int) (end - start(polled.get(), end));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final long end = offered.get();
+        final long start = start(polled.get(), end);
+        return new AbstractIterator<E>() {
+
+            long pos = start;
+
+            @Override
+            protected E computeNext() {
+                while (pos < end) {
+                    // a slot might have been claimed but not written yet
+                    E e = slots.get(slot(pos++));
+                    if (e != null) {
+                        return e;
+                    }
+                }
+                return endOfData();
+            }
+        };
+    }
+
+    /**
+     * @return the position of the oldest element which is neither polled nor overwritten
+     */
+    private long start(long head, long end) {
+        return Math.min(end, Math.max(head, end - slots.length()));
+    }
+
+    private int slot(long pos) {
+        return (int) (pos % slots.length());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.core.collections;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+
+/**
+ * A batch of rows which are stored column by column.
+ *
+ * Rows are appended with {@link #add()} and their values are written with {@link #set(int, int, Object)}.
+ * A selection vector holds the positions of the rows which are still part of the batch,
+ * so filtering a batch with {@link #retain(Predicate)} doesn't have to move any values.
+ *
+ * The rows of a batch are accessed by their index within the selection using {@link #row(int)}.
+ * A batch is usually reused by its producer once it has been passed on and should
+ * therefore not be retained by a consumer.
+ */
+public class RowBatch {
+
+    private final Object[][] columns;
+    private final int[] selection;
+    private final BatchRow row = new BatchRow();
+    private int numPositions = 0;
+    private int size = 0;
+
+    public RowBatch(int numColumns, int capacity) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be greater than 0");
+        columns = new Object[numColumns][capacity];
+        selection = new int[capacity];
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    public int capacity() {
+        return selection.length;
+    }
+
+    /**
+     * @return the number of selected rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return true if no more rows can be added before the batch is cleared
+     */
+    public boolean isFull() {
+        return numPositions == selection.length;
+    }
+
+    /**
+     * appends a new selected row to the batch
+     *
+     * @return the position of the new row, used to set its values
+     */
+    public int add() {
+        assert !isFull() : "batch is full";
+        int position = numPositions++;
+        selection[size++] = position;
+        return position;
+    }
+
+    /**
+     * appends a copy of the values of <code>row</code>
+     */
+    public void add(Row row) {
+        assert row.size() == columns.length : "row size must match the number of columns";
+        int position = add();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][position] = row.get(i);
+        }
+    }
+
+    public void set(int position, int column, Object value) {
+        columns[column][position] = value;
+    }
+
+    /**
+     * @return the column values of all positions, including the ones which aren't selected anymore
+     */
+    public Object[] column(int column) {
+        return columns[column];
+    }
+
+    /**
+     * @return the position of the selected row with the given index
+     */
+    public int position(int index) {
+        assert index < size : "index must be less than size";
+        return selection[index];
+    }
+
+    /**
+     * @return a view of the selected row with the given index.
+     * The same instance is returned on every call and moved to the requested row.
+     */
+    public Row row(int index) {
+        row.position = position(index);
+        return row;
+    }
+
+    /**
+     * removes all rows from the selection which don't match <code>predicate</code>
+     */
+    public void retain(Predicate<? super Row> predicate) {
+        int retained = 0;
+        for (int i = 0; i < size; i++) {
+            if (predicate.apply(row(i))) {
+                selection[retained++] = selection[i];
+            }
+        }
+        size = retained;
+    }
+
+    /**
+     * removes all rows, the column values are overwritten once new rows are added
+     */
+    public void clear() {
+        numPositions = 0;
+        size = 0;
+    }
+
+    private class BatchRow implements Row {
+
+        private int position;
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+
+        @Override
+        public Object get(int index) {
+            return columns[index][position];
+        }
+
+        @Override
+        public Object[] materialize() {
+            Object[] result = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                result[i] = columns[i][position];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.core.collections;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class RingBufferTest extends CrateUnitTest {
+
+    @Test
+    public void testOverwritesOldestElements() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertThat(buffer.size(), is(0));
+        assertThat(buffer.peek(), is((Integer) null));
+
+        buffer.addAll(ImmutableList.of(1, 2));
+        assertThat(buffer.size(), is(2));
+        assertThat(buffer, contains(1, 2));
+
+        buffer.addAll(ImmutableList.of(3, 4, 5));
+        assertThat(buffer.size(), is(3));
+        assertThat(buffer.peek(), is(3));
+        assertThat(buffer, contains(3, 4, 5));
+    }
+
+    @Test
+    public void testPollRemovesOldestElement() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertThat(buffer.poll(), is((Integer) null));
+
+        buffer.addAll(ImmutableList.of(1, 2, 3, 4));
+        assertThat(buffer.poll(), is(2));
+        assertThat(buffer.size(), is(2));
+        assertThat(buffer, contains(3, 4));
+
+        buffer.offer(5);
+        buffer.offer(6);
+        assertThat(buffer, contains(4, 5, 6));
+        assertThat(buffer.remove(), is(4));
+        assertThat(buffer.peek(), is(5));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        buffer.addAll(ImmutableList.of(1, 2, 3, 4));
+        buffer.clear();
+        assertThat(buffer.size(), is(0));
+        assertThat(buffer.iterator().hasNext(), is(false));
+
+        buffer.offer(5);
+        assertThat(buffer, contains(5));
+    }
+
+    @Test
+    public void testConcurrentOffer() throws Exception {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(100);
+        final CountDownLatch latch = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        buffer.offer(i);
+                    }
+                    latch.countDown();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        latch.await();
+        assertThat(buffer.size(), is(100));
+        int count = 0;
+        for (Integer ignored : buffer) {
+            count++;
+        }
+        assertThat(count, is(100));
+    }
+}
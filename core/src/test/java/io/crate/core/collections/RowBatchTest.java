@@ -0,0 +1,83 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.core.collections;
+
+import com.google.common.base.Predicate;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+
+public class RowBatchTest extends CrateUnitTest {
+
+    private static RowBatch batchOf(int numRows) {
+        RowBatch batch = new RowBatch(2, 4);
+        for (int i = 0; i < numRows; i++) {
+            int position = batch.add();
+            batch.set(position, 0, i);
+            batch.set(position, 1, "r" + i);
+        }
+        return batch;
+    }
+
+    @Test
+    public void testAddAndGet() throws Exception {
+        RowBatch batch = batchOf(3);
+        assertThat(batch.size(), is(3));
+        assertThat(batch.isFull(), is(false));
+        assertThat(batch.row(1).get(0), is((Object) 1));
+        assertThat(batch.row(2).materialize(), arrayContaining((Object) 2, "r2"));
+
+        batch.add(new RowN(new Object[]{3, "r3"}));
+        assertThat(batch.isFull(), is(true));
+        assertThat(batch.row(3).get(1), is((Object) "r3"));
+    }
+
+    @Test
+    public void testRetainUpdatesSelection() throws Exception {
+        RowBatch batch = batchOf(4);
+        batch.retain(new Predicate<Row>() {
+            @Override
+            public boolean apply(@Nullable Row input) {
+                assert input != null;
+                return (Integer) input.get(0) % 2 == 1;
+            }
+        });
+        assertThat(batch.size(), is(2));
+        assertThat(batch.position(0), is(1));
+        assertThat(batch.row(1).materialize(), arrayContaining((Object) 3, "r3"));
+        // filtered rows still occupy their position
+        assertThat(batch.isFull(), is(true));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        RowBatch batch = batchOf(4);
+        batch.clear();
+        assertThat(batch.isEmpty(), is(true));
+        assertThat(batch.isFull(), is(false));
+        assertThat(batch.add(), is(0));
+    }
+}
@@ -459,6 +459,11 @@ public final class SqlFormatter {
                         .append(Joiner.on(",").join(node.getColumnsToStratifyOn().get()));
                 builder.append(')');
             }
+            if (node.getSeed().isPresent()) {
+                builder.append(" REPEATABLE (")
+                        .append(node.getSeed().get())
+                        .append(')');
+            }
 
             return null;
         }
@@ -45,6 +45,7 @@ tokens {
     EXPLAIN_OPTIONS;
     EXPLAIN_FORMAT;
     EXPLAIN_TYPE;
+    EXPLAIN_ANALYZE;
     TABLE;
     JOINED_TABLE;
     QUALIFIED_JOIN;
@@ -197,10 +198,8 @@ statement
 //    | showFunctionsStmt
     | showCreateTableStmt
     | CREATE createStatement -> createStatement
-//    | createMaterializedViewStmt
     | ALTER alterStatement -> alterStatement
     | DROP dropStatement -> dropStatement
-//    | refreshMaterializedViewStmt
     | insertStmt
     | deleteStmt
     | updateStmt
@@ -343,9 +342,13 @@ stratifyOn
     : STRATIFY ON '(' expr (',' expr)* ')' -> ^(STRATIFY_ON expr+)
     ;
 
+repeatable
+    : REPEATABLE '(' expr ')' -> ^(REPEATABLE expr)
+    ;
+
 tableFactor
     : ( tablePrimary -> tablePrimary )
-      ( TABLESAMPLE sampleType '(' expr ')' stratifyOn? -> ^(SAMPLED_RELATION $tableFactor sampleType expr stratifyOn?) )?
+      ( TABLESAMPLE sampleType '(' expr ')' stratifyOn? repeatable? -> ^(SAMPLED_RELATION $tableFactor sampleType expr stratifyOn? repeatable?) )?
     ;
 
 tablePrimary
@@ -646,7 +649,8 @@ frameBound
     ;
 
 explainStmt
-    : EXPLAIN explainOptions? statement -> ^(EXPLAIN explainOptions? statement)
+    : EXPLAIN ANALYZE statement -> ^(EXPLAIN_ANALYZE statement)
+    | EXPLAIN explainOptions? statement -> ^(EXPLAIN explainOptions? statement)
     ;
 
 explainOptions
@@ -703,15 +707,15 @@ showCreateTableStmt
     ;
 
 createMaterializedViewStmt
-    : CREATE MATERIALIZED VIEW qname r=viewRefresh? AS s=restrictedSelectStmt -> ^(CREATE_MATERIALIZED_VIEW qname $r? $s)
+    : qname i=viewIncremental? AS query -> ^(CREATE_MATERIALIZED_VIEW qname $i? query)
     ;
 
 refreshMaterializedViewStmt
     : REFRESH MATERIALIZED VIEW qname -> ^(REFRESH_MATERIALIZED_VIEW qname)
     ;
 
-viewRefresh
-    : REFRESH r=integer -> ^(REFRESH $r)
+viewIncremental
+    : INCREMENTAL ON ident -> ^(INCREMENTAL ident)
     ;
 
 forRemote
@@ -825,6 +829,7 @@ createStatement
     | BLOB TABLE createBlobTableStmt -> createBlobTableStmt
     | ALIAS createAliasStmt -> createAliasStmt
     | ANALYZER createAnalyzerStmt -> createAnalyzerStmt
+    | MATERIALIZED VIEW createMaterializedViewStmt -> createMaterializedViewStmt
     ;
 
 createTableStmt
@@ -1027,6 +1032,7 @@ tableWithPartitionList
 
 refreshStmt
     : REFRESH TABLE tableWithPartitionList -> ^(REFRESH tableWithPartitionList)
+    | refreshMaterializedViewStmt
     ;
 
 setStmt
@@ -1048,12 +1054,12 @@ killStmt
     ;
 
 nonReserved
-    : ALIAS | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
+    : ALIAS | ANALYZE | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
     | COLUMNS | COPY | CURRENT | DATE | DAY | DISTRIBUTED | DUPLICATE | DYNAMIC | EXPLAIN
     | EXTENDS | FOLLOWING | FORMAT | FULLTEXT | FUNCTIONS | GEO_POINT | GLOBAL
-    | GRAPHVIZ | HOUR | IGNORED | INTERVAL | KEY | KILL | LOGICAL | MATERIALIZED | MINUTE
+    | GRAPHVIZ | HOUR | IGNORED | INCREMENTAL | INTERVAL | KEY | KILL | LOGICAL | MATERIALIZED | MINUTE
     | MONTH | OFF | ONLY | OVER | PARTITION | PARTITIONED | PARTITIONS | PLAIN
-    | PRECEDING | RANGE | REFRESH | ROW | ROWS | SCHEMAS | SECOND
+    | PRECEDING | RANGE | REFRESH | REPEATABLE | ROW | ROWS | SCHEMAS | SECOND
     | SHARDS | SHOW | STRICT | SYSTEM | TABLES | TABLESAMPLE | TEXT | TIME
     | TIMESTAMP | TO | TOKENIZER | TOKEN_FILTERS | TYPE | VALUES | VIEW | YEAR
     ;
@@ -1163,6 +1169,7 @@ GLOBAL : 'GLOBAL';
 CONSTRAINT: 'CONSTRAINT';
 DESCRIBE: 'DESCRIBE';
 EXPLAIN: 'EXPLAIN';
+ANALYZE: 'ANALYZE';
 FORMAT: 'FORMAT';
 TYPE: 'TYPE';
 TEXT: 'TEXT';
@@ -1179,6 +1186,7 @@ COLUMNS: 'COLUMNS';
 PARTITIONS: 'PARTITIONS';
 FUNCTIONS: 'FUNCTIONS';
 MATERIALIZED: 'MATERIALIZED';
+INCREMENTAL: 'INCREMENTAL';
 VIEW: 'VIEW';
 REFRESH: 'REFRESH';
 DROP: 'DROP';
@@ -1190,6 +1198,7 @@ SYSTEM: 'SYSTEM';
 BERNOULLI: 'BERNOULLI';
 TABLESAMPLE: 'TABLESAMPLE';
 STRATIFY: 'STRATIFY';
+REPEATABLE: 'REPEATABLE';
 INSERT: 'INSERT';
 INTO: 'INTO';
 VALUES: 'VALUES';
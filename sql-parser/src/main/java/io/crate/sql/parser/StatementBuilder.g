@@ -269,6 +269,10 @@ stratifyOn returns [List<Expression> value]
     : ^(STRATIFY_ON exprList) { $value = $exprList.value; }
     ;
 
+repeatable returns [Expression value]
+    : ^(REPEATABLE expr) { $value = $expr.value; }
+    ;
+
 relationList returns [List<Relation> value = new ArrayList<>()]
     : ( relation { $value.add($relation.value); } )+
     ;
@@ -305,7 +309,7 @@ aliasedRelation returns [AliasedRelation value]
     ;
 
 sampledRelation returns [SampledRelation value]
-    : ^(SAMPLED_RELATION r=relation t=sampleType p=expr st=stratifyOn?) { $value = new SampledRelation($r.value, $t.value, $p.value, Optional.fromNullable($st.value)); }
+    : ^(SAMPLED_RELATION r=relation t=sampleType p=expr st=stratifyOn? rp=repeatable?) { $value = new SampledRelation($r.value, $t.value, $p.value, Optional.fromNullable($st.value), Optional.fromNullable($rp.value)); }
     ;
 
 aliasedColumns returns [List<String> value]
@@ -577,6 +581,7 @@ whenList returns [List<WhenClause> value = new ArrayList<>()]
 
 explain returns [Statement value]
     : ^(EXPLAIN explainOptions? statement) { $value = new Explain($statement.value, $explainOptions.value); }
+    | ^(EXPLAIN_ANALYZE statement) { $value = new Explain($statement.value, null, true); }
     ;
 
 explainOptions returns [List<ExplainOption> value = new ArrayList<>()]
@@ -641,16 +646,16 @@ showCreateTable returns [Statement value]
     ;
 
 createMaterializedView returns [Statement value]
-    : ^(CREATE_MATERIALIZED_VIEW qname refreshView=viewRefresh? select=restrictedSelectStmt)
-        { $value = new CreateMaterializedView($qname.value, Optional.fromNullable($refreshView.value), $select.value); }
+    : ^(CREATE_MATERIALIZED_VIEW qname incremental=viewIncremental? query)
+        { $value = new CreateMaterializedView($qname.value, Optional.fromNullable($incremental.value), $query.value); }
     ;
 
 refreshMaterializedView returns [Statement value]
     : ^(REFRESH_MATERIALIZED_VIEW qname) { $value = new RefreshMaterializedView($qname.value); }
     ;
 
-viewRefresh returns [String value]
-    : ^(REFRESH integer) { $value = $integer.value; }
+viewIncremental returns [String value]
+    : ^(INCREMENTAL ident) { $value = $ident.value; }
     ;
 
 createAlias returns [Statement value]
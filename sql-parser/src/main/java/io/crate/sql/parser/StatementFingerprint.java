@@ -0,0 +1,133 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.sql.parser;
+
+import com.google.common.base.Joiner;
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalizes a SQL statement so that statements which only differ in their literals,
+ * parameter placeholders, casing of keywords and identifiers, whitespace or comments
+ * result in the same fingerprint.
+ *
+ * <pre>
+ *     select name from t where id in (1, 2, 3) -- comment
+ *     SELECT name FROM t WHERE id IN (?)
+ * </pre>
+ *
+ * Only the lexer is used, so computing a fingerprint is cheap and doesn't require a valid statement.
+ */
+public final class StatementFingerprint {
+
+    private static final String PLACEHOLDER = "?";
+    private static final Joiner JOINER = Joiner.on("");
+
+    private StatementFingerprint() {}
+
+    public static String of(String sql) {
+        StatementLexer lexer = new StatementLexer(new CaseInsensitiveStream(new ANTLRStringStream(sql)));
+        List<String> parts = new ArrayList<>();
+        String previous = null;
+        int previousType = Token.INVALID_TOKEN_TYPE;
+        try {
+            for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+                if (token.getChannel() == Token.HIDDEN_CHANNEL) {
+                    continue;
+                }
+                String text = normalize(token);
+                if (text.equals(PLACEHOLDER)) {
+                    if ("$".equals(previous)) {
+                        // $1 style parameter
+                        parts.remove(parts.size() - 1);
+                        previous = parts.isEmpty() ? null : parts.get(parts.size() - 1).trim();
+                    }
+                    if (",".equals(previous) && parts.size() > 1 && parts.get(parts.size() - 2).trim().equals(PLACEHOLDER)) {
+                        // collapse lists of literals like (1, 2, 3) into (?)
+                        parts.remove(parts.size() - 1);
+                        previous = PLACEHOLDER;
+                        continue;
+                    }
+                }
+                parts.add(needsSpace(previous, previousType, text) ? " " + text : text);
+                previous = text;
+                previousType = token.getType();
+            }
+        } catch (ParsingException e) {
+            // can't be tokenized, use the statement as it is
+            return sql;
+        }
+        return JOINER.join(parts);
+    }
+
+    private static String normalize(Token token) {
+        switch (token.getType()) {
+            case StatementLexer.STRING:
+            case StatementLexer.INTEGER_VALUE:
+            case StatementLexer.DECIMAL_VALUE:
+                return PLACEHOLDER;
+            case StatementLexer.IDENT:
+            case StatementLexer.DIGIT_IDENT:
+            case StatementLexer.COLON_IDENT:
+                return token.getText().toLowerCase(Locale.ENGLISH);
+            case StatementLexer.QUOTED_IDENT:
+            case StatementLexer.BACKQUOTED_IDENT:
+                return '"' + token.getText().replace("\"", "\"\"") + '"';
+            default:
+                return token.getText().toUpperCase(Locale.ENGLISH);
+        }
+    }
+
+    private static boolean needsSpace(String previous, int previousType, String text) {
+        if (previous == null) {
+            return false;
+        }
+        switch (text) {
+            case ",":
+            case ")":
+            case "]":
+            case ".":
+                return false;
+            case "(":
+            case "[":
+                return !isIdentifier(previousType);
+        }
+        switch (previous) {
+            case "(":
+            case "[":
+            case ".":
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isIdentifier(int tokenType) {
+        return tokenType == StatementLexer.IDENT
+               || tokenType == StatementLexer.DIGIT_IDENT
+               || tokenType == StatementLexer.QUOTED_IDENT
+               || tokenType == StatementLexer.BACKQUOTED_IDENT;
+    }
+}
@@ -31,13 +31,13 @@ public class CreateMaterializedView
         extends Statement
 {
     private final QualifiedName name;
-    private final Optional<String> refresh;
+    private final Optional<String> incrementalColumn;
     private final Query tableDefinition;
 
-    public CreateMaterializedView(QualifiedName name, Optional<String> refresh, Query tableDefinition)
+    public CreateMaterializedView(QualifiedName name, Optional<String> incrementalColumn, Query tableDefinition)
     {
         this.name = checkNotNull(name, "name is null");
-        this.refresh = checkNotNull(refresh, "refresh is null");
+        this.incrementalColumn = checkNotNull(incrementalColumn, "incrementalColumn is null");
         this.tableDefinition = checkNotNull(tableDefinition, "tableDefinition is null");
     }
 
@@ -46,9 +46,12 @@ public class CreateMaterializedView
         return name;
     }
 
-    public Optional<String> getRefresh()
+    /**
+     * column of the source table which is used to detect rows that were added since the last refresh
+     */
+    public Optional<String> getIncrementalColumn()
     {
-        return refresh;
+        return incrementalColumn;
     }
 
     public Query getTableDefinition()
@@ -65,7 +68,7 @@ public class CreateMaterializedView
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(name, refresh, tableDefinition);
+        return Objects.hashCode(name, incrementalColumn, tableDefinition);
     }
 
     @Override
@@ -79,7 +82,7 @@ public class CreateMaterializedView
         }
         CreateMaterializedView o = (CreateMaterializedView) obj;
         return Objects.equal(name, o.name)
-                && Objects.equal(refresh, o.refresh)
+                && Objects.equal(incrementalColumn, o.incrementalColumn)
                 && Objects.equal(tableDefinition, o.tableDefinition);
     }
 
@@ -88,7 +91,7 @@ public class CreateMaterializedView
     {
         return MoreObjects.toStringHelper(this)
                 .add("name", name)
-                .add("refresh", refresh)
+                .add("incrementalColumn", incrementalColumn)
                 .add("tableDefinition", tableDefinition)
                 .toString();
     }
@@ -388,6 +388,9 @@ public abstract class DefaultTraversalVisitor<R, C>
                 process(expression, context);
             }
         }
+        if (node.getSeed().isPresent()) {
+            process(node.getSeed().get(), context);
+        }
         return null;
     }
 
@@ -43,8 +43,18 @@ public class SampledRelation
     private final Type type;
     private final Expression samplePercentage;
     private final Optional<List<Expression>> columnsToStratifyOn;
+    private final Optional<Expression> seed;
 
     public SampledRelation(Relation relation, Type type, Expression samplePercentage, Optional<List<Expression>> columnsToStratifyOn)
+    {
+        this(relation, type, samplePercentage, columnsToStratifyOn, Optional.<Expression>absent());
+    }
+
+    public SampledRelation(Relation relation,
+                           Type type,
+                           Expression samplePercentage,
+                           Optional<List<Expression>> columnsToStratifyOn,
+                           Optional<Expression> seed)
     {
         this.relation = checkNotNull(relation, "relation is null");
         this.type = checkNotNull(type, "type is null");
@@ -55,7 +65,7 @@ public class SampledRelation
         } else {
             this.columnsToStratifyOn = columnsToStratifyOn;
         }
-
+        this.seed = checkNotNull(seed, "seed is null");
     }
 
     public Relation getRelation()
@@ -78,6 +88,14 @@ public class SampledRelation
         return columnsToStratifyOn;
     }
 
+    /**
+     * the seed given with <code>REPEATABLE (seed)</code>
+     */
+    public Optional<Expression> getSeed()
+    {
+        return seed;
+    }
+
     @Override
     public <R, C> R accept(AstVisitor<R, C> visitor, C context)
     {
@@ -92,6 +110,7 @@ public class SampledRelation
                 .add("type", type)
                 .add("samplePercentage", samplePercentage)
                 .add("columnsToStratifyOn", columnsToStratifyOn)
+                .add("seed", seed)
                 .toString();
     }
 
@@ -108,12 +127,13 @@ public class SampledRelation
         return Objects.equal(relation, that.relation) &&
                 Objects.equal(type, that.type) &&
                 Objects.equal(samplePercentage, that.samplePercentage) &&
-                Objects.equal(columnsToStratifyOn, that.columnsToStratifyOn);
+                Objects.equal(columnsToStratifyOn, that.columnsToStratifyOn) &&
+                Objects.equal(seed, that.seed);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(relation, type, samplePercentage, columnsToStratifyOn);
+        return Objects.hashCode(relation, type, samplePercentage, columnsToStratifyOn, seed);
     }
 }
@@ -278,8 +278,12 @@ public class TreePrinter
                 if (node.getColumnsToStratifyOn().isPresent()) {
                     stratifyOn = " STRATIFY ON (" + node.getColumnsToStratifyOn().get().toString() + ")";
                 }
+                String seed = "";
+                if (node.getSeed().isPresent()) {
+                    seed = " REPEATABLE (" + node.getSeed().get() + ")";
+                }
 
-                print(indentLevel, "TABLESAMPLE[" + node.getType() + " (" + node.getSamplePercentage() + ")" + stratifyOn + "]");
+                print(indentLevel, "TABLESAMPLE[" + node.getType() + " (" + node.getSamplePercentage() + ")" + stratifyOn + seed + "]");
 
                 super.visitSampledRelation(node, indentLevel + 1);
 
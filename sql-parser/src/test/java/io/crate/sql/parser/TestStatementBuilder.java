@@ -97,6 +97,8 @@ public class TestStatementBuilder
         printStatement("select * from foo tablesample system (10) join bar tablesample bernoulli (30) on a.id = b.id");
         printStatement("select * from foo tablesample bernoulli (10) stratify on (id)");
         printStatement("select * from foo tablesample system (50) stratify on (id, name)");
+        printStatement("select * from foo tablesample bernoulli (10) repeatable (42)");
+        printStatement("select * from foo f tablesample system (?) repeatable (?)");
 
         printStatement("select * from foo limit 100 offset 20");
         printStatement("select * from foo offset 20");
@@ -315,6 +317,35 @@ public class TestStatementBuilder
         printStatement("insert into foo (select sum(money), name from bar group by name)");
     }
 
+    @Test
+    public void testMaterializedView() throws Exception {
+        printStatement("create materialized view v as select name, count(*) from t group by name");
+        printStatement("create materialized view s.v incremental on ts as " +
+                       "select name, sum(x) as s from t where x > 0 group by name");
+        printStatement("refresh materialized view v");
+        printStatement("refresh materialized view s.v");
+
+        CreateMaterializedView createView = (CreateMaterializedView) SqlParser.createStatement(
+                "create materialized view v incremental on ts as select name, count(*) from t group by name");
+        assertThat(createView.getName(), is(QualifiedName.of("v")));
+        assertThat(createView.getIncrementalColumn().get(), is("ts"));
+        assertThat(SqlFormatter.formatSql(createView.getTableDefinition()),
+                is(SqlFormatter.formatSql(SqlParser.createStatement("select name, count(*) from t group by name"))));
+    }
+
+    @Test
+    public void testExplainAnalyze() throws Exception {
+        printStatement("explain analyze select * from foo");
+        printStatement("explain analyze select name, count(*) from foo group by name");
+
+        Explain explain = (Explain) SqlParser.createStatement("explain analyze select * from foo");
+        assertThat(explain.isAnalyze(), is(true));
+        assertThat(explain.getStatement(), instanceOf(Query.class));
+        assertThat(((Explain) SqlParser.createStatement("explain select * from foo")).isAnalyze(), is(false));
+        // analyze isn't reserved
+        printStatement("select analyze from foo");
+    }
+
     @Test
     public void testSetGlobal() throws Exception {
         printStatement("set global sys.cluster['some_settings'] = '1'");
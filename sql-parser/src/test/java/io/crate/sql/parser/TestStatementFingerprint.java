@@ -0,0 +1,67 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.sql.parser;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestStatementFingerprint
+{
+    @Test
+    public void testLiteralsAreReplaced()
+    {
+        assertEquals(StatementFingerprint.of("select name from t where id = 1 and name = 'foo' and x > 1.5"),
+                "SELECT name FROM t WHERE id = ? AND name = ? AND x > ?");
+    }
+
+    @Test
+    public void testParametersAreReplaced()
+    {
+        assertEquals(StatementFingerprint.of("select * from t where id = $1 and name = ?"),
+                "SELECT * FROM t WHERE id = ? AND name = ?");
+    }
+
+    @Test
+    public void testListsAreCollapsed()
+    {
+        assertEquals(StatementFingerprint.of("insert into t (id, name) values (1, 'a')"),
+                "INSERT INTO t(id, name) VALUES (?)");
+        assertEquals(StatementFingerprint.of("select * from t where id in (1, 2, 3)"),
+                StatementFingerprint.of("select * from t where id in (4)"));
+    }
+
+    @Test
+    public void testCaseWhitespaceAndCommentsAreIgnored()
+    {
+        assertEquals(StatementFingerprint.of("SELECT  count(*)\n FROM Doc.T -- comment"),
+                "SELECT count(*) FROM doc.t");
+        assertEquals(StatementFingerprint.of("select \"Name\" from t"),
+                "SELECT \"Name\" FROM t");
+    }
+
+    @Test
+    public void testInvalidStatementIsReturnedAsIs()
+    {
+        assertEquals(StatementFingerprint.of("select 'unterminated"), "select 'unterminated");
+    }
+}
@@ -32,6 +32,8 @@ import io.crate.Streamer;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row;
+import io.crate.executor.transport.distributed.DistributingDownstream;
 import io.crate.executor.transport.distributed.SingleBucketBuilder;
 import io.crate.jobs.*;
 import io.crate.metadata.Routing;
@@ -41,11 +43,17 @@ import io.crate.operation.PageDownstreamFactory;
 import io.crate.operation.Paging;
 import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.MapSideDataCollectOperation;
+import io.crate.operation.collect.StatsTables;
 import io.crate.operation.count.CountOperation;
 import io.crate.operation.fetch.FetchContext;
+import io.crate.operation.merge.IteratorPageDownstream;
+import io.crate.operation.merge.PassThroughPagingIterator;
+import io.crate.operation.profile.JobProfile;
+import io.crate.operation.profile.JobProfiles;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.RowDownstreamFactory;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.projectors.RowReceivers;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhase;
@@ -54,6 +62,7 @@ import io.crate.planner.node.ExecutionPhases;
 import io.crate.planner.node.StreamerVisitor;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
+import io.crate.planner.node.dql.HashJoinPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.fetch.FetchPhase;
 import io.crate.types.DataTypes;
@@ -81,6 +90,8 @@ public class ContextPreparer {
     private final PageDownstreamFactory pageDownstreamFactory;
     private final RowDownstreamFactory rowDownstreamFactory;
     private final InnerPreparer innerPreparer;
+    private final JobProfiles jobProfiles;
+    private final StatsTables statsTables;
 
     @Inject
     public ContextPreparer(MapSideDataCollectOperation collectOperation,
@@ -88,13 +99,17 @@ public class ContextPreparer {
                            CrateCircuitBreakerService breakerService,
                            CountOperation countOperation,
                            PageDownstreamFactory pageDownstreamFactory,
-                           RowDownstreamFactory rowDownstreamFactory) {
+                           RowDownstreamFactory rowDownstreamFactory,
+                           JobProfiles jobProfiles,
+                           StatsTables statsTables) {
         this.collectOperation = collectOperation;
         this.clusterService = clusterService;
         this.countOperation = countOperation;
         circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY_BREAKER);
         this.pageDownstreamFactory = pageDownstreamFactory;
         this.rowDownstreamFactory = rowDownstreamFactory;
+        this.jobProfiles = jobProfiles;
+        this.statsTables = statsTables;
         innerPreparer = new InnerPreparer();
     }
 
@@ -103,7 +118,7 @@ public class ContextPreparer {
                                                           JobExecutionContext.Builder contextBuilder,
                                                           SharedShardContexts sharedShardContexts) {
         PreparerContext preparerContext = new PreparerContext(jobId, rowDownstreamFactory, nodeOperations,
-                sharedShardContexts);
+                sharedShardContexts, jobProfiles.get(jobId), statsTables.isEnabled());
         List<ListenableFuture<Bucket>> directResponseFutures = new ArrayList<>();
         processDownstreamExecutionPhaseIds(nodeOperations, preparerContext);
 
@@ -128,7 +143,7 @@ public class ContextPreparer {
                                                       List<Tuple<ExecutionPhase, RowReceiver>> handlerPhases,
                                                       @Nullable SharedShardContexts sharedShardContexts) {
         ContextPreparer.PreparerContext preparerContext = new PreparerContext(jobId, rowDownstreamFactory,
-                nodeOperations, sharedShardContexts);
+                nodeOperations, sharedShardContexts, jobProfiles.get(jobId), statsTables.isEnabled());
         processDownstreamExecutionPhaseIds(nodeOperations, preparerContext);
 
 
@@ -141,6 +156,8 @@ public class ContextPreparer {
             preparerContext.registerRowReceiverForUpstreamPhase(handlerExecutionPhase, handlerPhase.v2());
             ExecutionSubContext finalLocalMergeContext = innerPreparer.process(handlerExecutionPhase, preparerContext);
             if (finalLocalMergeContext != null) {
+                preparerContext.profile(handlerExecutionPhase, finalLocalMergeContext);
+                preparerContext.accountResources(handlerExecutionPhase, finalLocalMergeContext);
                 contextBuilder.addSubContext(finalLocalMergeContext);
                 handlerContexts.add(finalLocalMergeContext);
             }
@@ -184,6 +201,8 @@ public class ContextPreparer {
                                        JobExecutionContext.Builder contextBuilder) {
         ExecutionSubContext subContext = innerPreparer.process(executionPhase, preparerContext);
         if (subContext != null) {
+            preparerContext.profile(executionPhase, subContext);
+            preparerContext.accountResources(executionPhase, subContext);
             contextBuilder.addSubContext(subContext);
         }
     }
@@ -220,15 +239,67 @@ public class ContextPreparer {
 
         @Nullable
         private final SharedShardContexts sharedShardContexts;
+        @Nullable
+        private final JobProfile jobProfile;
+        @Nullable
+        private final IntObjectOpenHashMap<ResourceUsage> phaseIdToResourceUsage;
 
         public PreparerContext(UUID jobId,
                                RowDownstreamFactory rowDownstreamFactory,
                                Iterable<? extends NodeOperation> nodeOperations,
-                               @Nullable SharedShardContexts sharedShardContexts) {
+                               @Nullable SharedShardContexts sharedShardContexts,
+                               @Nullable JobProfile jobProfile,
+                               boolean accountResources) {
             this.jobId = jobId;
             this.rowDownstreamFactory = rowDownstreamFactory;
             this.nodeOperations = nodeOperations;
             this.sharedShardContexts = sharedShardContexts;
+            this.jobProfile = jobProfile;
+            this.phaseIdToResourceUsage = accountResources ? new IntObjectOpenHashMap<ResourceUsage>() : null;
+        }
+
+        private ResourceUsage resourceUsage(int executionPhaseId) {
+            assert phaseIdToResourceUsage != null : "resources are not accounted";
+            ResourceUsage resourceUsage = phaseIdToResourceUsage.get(executionPhaseId);
+            if (resourceUsage == null) {
+                resourceUsage = new ResourceUsage();
+                phaseIdToResourceUsage.put(executionPhaseId, resourceUsage);
+            }
+            return resourceUsage;
+        }
+
+        /**
+         * account the resources consumed by the subContext if statistics are enabled
+         */
+        public void accountResources(ExecutionPhase executionPhase, ExecutionSubContext subContext) {
+            if (phaseIdToResourceUsage != null) {
+                subContext.future().resourceUsage(resourceUsage(executionPhase.executionPhaseId()));
+            }
+        }
+
+        @Nullable
+        private RowReceiver accountResources(UpstreamPhase upstreamPhase, @Nullable RowReceiver rowReceiver) {
+            if (phaseIdToResourceUsage == null || rowReceiver == null) {
+                return rowReceiver;
+            }
+            return RowReceivers.countEmittedRows(rowReceiver, resourceUsage(upstreamPhase.executionPhaseId()));
+        }
+
+        /**
+         * record the statistics of the subContext if the job is profiled
+         */
+        public void profile(ExecutionPhase executionPhase, ExecutionSubContext subContext) {
+            if (jobProfile != null) {
+                jobProfile.phase(executionPhase).profile(subContext);
+            }
+        }
+
+        @Nullable
+        private RowReceiver profile(UpstreamPhase upstreamPhase, @Nullable RowReceiver rowReceiver) {
+            if (jobProfile == null || rowReceiver == null) {
+                return rowReceiver;
+            }
+            return jobProfile.phase(upstreamPhase).profile(rowReceiver);
         }
 
         public boolean getPhaseHasSameNodeUpstream(int executionPhaseId, byte inputId) {
@@ -284,19 +355,25 @@ public class ContextPreparer {
         public RowReceiver getRowReceiver(UpstreamPhase upstreamPhase, int pageSize) {
             if (upstreamPhase.distributionType() == DistributionType.SAME_NODE) {
                 LOGGER.trace("Phase uses SAME_NODE downstream: {}", upstreamPhase);
-                return phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId());
+                return accountResources(upstreamPhase,
+                        profile(upstreamPhase, phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId())));
             }
             NodeOperation nodeOperation = getNodeOperation(upstreamPhase.executionPhaseId());
             if (ExecutionPhases.hasDirectResponseDownstream(nodeOperation.downstreamNodes())) {
                 LOGGER.trace("Phase uses DIRECT_RESPONSE downstream: {}", upstreamPhase);
-                return phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId());
+                return accountResources(upstreamPhase,
+                        profile(upstreamPhase, phaseIdToRowReceivers.get(upstreamPhase.executionPhaseId())));
             }
             LOGGER.trace("Phase uses DISTRIBUTED downstream: {}", upstreamPhase);
-            return rowDownstreamFactory.createDownstream(
+            RowReceiver downstream = rowDownstreamFactory.createDownstream(
                     nodeOperation,
                     upstreamPhase.distributionType(),
                     jobId,
                     pageSize);
+            if (phaseIdToResourceUsage != null && downstream instanceof DistributingDownstream) {
+                ((DistributingDownstream) downstream).resourceUsage(resourceUsage(upstreamPhase.executionPhaseId()));
+            }
+            return accountResources(upstreamPhase, profile(upstreamPhase, downstream));
 
         }
 
@@ -381,7 +458,47 @@ public class ContextPreparer {
                     DataTypes.getStreamer(phase.inputTypes()),
                     ramAccountingContext,
                     phase.numUpstreams(),
-                    pageDownstreamProjectorChain.v2());
+                    pageDownstreamProjectorChain.v2(),
+                    phase.inputBucketOffsets());
+        }
+
+        @Override
+        public ExecutionSubContext visitHashJoinPhase(final HashJoinPhase phase, final PreparerContext context) {
+            int pageSize = Paging.getWeightedPageSize(Paging.PAGE_SIZE, 1.0d / phase.executionNodes().size());
+            RowReceiver rowReceiver = context.getRowReceiver(phase, pageSize);
+            if (rowReceiver == null) {
+                context.executionPhasesToProcess.add(phase);
+                return null;
+            }
+
+            HashJoinContext hashJoinContext = new HashJoinContext(
+                    context.jobId,
+                    phase,
+                    pageDownstreamFactory.projectorFactory(),
+                    rowReceiver,
+                    RamAccountingContext.forExecutionPhase(circuitBreaker, phase));
+            for (byte inputId = 0; inputId < 2; inputId++) {
+                RowReceiver inputReceiver = hashJoinContext.rowReceiver(inputId);
+                if (context.getPhaseHasSameNodeUpstream(phase.executionPhaseId(), inputId)) {
+                    context.registerRowReceiver(phase.executionPhaseId(), inputId, inputReceiver);
+                } else {
+                    PageDownstream pageDownstream = new IteratorPageDownstream(
+                            inputReceiver,
+                            new PassThroughPagingIterator<Row>(),
+                            // no separate executor because TransportDistributedResultAction already runs in a threadPool
+                            Optional.<Executor>absent());
+                    // every input needs its own RamAccountingContext because the PageDownstreamContext closes it
+                    hashJoinContext.addPageDownstreamContext(inputId, new PageDownstreamContext(
+                            phase.executionPhaseId(),
+                            phase.name(),
+                            pageDownstream,
+                            DataTypes.getStreamer(phase.inputTypes(inputId)),
+                            RamAccountingContext.forExecutionPhase(circuitBreaker, phase),
+                            phase.numUpstreams(inputId),
+                            null));
+                }
+            }
+            return hashJoinContext;
         }
 
         @Override
@@ -26,6 +26,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,13 +36,29 @@ public class JobRequest extends TransportRequest {
 
     private UUID jobId;
     private Collection<? extends NodeOperation> nodeOperations;
+    private boolean profile = false;
+    @Nullable
+    private String coordinatorNodeId;
 
     protected JobRequest() {
     }
 
     public JobRequest(UUID jobId, Collection<? extends NodeOperation> nodeOperations) {
+        this(jobId, nodeOperations, false);
+    }
+
+    public JobRequest(UUID jobId, Collection<? extends NodeOperation> nodeOperations, boolean profile) {
+        this(jobId, nodeOperations, profile, null);
+    }
+
+    public JobRequest(UUID jobId,
+                      Collection<? extends NodeOperation> nodeOperations,
+                      boolean profile,
+                      @Nullable String coordinatorNodeId) {
         this.jobId = jobId;
         this.nodeOperations = nodeOperations;
+        this.profile = profile;
+        this.coordinatorNodeId = coordinatorNodeId;
     }
 
     public UUID jobId() {
@@ -52,6 +69,21 @@ public class JobRequest extends TransportRequest {
         return nodeOperations;
     }
 
+    /**
+     * @return true if the runtime statistics of the execution phases should be recorded
+     */
+    public boolean profile() {
+        return profile;
+    }
+
+    /**
+     * @return the node which executes the job, the resources consumed by the job are reported to it
+     */
+    @Nullable
+    public String coordinatorNodeId() {
+        return coordinatorNodeId;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -64,6 +96,8 @@ public class JobRequest extends TransportRequest {
             nodeOperations.add(new NodeOperation(in));
         }
         this.nodeOperations = nodeOperations;
+        profile = in.readBoolean();
+        coordinatorNodeId = in.readOptionalString();
     }
 
     @Override
@@ -77,5 +111,7 @@ public class JobRequest extends TransportRequest {
         for (NodeOperation nodeOperation : nodeOperations) {
             nodeOperation.writeTo(out);
         }
+        out.writeBoolean(profile);
+        out.writeOptionalString(coordinatorNodeId);
     }
 }
@@ -31,7 +31,9 @@ import io.crate.executor.transport.NodeActionRequestHandler;
 import io.crate.executor.transport.Transports;
 import io.crate.jobs.JobContextService;
 import io.crate.jobs.JobExecutionContext;
+import io.crate.operation.profile.JobProfiles;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.indices.IndicesService;
@@ -48,20 +50,26 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
     private static final String EXECUTOR = ThreadPool.Names.SAME;
 
     private final IndicesService indicesService;
+    private final ClusterService clusterService;
     private final Transports transports;
     private final JobContextService jobContextService;
     private final ContextPreparer contextPreparer;
+    private final JobProfiles jobProfiles;
 
     @Inject
     public TransportJobAction(TransportService transportService,
                               IndicesService indicesService,
+                              ClusterService clusterService,
                               Transports transports,
                               JobContextService jobContextService,
-                              ContextPreparer contextPreparer) {
+                              ContextPreparer contextPreparer,
+                              JobProfiles jobProfiles) {
         this.indicesService = indicesService;
+        this.clusterService = clusterService;
         this.transports = transports;
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
+        this.jobProfiles = jobProfiles;
 
         transportService.registerHandler(ACTION_NAME, new NodeActionRequestHandler<JobRequest, JobResponse>(this) {
             @Override
@@ -84,6 +92,13 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
     @Override
     public void nodeOperation(final JobRequest request, final ActionListener<JobResponse> actionListener) {
         JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId());
+        if (request.profile()) {
+            jobProfiles.start(request.jobId());
+        }
+        String coordinatorNodeId = request.coordinatorNodeId();
+        if (coordinatorNodeId != null && !coordinatorNodeId.equals(clusterService.localNode().id())) {
+            contextBuilder.coordinatorNodeId(coordinatorNodeId);
+        }
 
         SharedShardContexts sharedShardContexts = new SharedShardContexts(indicesService);
         List<ListenableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnRemote(
@@ -29,6 +29,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import io.crate.Constants;
 import io.crate.analyze.*;
@@ -51,6 +52,7 @@ import io.crate.planner.Plan;
 import io.crate.planner.Planner;
 import io.crate.planner.symbol.Function;
 import io.crate.planner.symbol.Symbol;
+import io.crate.sql.tree.InsertFromSubquery;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingRequest;
@@ -81,6 +83,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -97,18 +101,22 @@ public class DDLStatementDispatcher extends AnalyzedStatementVisitor<UUID, Liste
     private final Provider<Executor> executorProvider;
     private final TransportActionProvider transportActionProvider;
     private final Planner planner;
+    private final Analyzer analyzer;
+    private final ConcurrentMap<String, ListenableFuture<Long>> runningRefreshes = new ConcurrentHashMap<>();
 
     @Inject
     public DDLStatementDispatcher(ClusterService clusterService,
                                   BlobIndices blobIndices,
                                   Provider<Executor> executorProvider,
                                   TransportActionProvider transportActionProvider,
-                                  Planner planner) {
+                                  Planner planner,
+                                  Analyzer analyzer) {
         this.clusterService = clusterService;
         this.blobIndices = blobIndices;
         this.executorProvider = executorProvider;
         this.transportActionProvider = transportActionProvider;
         this.planner = planner;
+        this.analyzer = analyzer;
     }
 
     @Override
@@ -339,6 +347,224 @@ public class DDLStatementDispatcher extends AnalyzedStatementVisitor<UUID, Liste
         return future;
     }
 
+    @Override
+    public ListenableFuture<Long> visitRefreshMaterializedViewStatement(
+            final RefreshMaterializedViewAnalyzedStatement analysis, UUID jobId) {
+        final String viewName = analysis.view().ident().esName();
+        final SettableFuture<Long> result = SettableFuture.create();
+        // refreshes of the same view are serialized, a concurrent refresh would read the same watermark
+        ListenableFuture<Long> previousRefresh = runningRefreshes.put(viewName, result);
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                runningRefreshes.remove(viewName, result);
+            }
+        }, MoreExecutors.directExecutor());
+        Runnable refresh = new Runnable() {
+            @Override
+            public void run() {
+                refreshSource(analysis, result);
+            }
+        };
+        if (previousRefresh == null) {
+            refresh.run();
+        } else {
+            previousRefresh.addListener(refresh, MoreExecutors.directExecutor());
+        }
+        return result;
+    }
+
+    /**
+     * refresh the source table so the watermark query and the refresh statement
+     * see all rows which were written before the refresh of the view was started.
+     */
+    private void refreshSource(final RefreshMaterializedViewAnalyzedStatement analysis,
+                               final SettableFuture<Long> result) {
+        String[] indices = analysis.source().concreteIndices();
+        if (indices.length == 0) {
+            refreshMaterializedView(analysis, result);
+            return;
+        }
+        RefreshRequest request = new RefreshRequest(indices);
+        request.indicesOptions(IndicesOptions.lenientExpandOpen());
+        transportActionProvider.transportRefreshAction().execute(request, new ActionListener<RefreshResponse>() {
+            @Override
+            public void onResponse(RefreshResponse refreshResponse) {
+                refreshMaterializedView(analysis, result);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                result.setException(e);
+            }
+        });
+    }
+
+    private void refreshMaterializedView(final RefreshMaterializedViewAnalyzedStatement analysis,
+                                         final SettableFuture<Long> result) {
+        if (analysis.watermarkQuery() == null) {
+            executeRefresh(analysis.refreshStatement(), analysis, new Object[0], result);
+            return;
+        }
+        Analysis watermarkAnalysis;
+        try {
+            watermarkAnalysis = analyzer.analyze(analysis.watermarkQuery(),
+                    new ParameterContext(new Object[0], new Object[0][], analysis.defaultSchema()));
+        } catch (Throwable t) {
+            result.setException(t);
+            return;
+        }
+        Futures.addCallback(execute(planner.plan(watermarkAnalysis, UUID.randomUUID())), new FutureCallback<Bucket>() {
+            @Override
+            public void onSuccess(@Nullable Bucket rows) {
+                assert rows != null;
+                final Object watermark = Iterables.getOnlyElement(rows).get(0);
+                final Map<String, Object> viewMeta;
+                try {
+                    viewMeta = viewMeta(analysis);
+                } catch (IOException e) {
+                    result.setException(e);
+                    return;
+                }
+                Object lastWatermark = viewMeta.get(MaterializedViewAnalyzer.META_WATERMARK);
+                boolean pending = viewMeta.containsKey(MaterializedViewAnalyzer.META_PENDING_WATERMARK);
+                if (watermark == null || (!pending && watermark.equals(lastWatermark))) {
+                    // no rows were added since the last refresh
+                    result.set(0L);
+                    return;
+                }
+                final SettableFuture<Long> refreshResult = SettableFuture.create();
+                Futures.addCallback(refreshResult, new FutureCallback<Long>() {
+                    @Override
+                    public void onSuccess(@Nullable Long rowCount) {
+                        viewMeta.remove(MaterializedViewAnalyzer.META_PENDING_WATERMARK);
+                        viewMeta.put(MaterializedViewAnalyzer.META_WATERMARK, watermark);
+                        putViewMeta(analysis, viewMeta, rowCount, result);
+                    }
+
+                    @Override
+                    public void onFailure(@Nonnull Throwable t) {
+                        result.setException(t);
+                    }
+                });
+                if (lastWatermark == null || pending) {
+                    // the states of a failed refresh may contain a part of the pending range,
+                    // they're rebuilt because merging the range again would count those rows twice
+                    executeRefresh(analysis.refreshStatement(), analysis, new Object[]{watermark}, refreshResult);
+                    return;
+                }
+                // mark the range as pending before merging it, so a failed refresh can't be merged twice
+                viewMeta.put(MaterializedViewAnalyzer.META_PENDING_WATERMARK, watermark);
+                SettableFuture<Long> pendingResult = SettableFuture.create();
+                putViewMeta(analysis, viewMeta, null, pendingResult);
+                final Object[] parameters = new Object[]{lastWatermark, watermark};
+                Futures.addCallback(pendingResult, new FutureCallback<Long>() {
+                    @Override
+                    public void onSuccess(@Nullable Long ignored) {
+                        executeRefresh(analysis.incrementalRefreshStatement(), analysis, parameters, refreshResult);
+                    }
+
+                    @Override
+                    public void onFailure(@Nonnull Throwable t) {
+                        result.setException(t);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                result.setException(t);
+            }
+        });
+    }
+
+    private void executeRefresh(InsertFromSubquery refreshStatement,
+                                RefreshMaterializedViewAnalyzedStatement analysis,
+                                Object[] parameters,
+                                final SettableFuture<Long> result) {
+        Analysis refreshAnalysis;
+        try {
+            refreshAnalysis = analyzer.analyze(refreshStatement,
+                    new ParameterContext(parameters, new Object[0][], analysis.defaultSchema()));
+        } catch (Throwable t) {
+            result.setException(t);
+            return;
+        }
+        Futures.addCallback(execute(planner.plan(refreshAnalysis, UUID.randomUUID())), new FutureCallback<Bucket>() {
+            @Override
+            public void onSuccess(@Nullable Bucket rows) {
+                Row row = rows == null ? null : Iterables.getFirst(rows, null);
+                result.set(row == null ? 0L : ((Number) row.get(0)).longValue());
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                result.setException(t);
+            }
+        });
+    }
+
+    /**
+     * the materialized view entry of the _meta mapping of the view, read from the current cluster state
+     * because a previous refresh may have changed it since the statement was analyzed
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> viewMeta(RefreshMaterializedViewAnalyzedStatement analysis) throws IOException {
+        Map<String, Object> meta = (Map<String, Object>) clusterService.state().metaData()
+                .index(analysis.view().ident().esName())
+                .mapping(Constants.DEFAULT_MAPPING_TYPE).sourceAsMap().get("_meta");
+        return new HashMap<>((Map<String, Object>) meta.get(MaterializedViewAnalyzer.META_KEY));
+    }
+
+    /**
+     * store the materialized view entry in the _meta mapping of the view,
+     * it must be merged before-hand because ES doesn't update the _meta mapping recursively
+     */
+    @SuppressWarnings("unchecked")
+    private void putViewMeta(RefreshMaterializedViewAnalyzedStatement analysis,
+                             Map<String, Object> viewMeta,
+                             @Nullable final Long rowCount,
+                             final SettableFuture<Long> result) {
+        String indexName = analysis.view().ident().esName();
+        Map<String, Object> meta;
+        try {
+            meta = (Map<String, Object>) clusterService.state().metaData().index(indexName)
+                    .mapping(Constants.DEFAULT_MAPPING_TYPE).sourceAsMap().get("_meta");
+        } catch (IOException e) {
+            result.setException(e);
+            return;
+        }
+        meta.put(MaterializedViewAnalyzer.META_KEY, viewMeta);
+
+        PutMappingRequest request = new PutMappingRequest(indexName);
+        request.type(Constants.DEFAULT_MAPPING_TYPE);
+        request.source(Collections.<String, Object>singletonMap("_meta", meta));
+        transportActionProvider.transportPutMappingAction().execute(request, new ActionListener<PutMappingResponse>() {
+            @Override
+            public void onResponse(PutMappingResponse putMappingResponse) {
+                result.set(rowCount);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                result.setException(e);
+            }
+        });
+    }
+
+    private ListenableFuture<Bucket> execute(Plan plan) {
+        Job job = executorProvider.get().newJob(plan);
+        ListenableFuture<List<TaskResult>> resultFuture = Futures.allAsList(executorProvider.get().execute(job));
+        return Futures.transform(resultFuture, new com.google.common.base.Function<List<TaskResult>, Bucket>() {
+            @Nullable
+            @Override
+            public Bucket apply(@Nullable List<TaskResult> input) {
+                assert input != null && input.size() == 1;
+                return input.get(0).rows();
+            }
+        });
+    }
+
     private ListenableFuture<Long> wrapRowCountFuture(ListenableFuture<?> wrappedFuture, final Long rowCount) {
         final SettableFuture<Long> wrappingFuture = SettableFuture.create();
         Futures.addCallback(wrappedFuture, new FutureCallback<Object>() {
@@ -180,6 +180,17 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
 
     }
 
+    private static long returnedRows(@Nullable List<TaskResult> result, Analysis analysis) {
+        if (result == null || analysis.expectsAffectedRows()) {
+            return 0L;
+        }
+        long rows = 0L;
+        for (TaskResult taskResult : result) {
+            rows += taskResult.rows().size();
+        }
+        return rows;
+    }
+
     @Override
     protected void doExecute(TRequest request, ActionListener<TResponse> listener) {
         logger.debug("{}", request);
@@ -242,7 +253,7 @@ public abstract class TransportBaseSQLAction<TRequest extends SQLBaseRequest, TR
                             sendResponse(listener, buildSQLActionException(e));
                             return;
                         }
-                        statsTables.jobFinished(plan.jobId(), null);
+                        statsTables.jobFinished(plan.jobId(), null, returnedRows(result, analysis));
                         sendResponse(listener, response);
                     }
 
@@ -43,9 +43,21 @@ public class SQLArgsParseElement implements SQLParseElement {
 
     protected Object[] parseSubArray(SQLXContentSourceContext context, XContentParser parser)
         throws IOException
+    {
+        return parseSubArray(context, parser, 10);
+    }
+
+    /**
+     * Values are taken as they are returned by the parser, so numbers keep their type
+     * (binary formats like Smile or CBOR don't encode them as text at all).
+     *
+     * @param expectedSize the expected number of elements, e.g. the length of the previous bulk args row
+     */
+    protected Object[] parseSubArray(SQLXContentSourceContext context, XContentParser parser, int expectedSize)
+        throws IOException
     {
         XContentParser.Token token;
-        List<Object> subList = new ArrayList<Object>();
+        List<Object> subList = new ArrayList<>(expectedSize);
 
         while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
             if (token.isValue()) {
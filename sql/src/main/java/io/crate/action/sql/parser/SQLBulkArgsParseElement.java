@@ -45,9 +45,13 @@ public class SQLBulkArgsParseElement extends SQLArgsParseElement implements SQLP
     private Object[][] parseSubArrays(SQLXContentSourceContext context, XContentParser parser) throws IOException {
         XContentParser.Token token;
         List<Object[]> list = new ArrayList<Object[]>();
+        int rowSize = 10;
         while((token = parser.nextToken()) != XContentParser.Token.END_ARRAY){
             if(token == XContentParser.Token.START_ARRAY) {
-                list.add(parseSubArray(context, parser));
+                // all rows usually have the same number of args
+                Object[] row = parseSubArray(context, parser, rowSize);
+                rowSize = row.length;
+                list.add(row);
             } else {
                 throw new SQLParseSourceException(context, "Field [" + parser.currentName() + "] has an invalid value");
             }
@@ -27,9 +27,12 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import javax.annotation.Nullable;
 
 /**
- * Parser for SQL statements in JSON and other XContent formats
+ * Parser for SQL statements in JSON and other XContent formats (Smile, YAML, CBOR)
  * <p>
  *     <pre>
  * {
@@ -64,10 +67,21 @@ public class SQLXContentSourceParser {
     }
 
     public void parseSource(BytesReference source) throws SQLParseException {
+        parseSource(source, null);
+    }
+
+    /**
+     * @param contentType the type of the source, detected from the source itself if null
+     */
+    public void parseSource(BytesReference source, @Nullable XContentType contentType) throws SQLParseException {
         XContentParser parser = null;
         try {
             if (source != null && source.length() != 0) {
-                parser = XContentFactory.xContent(source).createParser(source);
+                if (contentType == null) {
+                    parser = XContentFactory.xContent(source).createParser(source);
+                } else {
+                    parser = contentType.xContent().createParser(source);
+                }
                 parse(parser);
             }
             validate();
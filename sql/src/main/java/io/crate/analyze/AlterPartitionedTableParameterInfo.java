@@ -43,6 +43,8 @@ public class AlterPartitionedTableParameterInfo extends TableParameterInfo {
                     .add(TOTAL_SHARDS_PER_NODE)
                     .add(RECOVERY_INITIAL_SHARDS)
                     .add(WARMER_ENABLED)
+                    .add(ROW_CACHE_ENABLED)
+                    .add(RESULT_CACHE_ENABLED)
                     .build();
 
     protected static final TableParameterInfo PARTITION_TABLE_PARAMETER_INFO = new TablePartitionParameterInfo();
@@ -60,6 +60,7 @@ public class Analyzer {
         private final UpdateStatementAnalyzer updateStatementAnalyzer;
         private final DeleteStatementAnalyzer deleteStatementAnalyzer;
         private final KillStatementAnalyzer killStatementAnalyzer;
+        private final MaterializedViewAnalyzer materializedViewAnalyzer;
 
 
         @Inject
@@ -80,7 +81,8 @@ public class Analyzer {
                                   CopyStatementAnalyzer copyStatementAnalyzer,
                                   UpdateStatementAnalyzer updateStatementAnalyzer,
                                   DeleteStatementAnalyzer deleteStatementAnalyzer,
-                                  KillStatementAnalyzer killStatementAnalyzer) {
+                                  KillStatementAnalyzer killStatementAnalyzer,
+                                  MaterializedViewAnalyzer materializedViewAnalyzer) {
             this.selectStatementAnalyzer = selectStatementAnalyzer;
             this.dropTableStatementAnalyzer = dropTableStatementAnalyzer;
             this.createTableStatementAnalyzer = createTableStatementAnalyzer;
@@ -99,6 +101,7 @@ public class Analyzer {
             this.updateStatementAnalyzer = updateStatementAnalyzer;
             this.deleteStatementAnalyzer = deleteStatementAnalyzer;
             this.killStatementAnalyzer = killStatementAnalyzer;
+            this.materializedViewAnalyzer = materializedViewAnalyzer;
         }
 
         @Override
@@ -106,6 +109,20 @@ public class Analyzer {
             return selectStatementAnalyzer.process(node, analysis);
         }
 
+        @Override
+        protected AnalyzedStatement visitExplain(Explain node, Analysis analysis) {
+            if (!node.isAnalyze()) {
+                return super.visitExplain(node, analysis);
+            }
+            if (!(node.getStatement() instanceof Query)) {
+                throw new UnsupportedOperationException("EXPLAIN ANALYZE is only supported for SELECT statements");
+            }
+            ExplainAnalyzeAnalyzedStatement statement =
+                    new ExplainAnalyzeAnalyzedStatement(process(node.getStatement(), analysis));
+            analysis.rootRelation(statement);
+            return statement;
+        }
+
         @Override
         public AnalyzedStatement visitDelete(Delete node, Analysis context) {
             return deleteStatementAnalyzer.analyze(node, context);
@@ -150,6 +167,16 @@ public class Analyzer {
             return showCreateTableAnalyzer.analyze(node, analysis);
         }
 
+        @Override
+        public AnalyzedStatement visitCreateMaterializedView(CreateMaterializedView node, Analysis context) {
+            return materializedViewAnalyzer.analyze(node, context);
+        }
+
+        @Override
+        public AnalyzedStatement visitRefreshMaterializedView(RefreshMaterializedView node, Analysis context) {
+            return materializedViewAnalyzer.analyze(node, context);
+        }
+
         @Override
         public AnalyzedStatement visitCreateAnalyzer(CreateAnalyzer node, Analysis context) {
             return createAnalyzerStatementAnalyzer.analyze(node, context);
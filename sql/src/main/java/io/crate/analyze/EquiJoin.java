@@ -0,0 +1,97 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.planner.symbol.Symbol;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inner join of two tables with at least one equality condition between them.
+ *
+ * Each side of the join is a {@link QueriedDocTable} with all conditions that only
+ * reference that table. Its outputs are the join keys followed by all other columns
+ * of the table which are required after the join.
+ *
+ * A joined row consists of the outputs of the left side followed by the outputs of the right side,
+ * see {@link #joinedSymbols()}.
+ */
+public class EquiJoin {
+
+    private final QueriedDocTable left;
+    private final QueriedDocTable right;
+    private final List<Symbol> leftSymbols;
+    private final List<Symbol> rightSymbols;
+    private final int numKeys;
+    private final Symbol remainingQuery;
+
+    /**
+     * @param leftSymbols the outputs of the left side before they were normalized,
+     *                    referencing the fields of the source relation
+     * @param rightSymbols the outputs of the right side before they were normalized
+     * @param remainingQuery conditions which reference both tables but couldn't be used as join keys
+     */
+    public EquiJoin(QueriedDocTable left,
+                    List<Symbol> leftSymbols,
+                    QueriedDocTable right,
+                    List<Symbol> rightSymbols,
+                    int numKeys,
+                    @Nullable Symbol remainingQuery) {
+        assert numKeys > 0 : "an equi join requires at least one join key";
+        this.left = left;
+        this.right = right;
+        this.leftSymbols = leftSymbols;
+        this.rightSymbols = rightSymbols;
+        this.numKeys = numKeys;
+        this.remainingQuery = remainingQuery;
+    }
+
+    public QueriedDocTable left() {
+        return left;
+    }
+
+    public QueriedDocTable right() {
+        return right;
+    }
+
+    /**
+     * the number of join keys, the keys are the first outputs of both sides
+     */
+    public int numKeys() {
+        return numKeys;
+    }
+
+    @Nullable
+    public Symbol remainingQuery() {
+        return remainingQuery;
+    }
+
+    public List<Symbol> joinedSymbols() {
+        List<Symbol> symbols = new ArrayList<>(leftSymbols.size() + rightSymbols.size());
+        symbols.addAll(leftSymbols);
+        symbols.addAll(rightSymbols);
+        return symbols;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.exceptions.ColumnUnknownException;
+import io.crate.metadata.OutputName;
+import io.crate.metadata.Path;
+import io.crate.planner.symbol.Field;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <code>EXPLAIN ANALYZE</code> executes the wrapped statement and returns its runtime statistics
+ * instead of its result as a single row with a single object column.
+ */
+public class ExplainAnalyzeAnalyzedStatement implements AnalyzedStatement, AnalyzedRelation {
+
+    public static final String COLUMN_NAME = "EXPLAIN ANALYZE";
+
+    private final AnalyzedStatement statement;
+    private final List<Field> fields;
+
+    public ExplainAnalyzeAnalyzedStatement(AnalyzedStatement statement) {
+        this.statement = statement;
+        this.fields = Collections.singletonList(new Field(this, new OutputName(COLUMN_NAME), DataTypes.OBJECT));
+    }
+
+    public AnalyzedStatement statement() {
+        return statement;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedStatementVisitor<C, R> analyzedStatementVisitor, C context) {
+        return analyzedStatementVisitor.visitExplainAnalyzeStatement(this, context);
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
+        throw new UnsupportedOperationException("accept() is not supported on ExplainAnalyzeAnalyzedStatement");
+    }
+
+    @Nullable
+    @Override
+    public Field getField(Path path) {
+        throw new UnsupportedOperationException("getField() is not supported on ExplainAnalyzeAnalyzedStatement");
+    }
+
+    @Override
+    public Field getWritableField(Path path) throws UnsupportedOperationException, ColumnUnknownException {
+        throw new UnsupportedOperationException("getWritableField() is not supported on ExplainAnalyzeAnalyzedStatement");
+    }
+
+    @Override
+    public List<Field> fields() {
+        return fields;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.crate.Constants;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.exceptions.ColumnUnknownException;
+import io.crate.exceptions.UnhandledServerException;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.ReferenceInfo;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.TableInfo;
+import io.crate.operation.aggregation.MergeStateFunction;
+import io.crate.operation.aggregation.impl.MaximumAggregation;
+import io.crate.planner.symbol.Function;
+import io.crate.planner.symbol.Symbol;
+import io.crate.sql.SqlFormatter;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.*;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Analyzer for <code>CREATE MATERIALIZED VIEW</code> and <code>REFRESH MATERIALIZED VIEW</code>.
+ *
+ * A materialized view is a regular table which contains the GROUP BY keys of the view definition
+ * as primary key and the partial states of the aggregations. The definition is stored in the
+ * _meta mapping of the table, so creating a view is analyzed as a CREATE TABLE statement.
+ *
+ * A refresh aggregates the rows of the source table and overwrites the stored states
+ * using <code>ON DUPLICATE KEY UPDATE</code>. If the view has an incremental column
+ * only the rows whose incremental column is greater than the watermark of the last refresh
+ * are aggregated and merged into the stored states using {@link MergeStateFunction}.
+ *
+ * Merging a range twice would count its rows twice, so the upper bound of an incremental refresh
+ * is stored as pending watermark before the states are merged. If a refresh finds a pending
+ * watermark the previous refresh failed and the states are rebuilt from all rows up to the new watermark.
+ */
+@Singleton
+public class MaterializedViewAnalyzer {
+
+    public static final String META_KEY = "materialized_view";
+    public static final String META_QUERY = "query";
+    public static final String META_DEFAULT_SCHEMA = "default_schema";
+    public static final String META_INCREMENTAL_COLUMN = "incremental_column";
+    public static final String META_WATERMARK = "watermark";
+    public static final String META_PENDING_WATERMARK = "pending_watermark";
+
+    private static final Set<DataType> INCREMENTAL_COLUMN_TYPES = ImmutableSet.<DataType>builder()
+            .addAll(DataTypes.NUMERIC_PRIMITIVE_TYPES)
+            .add(DataTypes.TIMESTAMP)
+            .build();
+
+    private final Schemas schemas;
+    private final ClusterService clusterService;
+    private final RelationAnalyzer relationAnalyzer;
+    private final CreateTableStatementAnalyzer createTableStatementAnalyzer;
+
+    @Inject
+    public MaterializedViewAnalyzer(Schemas schemas,
+                                    ClusterService clusterService,
+                                    RelationAnalyzer relationAnalyzer,
+                                    CreateTableStatementAnalyzer createTableStatementAnalyzer) {
+        this.schemas = schemas;
+        this.clusterService = clusterService;
+        this.relationAnalyzer = relationAnalyzer;
+        this.createTableStatementAnalyzer = createTableStatementAnalyzer;
+    }
+
+    public CreateTableAnalyzedStatement analyze(CreateMaterializedView node, Analysis analysis) {
+        if (analysis.parameterContext().parameters().length > 0) {
+            throw new UnsupportedOperationException(
+                    "Parameters are not supported in the definition of a materialized view");
+        }
+        ViewDefinition definition = analyzeDefinition(
+                node.getTableDefinition(), node.getIncrementalColumn().orNull(), analysis);
+
+        List<TableElement> tableElements = new ArrayList<>(definition.columns.size() + 1);
+        List<Expression> primaryKeys = new ArrayList<>(definition.columns.size());
+        for (int i = 0; i < definition.columns.size(); i++) {
+            String column = definition.columns.get(i);
+            tableElements.add(new ColumnDefinition(
+                    column, new ColumnType(definition.types.get(i).getName()), null));
+            if (definition.aggregations.get(i) == null) {
+                primaryKeys.add(new QualifiedNameReference(QualifiedName.of(column)));
+            }
+        }
+        tableElements.add(new PrimaryKeyConstraint(primaryKeys));
+
+        CreateTableAnalyzedStatement statement = createTableStatementAnalyzer.analyze(
+                new CreateTable(new Table(node.getName()), tableElements, null, null, false), analysis);
+
+        Map<String, Object> viewMeta = new HashMap<>();
+        viewMeta.put(META_QUERY, SqlFormatter.formatSql(node.getTableDefinition()));
+        viewMeta.put(META_DEFAULT_SCHEMA, defaultSchema(analysis.parameterContext()));
+        if (node.getIncrementalColumn().isPresent()) {
+            viewMeta.put(META_INCREMENTAL_COLUMN, node.getIncrementalColumn().get());
+        }
+        //noinspection unchecked
+        ((Map<String, Object>) statement.mapping().get("_meta")).put(META_KEY, viewMeta);
+        return statement;
+    }
+
+    public RefreshMaterializedViewAnalyzedStatement analyze(RefreshMaterializedView node, Analysis analysis) {
+        analysis.expectsAffectedRows(true);
+        TableInfo tableInfo = schemas.getTableInfo(
+                TableIdent.of(new Table(node.getName()), analysis.parameterContext().defaultSchema()));
+        Map<String, Object> viewMeta = tableInfo instanceof DocTableInfo ? viewMeta((DocTableInfo) tableInfo) : null;
+        if (viewMeta == null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Table '%s' is not a materialized view", tableInfo.ident().fqn()));
+        }
+
+        String defaultSchema = (String) viewMeta.get(META_DEFAULT_SCHEMA);
+        String incrementalColumn = (String) viewMeta.get(META_INCREMENTAL_COLUMN);
+        Query query = (Query) SqlParser.createStatement((String) viewMeta.get(META_QUERY));
+        Analysis definitionAnalysis = new Analysis(new ParameterContext(new Object[0], new Object[0][], defaultSchema));
+        ViewDefinition definition = analyzeDefinition(query, incrementalColumn, definitionAnalysis);
+
+        QuerySpecification querySpecification = (QuerySpecification) query.getQueryBody();
+        Table view = new Table(QualifiedName.of(tableInfo.ident().schema(), tableInfo.ident().name()));
+        if (incrementalColumn == null) {
+            return new RefreshMaterializedViewAnalyzedStatement((DocTableInfo) tableInfo, definition.source,
+                    defaultSchema, refreshStatement(view, query, definition, false), null, null);
+        }
+
+        Expression column = new QualifiedNameReference(QualifiedName.of(incrementalColumn));
+        Expression upperBound = new ComparisonExpression(
+                ComparisonExpression.Type.LESS_THAN_OR_EQUAL, column, new ParameterExpression(1));
+        Query rebuildQuery = query(querySpecification.getSelect(),
+                querySpecification.getFrom(),
+                and(querySpecification.getWhere(), upperBound),
+                querySpecification.getGroupBy());
+        Expression range = new LogicalBinaryExpression(LogicalBinaryExpression.Type.AND,
+                new ComparisonExpression(ComparisonExpression.Type.GREATER_THAN, column, new ParameterExpression(1)),
+                new ComparisonExpression(ComparisonExpression.Type.LESS_THAN_OR_EQUAL, column, new ParameterExpression(2)));
+        Query incrementalQuery = query(querySpecification.getSelect(),
+                querySpecification.getFrom(),
+                and(querySpecification.getWhere(), range),
+                querySpecification.getGroupBy());
+        Query watermarkQuery = query(
+                new Select(false, ImmutableList.<SelectItem>of(new SingleColumn(new FunctionCall(
+                        QualifiedName.of(MaximumAggregation.NAME), ImmutableList.of(column))))),
+                querySpecification.getFrom(),
+                querySpecification.getWhere(),
+                ImmutableList.<Expression>of());
+        return new RefreshMaterializedViewAnalyzedStatement((DocTableInfo) tableInfo, definition.source,
+                defaultSchema,
+                refreshStatement(view, rebuildQuery, definition, false),
+                refreshStatement(view, incrementalQuery, definition, true),
+                watermarkQuery);
+    }
+
+    /**
+     * creates the insert statement of a refresh which either overwrites the stored states
+     * or merges them with the states of the aggregated rows
+     */
+    private static InsertFromSubquery refreshStatement(Table view,
+                                                       Query sourceQuery,
+                                                       ViewDefinition definition,
+                                                       boolean mergeStates) {
+        List<Assignment> assignments = new ArrayList<>(definition.columns.size());
+        for (int i = 0; i < definition.columns.size(); i++) {
+            String aggregation = definition.aggregations.get(i);
+            if (aggregation == null) {
+                continue;
+            }
+            Expression column = new QualifiedNameReference(QualifiedName.of(definition.columns.get(i)));
+            Expression value = new FunctionCall(QualifiedName.of("values"), ImmutableList.of(column));
+            if (mergeStates) {
+                value = new FunctionCall(QualifiedName.of(MergeStateFunction.name(aggregation)), ImmutableList.of(column, value));
+            }
+            assignments.add(new Assignment(column, value));
+        }
+        return new InsertFromSubquery(view, sourceQuery, definition.columns, assignments);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> viewMeta(DocTableInfo tableInfo) {
+        IndexMetaData indexMetaData = clusterService.state().metaData().index(tableInfo.ident().esName());
+        if (indexMetaData == null) {
+            return null;
+        }
+        MappingMetaData mappingMetaData = indexMetaData.mapping(Constants.DEFAULT_MAPPING_TYPE);
+        if (mappingMetaData == null) {
+            return null;
+        }
+        try {
+            Map<String, Object> meta = (Map<String, Object>) mappingMetaData.sourceAsMap().get("_meta");
+            return meta == null ? null : (Map<String, Object>) meta.get(META_KEY);
+        } catch (IOException e) {
+            throw new UnhandledServerException(e);
+        }
+    }
+
+    private ViewDefinition analyzeDefinition(Query query, @Nullable String incrementalColumn, Analysis analysis) {
+        if (!(query.getQueryBody() instanceof QuerySpecification)) {
+            throw new UnsupportedOperationException(
+                    "A materialized view can only be defined by a single query on a user table");
+        }
+        AnalyzedRelation relation = relationAnalyzer.analyze(query, analysis);
+        if (!(relation instanceof QueriedDocTable)) {
+            throw new UnsupportedOperationException(
+                    "A materialized view can only be defined by a single query on a user table");
+        }
+        QueriedDocTable queriedTable = (QueriedDocTable) relation;
+        QuerySpec querySpec = queriedTable.querySpec();
+        if (querySpec.groupBy() == null || querySpec.groupBy().isEmpty()) {
+            throw new UnsupportedOperationException(
+                    "A materialized view must be defined by a query with GROUP BY");
+        }
+        if (querySpec.having() != null || querySpec.orderBy() != null || querySpec.isLimited()) {
+            throw new UnsupportedOperationException(
+                    "HAVING, ORDER BY, LIMIT and OFFSET are not supported in the definition of a materialized view");
+        }
+
+        ViewDefinition definition = new ViewDefinition(
+                queriedTable.tableRelation().tableInfo(), querySpec.outputs().size());
+        Set<Symbol> groupKeys = new HashSet<>(querySpec.groupBy());
+        for (int i = 0; i < querySpec.outputs().size(); i++) {
+            Symbol output = querySpec.outputs().get(i);
+            String aggregation = null;
+            if (groupKeys.remove(output)) {
+                if (!DataTypes.PRIMITIVE_TYPES.contains(output.valueType())) {
+                    throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
+                            "GROUP BY key '%s' of a materialized view must be of a primitive type",
+                            queriedTable.fields().get(i).path().outputName()));
+                }
+            } else if (isMergeableAggregation(output)) {
+                aggregation = ((Function) output).info().ident().name();
+            } else {
+                throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
+                        "Column '%s' of a materialized view must be a GROUP BY key or one of the aggregations %s",
+                        queriedTable.fields().get(i).path().outputName(),
+                        MergeStateFunction.SUPPORTED_AGGREGATIONS));
+            }
+            definition.add(queriedTable.fields().get(i).path().outputName(), output.valueType(), aggregation);
+        }
+        if (!groupKeys.isEmpty()) {
+            throw new UnsupportedOperationException(
+                    "All GROUP BY keys must be selected in the definition of a materialized view");
+        }
+        if (definition.aggregations.size() == Collections.frequency(definition.aggregations, null)) {
+            throw new UnsupportedOperationException(
+                    "A materialized view must contain at least one aggregation");
+        }
+
+        if (incrementalColumn != null) {
+            ReferenceInfo referenceInfo = definition.source.getReferenceInfo(new ColumnIdent(incrementalColumn));
+            if (referenceInfo == null) {
+                throw new ColumnUnknownException(incrementalColumn);
+            }
+            if (!INCREMENTAL_COLUMN_TYPES.contains(referenceInfo.type())) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Incremental column '%s' of a materialized view must be of type timestamp or of a numeric type",
+                        incrementalColumn));
+            }
+        }
+        return definition;
+    }
+
+    private static boolean isMergeableAggregation(Symbol symbol) {
+        if (!(symbol instanceof Function)) {
+            return false;
+        }
+        FunctionInfo info = ((Function) symbol).info();
+        return info.type() == FunctionInfo.Type.AGGREGATE
+               && MergeStateFunction.SUPPORTED_AGGREGATIONS.contains(info.ident().name());
+    }
+
+    private static String defaultSchema(ParameterContext parameterContext) {
+        String defaultSchema = parameterContext.defaultSchema();
+        return defaultSchema == null ? Schemas.DEFAULT_SCHEMA_NAME : defaultSchema;
+    }
+
+    private static Optional<Expression> and(Optional<Expression> where, Expression expression) {
+        if (where.isPresent()) {
+            return Optional.<Expression>of(
+                    new LogicalBinaryExpression(LogicalBinaryExpression.Type.AND, where.get(), expression));
+        }
+        return Optional.of(expression);
+    }
+
+    private static Query query(Select select,
+                               List<Relation> from,
+                               Optional<Expression> where,
+                               List<Expression> groupBy) {
+        return new Query(
+                Optional.<With>absent(),
+                new QuerySpecification(
+                        select,
+                        from,
+                        where,
+                        groupBy,
+                        Optional.<Expression>absent(),
+                        ImmutableList.<SortItem>of(),
+                        Optional.<Expression>absent(),
+                        Optional.<Expression>absent()),
+                ImmutableList.<SortItem>of(),
+                Optional.<Expression>absent(),
+                Optional.<Expression>absent());
+    }
+
+    private static class ViewDefinition {
+
+        private final DocTableInfo source;
+        private final List<String> columns;
+        private final List<DataType> types;
+        private final List<String> aggregations;
+
+        ViewDefinition(DocTableInfo source, int size) {
+            this.source = source;
+            columns = new ArrayList<>(size);
+            types = new ArrayList<>(size);
+            aggregations = new ArrayList<>(size);
+        }
+
+        void add(String column, DataType type, @Nullable String aggregation) {
+            columns.add(column);
+            types.add(type);
+            aggregations.add(aggregation);
+        }
+    }
+}
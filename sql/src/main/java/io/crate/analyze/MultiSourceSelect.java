@@ -23,6 +23,7 @@ package io.crate.analyze;
 
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.QueriedRelation;
 import io.crate.metadata.OutputName;
 import io.crate.metadata.Path;
 import io.crate.planner.symbol.Field;
@@ -32,18 +33,21 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-public class MultiSourceSelect implements AnalyzedRelation {
+public class MultiSourceSelect implements QueriedRelation {
 
     private final Map<QualifiedName, AnalyzedRelation> sources;
     private final List<Field> fields;
     private final QuerySpec querySpec;
+    private final EquiJoin equiJoin;
 
     public MultiSourceSelect(
             Map<QualifiedName, AnalyzedRelation> sources,
             List<OutputName> outputNames,
-            QuerySpec querySpec){
+            QuerySpec querySpec,
+            EquiJoin equiJoin){
         this.querySpec = querySpec;
         this.sources = sources;
+        this.equiJoin = equiJoin;
         assert outputNames.size() == querySpec.outputs().size() : "size of outputNames and outputSymbols must match";
         fields = new ArrayList<>(outputNames.size());
         for (int i = 0; i < outputNames.size(); i++) {
@@ -55,6 +59,10 @@ public class MultiSourceSelect implements AnalyzedRelation {
         return sources;
     }
 
+    public EquiJoin equiJoin() {
+        return equiJoin;
+    }
+
     public void normalize(EvaluatingNormalizer normalizer) {
         querySpec.normalize(normalizer);
     }
@@ -79,6 +87,7 @@ public class MultiSourceSelect implements AnalyzedRelation {
         return fields;
     }
 
+    @Override
     public QuerySpec querySpec() {
         return querySpec;
     }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.sql.tree.InsertFromSubquery;
+import io.crate.sql.tree.Query;
+
+import javax.annotation.Nullable;
+
+/**
+ * A refresh of a materialized view is executed as an
+ * <code>INSERT INTO view (SELECT ...) ON DUPLICATE KEY UPDATE ...</code> statement
+ * which is analyzed once the watermark of the refresh is known.
+ *
+ * If the view is maintained incrementally the refresh statement expects the new watermark
+ * and the incremental refresh statement the old and the new watermark as parameters.
+ */
+public class RefreshMaterializedViewAnalyzedStatement extends AbstractDDLAnalyzedStatement {
+
+    private final DocTableInfo view;
+    private final DocTableInfo source;
+    private final String defaultSchema;
+    private final InsertFromSubquery refreshStatement;
+    private final InsertFromSubquery incrementalRefreshStatement;
+    private final Query watermarkQuery;
+
+    public RefreshMaterializedViewAnalyzedStatement(DocTableInfo view,
+                                                    DocTableInfo source,
+                                                    String defaultSchema,
+                                                    InsertFromSubquery refreshStatement,
+                                                    @Nullable InsertFromSubquery incrementalRefreshStatement,
+                                                    @Nullable Query watermarkQuery) {
+        this.view = view;
+        this.source = source;
+        this.defaultSchema = defaultSchema;
+        this.refreshStatement = refreshStatement;
+        this.incrementalRefreshStatement = incrementalRefreshStatement;
+        this.watermarkQuery = watermarkQuery;
+    }
+
+    public DocTableInfo view() {
+        return view;
+    }
+
+    /**
+     * the table the view is defined on
+     */
+    public DocTableInfo source() {
+        return source;
+    }
+
+    /**
+     * the schema which was the default schema when the view was created,
+     * used to resolve the tables of the view definition
+     */
+    public String defaultSchema() {
+        return defaultSchema;
+    }
+
+    /**
+     * statement which aggregates all rows (up to the new watermark) and overwrites the stored states
+     */
+    public InsertFromSubquery refreshStatement() {
+        return refreshStatement;
+    }
+
+    /**
+     * statement which aggregates the rows between the old and the new watermark and merges
+     * them into the stored states or null if the view is not maintained incrementally
+     */
+    @Nullable
+    public InsertFromSubquery incrementalRefreshStatement() {
+        return incrementalRefreshStatement;
+    }
+
+    /**
+     * query which returns the new watermark or null if the view is not maintained incrementally
+     */
+    @Nullable
+    public Query watermarkQuery() {
+        return watermarkQuery;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedStatementVisitor<C, R> analyzedStatementVisitor, C context) {
+        return analyzedStatementVisitor.visitRefreshMaterializedViewStatement(this, context);
+    }
+}
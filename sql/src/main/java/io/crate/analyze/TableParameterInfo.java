@@ -26,6 +26,8 @@ import com.google.common.collect.ImmutableMap;
 import io.crate.blob.v2.BlobIndices;
 import io.crate.metadata.settings.CrateTableSettings;
 import io.crate.metadata.table.ColumnPolicy;
+import io.crate.operation.cache.ResultCache;
+import io.crate.operation.cache.RowCache;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.cluster.routing.allocation.decider.EnableAllocationDecider;
@@ -59,6 +61,8 @@ public class TableParameterInfo {
     public static final String RECOVERY_INITIAL_SHARDS = LocalGatewayAllocator.INDEX_RECOVERY_INITIAL_SHARDS;
     public static final String WARMER_ENABLED = IndicesWarmer.INDEX_WARMER_ENABLED;
     public static final String UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT = UnassignedInfo.INDEX_DELAYED_NODE_LEFT_TIMEOUT_SETTING;
+    public static final String ROW_CACHE_ENABLED = RowCache.INDEX_ROW_CACHE_ENABLED;
+    public static final String RESULT_CACHE_ENABLED = ResultCache.INDEX_RESULT_CACHE_ENABLED;
 
     // all available table mapping keys
     public static final String COLUMN_POLICY = ColumnPolicy.ES_MAPPING_NAME;
@@ -82,6 +86,8 @@ public class TableParameterInfo {
                     .add(RECOVERY_INITIAL_SHARDS)
                     .add(WARMER_ENABLED)
                     .add(UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT)
+                    .add(ROW_CACHE_ENABLED)
+                    .add(RESULT_CACHE_ENABLED)
                     .build();
 
     protected static final ImmutableList<String> SUPPORTED_INTERNAL_SETTINGS =
@@ -132,6 +138,8 @@ public class TableParameterInfo {
                 .put(TableParameterInfo.TOTAL_SHARDS_PER_NODE, CrateTableSettings.TOTAL_SHARDS_PER_NODE.extract(settings))
                 .put(TableParameterInfo.RECOVERY_INITIAL_SHARDS, CrateTableSettings.RECOVERY_INITIAL_SHARDS.extract(settings))
                 .put(TableParameterInfo.WARMER_ENABLED, CrateTableSettings.WARMER_ENABLED.extract(settings))
+                .put(TableParameterInfo.ROW_CACHE_ENABLED, CrateTableSettings.ROW_CACHE_ENABLED.extract(settings))
+                .put(TableParameterInfo.RESULT_CACHE_ENABLED, CrateTableSettings.RESULT_CACHE_ENABLED.extract(settings))
                 .put(TableParameterInfo.GATEWAY_LOCAL_SYNC, CrateTableSettings.GATEWAY_LOCAL_SYNC.extractMillis(settings))
                 .put(TableParameterInfo.REFRESH_INTERVAL, CrateTableSettings.REFRESH_INTERVAL.extractMillis(settings))
                 .put(TableParameterInfo.UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT, CrateTableSettings.UNASSIGNED_NODE_LEFT_DELAYED_TIMEOUT.extractMillis(settings))
@@ -0,0 +1,127 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import java.io.IOException;
+
+/**
+ * The sample of a table given by <code>TABLESAMPLE BERNOULLI|SYSTEM (percentage) [REPEATABLE (seed)]</code>
+ */
+public class TableSample implements Streamable {
+
+    public enum Method {
+        /**
+         * every document is included with the given probability
+         */
+        BERNOULLI,
+        /**
+         * blocks of consecutive documents are included with the given probability
+         */
+        SYSTEM
+    }
+
+    private Method method;
+    private double percentage;
+    private long seed;
+
+    public TableSample(Method method, double percentage, long seed) {
+        Preconditions.checkArgument(percentage >= 0.0 && percentage <= 100.0,
+                "TABLESAMPLE percentage must be between 0 and 100, got: %s", percentage);
+        this.method = method;
+        this.percentage = percentage;
+        this.seed = seed;
+    }
+
+    private TableSample() {}
+
+    public Method method() {
+        return method;
+    }
+
+    public double percentage() {
+        return percentage;
+    }
+
+    /**
+     * @return the probability of a document or block to be included, between 0 and 1
+     */
+    public double fraction() {
+        return percentage / 100.0;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public static void toStream(TableSample tableSample, StreamOutput out) throws IOException {
+        tableSample.writeTo(out);
+    }
+
+    public static TableSample fromStream(StreamInput in) throws IOException {
+        TableSample tableSample = new TableSample();
+        tableSample.readFrom(in);
+        return tableSample;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        method = Method.values()[in.readVInt()];
+        percentage = in.readDouble();
+        seed = in.readLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(method.ordinal());
+        out.writeDouble(percentage);
+        out.writeLong(seed);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TableSample that = (TableSample) o;
+        return Double.compare(that.percentage, percentage) == 0 && seed == that.seed && method == that.method;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(method, percentage, seed);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("method", method)
+                .add("percentage", percentage)
+                .add("seed", seed)
+                .toString();
+    }
+}
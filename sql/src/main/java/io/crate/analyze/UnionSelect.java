@@ -0,0 +1,94 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.metadata.Path;
+import io.crate.planner.symbol.Field;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The union of the results of multiple queries.
+ *
+ * The outputs of the {@link #querySpec()} are {@link io.crate.planner.symbol.InputColumn}s
+ * which point to the outputs of the branches, ORDER BY, LIMIT and OFFSET apply to the union.
+ * The output names are the ones of the first branch.
+ */
+public class UnionSelect implements QueriedRelation {
+
+    private final List<QueriedDocTable> relations;
+    private final boolean distinct;
+    private final QuerySpec querySpec;
+    private final List<Field> fields;
+
+    public UnionSelect(List<QueriedDocTable> relations, boolean distinct, QuerySpec querySpec) {
+        assert !relations.isEmpty() : "a union needs at least one relation";
+        this.relations = relations;
+        this.distinct = distinct;
+        this.querySpec = querySpec;
+        List<Field> firstFields = relations.get(0).fields();
+        fields = new ArrayList<>(firstFields.size());
+        for (int i = 0; i < firstFields.size(); i++) {
+            fields.add(new Field(this, firstFields.get(i).path(), querySpec.outputs().get(i).valueType()));
+        }
+    }
+
+    public List<QueriedDocTable> relations() {
+        return relations;
+    }
+
+    /**
+     * @return true for UNION (DISTINCT), false for UNION ALL
+     */
+    public boolean isDistinct() {
+        return distinct;
+    }
+
+    @Override
+    public QuerySpec querySpec() {
+        return querySpec;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
+        return visitor.visitUnionSelect(this, context);
+    }
+
+    @Override
+    public Field getField(Path path) {
+        throw new UnsupportedOperationException("getField on UnionSelect is not implemented");
+    }
+
+    @Override
+    public Field getWritableField(Path path) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("UnionSelect is not writable");
+    }
+
+    @Override
+    public List<Field> fields() {
+        return fields;
+    }
+}
@@ -24,6 +24,7 @@ package io.crate.analyze.relations;
 import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.QueriedTable;
+import io.crate.analyze.UnionSelect;
 import io.crate.analyze.UpdateAnalyzedStatement;
 
 import javax.annotation.Nullable;
@@ -50,6 +51,10 @@ public abstract class AnalyzedRelationVisitor<C, R> {
         return visitAnalyzedRelation(multiSourceSelect, context);
     }
 
+    public R visitUnionSelect(UnionSelect unionSelect, C context) {
+        return visitAnalyzedRelation(unionSelect, context);
+    }
+
     public R visitTableRelation(TableRelation tableRelation, C context) {
         return visitAnalyzedRelation(tableRelation, context);
     }
@@ -22,6 +22,7 @@
 package io.crate.analyze.relations;
 
 import io.crate.analyze.OrderBy;
+import io.crate.analyze.TableSample;
 import io.crate.exceptions.ColumnUnknownException;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Path;
@@ -65,10 +66,24 @@ public class DocTableRelation extends AbstractTableRelation<DocTableInfo> {
     }
 
 
+    private TableSample tableSample;
+
     public DocTableRelation(DocTableInfo tableInfo) {
         super(tableInfo);
     }
 
+    /**
+     * @return the sample of the table if only a sample of its rows should be read, otherwise null
+     */
+    @Nullable
+    public TableSample tableSample() {
+        return tableSample;
+    }
+
+    public void tableSample(@Nullable TableSample tableSample) {
+        this.tableSample = tableSample;
+    }
+
     @Override
     public <C, R> R accept(AnalyzedRelationVisitor<C, R> visitor, C context) {
         return visitor.visitDocTableRelation(this, context);
@@ -0,0 +1,246 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze.relations;
+
+import io.crate.analyze.AnalysisMetaData;
+import io.crate.analyze.EquiJoin;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.OutputName;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.planner.symbol.*;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Splits the conditions of a join between two tables into
+ *
+ *  - conditions which only reference one of the tables, they're evaluated while collecting the table
+ *  - equality comparisons between both tables, which are used as join keys
+ *  - all other conditions, they're evaluated on the joined rows
+ */
+class EquiJoinAnalyzer {
+
+    private static final RelationsCollector RELATIONS_COLLECTOR = new RelationsCollector();
+
+    static EquiJoin analyze(DocTableRelation left,
+                            DocTableRelation right,
+                            QuerySpec querySpec,
+                            List<Symbol> joinConditions,
+                            AnalysisMetaData analysisMetaData) {
+        List<Symbol> conjunctions = new ArrayList<>();
+        WhereClause where = querySpec.where();
+        boolean noMatch = where.noMatch();
+        if (where.hasQuery()) {
+            splitConjunctions(where.query(), conjunctions);
+        }
+        for (Symbol joinCondition : joinConditions) {
+            splitConjunctions(joinCondition, conjunctions);
+        }
+
+        List<Symbol> leftConditions = new ArrayList<>();
+        List<Symbol> rightConditions = new ArrayList<>();
+        List<Symbol> leftKeys = new ArrayList<>();
+        List<Symbol> rightKeys = new ArrayList<>();
+        List<Symbol> remaining = new ArrayList<>();
+        for (Symbol conjunction : conjunctions) {
+            Set<AnalyzedRelation> relations = relations(conjunction);
+            if (relations.isEmpty()) {
+                leftConditions.add(conjunction);
+                rightConditions.add(conjunction);
+            } else if (relations.size() == 1) {
+                if (relations.contains(left)) {
+                    leftConditions.add(conjunction);
+                } else {
+                    rightConditions.add(conjunction);
+                }
+            } else if (!addJoinKeys(conjunction, left, leftKeys, rightKeys)) {
+                remaining.add(conjunction);
+            }
+        }
+        if (leftKeys.isEmpty()) {
+            throw new UnsupportedOperationException(
+                    "Only equi-joins are supported, the join condition must compare columns of both tables using '='");
+        }
+
+        // columns which are required after the join
+        List<Symbol> usedSymbols = new ArrayList<>(querySpec.outputs());
+        if (querySpec.orderBy() != null) {
+            usedSymbols.addAll(querySpec.orderBy().orderBySymbols());
+        }
+        usedSymbols.addAll(remaining);
+        List<Symbol> leftSymbols = sideSymbols(left, leftKeys, usedSymbols);
+        List<Symbol> rightSymbols = sideSymbols(right, rightKeys, usedSymbols);
+
+        return new EquiJoin(
+                queriedTable(left, leftSymbols, leftConditions, noMatch, analysisMetaData),
+                leftSymbols,
+                queriedTable(right, rightSymbols, rightConditions, noMatch, analysisMetaData),
+                rightSymbols,
+                leftKeys.size(),
+                remaining.isEmpty() ? null : and(remaining)
+        );
+    }
+
+    private static void splitConjunctions(Symbol query, List<Symbol> conjunctions) {
+        if (query instanceof Function && ((Function) query).info().ident().name().equals(AndOperator.NAME)) {
+            for (Symbol argument : ((Function) query).arguments()) {
+                splitConjunctions(argument, conjunctions);
+            }
+        } else {
+            conjunctions.add(query);
+        }
+    }
+
+    /**
+     * adds the arguments of an equality comparison with one argument per table to the join keys
+     *
+     * @return false if the condition is not such a comparison
+     */
+    private static boolean addJoinKeys(Symbol condition,
+                                       AnalyzedRelation left,
+                                       List<Symbol> leftKeys,
+                                       List<Symbol> rightKeys) {
+        if (!(condition instanceof Function)) {
+            return false;
+        }
+        Function function = (Function) condition;
+        if (!function.info().ident().name().equals(EqOperator.NAME)) {
+            return false;
+        }
+        Symbol first = function.arguments().get(0);
+        Symbol second = function.arguments().get(1);
+        Set<AnalyzedRelation> firstRelations = relations(first);
+        Set<AnalyzedRelation> secondRelations = relations(second);
+        if (firstRelations.size() != 1 || secondRelations.size() != 1 || firstRelations.equals(secondRelations)) {
+            return false;
+        }
+        if (firstRelations.contains(left)) {
+            leftKeys.add(first);
+            rightKeys.add(second);
+        } else {
+            leftKeys.add(second);
+            rightKeys.add(first);
+        }
+        return true;
+    }
+
+    private static List<Symbol> sideSymbols(AnalyzedRelation relation, List<Symbol> keys, List<Symbol> usedSymbols) {
+        Set<Symbol> fields = new LinkedHashSet<>();
+        for (Symbol symbol : usedSymbols) {
+            RELATIONS_COLLECTOR.process(symbol, new RelationsCollector.Context(relation, fields));
+        }
+        List<Symbol> symbols = new ArrayList<>(keys.size() + fields.size());
+        symbols.addAll(keys);
+        for (Symbol field : fields) {
+            if (!symbols.contains(field)) {
+                symbols.add(field);
+            }
+        }
+        return symbols;
+    }
+
+    private static QueriedDocTable queriedTable(DocTableRelation relation,
+                                                List<Symbol> symbols,
+                                                List<Symbol> conditions,
+                                                boolean noMatch,
+                                                AnalysisMetaData analysisMetaData) {
+        WhereClause where;
+        if (noMatch) {
+            where = WhereClause.NO_MATCH;
+        } else if (conditions.isEmpty()) {
+            where = WhereClause.MATCH_ALL;
+        } else {
+            where = new WhereClause(and(conditions));
+        }
+        List<OutputName> outputNames = new ArrayList<>(symbols.size());
+        for (Symbol symbol : symbols) {
+            outputNames.add(new OutputName(SymbolFormatter.format(symbol)));
+        }
+        QuerySpec querySpec = new QuerySpec()
+                .outputs(new ArrayList<>(symbols))
+                .where(where);
+        QueriedDocTable queriedDocTable = new QueriedDocTable(relation, outputNames, querySpec);
+        queriedDocTable.normalize(analysisMetaData);
+        return queriedDocTable;
+    }
+
+    private static Symbol and(List<Symbol> conditions) {
+        Symbol query = conditions.get(0);
+        for (int i = 1; i < conditions.size(); i++) {
+            query = new Function(AndOperator.INFO, Arrays.asList(query, conditions.get(i)));
+        }
+        return query;
+    }
+
+    private static Set<AnalyzedRelation> relations(Symbol symbol) {
+        Set<AnalyzedRelation> relations = Collections.newSetFromMap(new IdentityHashMap<AnalyzedRelation, Boolean>());
+        RELATIONS_COLLECTOR.process(symbol, new RelationsCollector.Context(relations));
+        return relations;
+    }
+
+    /**
+     * collects the relations referenced by a symbol or,
+     * if a relation is given, the fields of that relation
+     */
+    private static class RelationsCollector extends DefaultTraversalSymbolVisitor<RelationsCollector.Context, Void> {
+
+        static class Context {
+
+            private final AnalyzedRelation relation;
+            private final Collection<AnalyzedRelation> relations;
+            private final Collection<Symbol> fields;
+
+            Context(Collection<AnalyzedRelation> relations) {
+                this.relation = null;
+                this.relations = relations;
+                this.fields = null;
+            }
+
+            Context(AnalyzedRelation relation, Collection<Symbol> fields) {
+                this.relation = relation;
+                this.relations = null;
+                this.fields = fields;
+            }
+        }
+
+        @Override
+        public Void visitField(Field field, Context context) {
+            if (context.relation == null) {
+                context.relations.add(field.relation());
+            } else if (field.relation() == context.relation) {
+                context.fields.add(field);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitMatchPredicate(MatchPredicate matchPredicate, Context context) {
+            for (Field field : matchPredicate.identBoostMap().keySet()) {
+                process(field, context);
+            }
+            return null;
+        }
+    }
+}
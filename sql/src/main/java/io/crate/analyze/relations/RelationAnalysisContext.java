@@ -25,17 +25,18 @@ import io.crate.analyze.AnalysisMetaData;
 import io.crate.analyze.ParameterContext;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
 import io.crate.analyze.expressions.ExpressionAnalyzer;
+import io.crate.planner.symbol.Symbol;
 import io.crate.sql.tree.QualifiedName;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class RelationAnalysisContext {
 
     private final ExpressionAnalysisContext expressionAnalysisContext;
     private ExpressionAnalyzer expressionAnalyzer;
-    private Map<QualifiedName, AnalyzedRelation> sources = new HashMap<>();
+    // keep the order of the FROM clause, the first relation is the left side of a join
+    private Map<QualifiedName, AnalyzedRelation> sources = new LinkedHashMap<>();
+    private final List<Symbol> joinConditions = new ArrayList<>();
     private ParameterContext parameterContext;
     private AnalysisMetaData analysisMetaData;
     private FullQualifedNameFieldProvider fieldProvider;
@@ -51,17 +52,35 @@ public class RelationAnalysisContext {
     }
 
     public void addSourceRelation(String nameOrAlias, AnalyzedRelation relation) {
-        sources.put(new QualifiedName(nameOrAlias), relation);
+        addSourceRelation(new QualifiedName(nameOrAlias), relation);
     }
 
     public void addSourceRelation(String schemaName, String nameOrAlias, AnalyzedRelation relation) {
-        sources.put(new QualifiedName(Arrays.asList(schemaName, nameOrAlias)), relation);
+        addSourceRelation(new QualifiedName(Arrays.asList(schemaName, nameOrAlias)), relation);
+    }
+
+    private void addSourceRelation(QualifiedName name, AnalyzedRelation relation) {
+        if (sources.put(name, relation) != null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Relation '%s' is specified more than once, use an alias to distinguish them", name));
+        }
     }
 
     public Map<QualifiedName, AnalyzedRelation> sources() {
         return sources;
     }
 
+    /**
+     * conditions of the ON or USING clause of a join, they're treated like conjunctions of the WHERE clause
+     */
+    public void addJoinCondition(Symbol condition) {
+        joinConditions.add(condition);
+    }
+
+    public List<Symbol> joinConditions() {
+        return joinConditions;
+    }
+
     public ExpressionAnalyzer expressionAnalyzer(){
         if (expressionAnalyzer == null){
             expressionAnalyzer = new ExpressionAnalyzer(analysisMetaData, parameterContext(),
@@ -24,8 +24,10 @@ package io.crate.analyze.relations;
 import com.google.common.base.Optional;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import io.crate.analyze.*;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
+import io.crate.analyze.expressions.ExpressionToNumberVisitor;
 import io.crate.analyze.relations.select.SelectAnalyzer;
 import io.crate.analyze.validator.GroupBySymbolValidator;
 import io.crate.analyze.validator.HavingSymbolValidator;
@@ -40,12 +42,14 @@ import io.crate.metadata.table.TableInfo;
 import io.crate.planner.symbol.*;
 import io.crate.planner.symbol.Literal;
 import io.crate.sql.tree.*;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Singleton
 public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation, RelationAnalysisContext> {
@@ -70,9 +74,172 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
 
     @Override
     protected AnalyzedRelation visitQuery(Query node, RelationAnalysisContext context) {
+        if (node.getQueryBody() instanceof Union) {
+            return analyzeUnion((Union) node.getQueryBody(),
+                    node.getOrderBy(), node.getLimit(), node.getOffset(), context);
+        }
         return process(node.getQueryBody(), context);
     }
 
+    @Override
+    protected AnalyzedRelation visitUnion(Union node, RelationAnalysisContext context) {
+        return analyzeUnion(node,
+                Collections.<SortItem>emptyList(), Optional.<Expression>absent(), Optional.<Expression>absent(), context);
+    }
+
+    /**
+     * every branch of the union is analyzed on its own, the outputs of the union are
+     * {@link InputColumn}s pointing to the outputs of the branches
+     */
+    private UnionSelect analyzeUnion(Union node,
+                                     List<SortItem> orderBy,
+                                     Optional<Expression> limit,
+                                     Optional<Expression> offset,
+                                     RelationAnalysisContext context) {
+        List<Relation> branches = new ArrayList<>();
+        flattenUnion(node, branches);
+        if (branches.size() > Byte.MAX_VALUE + 1) {
+            throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
+                    "UNION of more than %d queries is not supported", Byte.MAX_VALUE + 1));
+        }
+        List<QueriedDocTable> relations = new ArrayList<>(branches.size());
+        // the ORDER BY and LIMIT of the union are analyzed in the context of the first query
+        RelationAnalysisContext firstContext = null;
+        for (Relation branch : branches) {
+            RelationAnalysisContext branchContext =
+                    new RelationAnalysisContext(context.parameterContext(), analysisMetaData);
+            if (firstContext == null) {
+                firstContext = branchContext;
+            }
+            AnalyzedRelation relation = process(branch, branchContext);
+            if (!(relation instanceof QueriedDocTable)) {
+                throw new UnsupportedOperationException("UNION is only supported on queries of user tables");
+            }
+            QuerySpec querySpec = ((QueriedDocTable) relation).querySpec();
+            if (querySpec.hasAggregates() || querySpec.groupBy() != null) {
+                throw new UnsupportedOperationException(
+                        "UNION is not supported on queries with aggregations, GROUP BY or DISTINCT");
+            }
+            if (querySpec.orderBy() != null || querySpec.isLimited()) {
+                throw new UnsupportedOperationException(
+                        "ORDER BY, LIMIT and OFFSET can only be applied to the whole UNION");
+            }
+            relations.add((QueriedDocTable) relation);
+        }
+
+        List<Symbol> firstOutputs = relations.get(0).querySpec().outputs();
+        List<DataType> types = Symbols.extractTypes(firstOutputs);
+        for (int i = 1; i < relations.size(); i++) {
+            QuerySpec querySpec = relations.get(i).querySpec();
+            if (querySpec.outputs().size() != types.size()) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Each query of a UNION must have the same number of columns, expected %d but got %d",
+                        types.size(), querySpec.outputs().size()));
+            }
+            int failedCastPosition = querySpec.castOutputs(types.iterator());
+            if (failedCastPosition > -1) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Column %d of the queries of a UNION has incompatible types '%s' and '%s'",
+                        failedCastPosition + 1,
+                        types.get(failedCastPosition),
+                        querySpec.outputs().get(failedCastPosition).valueType()));
+            }
+        }
+
+        List<Symbol> outputs = new ArrayList<>(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            outputs.add(new InputColumn(i, types.get(i)));
+        }
+        QuerySpec querySpec = new QuerySpec()
+                .outputs(outputs)
+                .orderBy(analyzeUnionOrderBy(orderBy, relations.get(0), outputs, firstContext))
+                .limit(firstContext.expressionAnalyzer().integerFromExpression(limit))
+                .offset(firstContext.expressionAnalyzer().integerFromExpression(offset));
+        return new UnionSelect(relations, node.isDistinct(), querySpec);
+    }
+
+    private static void flattenUnion(Union union, List<Relation> branches) {
+        for (Relation relation : union.getRelations()) {
+            if (relation instanceof Union) {
+                Union nested = (Union) relation;
+                if (nested.isDistinct() && !union.isDistinct()) {
+                    throw new UnsupportedOperationException("UNION ALL of the result of a UNION is not supported");
+                }
+                flattenUnion(nested, branches);
+            } else {
+                branches.add(relation);
+            }
+        }
+    }
+
+    /**
+     * the ORDER BY of a union can only reference its outputs, either by the output names
+     * of the first query or by position
+     */
+    @Nullable
+    private OrderBy analyzeUnionOrderBy(List<SortItem> orderBy,
+                                        QueriedDocTable firstRelation,
+                                        List<Symbol> outputs,
+                                        RelationAnalysisContext context) {
+        int size = orderBy.size();
+        if (size == 0) {
+            return null;
+        }
+        List<Symbol> symbols = new ArrayList<>(size);
+        boolean[] reverseFlags = new boolean[size];
+        Boolean[] nullsFirst = new Boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            SortItem sortItem = orderBy.get(i);
+            Expression sortKey = sortItem.getSortKey();
+            Symbol symbol = null;
+            if (sortKey instanceof QualifiedNameReference) {
+                String name = ((QualifiedNameReference) sortKey).getName().toString();
+                for (int j = 0; j < firstRelation.fields().size(); j++) {
+                    if (firstRelation.fields().get(j).path().outputName().equals(name)) {
+                        if (symbol != null) {
+                            throw new AmbiguousColumnAliasException(name);
+                        }
+                        symbol = outputs.get(j);
+                    }
+                }
+                if (symbol == null) {
+                    throw new ColumnUnknownException(name);
+                }
+            } else {
+                Symbol converted = context.expressionAnalyzer().convert(sortKey, context.expressionAnalysisContext());
+                if (!converted.symbolType().isValueSymbol()) {
+                    throw new UnsupportedOperationException(
+                            "ORDER BY of a UNION must reference an output column by name or position");
+                }
+                Literal longLiteral;
+                try {
+                    longLiteral = Literal.convert(converted, DataTypes.LONG);
+                } catch (ClassCastException | IllegalArgumentException e) {
+                    throw new UnsupportedOperationException(String.format(
+                            "Cannot use %s in ORDER BY clause", SymbolFormatter.format(converted)));
+                }
+                symbol = ordinalOutputReference(outputs, longLiteral, "ORDER BY");
+            }
+            SemanticSortValidator.validate(firstRelation.querySpec().outputs().get(((InputColumn) symbol).index()));
+
+            symbols.add(symbol);
+            switch (sortItem.getNullOrdering()) {
+                case FIRST:
+                    nullsFirst[i] = true;
+                    break;
+                case LAST:
+                    nullsFirst[i] = false;
+                    break;
+                case UNDEFINED:
+                    nullsFirst[i] = null;
+                    break;
+            }
+            reverseFlags[i] = sortItem.getOrdering() == SortItem.Ordering.DESCENDING;
+        }
+        return new OrderBy(symbols, reverseFlags, nullsFirst);
+    }
+
     @Override
     protected AnalyzedRelation visitQuerySpecification(QuerySpecification node, RelationAnalysisContext context) {
         if (node.getFrom() == null) {
@@ -81,9 +248,10 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
         for (Relation relation : node.getFrom()) {
             process(relation, context);
         }
-        if (context.sources().size() != 1) {
+        if (context.sources().size() > 2) {
             throw new UnsupportedOperationException
-                    ("Only exactly one table is allowed in the FROM clause, got: " + context.sources().size());
+                    ("Only one table or a join of two tables is allowed in the FROM clause, got: " +
+                     context.sources().size());
         }
         ExpressionAnalysisContext expressionAnalysisContext = context.expressionAnalysisContext();
 
@@ -125,12 +293,34 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
             relation.normalize(analysisMetaData);
             return relation;
         }
-        // TODO: implement multi table selects
-        // once this is used .normalize should for this class needs to be handled here too
+        return analyzeJoin(context, selectAnalysis, querySpec, node.getSelect().isDistinct());
+    }
+
+    private MultiSourceSelect analyzeJoin(RelationAnalysisContext context,
+                                          SelectAnalyzer.SelectAnalysis selectAnalysis,
+                                          QuerySpec querySpec,
+                                          boolean isDistinct) {
+        if (querySpec.hasAggregates() || querySpec.groupBy() != null || querySpec.having() != null || isDistinct) {
+            throw new UnsupportedOperationException(
+                    "GROUP BY, HAVING, DISTINCT and aggregations are not supported on joins");
+        }
+        Iterator<AnalyzedRelation> it = context.sources().values().iterator();
+        AnalyzedRelation left = it.next();
+        AnalyzedRelation right = it.next();
+        if (!(left instanceof DocTableRelation) || !(right instanceof DocTableRelation)) {
+            throw new UnsupportedOperationException("Joins are only supported between user tables");
+        }
+        EquiJoin equiJoin = EquiJoinAnalyzer.analyze(
+                (DocTableRelation) left,
+                (DocTableRelation) right,
+                querySpec,
+                context.joinConditions(),
+                analysisMetaData);
         return new MultiSourceSelect(
                 context.sources(),
                 selectAnalysis.outputNames(),
-                querySpec
+                querySpec,
+                equiJoin
         );
     }
 
@@ -327,6 +517,44 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
         return symbols.iterator().next();
     }
 
+    @Override
+    protected AnalyzedRelation visitJoin(Join node, RelationAnalysisContext context) {
+        Set<QualifiedName> previousNames = new HashSet<>(context.sources().keySet());
+        process(node.getLeft(), context);
+        Set<QualifiedName> leftNames = new HashSet<>(context.sources().keySet());
+        process(node.getRight(), context);
+
+        switch (node.getType()) {
+            case CROSS:
+                return null;
+            case INNER:
+                break;
+            default:
+                throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
+                        "%s JOIN is not supported, only INNER and CROSS joins are supported", node.getType()));
+        }
+        JoinCriteria criteria = node.getCriteria().get();
+        if (criteria instanceof JoinOn) {
+            addJoinCondition(((JoinOn) criteria).getExpression(), context);
+        } else if (criteria instanceof JoinUsing) {
+            QualifiedName leftName = Iterables.getOnlyElement(Sets.difference(leftNames, previousNames));
+            QualifiedName rightName = Iterables.getOnlyElement(Sets.difference(context.sources().keySet(), leftNames));
+            for (String column : ((JoinUsing) criteria).getColumns()) {
+                addJoinCondition(new ComparisonExpression(ComparisonExpression.Type.EQUAL,
+                        new QualifiedNameReference(QualifiedName.of(leftName, column)),
+                        new QualifiedNameReference(QualifiedName.of(rightName, column))), context);
+            }
+        } else {
+            throw new UnsupportedOperationException("NATURAL JOIN is not supported");
+        }
+        return null;
+    }
+
+    private void addJoinCondition(Expression condition, RelationAnalysisContext context) {
+        context.addJoinCondition(context.expressionAnalyzer().normalize(
+                context.expressionAnalyzer().convert(condition, context.expressionAnalysisContext())));
+    }
+
     @Override
     protected AnalyzedRelation visitAliasedRelation(AliasedRelation node, RelationAnalysisContext context) {
         AnalyzedRelation childRelation = process(node.getRelation(),
@@ -335,6 +563,36 @@ public class RelationAnalyzer extends DefaultTraversalVisitor<AnalyzedRelation,
         return childRelation;
     }
 
+    @Override
+    protected AnalyzedRelation visitSampledRelation(SampledRelation node, RelationAnalysisContext context) {
+        AnalyzedRelation relation = process(node.getRelation(), context);
+        if (!(relation instanceof DocTableRelation)) {
+            throw new UnsupportedOperationException("TABLESAMPLE is only supported on user tables");
+        }
+        if (node.getColumnsToStratifyOn().isPresent()) {
+            throw new UnsupportedOperationException("TABLESAMPLE with STRATIFY ON is not supported");
+        }
+        Object[] parameters = context.parameterContext().parameters();
+        Number percentage = ExpressionToNumberVisitor.convert(node.getSamplePercentage(), parameters);
+        if (percentage == null) {
+            throw new IllegalArgumentException("TABLESAMPLE percentage must not be null");
+        }
+        long seed;
+        if (node.getSeed().isPresent()) {
+            Number seedValue = ExpressionToNumberVisitor.convert(node.getSeed().get(), parameters);
+            if (seedValue == null) {
+                throw new IllegalArgumentException("TABLESAMPLE REPEATABLE seed must not be null");
+            }
+            seed = seedValue.longValue();
+        } else {
+            seed = ThreadLocalRandom.current().nextLong();
+        }
+        TableSample.Method method = node.getType() == SampledRelation.Type.SYSTEM
+                ? TableSample.Method.SYSTEM : TableSample.Method.BERNOULLI;
+        ((DocTableRelation) relation).tableSample(new TableSample(method, percentage.doubleValue(), seed));
+        return relation;
+    }
+
     @Override
     protected AnalyzedRelation visitTable(Table node, RelationAnalysisContext context) {
         TableInfo tableInfo = analysisMetaData.referenceInfos().getTableInfo(
@@ -33,6 +33,7 @@ import io.crate.executor.JobTask;
 import io.crate.executor.TaskResult;
 import io.crate.jobs.*;
 import io.crate.operation.*;
+import io.crate.operation.profile.JobProfiles;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.planner.node.ExecutionPhase;
 import io.crate.planner.node.ExecutionPhases;
@@ -62,6 +63,8 @@ public class ExecutionPhasesTask extends JobTask {
 
     private final List<SettableFuture<TaskResult>> results = new ArrayList<>();
     private boolean hasDirectResponse;
+    @Nullable
+    private JobProfiles jobProfiles;
 
     protected ExecutionPhasesTask(UUID jobId,
                                   ClusterService clusterService,
@@ -89,8 +92,18 @@ public class ExecutionPhasesTask extends JobTask {
         }
     }
 
+    /**
+     * record the runtime statistics of all execution phases of this task on all involved nodes
+     */
+    public void profile(JobProfiles jobProfiles) {
+        this.jobProfiles = jobProfiles;
+    }
+
     @Override
     public void start() {
+        if (jobProfiles != null) {
+            jobProfiles.start(jobId());
+        }
         FluentIterable<NodeOperation> nodeOperations = FluentIterable.from(nodeOperationTrees)
                 .transformAndConcat(new Function<NodeOperationTree, Iterable<? extends NodeOperation>>() {
                     @Nullable
@@ -157,12 +170,13 @@ public class ExecutionPhasesTask extends JobTask {
 
     private void sendJobRequests(List<PageDownstreamContext> pageDownstreamContexts,
                                  Map<String, Collection<NodeOperation>> operationsByServer) {
+        String localNodeId = clusterService.localNode().id();
         int idx = 0;
         for (Map.Entry<String, Collection<NodeOperation>> entry : operationsByServer.entrySet()) {
             String serverNodeId = entry.getKey();
             Collection<NodeOperation> nodeOperations = entry.getValue();
 
-            JobRequest request = new JobRequest(jobId(), nodeOperations);
+            JobRequest request = new JobRequest(jobId(), nodeOperations, jobProfiles != null, localNodeId);
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request, new DirectResponseListener(idx, pageDownstreamContexts));
             } else {
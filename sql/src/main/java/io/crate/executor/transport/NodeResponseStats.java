@@ -0,0 +1,334 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.executor.transport.distributed.TransportDistributedResultAction;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.transport.TransportException;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportResponseHandler;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the response times and the number of outstanding requests of the fetch requests and the result page
+ * round-trips sent by this node, see {@link Transports}. Other node requests (e.g. job requests, whose response time
+ * depends on the whole job) aren't tracked.
+ *
+ * The response time is an exponentially weighted moving average, so that a node which becomes slow
+ * (GC, merges, ...) or fast again is noticed after a few requests.
+ *
+ * If adaptive replica selection is enabled, {@link #selectShard(ShardIterator)} prefers the shard copy
+ * on the node which is expected to respond fastest. A selected copy counts as an outstanding request of its node
+ * right away, so that concurrent queries don't all pick the same node before any request is sent. The request
+ * which is sent later takes over this reservation instead of being counted again.
+ */
+@Singleton
+public class NodeResponseStats {
+
+    public static final String ADAPTIVE_REPLICA_SELECTION_SETTING = "sql.routing.adaptive_replica_selection";
+
+    /**
+     * weight of a new response time in the moving average
+     */
+    static final double ALPHA = 0.3;
+
+    /**
+     * stats of a node which didn't get a request for this long are ignored, so that a node which was slow
+     * once is probed again eventually
+     */
+    static final long STALE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * not every selected copy is followed by a tracked request (e.g. a query without a fetch phase),
+     * so reservations which weren't taken over by a request expire after this long
+     */
+    static final long RESERVATION_EXPIRES_AFTER_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final Set<String> TRACKED_ACTIONS = ImmutableSet.of(
+            TransportFetchNodeAction.TRANSPORT_ACTION,
+            TransportDistributedResultAction.DISTRIBUTED_RESULT_ACTION);
+
+    private final ConcurrentMap<String, Stats> statsByNode = new ConcurrentHashMap<>();
+    private final boolean adaptiveReplicaSelection;
+
+    @Inject
+    public NodeResponseStats(Settings settings) {
+        this(settings.getAsBoolean(ADAPTIVE_REPLICA_SELECTION_SETTING, false));
+    }
+
+    NodeResponseStats(boolean adaptiveReplicaSelection) {
+        this.adaptiveReplicaSelection = adaptiveReplicaSelection;
+    }
+
+    public boolean adaptiveReplicaSelection() {
+        return adaptiveReplicaSelection;
+    }
+
+    /**
+     * @return true if the response times of the action are tracked
+     */
+    static boolean tracks(String actionName) {
+        return TRACKED_ACTIONS.contains(actionName);
+    }
+
+    /**
+     * @return a handler which records the response time of the request once the delegate handles the response
+     */
+    public <TResponse extends TransportResponse> TransportResponseHandler<TResponse> track(
+            String nodeId, final TransportResponseHandler<TResponse> delegate) {
+        final Stats stats = stats(nodeId);
+        final long startNanos = stats.requestSent();
+        return new TransportResponseHandler<TResponse>() {
+            @Override
+            public TResponse newInstance() {
+                return delegate.newInstance();
+            }
+
+            @Override
+            public void handleResponse(TResponse response) {
+                stats.responseReceived(startNanos);
+                delegate.handleResponse(response);
+            }
+
+            @Override
+            public void handleException(TransportException exp) {
+                stats.requestFailed();
+                delegate.handleException(exp);
+            }
+
+            @Override
+            public String executor() {
+                return delegate.executor();
+            }
+        };
+    }
+
+    /**
+     * @return a listener which records the response time of the request before it calls the delegate
+     */
+    public <TResponse> ActionListener<TResponse> track(String nodeId, final ActionListener<TResponse> delegate) {
+        final Stats stats = stats(nodeId);
+        final long startNanos = stats.requestSent();
+        return new ActionListener<TResponse>() {
+            @Override
+            public void onResponse(TResponse response) {
+                stats.responseReceived(startNanos);
+                delegate.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                stats.requestFailed();
+                delegate.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * @return the first shard copy of the iterator or, if adaptive replica selection is enabled,
+     *         the active copy which is expected to respond fastest.
+     *         If there are no stats for any of the nodes the first active copy is returned.
+     */
+    @Nullable
+    public ShardRouting selectShard(ShardIterator shardIterator) {
+        if (!adaptiveReplicaSelection) {
+            return shardIterator.nextOrNull();
+        }
+        List<ShardRouting> copies = new ArrayList<>(shardIterator.size());
+        ShardRouting shardRouting;
+        while ((shardRouting = shardIterator.nextOrNull()) != null) {
+            copies.add(shardRouting);
+        }
+        if (copies.isEmpty()) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        ShardRouting selected = null;
+        double selectedRank = Double.MAX_VALUE;
+        boolean hasStats = false;
+        ShardRouting firstWithoutStats = null;
+        for (ShardRouting copy : copies) {
+            if (!copy.active()) {
+                continue;
+            }
+            Stats stats = statsByNode.get(copy.currentNodeId());
+            if (stats == null || stats.isStale(now)) {
+                if (firstWithoutStats == null) {
+                    firstWithoutStats = copy;
+                }
+                continue;
+            }
+            hasStats = true;
+            double rank = stats.rank(now);
+            if (rank < selectedRank) {
+                selectedRank = rank;
+                selected = copy;
+            }
+        }
+        if (firstWithoutStats != null) {
+            // without any stats this is random as before, otherwise the unknown node gets probed
+            stats(firstWithoutStats.currentNodeId()).requestSelected(now);
+            return firstWithoutStats;
+        }
+        if (hasStats) {
+            stats(selected.currentNodeId()).requestSelected(now);
+            return selected;
+        }
+        // no active copy, the caller handles the missing shard
+        return copies.get(0);
+    }
+
+    public Map<String, Stats> stats() {
+        return Collections.unmodifiableMap(statsByNode);
+    }
+
+    Stats stats(String nodeId) {
+        Stats stats = statsByNode.get(nodeId);
+        if (stats == null) {
+            stats = new Stats();
+            Stats existing = statsByNode.putIfAbsent(nodeId, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    public static class Stats {
+
+        private final AtomicInteger outstandingRequests = new AtomicInteger(0);
+        private double avgResponseTimeNanos = -1;
+        private long responses = 0;
+        private long lastRequestNanos;
+        private int reservations = 0;
+        private long lastSelectedNanos;
+
+        /**
+         * a copy on the node was selected, the request to it is expected to follow
+         */
+        synchronized void requestSelected(long now) {
+            reservations(now);
+            reservations++;
+            lastSelectedNanos = now;
+        }
+
+        long requestSent() {
+            return requestSent(System.nanoTime());
+        }
+
+        synchronized long requestSent(long now) {
+            if (reservations(now) > 0) {
+                reservations--;
+            }
+            outstandingRequests.incrementAndGet();
+            lastRequestNanos = now;
+            return now;
+        }
+
+        /**
+         * failures are often fast (rejections, disconnects) and must not make a node look faster
+         */
+        void requestFailed() {
+            outstandingRequests.decrementAndGet();
+        }
+
+        void responseReceived(long startNanos) {
+            long now = System.nanoTime();
+            outstandingRequests.decrementAndGet();
+            recordResponseTime(now - startNanos, now);
+        }
+
+        private int reservations(long now) {
+            if (reservations > 0 && now - lastSelectedNanos > RESERVATION_EXPIRES_AFTER_NANOS) {
+                reservations = 0;
+            }
+            return reservations;
+        }
+
+        synchronized void recordResponseTime(long tookNanos, long now) {
+            if (avgResponseTimeNanos < 0) {
+                avgResponseTimeNanos = tookNanos;
+            } else {
+                avgResponseTimeNanos = ALPHA * tookNanos + (1 - ALPHA) * avgResponseTimeNanos;
+            }
+            responses++;
+        }
+
+        /**
+         * a node with outstanding requests is never stale, it might be stalled and mustn't be probed
+         * with even more requests
+         */
+        synchronized boolean isStale(long now) {
+            return outstandingRequests.get() == 0 && (responses == 0 || now - lastRequestNanos > STALE_AFTER_NANOS);
+        }
+
+        /**
+         * the expected response time of the next request,
+         * every outstanding or reserved request is expected to delay it by another average response time
+         */
+        synchronized double rank(long now) {
+            double responseTimeNanos = avgResponseTimeNanos;
+            int outstanding = outstandingRequests.get();
+            if (outstanding > 0) {
+                // the last request is still outstanding or an older one is,
+                // so a response takes at least as long as the last request was sent ago
+                responseTimeNanos = Math.max(responseTimeNanos, now - lastRequestNanos);
+            }
+            return responseTimeNanos * (1 + outstanding + reservations(now));
+        }
+
+        public int outstandingRequests() {
+            return outstandingRequests.get();
+        }
+
+        /**
+         * @return the average response time in milliseconds or -1 if there was no response yet
+         */
+        public synchronized double avgResponseTime() {
+            if (avgResponseTimeNanos < 0) {
+                return -1;
+            }
+            return avgResponseTimeNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public synchronized long responses() {
+            return responses;
+        }
+    }
+}
@@ -28,47 +28,106 @@ import com.google.common.collect.Iterables;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.core.collections.RowN;
 import org.elasticsearch.common.bytes.BytesReference;
-import org.elasticsearch.common.io.stream.BytesStreamOutput;
-import org.elasticsearch.common.io.stream.StreamInput;
-import org.elasticsearch.common.io.stream.StreamOutput;
-import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.*;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
 
-public class StreamBucket implements Bucket, Streamable {
+/**
+ * A bucket of serialized rows.
+ *
+ * If the rows are stored in recycled pages (see {@link Builder#Builder(Streamer[], BigArrays)} and
+ * {@link #StreamBucket(Streamer[], BigArrays)}) the pages are released once the reference count drops to 0.
+ * A new bucket starts with a reference count of 1 which is owned by whoever created the bucket.
+ */
+public class StreamBucket implements Bucket, Streamable, RefCounted {
 
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
 
+    @Nullable
+    private final BigArrays bigArrays;
+    @Nullable
+    private volatile Releasable releasable;
+    private final AbstractRefCounted refCounted = new AbstractRefCounted("stream_bucket") {
+        @Override
+        protected void closeInternal() {
+            Releasable releasable = StreamBucket.this.releasable;
+            StreamBucket.this.releasable = null;
+            Releasables.close(releasable);
+        }
+    };
+
     public static class Builder {
 
 
         private static final int INITIAL_PAGE_SIZE = 1024;
         private int size = 0;
+        private int expectedSize = INITIAL_PAGE_SIZE;
         private final Streamer<?>[] streamers;
+        @Nullable
+        private final BigArrays bigArrays;
         private BytesStreamOutput out;
 
         public Builder(Streamer<?>[] streamers) {
+            this(streamers, null);
+        }
+
+        /**
+         * @param bigArrays if not null the rows are written to pages which are allocated from bigArrays.
+         *                  Every built bucket owns its pages until it is released, so {@link #reset()} must
+         *                  be called after {@link #build()}.
+         */
+        public Builder(Streamer<?>[] streamers, @Nullable BigArrays bigArrays) {
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
-            out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+            this.bigArrays = bigArrays;
         }
 
         public void add(Row row) throws IOException {
             assert streamers.length == row.size() : "number of streamer must match row size";
 
+            if (out == null) {
+                out = newOutput();
+            }
             size++;
             for (int i = 0; i < row.size(); i++) {
                 streamers[i].writeValueTo(out, row.get(i));
             }
         }
 
+        /**
+         * adds the selected rows of <code>batch</code>
+         */
+        public void add(RowBatch batch) throws IOException {
+            assert streamers.length == batch.numColumns() : "number of streamer must match the number of columns";
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (out == null) {
+                out = newOutput();
+            }
+            size += batch.size();
+            for (int i = 0; i < batch.size(); i++) {
+                int position = batch.position(i);
+                for (int c = 0; c < streamers.length; c++) {
+                    streamers[c].writeValueTo(out, batch.column(c)[position]);
+                }
+            }
+        }
+
         public int size() {
             return size;
         }
@@ -83,19 +142,45 @@ public class StreamBucket implements Bucket, Streamable {
         public StreamBucket build() throws IOException {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
-            sb.bytes = out.bytes();
+            if (size > 0) {
+                sb.bytes = out.bytes();
+                if (sb.bytes instanceof ReleasableBytesReference) {
+                    // the pages are owned by the bucket now
+                    sb.releasable = (ReleasableBytesReference) sb.bytes;
+                    out = null;
+                }
+            }
             return sb;
         }
 
         public void reset() {
-            out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            if (bigArrays == null) {
+                expectedSize = size; // next bucket is probably going to have the same size
+                out = null;
+            }
             size = 0;
         }
+
+        private BytesStreamOutput newOutput() {
+            if (bigArrays == null) {
+                return new BytesStreamOutput(expectedSize);
+            }
+            return new ReleasableBytesStreamOutput(BigArrays.BYTE_PAGE_SIZE, bigArrays);
+        }
     }
 
     public StreamBucket(@Nullable Streamer<?>[] streamers) {
+        this(streamers, null);
+    }
+
+    /**
+     * @param bigArrays if not null {@link #readFrom(StreamInput)} copies the rows into pages which are
+     *                  allocated from bigArrays
+     */
+    public StreamBucket(@Nullable Streamer<?>[] streamers, @Nullable BigArrays bigArrays) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
+        this.bigArrays = bigArrays;
     }
 
     @Override
@@ -103,6 +188,13 @@ public class StreamBucket implements Bucket, Streamable {
         return size;
     }
 
+    /**
+     * @return the size of the serialized rows in bytes
+     */
+    public long sizeInBytes() {
+        return bytes == null ? 0L : bytes.length();
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
@@ -170,12 +262,48 @@ public class StreamBucket implements Bucket, Streamable {
         return new RowIterator();
     }
 
+    @Override
+    public void incRef() {
+        refCounted.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted.tryIncRef();
+    }
+
+    @Override
+    public void decRef() {
+        refCounted.decRef();
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
-            bytes = in.readBytesReference();
+            if (bigArrays == null) {
+                bytes = in.readBytesReference();
+            } else {
+                readIntoPages(in);
+            }
+        }
+    }
+
+    private void readIntoPages(StreamInput in) throws IOException {
+        int length = in.readVInt();
+        ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(length, bigArrays);
+        boolean success = false;
+        try {
+            in.readBytesReference(length).writeTo(out);
+            success = true;
+        } finally {
+            if (!success) {
+                Releasables.close(out.bytes());
+            }
         }
+        ReleasableBytesReference pages = out.bytes();
+        bytes = pages;
+        releasable = pages;
     }
 
     @Override
@@ -24,6 +24,7 @@ package io.crate.executor.transport;
 import io.crate.action.job.TransportJobAction;
 import io.crate.executor.transport.kill.TransportKillAllNodeAction;
 import io.crate.executor.transport.kill.TransportKillJobsNodeAction;
+import io.crate.executor.transport.profile.TransportCollectProfilesNodeAction;
 import org.elasticsearch.action.admin.cluster.settings.TransportClusterUpdateSettingsAction;
 import org.elasticsearch.action.admin.indices.create.TransportBulkCreateIndicesAction;
 import org.elasticsearch.action.admin.indices.create.TransportCreateIndexAction;
@@ -40,7 +41,8 @@ import org.elasticsearch.action.bulk.TransportShardUpsertActionDelegate;
 import org.elasticsearch.action.bulk.TransportShardUpsertActionDelegateImpl;
 import org.elasticsearch.action.delete.TransportDeleteAction;
 import org.elasticsearch.action.deletebyquery.TransportDeleteByQueryAction;
-import org.elasticsearch.action.get.TransportGetAction;
+import org.elasticsearch.action.get.TransportCachedGetAction;
+import org.elasticsearch.action.get.TransportCoalescingGetAction;
 import org.elasticsearch.action.get.TransportMultiGetAction;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Provider;
@@ -59,7 +61,8 @@ public class TransportActionProvider {
     private final Provider<TransportDeleteByQueryAction> transportDeleteByQueryActionProvider;
     private final Provider<TransportDeleteAction> transportDeleteActionProvider;
 
-    private final Provider<TransportGetAction> transportGetActionProvider;
+    private final Provider<TransportCachedGetAction> transportCachedGetActionProvider;
+    private final Provider<TransportCoalescingGetAction> transportCoalescingGetActionProvider;
     private final Provider<TransportMultiGetAction> transportMultiGetActionProvider;
     private final Provider<SymbolBasedTransportShardUpsertAction> symbolBasedTransportShardUpsertActionProvider;
     private final Provider<TransportShardUpsertAction> transportShardUpsertActionProvider;
@@ -71,6 +74,7 @@ public class TransportActionProvider {
     private final Provider<TransportJobAction> transportJobInitActionProvider;
     private final Provider<TransportKillAllNodeAction> transportKillAllNodeActionProvider;
     private final Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider;
+    private final Provider<TransportCollectProfilesNodeAction> transportCollectProfilesNodeActionProvider;
 
     @Inject
     public TransportActionProvider(Provider<TransportFetchNodeAction> transportFetchNodeActionProvider,
@@ -83,7 +87,8 @@ public class TransportActionProvider {
                                    Provider<TransportClusterUpdateSettingsAction> transportClusterUpdateSettingsActionProvider,
                                    Provider<TransportDeleteByQueryAction> transportDeleteByQueryActionProvider,
                                    Provider<TransportDeleteAction> transportDeleteActionProvider,
-                                   Provider<TransportGetAction> transportGetActionProvider,
+                                   Provider<TransportCachedGetAction> transportCachedGetActionProvider,
+                                   Provider<TransportCoalescingGetAction> transportCoalescingGetActionProvider,
                                    Provider<TransportMultiGetAction> transportMultiGetActionProvider,
                                    Provider<SymbolBasedTransportShardUpsertAction> symbolBasedTransportShardUpsertActionProvider,
                                    Provider<TransportKillAllNodeAction> transportKillAllNodeActionProvider,
@@ -93,7 +98,8 @@ public class TransportActionProvider {
                                    Provider<TransportUpdateSettingsAction> transportUpdateSettingsActionProvider,
                                    Provider<TransportJobAction> transportJobInitActionProvider,
                                    Provider<TransportBulkCreateIndicesAction> transportBulkCreateIndicesActionProvider,
-                                   Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider) {
+                                   Provider<TransportKillJobsNodeAction> transportKillJobsNodeActionProvider,
+                                   Provider<TransportCollectProfilesNodeAction> transportCollectProfilesNodeActionProvider) {
         this.transportCreateIndexActionProvider = transportCreateIndexActionProvider;
         this.transportDeleteIndexActionProvider = transportDeleteIndexActionProvider;
         this.transportPutIndexTemplateActionProvider = transportPutIndexTemplateActionProvider;
@@ -102,7 +108,8 @@ public class TransportActionProvider {
         this.transportClusterUpdateSettingsActionProvider = transportClusterUpdateSettingsActionProvider;
         this.transportDeleteByQueryActionProvider = transportDeleteByQueryActionProvider;
         this.transportDeleteActionProvider = transportDeleteActionProvider;
-        this.transportGetActionProvider = transportGetActionProvider;
+        this.transportCachedGetActionProvider = transportCachedGetActionProvider;
+        this.transportCoalescingGetActionProvider = transportCoalescingGetActionProvider;
         this.transportMultiGetActionProvider = transportMultiGetActionProvider;
         this.symbolBasedTransportShardUpsertActionProvider = symbolBasedTransportShardUpsertActionProvider;
         this.transportKillAllNodeActionProvider = transportKillAllNodeActionProvider;
@@ -115,6 +122,7 @@ public class TransportActionProvider {
         this.transportJobInitActionProvider = transportJobInitActionProvider;
         this.transportBulkCreateIndicesActionProvider = transportBulkCreateIndicesActionProvider;
         this.transportKillJobsNodeActionProvider = transportKillJobsNodeActionProvider;
+        this.transportCollectProfilesNodeActionProvider = transportCollectProfilesNodeActionProvider;
     }
 
     public TransportCreateIndexAction transportCreateIndexAction() {
@@ -153,8 +161,12 @@ public class TransportActionProvider {
         return transportDeleteActionProvider.get();
     }
 
-    public TransportGetAction transportGetAction() {
-        return transportGetActionProvider.get();
+    public TransportCachedGetAction transportCachedGetAction() {
+        return transportCachedGetActionProvider.get();
+    }
+
+    public TransportCoalescingGetAction transportCoalescingGetAction() {
+        return transportCoalescingGetActionProvider.get();
     }
 
     public TransportMultiGetAction transportMultiGetAction() {
@@ -201,4 +213,8 @@ public class TransportActionProvider {
         return transportKillJobsNodeActionProvider.get();
     }
 
+    public TransportCollectProfilesNodeAction transportCollectProfilesNodeAction() {
+        return transportCollectProfilesNodeActionProvider.get();
+    }
+
 }
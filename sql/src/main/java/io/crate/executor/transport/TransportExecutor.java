@@ -37,6 +37,7 @@ import io.crate.metadata.NestedReferenceResolver;
 import io.crate.operation.ImplementationSymbolVisitor;
 import io.crate.operation.NodeOperation;
 import io.crate.operation.NodeOperationTree;
+import io.crate.operation.profile.JobProfiles;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.planner.*;
 import io.crate.planner.node.ExecutionPhase;
@@ -45,6 +46,7 @@ import io.crate.planner.node.PlanNodeVisitor;
 import io.crate.planner.node.ddl.*;
 import io.crate.planner.node.dml.*;
 import io.crate.planner.node.dql.*;
+import io.crate.planner.node.management.ExplainAnalyzePlan;
 import io.crate.planner.node.management.GenericShowPlan;
 import io.crate.planner.node.management.KillPlan;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
@@ -71,6 +73,7 @@ public class TransportExecutor implements Executor, TaskExecutor {
     private final TransportActionProvider transportActionProvider;
     private final IndicesService indicesService;
     private final BulkRetryCoordinatorPool bulkRetryCoordinatorPool;
+    private final JobProfiles jobProfiles;
 
     private final ProjectionToProjectorVisitor globalProjectionToProjectionVisitor;
 
@@ -89,7 +92,8 @@ public class TransportExecutor implements Executor, TaskExecutor {
                              ShowStatementDispatcher showStatementDispatcherProvider,
                              ClusterService clusterService,
                              IndicesService indicesService,
-                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool) {
+                             BulkRetryCoordinatorPool bulkRetryCoordinatorPool,
+                             JobProfiles jobProfiles) {
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
         this.transportActionProvider = transportActionProvider;
@@ -99,6 +103,7 @@ public class TransportExecutor implements Executor, TaskExecutor {
         this.clusterService = clusterService;
         this.indicesService = indicesService;
         this.bulkRetryCoordinatorPool = bulkRetryCoordinatorPool;
+        this.jobProfiles = jobProfiles;
         nodeVisitor = new NodeVisitor();
         planVisitor = new TaskCollectingVisitor();
         ImplementationSymbolVisitor globalImplementationSymbolVisitor = new ImplementationSymbolVisitor(
@@ -213,6 +218,20 @@ public class TransportExecutor implements Executor, TaskExecutor {
             return ImmutableList.of(task);
         }
 
+        @Override
+        public List<? extends Task> visitExplainAnalyzePlan(ExplainAnalyzePlan explainAnalyzePlan, Job job) {
+            List<Task> subTasks = new ArrayList<>(process(explainAnalyzePlan.subPlan(), job));
+            for (Task subTask : subTasks) {
+                if (subTask instanceof ExecutionPhasesTask) {
+                    ((ExecutionPhasesTask) subTask).profile(jobProfiles);
+                }
+            }
+            return ImmutableList.<Task>of(new ExplainAnalyzeTask(job.id(),
+                    subTasks,
+                    TransportExecutor.this,
+                    transportActionProvider.transportCollectProfilesNodeAction()));
+        }
+
         @Override
         public List<? extends Task> visitGenericShowPlan(GenericShowPlan genericShowPlan, Job job) {
             return ImmutableList.<Task>of(new GenericShowTask(job.id(),
@@ -239,7 +258,7 @@ public class TransportExecutor implements Executor, TaskExecutor {
                     functions,
                     globalProjectionToProjectionVisitor,
                     transportActionProvider.transportMultiGetAction(),
-                    transportActionProvider.transportGetAction(),
+                    transportActionProvider.transportCoalescingGetAction(),
                     node,
                     jobContextService));
         }
@@ -470,6 +489,18 @@ public class TransportExecutor implements Executor, TaskExecutor {
                 currentBranch.phases.add(executionPhase);
             }
 
+            /**
+             * phases added after this call are upstreams of the last added phase, sending to the given input
+             */
+            public void branch(byte inputId) {
+                branches.push(currentBranch);
+                currentBranch = new Branch(inputId);
+            }
+
+            public void leaveBranch() {
+                currentBranch = branches.pop();
+            }
+
             public Collection<NodeOperation> nodeOperations() {
                 return ImmutableList.<NodeOperation>builder()
                         // collectNodeOperations must be first so that they're started last
@@ -504,6 +535,33 @@ public class TransportExecutor implements Executor, TaskExecutor {
             return null;
         }
 
+        @Override
+        public Void visitHashJoin(HashJoin plan, NodeOperationTreeContext context) {
+            context.addPhase(plan.localMergePhase());
+            context.addPhase(plan.joinPhase());
+
+            context.branch((byte) 0);
+            context.addCollectExecutionPhase(plan.leftCollectPhase());
+            context.leaveBranch();
+
+            context.branch((byte) 1);
+            context.addCollectExecutionPhase(plan.rightCollectPhase());
+            context.leaveBranch();
+            return null;
+        }
+
+        @Override
+        public Void visitUnion(Union plan, NodeOperationTreeContext context) {
+            context.addPhase(plan.localMergePhase());
+            List<CollectPhase> collectPhases = plan.collectPhases();
+            for (int i = 0; i < collectPhases.size(); i++) {
+                context.branch((byte) i);
+                context.addCollectExecutionPhase(collectPhases.get(i));
+                context.leaveBranch();
+            }
+            return null;
+        }
+
         @Override
         public Void visitCountPlan(CountPlan plan, NodeOperationTreeContext context) {
             context.addPhase(plan.mergeNode());
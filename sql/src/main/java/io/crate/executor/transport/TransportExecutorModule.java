@@ -25,6 +25,12 @@ import io.crate.action.job.TransportJobAction;
 import io.crate.executor.Executor;
 import io.crate.executor.transport.distributed.TransportDistributedResultAction;
 import io.crate.executor.transport.kill.TransportKillAllNodeAction;
+import io.crate.executor.transport.profile.TransportCollectProfilesNodeAction;
+import io.crate.executor.transport.stats.TransportJobResourceUsageNodeAction;
+import io.crate.operation.cache.ResultCache;
+import io.crate.operation.cache.RowCache;
+import org.elasticsearch.action.get.TransportCachedGetAction;
+import org.elasticsearch.action.get.TransportCoalescingGetAction;
 import org.elasticsearch.common.inject.AbstractModule;
 
 public class TransportExecutorModule extends AbstractModule {
@@ -41,5 +47,11 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportFetchNodeAction.class).asEagerSingleton();
         bind(TransportCloseContextNodeAction.class).asEagerSingleton();
         bind(TransportKillAllNodeAction.class).asEagerSingleton();
+        bind(TransportCollectProfilesNodeAction.class).asEagerSingleton();
+        bind(TransportJobResourceUsageNodeAction.class).asEagerSingleton();
+        bind(RowCache.class).asEagerSingleton();
+        bind(ResultCache.class).asEagerSingleton();
+        bind(TransportCachedGetAction.class).asEagerSingleton();
+        bind(TransportCoalescingGetAction.class).asEagerSingleton();
     }
 }
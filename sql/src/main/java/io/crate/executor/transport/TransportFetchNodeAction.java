@@ -50,7 +50,7 @@ import java.util.Locale;
 @Singleton
 public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, NodeFetchResponse> {
 
-    private static final String TRANSPORT_ACTION = "crate/sql/node/fetch";
+    static final String TRANSPORT_ACTION = "crate/sql/node/fetch";
     private static final String EXECUTOR_NAME = ThreadPool.Names.SEARCH;
     private static final String RESPONSE_EXECUTOR = ThreadPool.Names.SUGGEST;
 
@@ -47,12 +47,17 @@ public class Transports {
     private final ClusterService clusterService;
     private final TransportService transportService;
     private final ThreadPool threadPool;
+    private final NodeResponseStats nodeResponseStats;
 
     @Inject
-    public Transports(ClusterService clusterService, TransportService transportService, ThreadPool threadPool) {
+    public Transports(ClusterService clusterService,
+                      TransportService transportService,
+                      ThreadPool threadPool,
+                      NodeResponseStats nodeResponseStats) {
         this.clusterService = clusterService;
         this.transportService = transportService;
         this.threadPool = threadPool;
+        this.nodeResponseStats = nodeResponseStats;
     }
 
     public <TRequest extends TransportRequest, TResponse extends TransportResponse> void executeLocalOrWithTransport(
@@ -72,27 +77,34 @@ public class Transports {
             final NodeAction<TRequest, TResponse> nodeAction,
             DiscoveryNode node,
             final TRequest request,
-            final ActionListener<TResponse> listener,
+            ActionListener<TResponse> listener,
             TransportResponseHandler<TResponse> transportResponseHandler) {
 
         ClusterState clusterState = clusterService.state();
+        boolean tracked = NodeResponseStats.tracks(nodeAction.actionName());
         if (node.id().equals("_local") || node.equals(clusterState.nodes().localNode())) {
+            String localNodeId = clusterState.nodes().localNodeId();
+            final ActionListener<TResponse> trackingListener = tracked
+                    ? nodeResponseStats.track(localNodeId == null ? node.id() : localNodeId, listener)
+                    : listener;
             try {
                 threadPool.executor(nodeAction.executorName()).execute(new Runnable() {
                     @Override
                     public void run() {
-                        nodeAction.nodeOperation(request, listener);
+                        nodeAction.nodeOperation(request, trackingListener);
                     }
                 });
             } catch (EsRejectedExecutionException | RejectedExecutionException e) {
                 if (LOGGER.isWarnEnabled()) {
                     LOGGER.warn("Couldn't execute {} locally on node {}", e, nodeAction.getClass().getSimpleName(), node);
                 }
-                listener.onFailure(e);
+                trackingListener.onFailure(e);
             }
         } else {
-            transportService.sendRequest(
-                    node, nodeAction.actionName(), request, transportResponseHandler);
+            if (tracked) {
+                transportResponseHandler = nodeResponseStats.track(node.id(), transportResponseHandler);
+            }
+            transportService.sendRequest(node, nodeAction.actionName(), request, transportResponseHandler);
         }
     }
 }
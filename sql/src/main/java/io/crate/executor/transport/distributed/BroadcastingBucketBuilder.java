@@ -25,8 +25,11 @@ import com.google.common.base.Throwables;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.executor.transport.StreamBucket;
+import org.elasticsearch.common.util.BigArrays;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 /**
@@ -40,8 +43,15 @@ public class BroadcastingBucketBuilder implements MultiBucketBuilder {
     private volatile int size = 0;
 
     public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets) {
+        this(streamers, numBuckets, null);
+    }
+
+    /**
+     * @param bigArrays used to allocate the pages of the buckets, see {@link StreamBucket.Builder}
+     */
+    public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets, @Nullable BigArrays bigArrays) {
         this.numBuckets = numBuckets;
-        this.bucketBuilder = new StreamBucket.Builder(streamers);
+        this.bucketBuilder = new StreamBucket.Builder(streamers, bigArrays);
     }
 
     @Override
@@ -56,6 +66,18 @@ public class BroadcastingBucketBuilder implements MultiBucketBuilder {
         }
     }
 
+    @Override
+    public void add(RowBatch batch) {
+        try {
+            synchronized (this) {
+                bucketBuilder.add(batch);
+                size += batch.size();
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
     @Override
     public int size() {
         return size;
@@ -29,6 +29,8 @@ import org.elasticsearch.common.io.ThrowableObjectInputStream;
 import org.elasticsearch.common.io.ThrowableObjectOutputStream;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 import org.elasticsearch.transport.TransportRequest;
 
 import javax.annotation.Nullable;
@@ -48,9 +50,20 @@ public class DistributedResultRequest extends TransportRequest {
 
     private Throwable throwable = null;
 
+    @Nullable
+    private BigArrays bigArrays;
+
     public DistributedResultRequest() {
     }
 
+    /**
+     * @param bigArrays used to allocate the pages the received rows are copied into,
+     *                  these must be released using {@link #releaseRows()}
+     */
+    public DistributedResultRequest(@Nullable BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+    }
+
     private DistributedResultRequest(UUID jobId, byte inputId, int executionPhaseId, int bucketIdx, Streamer<?>[] streamers) {
         this.jobId = jobId;
         this.executionPhaseId = executionPhaseId;
@@ -116,6 +129,15 @@ public class DistributedResultRequest extends TransportRequest {
         return rows;
     }
 
+    /**
+     * release the reference of this request to the rows
+     */
+    public void releaseRows() {
+        if (rows instanceof RefCounted) {
+            ((RefCounted) rows).decRef();
+        }
+    }
+
     public boolean isLast() {
         return isLast;
     }
@@ -143,7 +165,7 @@ public class DistributedResultRequest extends TransportRequest {
                 throwable = new UnknownUpstreamFailure();
             }
         } else {
-            StreamBucket bucket = new StreamBucket(streamers);
+            StreamBucket bucket = new StreamBucket(streamers, bigArrays);
             bucket.readFrom(in);
             rows = bucket;
         }
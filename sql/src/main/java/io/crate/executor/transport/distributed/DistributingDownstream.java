@@ -25,20 +25,27 @@ import com.google.common.annotations.VisibleForTesting;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
+import io.crate.executor.transport.StreamBucket;
 import io.crate.jobs.ExecutionState;
+import io.crate.jobs.ResourceUsage;
 import io.crate.operation.RowUpstream;
-import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.projectors.RowBatchReceiver;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
-public class DistributingDownstream implements RowReceiver {
+public class DistributingDownstream implements RowBatchReceiver {
 
     private final static ESLogger LOGGER = Loggers.getLogger(DistributingDownstream.class);
 
@@ -69,9 +76,11 @@ public class DistributingDownstream implements RowReceiver {
     private final Downstream[] downstreams;
     private final Object lock = new Object();
     private final AtomicInteger finishedDownstreams = new AtomicInteger(0);
+    private final AtomicLong bytesSent = new AtomicLong(0L);
     private final Bucket[] buckets;
 
     private volatile boolean gatherMoreRows = true;
+    private volatile ResourceUsage resourceUsage;
     private boolean hasUpstreamFinished = false;
 
     public DistributingDownstream(UUID jobId,
@@ -104,6 +113,27 @@ public class DistributingDownstream implements RowReceiver {
     @Override
     public boolean setNextRow(Row row) {
         multiBucketBuilder.add(row);
+        onRowsAdded();
+        return gatherMoreRows;
+    }
+
+    /**
+     * the rows of a batch are added to the page even if the page is full already,
+     * so a page can exceed the pageSize by up to one batch.
+     */
+    @Override
+    public boolean acceptsBatches() {
+        return true;
+    }
+
+    @Override
+    public boolean setNextBatch(RowBatch batch) {
+        multiBucketBuilder.add(batch);
+        onRowsAdded();
+        return gatherMoreRows;
+    }
+
+    private void onRowsAdded() {
         synchronized (lock) {
             if (multiBucketBuilder.size() >= pageSize) {
                 if (requestsPending.get() > 0) {
@@ -116,11 +146,16 @@ public class DistributingDownstream implements RowReceiver {
                 }
             }
         }
-        return gatherMoreRows;
     }
 
     private void sendRequests(boolean isLast) {
         requestsPending.addAndGet(downstreams.length);
+        // every downstream owns one reference to its bucket, the first one takes over the reference of the builder
+        for (int i = 0; i < buckets.length; i++) {
+            if (isSharedWithPrevious(buckets[i], i)) {
+                ((RefCounted) buckets[i]).incRef();
+            }
+        }
         for (int i = 0; i < buckets.length; i++) {
             downstreams[i].sendRequest(buckets[i], isLast);
         }
@@ -161,12 +196,52 @@ public class DistributingDownstream implements RowReceiver {
             } else if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("all upstreams finished. Doing nothing since there are pending requests");
             }
-        } else if (!(throwable instanceof CancellationException)) { // no need to forward kill - downstream will receive it too
-            LOGGER.trace("all upstreams finished; forwarding failure");
-            for (Downstream downstream : downstreams) {
-                downstream.forwardFailure(throwable);
+        } else {
+            if (requestsPending.get() == 0) {
+                // release the pages of the rows which won't be sent anymore
+                multiBucketBuilder.build(buckets);
+                releaseBuckets();
+            }
+            if (!(throwable instanceof CancellationException)) { // no need to forward kill - downstream will receive it too
+                LOGGER.trace("all upstreams finished; forwarding failure");
+                for (Downstream downstream : downstreams) {
+                    downstream.forwardFailure(throwable);
+                }
+            }
+        }
+    }
+
+    /**
+     * release the buckets which won't be sent
+     */
+    private void releaseBuckets() {
+        for (int i = 0; i < buckets.length; i++) {
+            if (!isSharedWithPrevious(buckets[i], i)) {
+                release(buckets[i]);
+            }
+        }
+        Arrays.fill(buckets, null);
+    }
+
+    /**
+     * a {@link BroadcastingBucketBuilder} returns the same bucket for all downstreams
+     */
+    private boolean isSharedWithPrevious(Bucket bucket, int idx) {
+        if (!(bucket instanceof RefCounted)) {
+            return false;
+        }
+        for (int i = 0; i < idx; i++) {
+            if (buckets[i] == bucket) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private static void release(@Nullable Bucket bucket) {
+        if (bucket instanceof RefCounted) {
+            ((RefCounted) bucket).decRef();
+        }
     }
 
     @Override
@@ -179,10 +254,25 @@ public class DistributingDownstream implements RowReceiver {
         upstream = rowUpstream;
     }
 
+    /**
+     * @return the number of serialized row bytes which have been sent to the downstream nodes
+     */
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * account the sent bytes to <code>resourceUsage</code> too
+     */
+    public void resourceUsage(ResourceUsage resourceUsage) {
+        this.resourceUsage = resourceUsage;
+    }
+
     private class Downstream implements ActionListener<DistributedResultResponse> {
 
         private final String node;
         private boolean finished = false;
+        private volatile Bucket pendingBucket;
 
         public Downstream(String node) {
             this.node = node;
@@ -199,9 +289,20 @@ public class DistributingDownstream implements RowReceiver {
 
         public void sendRequest(Bucket bucket, boolean isLast) {
             if (finished) {
+                release(bucket);
                 return;
             }
             LOGGER.trace("Sending request to {}", node);
+            if (bucket instanceof StreamBucket) {
+                long size = ((StreamBucket) bucket).sizeInBytes();
+                bytesSent.addAndGet(size);
+                ResourceUsage usage = resourceUsage;
+                if (usage != null) {
+                    usage.addBytesSent(size);
+                }
+            }
+            // released once the downstream answered, it holds its own reference if it needs the rows any longer
+            pendingBucket = bucket;
             transportDistributedResultAction.pushResult(
                     node,
                     new DistributedResultRequest(jobId, targetExecutionPhaseId, inputId, bucketIdx, streamers, bucket, isLast),
@@ -221,6 +322,9 @@ public class DistributingDownstream implements RowReceiver {
         }
 
         private void onResponse(boolean needMore) {
+            Bucket bucket = pendingBucket;
+            pendingBucket = null;
+            release(bucket);
             finished = !needMore;
             final int numPending = requestsPending.decrementAndGet();
 
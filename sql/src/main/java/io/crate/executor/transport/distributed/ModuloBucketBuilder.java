@@ -25,9 +25,11 @@ import com.google.common.base.Throwables;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.executor.transport.StreamBucket;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.StringHelper;
+import org.elasticsearch.common.util.BigArrays;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -45,10 +47,17 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
     private volatile int size = 0;
 
     public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets) {
+        this(streamers, numBuckets, null);
+    }
+
+    /**
+     * @param bigArrays used to allocate the pages of the buckets, see {@link StreamBucket.Builder}
+     */
+    public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets, @Nullable BigArrays bigArrays) {
         this.numBuckets = numBuckets;
         this.bucketBuilders = new ArrayList<>(numBuckets);
         for (int i = 0; i < numBuckets; i++) {
-            bucketBuilders.add(new StreamBucket.Builder(streamers));
+            bucketBuilders.add(new StreamBucket.Builder(streamers, bigArrays));
         }
     }
 
@@ -65,6 +74,21 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
         }
     }
 
+    @Override
+    public void add(RowBatch batch) {
+        try {
+            synchronized (this) {
+                for (int i = 0; i < batch.size(); i++) {
+                    Row row = batch.row(i);
+                    bucketBuilders.get(getBucket(row)).add(row);
+                }
+                size += batch.size();
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
     @Override
     public int size() {
         return size;
@@ -23,6 +23,7 @@ package io.crate.executor.transport.distributed;
 
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -36,6 +37,11 @@ public interface MultiBucketBuilder {
      */
     void add(Row row);
 
+    /**
+     * add the selected rows of a batch to the page
+     */
+    void add(RowBatch batch);
+
     /**
      * current number of rows within the page.
      * Will be reset to 0 on each build call.
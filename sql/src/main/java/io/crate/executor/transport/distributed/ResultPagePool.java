@@ -0,0 +1,102 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import org.elasticsearch.cache.recycler.CountingPageCacheRecycler;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.threadpool.ThreadPool;
+
+/**
+ * Pool of recycled pages which are used to serialize the buckets of distributed results
+ * on the sending side and to deserialize them on the receiving side.
+ *
+ * The pages are taken from the node wide {@link PageCacheRecycler} and counted by a
+ * {@link CountingPageCacheRecycler}. The stats are exposed in <code>sys.nodes</code>.
+ */
+@Singleton
+public class ResultPagePool {
+
+    public static final String LIMIT_HEAP_SETTING = "cache.recycler." + PageCacheRecycler.LIMIT_HEAP;
+    public static final String DEFAULT_LIMIT_HEAP = "10%";
+
+    private final CountingPageCacheRecycler recycler;
+    private final BigArrays bigArrays;
+    private final long maxBytes;
+
+    @Inject
+    public ResultPagePool(Settings settings, ThreadPool threadPool, PageCacheRecycler pageCacheRecycler) {
+        maxBytes = settings.getAsMemory(LIMIT_HEAP_SETTING, DEFAULT_LIMIT_HEAP).bytes();
+        recycler = new CountingPageCacheRecycler(settings, threadPool, pageCacheRecycler);
+        bigArrays = new BigArrays(recycler, null);
+    }
+
+    /**
+     * BigArrays which allocate their pages from this pool
+     */
+    public BigArrays bigArrays() {
+        return bigArrays;
+    }
+
+    /**
+     * @return the maximum number of bytes the page cache recycler keeps for reuse
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the number of bytes of all pages which are currently in use by distributed results
+     */
+    public long usedBytes() {
+        return recycler.usedBytes();
+    }
+
+    /**
+     * @return the number of pages which could be taken from the pool
+     */
+    public long hits() {
+        return recycler.hits();
+    }
+
+    /**
+     * @return the number of pages which had to be allocated because the pool was empty
+     */
+    public long misses() {
+        return recycler.misses();
+    }
+
+    /**
+     * @return the ratio of hits to all page requests, 0.0 if no page was requested yet
+     */
+    public double hitRate() {
+        long hits = hits();
+        long total = hits + misses();
+        if (total == 0L) {
+            return 0.0d;
+        }
+        return (double) hits / total;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import com.google.common.base.Throwables;
+import io.crate.Constants;
+import io.crate.Streamer;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.operation.collect.RowShardResolver;
+import io.crate.planner.distribution.ShardDistribution;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.util.BigArrays;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * builds one bucket per downstream node.
+ * The rows that are added via {@link #add(Row)} are assigned to the bucket of the node which holds
+ * the primary of the shard the row is written to, see {@link ShardDistribution}.
+ *
+ * The node of a shard is only resolved once, if the primary is relocated in the meantime
+ * the writer on the old node has to forward the rows to the new node.
+ * Rows of shards whose primary isn't allocated on any of the downstream nodes
+ * are assigned by modulo calculation of the shard id.
+ */
+public class ShardingBucketBuilder implements MultiBucketBuilder {
+
+    private final List<String> downstreamNodes;
+    private final List<StreamBucket.Builder> bucketBuilders;
+    private final ClusterService clusterService;
+    private final String indexName;
+    private final RowShardResolver rowShardResolver;
+    private final Map<Integer, Integer> bucketByShard = new HashMap<>();
+    private volatile int size = 0;
+
+    /**
+     * @param downstreamNodes the ids of the downstream nodes, in the order of the buckets
+     * @param bigArrays used to allocate the pages of the buckets, see {@link StreamBucket.Builder}
+     */
+    public ShardingBucketBuilder(Streamer<?>[] streamers,
+                                 List<String> downstreamNodes,
+                                 ShardDistribution shardDistribution,
+                                 ClusterService clusterService,
+                                 @Nullable BigArrays bigArrays) {
+        this.downstreamNodes = downstreamNodes;
+        this.clusterService = clusterService;
+        this.indexName = shardDistribution.indexName();
+        this.rowShardResolver = new RowShardResolver(
+                shardDistribution.primaryKeys(),
+                shardDistribution.primaryKeySymbols(),
+                shardDistribution.clusteredByColumn(),
+                shardDistribution.clusteredBySymbol());
+        this.bucketBuilders = new ArrayList<>(downstreamNodes.size());
+        for (int i = 0; i < downstreamNodes.size(); i++) {
+            bucketBuilders.add(new StreamBucket.Builder(streamers, bigArrays));
+        }
+    }
+
+    @Override
+    public void add(Row row) {
+        try {
+            synchronized (this) {
+                bucketBuilders.get(getBucket(row)).add(row);
+                size++;
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Override
+    public void add(RowBatch batch) {
+        try {
+            synchronized (this) {
+                for (int i = 0; i < batch.size(); i++) {
+                    Row row = batch.row(i);
+                    bucketBuilders.get(getBucket(row)).add(row);
+                }
+                size += batch.size();
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void build(Bucket[] buckets) {
+        assert buckets.length == bucketBuilders.size() : "length of the provided array must match the number of buckets";
+        for (int i = 0; i < buckets.length; i++) {
+            try {
+                final StreamBucket.Builder builder = bucketBuilders.get(i);
+                buckets[i] = builder.build();
+                builder.reset();
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+        size = 0;
+    }
+
+    private int getBucket(Row row) {
+        rowShardResolver.setNextRow(row);
+        ClusterState state = clusterService.state();
+        int shardId = clusterService.operationRouting().indexShards(
+                state,
+                indexName,
+                Constants.DEFAULT_MAPPING_TYPE,
+                rowShardResolver.id(),
+                rowShardResolver.routing()
+        ).shardId().id();
+        Integer bucket = bucketByShard.get(shardId);
+        if (bucket == null) {
+            bucket = resolveBucket(state, shardId);
+            bucketByShard.put(shardId, bucket);
+        }
+        return bucket;
+    }
+
+    private int resolveBucket(ClusterState state, int shardId) {
+        IndexRoutingTable indexRoutingTable = state.routingTable().index(indexName);
+        if (indexRoutingTable != null) {
+            ShardRouting primary = indexRoutingTable.shard(shardId).primaryShard();
+            if (primary != null && primary.assignedToNode()) {
+                int idx = downstreamNodes.indexOf(primary.currentNodeId());
+                if (idx >= 0) {
+                    return idx;
+                }
+            }
+        }
+        return shardId % downstreamNodes.size();
+    }
+}
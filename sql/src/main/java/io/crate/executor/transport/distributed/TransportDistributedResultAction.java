@@ -25,6 +25,7 @@ import io.crate.exceptions.ContextMissingException;
 import io.crate.executor.transport.DefaultTransportResponseHandler;
 import io.crate.executor.transport.NodeAction;
 import io.crate.executor.transport.NodeActionRequestHandler;
+import io.crate.executor.transport.ResponseForwarder;
 import io.crate.executor.transport.Transports;
 import io.crate.jobs.DownstreamExecutionSubContext;
 import io.crate.jobs.JobContextService;
@@ -36,6 +37,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.Locale;
@@ -63,14 +65,21 @@ public class TransportDistributedResultAction implements NodeAction<DistributedR
     public TransportDistributedResultAction(Transports transports,
                                             JobContextService jobContextService,
                                             ThreadPool threadPool,
-                                            TransportService transportService) {
+                                            TransportService transportService,
+                                            final ResultPagePool resultPagePool) {
         this.transports = transports;
         this.jobContextService = jobContextService;
         scheduler = threadPool.scheduler();
         transportService.registerHandler(DISTRIBUTED_RESULT_ACTION, new NodeActionRequestHandler<DistributedResultRequest, DistributedResultResponse>(this) {
             @Override
             public DistributedResultRequest newInstance() {
-                return new DistributedResultRequest();
+                return new DistributedResultRequest(resultPagePool.bigArrays());
+            }
+
+            @Override
+            public void messageReceived(DistributedResultRequest request, TransportChannel channel) throws Exception {
+                ActionListener<DistributedResultResponse> listener = ResponseForwarder.forwardTo(channel);
+                nodeOperation(request, new ReleaseRowsListener(request, listener));
             }
         });
     }
@@ -129,16 +138,17 @@ public class TransportDistributedResultAction implements NodeAction<DistributedR
             return;
         }
 
+        int bucketIdx = pageDownstreamContext.bucketIdx(request.executionPhaseInputId(), request.bucketIdx());
         Throwable throwable = request.throwable();
         if (throwable == null) {
             request.streamers(pageDownstreamContext.streamer());
             pageDownstreamContext.setBucket(
-                    request.bucketIdx(),
+                    bucketIdx,
                     request.rows(),
                     request.isLast(),
-                    new SendResponsePageResultListener(listener, request));
+                    new SendResponsePageResultListener(listener, bucketIdx));
         } else {
-            pageDownstreamContext.failure(request.bucketIdx(), throwable);
+            pageDownstreamContext.failure(bucketIdx, throwable);
             listener.onResponse(new DistributedResultResponse(false));
         }
     }
@@ -155,11 +165,11 @@ public class TransportDistributedResultAction implements NodeAction<DistributedR
 
     private static class SendResponsePageResultListener implements PageResultListener {
         private final ActionListener<DistributedResultResponse> listener;
-        private final DistributedResultRequest request;
+        private final int bucketIdx;
 
-        public SendResponsePageResultListener(ActionListener<DistributedResultResponse> listener, DistributedResultRequest request) {
+        public SendResponsePageResultListener(ActionListener<DistributedResultResponse> listener, int bucketIdx) {
             this.listener = listener;
-            this.request = request;
+            this.bucketIdx = bucketIdx;
         }
 
         @Override
@@ -170,7 +180,36 @@ public class TransportDistributedResultAction implements NodeAction<DistributedR
 
         @Override
         public int buckedIdx() {
-            return request.bucketIdx();
+            return bucketIdx;
+        }
+    }
+
+    /**
+     * Releases the rows of a request which has been received from another node once it has been answered.
+     * The {@link PageDownstreamContext} holds its own reference to the rows as long as it needs them.
+     *
+     * Requests which are executed locally share the rows with the sender, these are released by the sender.
+     */
+    private static class ReleaseRowsListener implements ActionListener<DistributedResultResponse> {
+
+        private final DistributedResultRequest request;
+        private final ActionListener<DistributedResultResponse> listener;
+
+        public ReleaseRowsListener(DistributedResultRequest request, ActionListener<DistributedResultResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        @Override
+        public void onResponse(DistributedResultResponse response) {
+            request.releaseRows();
+            listener.onResponse(response);
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            request.releaseRows();
+            listener.onFailure(e);
         }
     }
 
@@ -0,0 +1,70 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.profile;
+
+import io.crate.operation.profile.PhaseProfile;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CollectProfilesResponse extends TransportResponse {
+
+    private List<PhaseProfile> profiles;
+
+    public CollectProfilesResponse() {
+        this(Collections.<PhaseProfile>emptyList());
+    }
+
+    public CollectProfilesResponse(List<PhaseProfile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public List<PhaseProfile> profiles() {
+        return profiles;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        int numProfiles = in.readVInt();
+        profiles = new ArrayList<>(numProfiles);
+        for (int i = 0; i < numProfiles; i++) {
+            PhaseProfile profile = new PhaseProfile();
+            profile.readFrom(in);
+            profiles.add(profile);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(profiles.size());
+        for (PhaseProfile profile : profiles) {
+            profile.writeTo(out);
+        }
+    }
+}
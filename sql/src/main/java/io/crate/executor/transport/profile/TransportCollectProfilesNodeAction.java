@@ -0,0 +1,138 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.profile;
+
+import io.crate.executor.transport.DefaultTransportResponseHandler;
+import io.crate.executor.transport.NodeAction;
+import io.crate.executor.transport.NodeActionRequestHandler;
+import io.crate.executor.transport.Transports;
+import io.crate.operation.profile.JobProfiles;
+import io.crate.operation.profile.PhaseProfile;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collects and removes the profile of a job from all nodes, see {@link JobProfiles}
+ */
+@Singleton
+public class TransportCollectProfilesNodeAction implements NodeAction<CollectProfilesRequest, CollectProfilesResponse> {
+
+    private static final String TRANSPORT_ACTION = "crate/sql/collect_profiles";
+
+    private final JobProfiles jobProfiles;
+    private final ClusterService clusterService;
+    private final Transports transports;
+
+    @Inject
+    public TransportCollectProfilesNodeAction(JobProfiles jobProfiles,
+                                              ClusterService clusterService,
+                                              Transports transports,
+                                              TransportService transportService) {
+        this.jobProfiles = jobProfiles;
+        this.clusterService = clusterService;
+        this.transports = transports;
+        transportService.registerHandler(TRANSPORT_ACTION,
+                new NodeActionRequestHandler<CollectProfilesRequest, CollectProfilesResponse>(this) {
+            @Override
+            public CollectProfilesRequest newInstance() {
+                return new CollectProfilesRequest();
+            }
+        });
+    }
+
+    public void executeOnAllNodes(CollectProfilesRequest request, final ActionListener<CollectProfilesResponse> listener) {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        final AtomicInteger counter = new AtomicInteger(nodes.size());
+        final List<PhaseProfile> profiles = new ArrayList<>();
+        final AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+
+        ActionListener<CollectProfilesResponse> collectListener = new ActionListener<CollectProfilesResponse>() {
+            @Override
+            public void onResponse(CollectProfilesResponse response) {
+                synchronized (profiles) {
+                    profiles.addAll(response.profiles());
+                }
+                countdown();
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                lastFailure.set(e);
+                countdown();
+            }
+
+            private void countdown() {
+                if (counter.decrementAndGet() == 0) {
+                    Throwable throwable = lastFailure.get();
+                    if (throwable == null) {
+                        listener.onResponse(new CollectProfilesResponse(profiles));
+                    } else {
+                        listener.onFailure(throwable);
+                    }
+                }
+            }
+        };
+        DefaultTransportResponseHandler<CollectProfilesResponse> transportResponseHandler =
+                new DefaultTransportResponseHandler<CollectProfilesResponse>(collectListener) {
+            @Override
+            public CollectProfilesResponse newInstance() {
+                return new CollectProfilesResponse();
+            }
+        };
+
+        for (DiscoveryNode node : nodes) {
+            transports.executeLocalOrWithTransport(
+                    this, node.id(), request, collectListener, transportResponseHandler);
+        }
+    }
+
+    @Override
+    public String actionName() {
+        return TRANSPORT_ACTION;
+    }
+
+    @Override
+    public String executorName() {
+        return ThreadPool.Names.MANAGEMENT;
+    }
+
+    @Override
+    public void nodeOperation(CollectProfilesRequest request, ActionListener<CollectProfilesResponse> listener) {
+        try {
+            listener.onResponse(new CollectProfilesResponse(
+                    jobProfiles.remove(request.jobId(), clusterService.localNode().id())));
+        } catch (Throwable t) {
+            listener.onFailure(t);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.stats;
+
+import io.crate.jobs.ResourceUsage;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public class JobResourceUsageRequest extends TransportRequest {
+
+    private UUID jobId;
+    private ResourceUsage resourceUsage;
+
+    public JobResourceUsageRequest() {
+    }
+
+    public JobResourceUsageRequest(UUID jobId, ResourceUsage resourceUsage) {
+        this.jobId = jobId;
+        this.resourceUsage = resourceUsage;
+    }
+
+    public UUID jobId() {
+        return jobId;
+    }
+
+    public ResourceUsage resourceUsage() {
+        return resourceUsage;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        jobId = new UUID(in.readLong(), in.readLong());
+        resourceUsage = new ResourceUsage();
+        resourceUsage.readFrom(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(jobId.getMostSignificantBits());
+        out.writeLong(jobId.getLeastSignificantBits());
+        resourceUsage.writeTo(out);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.stats;
+
+import io.crate.executor.transport.DefaultTransportResponseHandler;
+import io.crate.executor.transport.NodeAction;
+import io.crate.executor.transport.NodeActionRequestHandler;
+import io.crate.executor.transport.Transports;
+import io.crate.jobs.JobContextService;
+import io.crate.jobs.ResourceUsage;
+import io.crate.jobs.ResourceUsageListener;
+import io.crate.operation.collect.StatsTables;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.UUID;
+
+/**
+ * Reports the resources consumed by the operations of a job to the node which executes the job
+ * once the operations on this node have finished, see {@link StatsTables#jobResourceUsage(UUID, ResourceUsage)}
+ */
+@Singleton
+public class TransportJobResourceUsageNodeAction
+        implements NodeAction<JobResourceUsageRequest, TransportResponse.Empty>, ResourceUsageListener {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(TransportJobResourceUsageNodeAction.class);
+    private static final String TRANSPORT_ACTION = "crate/sql/job/resource_usage";
+
+    private final StatsTables statsTables;
+    private final Transports transports;
+
+    @Inject
+    public TransportJobResourceUsageNodeAction(StatsTables statsTables,
+                                               JobContextService jobContextService,
+                                               Transports transports,
+                                               TransportService transportService) {
+        this.statsTables = statsTables;
+        this.transports = transports;
+        jobContextService.addListener(this);
+        transportService.registerHandler(TRANSPORT_ACTION,
+                new NodeActionRequestHandler<JobResourceUsageRequest, TransportResponse.Empty>(this) {
+            @Override
+            public JobResourceUsageRequest newInstance() {
+                return new JobResourceUsageRequest();
+            }
+        });
+    }
+
+    @Override
+    public void jobFinished(final UUID jobId, String coordinatorNodeId, ResourceUsage resourceUsage) {
+        ActionListener<TransportResponse.Empty> listener = new ActionListener<TransportResponse.Empty>() {
+            @Override
+            public void onResponse(TransportResponse.Empty empty) {
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                LOGGER.debug("could not report the resource usage of job {}", e, jobId);
+            }
+        };
+        transports.executeLocalOrWithTransport(this, coordinatorNodeId,
+                new JobResourceUsageRequest(jobId, resourceUsage), listener,
+                new DefaultTransportResponseHandler<TransportResponse.Empty>(listener) {
+                    @Override
+                    public TransportResponse.Empty newInstance() {
+                        return TransportResponse.Empty.INSTANCE;
+                    }
+                });
+    }
+
+    @Override
+    public String actionName() {
+        return TRANSPORT_ACTION;
+    }
+
+    @Override
+    public String executorName() {
+        return ThreadPool.Names.MANAGEMENT;
+    }
+
+    @Override
+    public void nodeOperation(JobResourceUsageRequest request, ActionListener<TransportResponse.Empty> listener) {
+        statsTables.jobResourceUsage(request.jobId(), request.resourceUsage());
+        listener.onResponse(TransportResponse.Empty.INSTANCE);
+    }
+}
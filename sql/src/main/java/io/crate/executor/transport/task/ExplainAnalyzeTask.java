@@ -0,0 +1,177 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.task;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.crate.core.collections.Row1;
+import io.crate.core.collections.SingleRowBucket;
+import io.crate.executor.JobTask;
+import io.crate.executor.QueryResult;
+import io.crate.executor.Task;
+import io.crate.executor.TaskExecutor;
+import io.crate.executor.TaskResult;
+import io.crate.executor.transport.profile.CollectProfilesRequest;
+import io.crate.executor.transport.profile.CollectProfilesResponse;
+import io.crate.executor.transport.profile.TransportCollectProfilesNodeAction;
+import io.crate.operation.profile.PhaseProfile;
+import org.elasticsearch.action.ActionListener;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the tasks of a profiled statement, discards their result and
+ * returns the runtime statistics of all execution phases collected from all nodes instead.
+ */
+public class ExplainAnalyzeTask extends JobTask {
+
+    private final List<Task> subTasks;
+    private final TaskExecutor taskExecutor;
+    private final TransportCollectProfilesNodeAction collectProfilesNodeAction;
+    private final SettableFuture<TaskResult> result = SettableFuture.create();
+    private final List<ListenableFuture<TaskResult>> results = ImmutableList.<ListenableFuture<TaskResult>>of(result);
+
+    public ExplainAnalyzeTask(UUID jobId,
+                              List<Task> subTasks,
+                              TaskExecutor taskExecutor,
+                              TransportCollectProfilesNodeAction collectProfilesNodeAction) {
+        super(jobId);
+        this.subTasks = subTasks;
+        this.taskExecutor = taskExecutor;
+        this.collectProfilesNodeAction = collectProfilesNodeAction;
+    }
+
+    @Override
+    public void start() {
+        final long startNanos = System.nanoTime();
+        List<? extends ListenableFuture<TaskResult>> subResults;
+        try {
+            subResults = taskExecutor.execute(subTasks);
+        } catch (Throwable t) {
+            collectProfiles(startNanos, 0L, t);
+            return;
+        }
+        Futures.addCallback(Futures.allAsList(subResults), new FutureCallback<List<TaskResult>>() {
+            @Override
+            public void onSuccess(@Nullable List<TaskResult> taskResults) {
+                long rows = 0L;
+                if (taskResults != null) {
+                    for (TaskResult taskResult : taskResults) {
+                        rows += taskResult.rows().size();
+                    }
+                }
+                collectProfiles(startNanos, rows, null);
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                collectProfiles(startNanos, 0L, t);
+            }
+        });
+    }
+
+    /**
+     * the profiles are always collected, also if the statement failed, so that they are removed from all nodes
+     */
+    private void collectProfiles(long startNanos, final long rows, @Nullable final Throwable failure) {
+        final long durationNanos = System.nanoTime() - startNanos;
+        collectProfilesNodeAction.executeOnAllNodes(new CollectProfilesRequest(jobId()),
+                new ActionListener<CollectProfilesResponse>() {
+            @Override
+            public void onResponse(CollectProfilesResponse response) {
+                if (failure != null) {
+                    result.setException(failure);
+                } else {
+                    result.set(new QueryResult(new SingleRowBucket(new Row1(
+                            toMap(durationNanos, rows, response.profiles())))));
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                result.setException(failure == null ? e : failure);
+            }
+        });
+    }
+
+    /**
+     * aggregate the profiles of all nodes by execution phase
+     */
+    static Map<String, Object> toMap(long durationNanos, long rows, List<PhaseProfile> profiles) {
+        SortedMap<Integer, List<PhaseProfile>> profilesByPhase = new TreeMap<>();
+        for (PhaseProfile profile : profiles) {
+            List<PhaseProfile> phaseProfiles = profilesByPhase.get(profile.phaseId());
+            if (phaseProfiles == null) {
+                phaseProfiles = new ArrayList<>();
+                profilesByPhase.put(profile.phaseId(), phaseProfiles);
+            }
+            phaseProfiles.add(profile);
+        }
+
+        List<Map<String, Object>> phases = new ArrayList<>(profilesByPhase.size());
+        for (Map.Entry<Integer, List<PhaseProfile>> entry : profilesByPhase.entrySet()) {
+            List<PhaseProfile> phaseProfiles = entry.getValue();
+            Collections.sort(phaseProfiles, new Comparator<PhaseProfile>() {
+                @Override
+                public int compare(PhaseProfile o1, PhaseProfile o2) {
+                    return o1.nodeId().compareTo(o2.nodeId());
+                }
+            });
+            long phaseRows = 0L;
+            long phaseBytesSent = 0L;
+            List<Map<String, Object>> nodes = new ArrayList<>(phaseProfiles.size());
+            for (PhaseProfile profile : phaseProfiles) {
+                phaseRows += profile.rows();
+                phaseBytesSent += profile.bytesSent();
+                nodes.add(profile.toMap());
+            }
+            phases.add(ImmutableMap.<String, Object>builder()
+                    .put("id", entry.getKey())
+                    .put("name", phaseProfiles.get(0).phaseName())
+                    .put("rows", phaseRows)
+                    .put("bytes_sent", phaseBytesSent)
+                    .put("nodes", nodes)
+                    .build());
+        }
+        return ImmutableMap.<String, Object>of(
+                "duration", TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                "rows", rows,
+                "phases", phases);
+    }
+
+    @Override
+    public List<? extends ListenableFuture<TaskResult>> result() {
+        return results;
+    }
+
+    @Override
+    public void upstreamResult(List<? extends ListenableFuture<TaskResult>> result) {
+        throw new UnsupportedOperationException("ExplainAnalyzeTask doesn't support upstreamResults");
+    }
+}
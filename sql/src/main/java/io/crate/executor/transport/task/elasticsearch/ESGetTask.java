@@ -67,7 +67,7 @@ public class ESGetTask extends EsJobContextTask implements RowUpstream {
                      Functions functions,
                      ProjectorFactory projectorFactory,
                      TransportMultiGetAction multiGetAction,
-                     TransportGetAction getAction,
+                     TransportCoalescingGetAction getAction,
                      ESGetNode node,
                      JobContextService jobContextService) {
         super(jobId, node.executionPhaseId(), 1, jobContextService);
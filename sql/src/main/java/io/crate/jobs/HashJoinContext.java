@@ -0,0 +1,160 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jobs;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.operation.join.HashJoiner;
+import io.crate.operation.projectors.*;
+import io.crate.planner.node.dql.HashJoinPhase;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.UUID;
+
+/**
+ * Context of a {@link HashJoinPhase}.
+ *
+ * Inputs whose upstream runs on the same node send their rows directly to {@link #rowReceiver(byte)},
+ * distributed inputs are received by a {@link PageDownstreamContext} per input.
+ */
+public class HashJoinContext extends AbstractExecutionSubContext implements DownstreamExecutionSubContext {
+
+    private final String name;
+    private final RamAccountingContext ramAccountingContext;
+    private final FlatProjectorChain projectorChain;
+    private final HashJoiner hashJoiner;
+    private final PageDownstreamContext[] pageDownstreamContexts = new PageDownstreamContext[2];
+
+    public HashJoinContext(UUID jobId,
+                           HashJoinPhase phase,
+                           ProjectorFactory projectorFactory,
+                           RowReceiver rowReceiver,
+                           RamAccountingContext ramAccountingContext) {
+        super(phase.executionPhaseId());
+        this.name = phase.name();
+        this.ramAccountingContext = ramAccountingContext;
+        ListenableRowReceiver listenableRowReceiver = RowReceivers.listenableRowReceiver(rowReceiver);
+        Futures.addCallback(listenableRowReceiver.finishFuture(), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(@Nullable Void result) {
+                HashJoinContext.this.close(null);
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                HashJoinContext.this.close(t);
+            }
+        });
+        projectorChain = FlatProjectorChain.withAttachedDownstream(
+                projectorFactory,
+                ramAccountingContext,
+                phase.projections(),
+                listenableRowReceiver,
+                jobId
+        );
+        hashJoiner = new HashJoiner(
+                ramAccountingContext,
+                phase.inputTypes((byte) 0),
+                phase.inputTypes((byte) 1),
+                phase.numKeys(),
+                phase.buildInputId(),
+                projectorChain.firstProjector()
+        );
+    }
+
+    public RowReceiver rowReceiver(byte inputId) {
+        return hashJoiner.receiver(inputId);
+    }
+
+    public void addPageDownstreamContext(byte inputId, PageDownstreamContext pageDownstreamContext) {
+        pageDownstreamContexts[inputId] = pageDownstreamContext;
+    }
+
+    @Nullable
+    @Override
+    public PageDownstreamContext pageDownstreamContext(byte inputId) {
+        assert inputId == 0 || inputId == 1 : "a join only has 2 inputs";
+        return pageDownstreamContexts[inputId];
+    }
+
+    @Override
+    public void keepAliveListener(KeepAliveListener listener) {
+        super.keepAliveListener(listener);
+        for (PageDownstreamContext pageDownstreamContext : pageDownstreamContexts) {
+            if (pageDownstreamContext != null) {
+                pageDownstreamContext.keepAliveListener(listener);
+            }
+        }
+    }
+
+    @Override
+    protected void innerPrepare() {
+        for (PageDownstreamContext pageDownstreamContext : pageDownstreamContexts) {
+            if (pageDownstreamContext != null) {
+                pageDownstreamContext.prepare();
+            }
+        }
+    }
+
+    @Override
+    protected void innerStart() {
+        projectorChain.startProjections(this);
+        for (PageDownstreamContext pageDownstreamContext : pageDownstreamContexts) {
+            if (pageDownstreamContext != null) {
+                pageDownstreamContext.start();
+            }
+        }
+    }
+
+    @Override
+    protected void innerClose(@Nullable Throwable t) {
+        for (PageDownstreamContext pageDownstreamContext : pageDownstreamContexts) {
+            if (pageDownstreamContext != null) {
+                if (t == null) {
+                    pageDownstreamContext.close();
+                } else {
+                    pageDownstreamContext.kill(t);
+                }
+            }
+        }
+        future.bytesUsed(ramAccountingContext.totalBytes());
+        ramAccountingContext.close();
+    }
+
+    @Override
+    protected void innerKill(@Nonnull Throwable t) {
+        for (PageDownstreamContext pageDownstreamContext : pageDownstreamContexts) {
+            if (pageDownstreamContext != null) {
+                pageDownstreamContext.kill(t);
+            }
+        }
+        future.bytesUsed(ramAccountingContext.totalBytes());
+        ramAccountingContext.close();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
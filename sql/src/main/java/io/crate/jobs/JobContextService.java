@@ -38,6 +38,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -64,6 +65,7 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
     private final ReentrantReadWriteLock.WriteLock writeLock = rwLock.writeLock();
 
     private final List<KillAllListener> killAllListeners = Collections.synchronizedList(new ArrayList<KillAllListener>());
+    private final List<ResourceUsageListener> resourceUsageListeners = new CopyOnWriteArrayList<>();
 
     @Inject
     public JobContextService(Settings settings,
@@ -90,6 +92,10 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
         killAllListeners.add(listener);
     }
 
+    public void addListener(ResourceUsageListener listener) {
+        resourceUsageListeners.add(listener);
+    }
+
     @Override
     protected void doClose() throws ElasticsearchException {
         keepAliveReaper.cancel(false);
@@ -186,6 +192,14 @@ public class JobContextService extends AbstractLifecycleComponent<JobContextServ
                                 " {} executionContexts remaining",
                         System.identityHashCode(activeContexts), context.jobId(), activeContexts.size());
             }
+            // the operations of a job executed by this node are accounted by the StatsTables directly
+            ResourceUsage resourceUsage = context.resourceUsage();
+            String coordinatorNodeId = context.coordinatorNodeId();
+            if (resourceUsage != null && coordinatorNodeId != null) {
+                for (ResourceUsageListener listener : resourceUsageListeners) {
+                    listener.jobFinished(context.jobId(), coordinatorNodeId, resourceUsage);
+                }
+            }
         }
     }
 
@@ -51,6 +51,10 @@ public class JobExecutionContext implements KeepAliveListener {
     private final ListenableFuture<List<SubExecutionContextFuture.State>> chainedFuture;
     private ThreadPool threadPool;
     private StatsTables statsTables;
+    @Nullable
+    private final String coordinatorNodeId;
+    @Nullable
+    private final ResourceUsage resourceUsage;
     private volatile Throwable failure;
     private volatile Callback<JobExecutionContext> closeCallback;
     private volatile long lastAccessTime;
@@ -66,6 +70,7 @@ public class JobExecutionContext implements KeepAliveListener {
         private final ThreadPool threadPool;
         private final StatsTables statsTables;
         private final LinkedHashMap<Integer, ExecutionSubContext> subContexts = new LinkedHashMap<>();
+        private String coordinatorNodeId;
 
         Builder(UUID jobId, ThreadPool threadPool, StatsTables statsTables) {
             this.jobId = jobId;
@@ -81,6 +86,14 @@ public class JobExecutionContext implements KeepAliveListener {
             }
         }
 
+        /**
+         * set the node which executes the job if it isn't the local node,
+         * the resources consumed by the job on this node are reported to it
+         */
+        public void coordinatorNodeId(String coordinatorNodeId) {
+            this.coordinatorNodeId = coordinatorNodeId;
+        }
+
         boolean isEmpty() {
             return subContexts.isEmpty();
         }
@@ -90,19 +103,22 @@ public class JobExecutionContext implements KeepAliveListener {
         }
 
         public JobExecutionContext build() {
-            return new JobExecutionContext(jobId, threadPool, statsTables, subContexts);
+            return new JobExecutionContext(jobId, coordinatorNodeId, threadPool, statsTables, subContexts);
         }
     }
 
 
     private JobExecutionContext(UUID jobId,
+                                @Nullable String coordinatorNodeId,
                                 ThreadPool threadPool,
                                 StatsTables statsTables,
                                 LinkedHashMap<Integer, ExecutionSubContext> subContexts) {
         orderedContextIds = Lists.newArrayList(subContexts.keySet());
         this.jobId = jobId;
+        this.coordinatorNodeId = coordinatorNodeId;
         this.threadPool = threadPool;
         this.statsTables = statsTables;
+        this.resourceUsage = statsTables.isEnabled() ? new ResourceUsage() : null;
         lastAccessTime = threadPool.estimatedTimeInMillis();
 
         this.futures = new ArrayList<>(subContexts.size());
@@ -121,7 +137,10 @@ public class JobExecutionContext implements KeepAliveListener {
         if (subContexts.put(subContextId, subContext) == null) {
             subContext.keepAliveListener(this);
             SubExecutionContextFuture future = subContext.future();
-            future.addCallback(new RemoveSubContextCallback(subContextId));
+            if (resourceUsage != null && future.resourceUsage() == null) {
+                future.resourceUsage(new ResourceUsage());
+            }
+            future.addCallback(new RemoveSubContextCallback(subContextId, future));
             futures.add(future);
             LOGGER.trace("adding subContext {}, now there are {} subContexts", subContextId, subContexts.size());
         } else {
@@ -133,6 +152,22 @@ public class JobExecutionContext implements KeepAliveListener {
         return jobId;
     }
 
+    /**
+     * @return the node which executes the job or null if it is the local node
+     */
+    @Nullable
+    public String coordinatorNodeId() {
+        return coordinatorNodeId;
+    }
+
+    /**
+     * @return the resources consumed by the finished subContexts or null if they aren't accounted
+     */
+    @Nullable
+    public ResourceUsage resourceUsage() {
+        return resourceUsage;
+    }
+
     private void prepare(){
         for (Integer id : orderedContextIds) {
             ExecutionSubContext subContext = subContexts.get(id);
@@ -242,9 +277,22 @@ public class JobExecutionContext implements KeepAliveListener {
     private class RemoveSubContextCallback implements FutureCallback<SubExecutionContextFuture.State> {
 
         private final int id;
+        private final SubExecutionContextFuture future;
 
-        private RemoveSubContextCallback(int id) {
+        private RemoveSubContextCallback(int id, SubExecutionContextFuture future) {
             this.id = id;
+            this.future = future;
+        }
+
+        private void accountResourceUsage(long bytesUsed) {
+            ResourceUsage subContextUsage = future.resourceUsage();
+            if (subContextUsage == null || resourceUsage == null) {
+                return;
+            }
+            if (bytesUsed > 0) {
+                subContextUsage.addUsedBytes(bytesUsed);
+            }
+            resourceUsage.add(subContextUsage);
         }
 
         private RemoveSubContextPosition remove(){
@@ -266,7 +314,8 @@ public class JobExecutionContext implements KeepAliveListener {
         public void onSuccess(@Nullable SubExecutionContextFuture.State state) {
             keepAlive();
             assert state != null;
-            statsTables.operationFinished(id, null, state.bytesUsed());
+            accountResourceUsage(state.bytesUsed());
+            statsTables.operationFinished(id, null, state.bytesUsed(), future.resourceUsage());
             remove();
         }
 
@@ -276,7 +325,8 @@ public class JobExecutionContext implements KeepAliveListener {
             if (t != null){
                 failure = t;
             }
-            statsTables.operationFinished(id, null, -1);
+            accountResourceUsage(-1);
+            statsTables.operationFinished(id, null, -1, future.resourceUsage());
             if (remove() == RemoveSubContextPosition.LAST){
                 return;
             }
@@ -26,17 +26,22 @@ import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.BucketPage;
+import io.crate.core.collections.Row;
 import io.crate.operation.PageConsumeListener;
 import io.crate.operation.PageDownstream;
 import io.crate.operation.PageResultListener;
 import io.crate.operation.projectors.FlatProjectorChain;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 public class PageDownstreamContext extends AbstractExecutionSubContext implements DownstreamExecutionSubContext {
 
@@ -52,10 +57,14 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     private final BitSet allFuturesSet;
     private final BitSet exhausted;
     private final ArrayList<PageResultListener> listeners = new ArrayList<>();
+    private final ArrayList<RetainedBucket> retainedBuckets = new ArrayList<>();
 
     @Nullable
     private final FlatProjectorChain projectorChain;
 
+    @Nullable
+    private final int[] inputBucketOffsets;
+
     public PageDownstreamContext(int id,
                                  String name,
                                  PageDownstream pageDownstream,
@@ -63,7 +72,23 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
                                  RamAccountingContext ramAccountingContext,
                                  int numBuckets,
                                  @Nullable FlatProjectorChain projectorChain) {
+        this(id, name, pageDownstream, streamer, ramAccountingContext, numBuckets, projectorChain, null);
+    }
+
+    /**
+     * @param inputBucketOffsets the index of the first bucket of every input if the buckets are sent by
+     *                           the upstreams of multiple inputs, null if there is only one input
+     */
+    public PageDownstreamContext(int id,
+                                 String name,
+                                 PageDownstream pageDownstream,
+                                 Streamer<?>[] streamer,
+                                 RamAccountingContext ramAccountingContext,
+                                 int numBuckets,
+                                 @Nullable FlatProjectorChain projectorChain,
+                                 @Nullable int[] inputBucketOffsets) {
         super(id);
+        this.inputBucketOffsets = inputBucketOffsets;
         this.name = name;
         this.pageDownstream = pageDownstream;
         this.streamer = streamer;
@@ -96,6 +121,21 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     }
 
     public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        ResourceUsage resourceUsage = future.resourceUsage();
+        if (resourceUsage == null) {
+            innerSetBucket(bucketIdx, rows, isLast, pageResultListener);
+            return;
+        }
+        // the page is merged on the current thread once all buckets of the page are set
+        long startCpuTime = ResourceUsage.currentThreadCpuTime();
+        try {
+            innerSetBucket(bucketIdx, rows, isLast, pageResultListener);
+        } finally {
+            resourceUsage.addCpuTimeSince(startCpuTime);
+        }
+    }
+
+    private void innerSetBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
         synchronized (listeners) {
             listeners.add(pageResultListener);
         }
@@ -115,7 +155,7 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             if (isLast) {
                 exhausted.set(bucketIdx);
             }
-            bucketFutures.get(bucketIdx).set(rows);
+            bucketFutures.get(bucketIdx).set(retain(rows));
             allFuturesSet.set(bucketIdx);
 
             clearPageIfFull();
@@ -164,6 +204,33 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         }
     }
 
+    /**
+     * Buckets with rows stored in recycled pages are referenced until their rows have been consumed.
+     * Rows of a page aren't necessarily consumed once the next page is requested, e.g. a sorted merge
+     * only requests the next page as soon as one of the buckets is exhausted.
+     */
+    private Bucket retain(Bucket rows) {
+        if (!(rows instanceof RefCounted)) {
+            return rows;
+        }
+        ((RefCounted) rows).incRef();
+        RetainedBucket retainedBucket = new RetainedBucket(rows);
+        synchronized (retainedBuckets) {
+            retainedBuckets.add(retainedBucket);
+        }
+        return retainedBucket;
+    }
+
+    private void releaseRetainedBuckets() {
+        ArrayList<RetainedBucket> buckets;
+        synchronized (retainedBuckets) {
+            buckets = new ArrayList<>(retainedBuckets);
+        }
+        for (RetainedBucket bucket : buckets) {
+            bucket.release();
+        }
+    }
+
     public Streamer<?>[] streamer() {
         return streamer;
     }
@@ -175,6 +242,9 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         } else {
             pageDownstream.fail(throwable);
         }
+        // a pageDownstream which is still iterating a bucket (e.g. on another thread if the context is killed)
+        // sees the released bucket as exhausted, see RetainedBucket
+        releaseRetainedBuckets();
 
         future.bytesUsed(ramAccountingContext.totalBytes());
         ramAccountingContext.close();
@@ -200,10 +270,21 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     @Nullable
     @Override
     public PageDownstreamContext pageDownstreamContext(byte inputId) {
-        assert inputId == 0 : "This downstream context only supports 1 input";
+        assert inputId == 0 || (inputBucketOffsets != null && inputId < inputBucketOffsets.length)
+                : "This downstream context doesn't support input " + inputId;
         return this;
     }
 
+    /**
+     * @return the index of the bucket which is sent by an upstream of the given input
+     */
+    public int bucketIdx(byte inputId, int upstreamBucketIdx) {
+        if (inputBucketOffsets == null) {
+            return upstreamBucketIdx;
+        }
+        return inputBucketOffsets[inputId] + upstreamBucketIdx;
+    }
+
     private class ResultListenerBridgingConsumeListener implements PageConsumeListener {
 
         @Override
@@ -238,4 +319,75 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
             }
         }
     }
+
+    /**
+     * The rows of a bucket are read from its pages by the iterator, so the iterator and {@link #release()}
+     * are synchronized on the bucket. Once released, the pages may be used by someone else and the
+     * iterator behaves as if the bucket was exhausted.
+     */
+    private class RetainedBucket implements Bucket {
+
+        private final Bucket bucket;
+        private boolean released = false;
+
+        RetainedBucket(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        @Override
+        public int size() {
+            return bucket.size();
+        }
+
+        @Override
+        public synchronized Iterator<Row> iterator() {
+            if (released) {
+                return Collections.emptyIterator();
+            }
+            final Iterator<Row> iterator = bucket.iterator();
+            return new Iterator<Row>() {
+                @Override
+                public boolean hasNext() {
+                    synchronized (RetainedBucket.this) {
+                        if (released) {
+                            return false;
+                        }
+                        boolean hasNext = iterator.hasNext();
+                        if (!hasNext) {
+                            release();
+                        }
+                        return hasNext;
+                    }
+                }
+
+                @Override
+                public Row next() {
+                    synchronized (RetainedBucket.this) {
+                        if (released) {
+                            throw new NoSuchElementException("bucket was released");
+                        }
+                        return iterator.next();
+                    }
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("remove is not supported");
+                }
+            };
+        }
+
+        void release() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            synchronized (retainedBuckets) {
+                retainedBuckets.remove(this);
+            }
+            ((RefCounted) bucket).decRef();
+        }
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jobs;
+
+import jsr166e.LongAdder;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Resources consumed by an operation or, summed up, by all operations of a job.
+ *
+ * The counters may be updated concurrently, a job accumulates the usage of its operations
+ * on all nodes using {@link #add(ResourceUsage)}.
+ */
+public class ResourceUsage implements Streamable {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder rowsEmitted = new LongAdder();
+    private final LongAdder cpuTime = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder usedBytes = new LongAdder();
+
+    /**
+     * @return the cpu time of the current thread in nanoseconds or 0 if it can't be measured
+     */
+    public static long currentThreadCpuTime() {
+        if (CPU_TIME_SUPPORTED) {
+            long cpuTime = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+            if (cpuTime > 0) {
+                return cpuTime;
+            }
+        }
+        return 0L;
+    }
+
+    public void addRowsScanned(long rows) {
+        rowsScanned.add(rows);
+    }
+
+    public void addRowsEmitted(long rows) {
+        rowsEmitted.add(rows);
+    }
+
+    /**
+     * @param startCpuTime the {@link #currentThreadCpuTime()} read before the work was started on the current thread
+     */
+    public void addCpuTimeSince(long startCpuTime) {
+        long end = currentThreadCpuTime();
+        if (end > startCpuTime) {
+            cpuTime.add(end - startCpuTime);
+        }
+    }
+
+    public void addBytesSent(long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    public void addUsedBytes(long bytes) {
+        usedBytes.add(bytes);
+    }
+
+    public void add(ResourceUsage other) {
+        rowsScanned.add(other.rowsScanned());
+        rowsEmitted.add(other.rowsEmitted());
+        cpuTime.add(other.cpuTime());
+        bytesSent.add(other.bytesSent());
+        usedBytes.add(other.usedBytes());
+    }
+
+    public long rowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    public long rowsEmitted() {
+        return rowsEmitted.sum();
+    }
+
+    /**
+     * @return the consumed cpu time in nanoseconds
+     */
+    public long cpuTime() {
+        return cpuTime.sum();
+    }
+
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * @return the bytes accounted by the {@link io.crate.breaker.RamAccountingContext}s,
+     *         those only grow until an operation is closed so this is their peak usage
+     */
+    public long usedBytes() {
+        return usedBytes.sum();
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        rowsScanned.add(in.readVLong());
+        rowsEmitted.add(in.readVLong());
+        cpuTime.add(in.readVLong());
+        bytesSent.add(in.readVLong());
+        usedBytes.add(in.readVLong());
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(rowsScanned());
+        out.writeVLong(rowsEmitted());
+        out.writeVLong(cpuTime());
+        out.writeVLong(bytesSent());
+        out.writeVLong(usedBytes());
+    }
+}
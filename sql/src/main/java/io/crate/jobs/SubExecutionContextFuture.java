@@ -37,10 +37,19 @@ public class SubExecutionContextFuture implements ListenableFuture<SubExecutionC
 
     public static class State {
         private volatile long bytesUsed = -1;
+        private volatile ResourceUsage resourceUsage;
 
         public long bytesUsed() {
             return bytesUsed;
         }
+
+        /**
+         * @return the resources consumed by the context or null if they aren't accounted
+         */
+        @Nullable
+        public ResourceUsage resourceUsage() {
+            return resourceUsage;
+        }
     }
 
     private final SettableFuture<State> internalFuture = SettableFuture.create();
@@ -65,6 +74,19 @@ public class SubExecutionContextFuture implements ListenableFuture<SubExecutionC
         state.bytesUsed = bytes;
     }
 
+    /**
+     * account the resources consumed by the context to <code>resourceUsage</code>,
+     * must be set before the context is prepared
+     */
+    public void resourceUsage(ResourceUsage resourceUsage) {
+        state.resourceUsage = resourceUsage;
+    }
+
+    @Nullable
+    public ResourceUsage resourceUsage() {
+        return state.resourceUsage;
+    }
+
     public boolean close(@Nullable Throwable t) {
         if (t == null) {
             return internalFuture.set(state);
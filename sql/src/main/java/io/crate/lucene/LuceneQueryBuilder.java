@@ -25,6 +25,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.spatial4j.core.context.jts.JtsSpatialContext;
 import com.spatial4j.core.shape.Rectangle;
@@ -38,6 +39,7 @@ import io.crate.lucene.match.MatchQueryBuilder;
 import io.crate.lucene.match.MultiMatchQueryBuilder;
 import io.crate.metadata.DocReferenceConverter;
 import io.crate.metadata.Functions;
+import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectInputSymbolVisitor;
@@ -122,6 +124,9 @@ public class LuceneQueryBuilder {
             ctx.query = Queries.newMatchAllQuery();
         } else {
             ctx.query = VISITOR.process(whereClause.query(), ctx);
+            if (ctx.query instanceof Visitor.GenericFunctionQuery) {
+                ctx.query = ((Visitor.GenericFunctionQuery) ctx.query).cached(ctx);
+            }
         }
         if (LOGGER.isTraceEnabled()) {
             if (whereClause.hasQuery()) {
@@ -545,10 +550,26 @@ public class LuceneQueryBuilder {
             public Query apply(Function input, Context context) {
                 assert input != null;
                 BooleanQuery query = new BooleanQuery();
+                List<Filter> functionFilters = new ArrayList<>();
                 for (Symbol symbol : input.arguments()) {
-                    query.add(process(symbol, context), BooleanClause.Occur.MUST);
+                    Query argumentQuery = process(symbol, context);
+                    if (argumentQuery instanceof GenericFunctionQuery) {
+                        functionFilters.add(((GenericFunctionQuery) argumentQuery).getFilter());
+                    } else {
+                        query.add(argumentQuery, BooleanClause.Occur.MUST);
+                    }
                 }
-                return query;
+                if (functionFilters.isEmpty()) {
+                    return query;
+                }
+                // function filters are expensive, so they're only evaluated for documents
+                // which already match all the other clauses of the conjunction
+                Query filteredQuery = query.clauses().isEmpty() ? Queries.newMatchAllQuery() : query;
+                for (Filter functionFilter : functionFilters) {
+                    filteredQuery = new FilteredQuery(
+                            filteredQuery, functionFilter, FilteredQuery.QUERY_FIRST_FILTER_STRATEGY);
+                }
+                return filteredQuery;
             }
         }
 
@@ -692,6 +713,16 @@ public class LuceneQueryBuilder {
             }
         }
 
+        /**
+         * java.util.regex patterns are matched against every term of the field,
+         * so the matching documents are cached per segment
+         */
+        private static Query cachedRegexQuery(RegexQuery query, Context context) {
+            return new XConstantScoreQuery(
+                    context.indexCache.filter().cache(new MultiTermQueryWrapperFilter<RegexQuery>(query) {})
+            );
+        }
+
         static class RegexpMatchQuery extends CmpQuery {
 
             private Query toLuceneRegexpQuery(String fieldName, BytesRef value, Context context) {
@@ -712,7 +743,7 @@ public class LuceneQueryBuilder {
                 // FIXME: nobody knows how Strings can arrive here
                 if (value instanceof String) {
                     if (isPcrePattern(value)) {
-                        return new RegexQuery(new Term(fieldName, (String) value));
+                        return cachedRegexQuery(new RegexQuery(new Term(fieldName, (String) value)), context);
                     } else {
                         return toLuceneRegexpQuery(fieldName, BytesRefs.toBytesRef(value), context);
                     }
@@ -720,7 +751,7 @@ public class LuceneQueryBuilder {
 
                 if (value instanceof BytesRef) {
                     if (isPcrePattern(value)) {
-                        return new RegexQuery(new Term(fieldName, (BytesRef) value));
+                        return cachedRegexQuery(new RegexQuery(new Term(fieldName, (BytesRef) value)), context);
                     } else {
                         return toLuceneRegexpQuery(fieldName, (BytesRef) value, context);
                     }
@@ -745,7 +776,7 @@ public class LuceneQueryBuilder {
                     query.setRegexImplementation(new JavaUtilRegexCapabilities(
                             JavaUtilRegexCapabilities.FLAG_CASE_INSENSITIVE |
                             JavaUtilRegexCapabilities.FLAG_UNICODE_CASE));
-                    return query;
+                    return cachedRegexQuery(query, context);
                 }
                 throw new IllegalArgumentException("Can only use ~* with patterns of type string");
             }
@@ -1067,54 +1098,174 @@ public class LuceneQueryBuilder {
             return function;
         }
 
-        private static Filter genericFunctionFilter(Function function, Context context) {
+        private static FunctionFilter genericFunctionFilter(Function function, Context context) {
             if (function.valueType() != DataTypes.BOOLEAN) {
                 raiseUnsupported(function);
             }
-            // avoid field-cache
+            // use the source unless all columns can be read from doc values
             // reason1: analyzed columns or columns with index off wouldn't work
             //   substr(n, 1, 1) in the case of n => analyzed would throw an error because n would be an array
-            // reason2: would have to load each value into the field cache
-            function = (Function)DocReferenceConverter.convertIf(function, Predicates.<Reference>alwaysTrue());
+            // reason2: columns without doc values would have to load each value into the field cache
+            if (!DOC_VALUES_VISITOR.process(function, context)) {
+                function = (Function) DocReferenceConverter.convertIf(function, Predicates.<Reference>alwaysTrue());
+            }
 
-            final CollectInputSymbolVisitor.Context ctx = context.inputSymbolVisitor.extractImplementations(function);
-            assert ctx.topLevelInputs().size() == 1;
-            @SuppressWarnings("unchecked")
-            final Input<Boolean> condition = (Input<Boolean>) ctx.topLevelInputs().get(0);
-            @SuppressWarnings("unchecked")
-            final List<LuceneCollectorExpression> expressions = ctx.docLevelExpressions();
-            final CollectorContext collectorContext = new CollectorContext(
-                    context.mapperService,
-                    context.fieldDataService,
-                    new CollectorFieldsVisitor(expressions.size())
-            );
+            return new FunctionFilter(function, context);
+        }
 
-            for (LuceneCollectorExpression expression : expressions) {
-                expression.startCollect(collectorContext);
+        /**
+         * evaluates a function for each document, two filters are equal if their functions are equal.
+         *
+         * The filter may be used as key of the filter cache, so it only holds the function and index level services.
+         * The expressions which read the values of a segment are created for every call of {@link #getDocIdSet}.
+         */
+        static class FunctionFilter extends Filter {
+
+            private final Function function;
+            private final CollectInputSymbolVisitor<LuceneCollectorExpression<?>> inputSymbolVisitor;
+            private final MapperService mapperService;
+            private final IndexFieldDataService fieldDataService;
+
+            FunctionFilter(Function function, Context context) {
+                this.function = function;
+                this.inputSymbolVisitor = context.inputSymbolVisitor;
+                this.mapperService = context.mapperService;
+                this.fieldDataService = context.fieldDataService;
             }
-            return new Filter() {
-                @Override
-                public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
-                    for (LuceneCollectorExpression expression : expressions) {
-                        expression.setNextReader(context.reader().getContext());
-                    }
-                    return BitsFilteredDocIdSet.wrap(
-                            new FunctionDocSet(
-                                    context.reader(),
-                                    collectorContext.visitor(),
-                                    condition,
-                                    expressions,
-                                    context.reader().maxDoc(),
-                                    acceptDocs
-                            ),
-                            acceptDocs
-                    );
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+                CollectInputSymbolVisitor.Context ctx = inputSymbolVisitor.extractImplementations(function);
+                assert ctx.topLevelInputs().size() == 1;
+                Input<Boolean> condition = (Input<Boolean>) ctx.topLevelInputs().get(0);
+                List<LuceneCollectorExpression> expressions = ctx.docLevelExpressions();
+                CollectorContext collectorContext = new CollectorContext(
+                        mapperService,
+                        fieldDataService,
+                        new CollectorFieldsVisitor(expressions.size())
+                );
+                for (LuceneCollectorExpression expression : expressions) {
+                    expression.startCollect(collectorContext);
+                    expression.setNextReader(context.reader().getContext());
                 }
-            };
+                return BitsFilteredDocIdSet.wrap(
+                        new FunctionDocSet(
+                                context.reader(),
+                                collectorContext.visitor(),
+                                condition,
+                                expressions,
+                                context.reader().maxDoc(),
+                                acceptDocs
+                        ),
+                        acceptDocs
+                );
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) return true;
+                if (o == null || getClass() != o.getClass()) return false;
+                return function.equals(((FunctionFilter) o).function);
+            }
+
+            @Override
+            public int hashCode() {
+                return function.hashCode();
+            }
+
+            @Override
+            public String toString() {
+                return SymbolFormatter.format("FunctionFilter(%s)", function);
+            }
         }
 
         private static Query genericFunctionQuery(Function function, Context context) {
-            return new FilteredQuery(Queries.newMatchAllQuery(), genericFunctionFilter(function, context));
+            return new GenericFunctionQuery(genericFunctionFilter(function, context));
+        }
+
+        /**
+         * marks a query which evaluates a function for every document,
+         * see {@link AndQuery} which applies these after all other clauses
+         */
+        static class GenericFunctionQuery extends FilteredQuery {
+
+            GenericFunctionQuery(FunctionFilter filter) {
+                super(Queries.newMatchAllQuery(), filter);
+            }
+
+            /**
+             * Caches the filter per segment, so only new segments have to evaluate the function for a repeated query.
+             * Only used if the function is the whole query: the cached bitset is built by evaluating the function for
+             * every document of a segment, which would undo the query first evaluation of a conjunction.
+             */
+            Query cached(Context context) {
+                FunctionFilter filter = (FunctionFilter) getFilter();
+                if (!Symbols.isDeterministic(filter.function)) {
+                    return this;
+                }
+                return new FilteredQuery(Queries.newMatchAllQuery(), context.indexCache.filter().cache(filter));
+            }
+        }
+
+        /**
+         * types of which the values are read from doc values by the {@link LuceneReferenceResolver}
+         */
+        private static final Set<DataType> DOC_VALUES_TYPES = ImmutableSet.<DataType>of(
+                DataTypes.BYTE,
+                DataTypes.SHORT,
+                DataTypes.INTEGER,
+                DataTypes.LONG,
+                DataTypes.TIMESTAMP,
+                DataTypes.FLOAT,
+                DataTypes.DOUBLE,
+                DataTypes.BOOLEAN,
+                DataTypes.STRING,
+                DataTypes.IP
+        );
+
+        static final DocValuesVisitor DOC_VALUES_VISITOR = new DocValuesVisitor();
+
+        /**
+         * returns true if all columns referenced by a symbol are single valued, not analyzed and have doc values
+         */
+        static class DocValuesVisitor extends SymbolVisitor<Context, Boolean> {
+
+            @Override
+            public Boolean visitFunction(Function symbol, Context context) {
+                for (Symbol argument : symbol.arguments()) {
+                    if (!process(argument, context)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Boolean visitReference(Reference symbol, Context context) {
+                ReferenceInfo info = symbol.info();
+                if (info.ident().columnIdent().name().startsWith("_")) {
+                    // system columns are never looked up in the source
+                    return true;
+                }
+                if (info.indexType() != ReferenceInfo.IndexType.NOT_ANALYZED
+                    || !DOC_VALUES_TYPES.contains(info.type())
+                    || context.mapperService == null) {
+                    return false;
+                }
+                FieldMapper mapper = context.mapperService.smartNameFieldMapper(info.ident().columnIdent().fqn());
+                return mapper != null && mapper.hasDocValues();
+            }
+
+            @Override
+            public Boolean visitDynamicReference(DynamicReference symbol, Context context) {
+                return false;
+            }
+
+            @Override
+            protected Boolean visitSymbol(Symbol symbol, Context context) {
+                return true;
+            }
         }
 
         static class FunctionDocSet extends MatchDocIdSet {
@@ -0,0 +1,244 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.analyze.TableSample;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Filter which only accepts a pseudo random sample of the documents of a shard.
+ *
+ * Whether a document is part of the sample only depends on the seed, the shard and the position of the
+ * document inside the shard, so the same sample is returned as long as the shard isn't changed.
+ *
+ * <ul>
+ *     <li>BERNOULLI: every document is accepted with the probability of the sample fraction,
+ *     the decision is cheap enough to be used as random access filter</li>
+ *     <li>SYSTEM: blocks of {@link #BLOCK_SIZE} documents are accepted with the probability
+ *     of the sample fraction, the iterator skips the documents of rejected blocks</li>
+ * </ul>
+ */
+public class TableSampleFilter extends Filter {
+
+    static final int BLOCK_SHIFT = 10;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private static final double UNIT = 1.0 / (1L << 53);
+
+    private final TableSample tableSample;
+    private final long shardSeed;
+    private final long threshold;
+
+    public TableSampleFilter(TableSample tableSample, ShardId shardId) {
+        this.tableSample = tableSample;
+        this.shardSeed = mix(tableSample.seed() ^ mix(((long) shardId.getIndex().hashCode() << 32) | shardId.id()));
+        this.threshold = (long) Math.ceil(tableSample.fraction() / UNIT);
+    }
+
+    /**
+     * finalizer of MurmurHash3, spreads the bits of consecutive values
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private boolean accept(long position) {
+        return (mix(shardSeed + position) >>> 11) < threshold;
+    }
+
+    @Override
+    public DocIdSet getDocIdSet(AtomicReaderContext context, @Nullable Bits acceptDocs) throws IOException {
+        final int docBase = context.docBase;
+        final int maxDoc = context.reader().maxDoc();
+        if (tableSample.method() == TableSample.Method.SYSTEM) {
+            return new SystemSampleDocIdSet(docBase, maxDoc, acceptDocs);
+        }
+        return new BernoulliSampleDocIdSet(docBase, maxDoc, acceptDocs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TableSampleFilter that = (TableSampleFilter) o;
+        return shardSeed == that.shardSeed && tableSample.equals(that.tableSample);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * tableSample.hashCode() + (int) (shardSeed ^ (shardSeed >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "TableSampleFilter(" + tableSample.method() + ", " + tableSample.percentage() + ")";
+    }
+
+    private class BernoulliSampleDocIdSet extends DocIdSet {
+
+        private final int docBase;
+        private final int maxDoc;
+        private final Bits acceptDocs;
+
+        BernoulliSampleDocIdSet(int docBase, int maxDoc, @Nullable Bits acceptDocs) {
+            this.docBase = docBase;
+            this.maxDoc = maxDoc;
+            this.acceptDocs = acceptDocs;
+        }
+
+        private boolean matches(int doc) {
+            return accept(docBase + doc) && (acceptDocs == null || acceptDocs.get(doc));
+        }
+
+        @Override
+        public Bits bits() throws IOException {
+            return new Bits() {
+                @Override
+                public boolean get(int index) {
+                    return matches(index);
+                }
+
+                @Override
+                public int length() {
+                    return maxDoc;
+                }
+            };
+        }
+
+        @Override
+        public DocIdSetIterator iterator() throws IOException {
+            return new DocIdSetIterator() {
+
+                private int doc = -1;
+
+                @Override
+                public int docID() {
+                    return doc;
+                }
+
+                @Override
+                public int nextDoc() throws IOException {
+                    return advance(doc + 1);
+                }
+
+                @Override
+                public int advance(int target) throws IOException {
+                    for (int i = target; i < maxDoc; i++) {
+                        if (matches(i)) {
+                            return doc = i;
+                        }
+                    }
+                    return doc = NO_MORE_DOCS;
+                }
+
+                @Override
+                public long cost() {
+                    return maxDoc;
+                }
+            };
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+    }
+
+    private class SystemSampleDocIdSet extends DocIdSet {
+
+        private final int docBase;
+        private final int maxDoc;
+        private final Bits acceptDocs;
+
+        SystemSampleDocIdSet(int docBase, int maxDoc, @Nullable Bits acceptDocs) {
+            this.docBase = docBase;
+            this.maxDoc = maxDoc;
+            this.acceptDocs = acceptDocs;
+        }
+
+        /**
+         * no random access, so the scorer is advanced past the documents of rejected blocks
+         */
+        @Override
+        public Bits bits() throws IOException {
+            return null;
+        }
+
+        @Override
+        public DocIdSetIterator iterator() throws IOException {
+            return new DocIdSetIterator() {
+
+                private int doc = -1;
+
+                @Override
+                public int docID() {
+                    return doc;
+                }
+
+                @Override
+                public int nextDoc() throws IOException {
+                    return advance(doc + 1);
+                }
+
+                @Override
+                public int advance(int target) throws IOException {
+                    int i = target;
+                    while (i < maxDoc) {
+                        long block = ((long) docBase + i) >>> BLOCK_SHIFT;
+                        if (!accept(block)) {
+                            // continue with the first document of the next block
+                            i = (int) (((block + 1) << BLOCK_SHIFT) - docBase);
+                        } else if (acceptDocs != null && !acceptDocs.get(i)) {
+                            i++;
+                        } else {
+                            return doc = i;
+                        }
+                    }
+                    return doc = NO_MORE_DOCS;
+                }
+
+                @Override
+                public long cost() {
+                    return (long) Math.ceil(maxDoc * tableSample.fraction());
+                }
+            };
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.google.common.collect.Sets;
 import io.crate.exceptions.SchemaUnknownException;
 import io.crate.exceptions.TableUnknownException;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.blob.BlobSchemaInfo;
 import io.crate.metadata.doc.DocSchemaInfo;
 import io.crate.metadata.doc.DocTableInfo;
@@ -60,6 +61,7 @@ public class ReferenceInfos implements ClusterStateListener, Schemas {
     private final ClusterService clusterService;
     private final TransportPutIndexTemplateAction transportPutIndexTemplateAction;
     private final ExecutorService executorService;
+    private final NodeResponseStats nodeResponseStats;
 
     private final Map<String, SchemaInfo> schemas = new ConcurrentHashMap<>();
     private final Map<String, SchemaInfo> builtInSchemas;
@@ -68,10 +70,12 @@ public class ReferenceInfos implements ClusterStateListener, Schemas {
     public ReferenceInfos(Map<String, SchemaInfo> builtInSchemas,
                           ClusterService clusterService,
                           ThreadPool threadPool,
-                          TransportPutIndexTemplateAction transportPutIndexTemplateAction) {
+                          TransportPutIndexTemplateAction transportPutIndexTemplateAction,
+                          NodeResponseStats nodeResponseStats) {
         this.clusterService = clusterService;
         this.transportPutIndexTemplateAction = transportPutIndexTemplateAction;
         this.executorService = (ExecutorService) threadPool.executor(ThreadPool.Names.SUGGEST);
+        this.nodeResponseStats = nodeResponseStats;
         schemas.putAll(builtInSchemas);
         this.builtInSchemas = builtInSchemas;
         clusterService.add(this);
@@ -176,7 +180,7 @@ public class ReferenceInfos implements ClusterStateListener, Schemas {
      * @return an instance of SchemaInfo for the given name
      */
     private SchemaInfo getCustomSchemaInfo(String name) {
-        return new DocSchemaInfo(name, executorService, clusterService, transportPutIndexTemplateAction);
+        return new DocSchemaInfo(name, executorService, clusterService, transportPutIndexTemplateAction, nodeResponseStats);
     }
 
     /**
@@ -39,6 +39,7 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.crate.blob.v2.BlobIndices;
 import io.crate.exceptions.TableUnknownException;
 import io.crate.exceptions.UnhandledServerException;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
@@ -93,6 +94,7 @@ public class DocSchemaInfo implements SchemaInfo, ClusterStateListener {
     private final Function<String, TableInfo> tableInfoFunction;
     private final String schemaName;
     private final ExecutorService executorService;
+    private final NodeResponseStats nodeResponseStats;
     private final Function<String, String> indexToTableName;
     private final static Function<String, String> AS_IS_FUNCTION = new Function<String, String>() {
         @Nullable
@@ -108,11 +110,13 @@ public class DocSchemaInfo implements SchemaInfo, ClusterStateListener {
     @Inject
     public DocSchemaInfo(ClusterService clusterService,
                          ThreadPool threadPool,
-                         TransportPutIndexTemplateAction transportPutIndexTemplateAction) {
+                         TransportPutIndexTemplateAction transportPutIndexTemplateAction,
+                         NodeResponseStats nodeResponseStats) {
         this(Schemas.DEFAULT_SCHEMA_NAME,
                 clusterService,
                 (ExecutorService) threadPool.executor(ThreadPool.Names.SUGGEST),
                 transportPutIndexTemplateAction,
+                nodeResponseStats,
                 Predicates.and(Predicates.notNull(), DOC_SCHEMA_TABLES_FILTER),
                 AS_IS_FUNCTION);
     }
@@ -123,8 +127,9 @@ public class DocSchemaInfo implements SchemaInfo, ClusterStateListener {
     public DocSchemaInfo(final String schemaName,
                          ExecutorService executorService,
                          ClusterService clusterService,
-                         TransportPutIndexTemplateAction transportPutIndexTemplateAction) {
-        this(schemaName, clusterService, executorService, transportPutIndexTemplateAction,
+                         TransportPutIndexTemplateAction transportPutIndexTemplateAction,
+                         NodeResponseStats nodeResponseStats) {
+        this(schemaName, clusterService, executorService, transportPutIndexTemplateAction, nodeResponseStats,
                 createSchemaNamePredicate(schemaName), new Function<String, String>() {
             @Nullable
             @Override
@@ -142,12 +147,14 @@ public class DocSchemaInfo implements SchemaInfo, ClusterStateListener {
                           ClusterService clusterService,
                           ExecutorService executorService,
                           TransportPutIndexTemplateAction transportPutIndexTemplateAction,
+                          NodeResponseStats nodeResponseStats,
                           Predicate<String> tableFilter,
                           final Function<String, String> fqTableNameToTableName) {
         this.schemaName = schemaName;
         this.clusterService = clusterService;
         this.clusterService.add(this);
         this.executorService = executorService;
+        this.nodeResponseStats = nodeResponseStats;
         this.transportPutIndexTemplateAction = transportPutIndexTemplateAction;
         this.tablesFilter = tableFilter;
         this.tableInfoFunction = new Function<String, TableInfo>() {
@@ -199,6 +206,7 @@ public class DocSchemaInfo implements SchemaInfo, ClusterStateListener {
                 clusterService,
                 transportPutIndexTemplateAction,
                 executorService,
+                nodeResponseStats,
                 checkAliasSchema
         );
         return builder.build();
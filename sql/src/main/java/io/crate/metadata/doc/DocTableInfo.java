@@ -28,6 +28,7 @@ import io.crate.analyze.AlterPartitionedTableParameterInfo;
 import io.crate.analyze.TableParameterInfo;
 import io.crate.analyze.WhereClause;
 import io.crate.exceptions.UnavailableShardsException;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.*;
 import io.crate.metadata.table.AbstractDynamicTableInfo;
 import io.crate.metadata.table.ColumnPolicy;
@@ -70,6 +71,7 @@ public class DocTableInfo extends AbstractDynamicTableInfo implements ShardedTab
     private final BytesRef numberOfReplicas;
     private final ImmutableMap<String, Object> tableParameters;
     private ExecutorService executorService;
+    private final NodeResponseStats nodeResponseStats;
     private final ClusterService clusterService;
     private final TableParameterInfo tableParameterInfo;
     private static final ESLogger logger = Loggers.getLogger(DocTableInfo.class);
@@ -102,7 +104,8 @@ public class DocTableInfo extends AbstractDynamicTableInfo implements ShardedTab
                         List<ColumnIdent> partitionedBy,
                         List<PartitionName> partitions,
                         ColumnPolicy columnPolicy,
-                        ExecutorService executorService) {
+                        ExecutorService executorService,
+                        NodeResponseStats nodeResponseStats) {
         super(schemaInfo);
         assert (partitionedBy.size() == partitionedByColumns.size()) : "partitionedBy and partitionedByColumns must have same amount of items in list";
         this.clusterService = clusterService;
@@ -119,6 +122,7 @@ public class DocTableInfo extends AbstractDynamicTableInfo implements ShardedTab
         this.numberOfReplicas = numberOfReplicas;
         this.tableParameters = tableParameters;
         this.executorService = executorService;
+        this.nodeResponseStats = nodeResponseStats;
         indices = new String[]{ident.esName()};
         this.isAlias = isAlias;
         this.hasAutoGeneratedPrimaryKey = hasAutoGeneratedPrimaryKey;
@@ -202,7 +206,7 @@ public class DocTableInfo extends AbstractDynamicTableInfo implements ShardedTab
             return new Routing();
         }
 
-        fillLocationsFromShardIterators(locations, shardIterators, missingShards);
+        fillLocationsFromShardIterators(locations, shardIterators, preference, missingShards);
 
         if (missingShards.isEmpty()) {
             return new Routing(locations);
@@ -243,7 +247,7 @@ public class DocTableInfo extends AbstractDynamicTableInfo implements ShardedTab
                         }
 
                         final List<ShardId> missingShards = new ArrayList<>(0);
-                        fillLocationsFromShardIterators(locations, shardIterators, missingShards);
+                        fillLocationsFromShardIterators(locations, shardIterators, preference, missingShards);
 
                         return missingShards.isEmpty();
                     }
@@ -261,10 +265,15 @@ public class DocTableInfo extends AbstractDynamicTableInfo implements ShardedTab
 
     private void fillLocationsFromShardIterators(Map<String, Map<String, List<Integer>>> locations,
                                                  GroupShardsIterator shardIterators,
+                                                 @Nullable String preference,
                                                  List<ShardId> missingShards) {
         ShardRouting shardRouting;
         for (ShardIterator shardIterator : shardIterators) {
-            shardRouting = shardIterator.nextOrNull();
+            if (preference == null) {
+                shardRouting = nodeResponseStats.selectShard(shardIterator);
+            } else {
+                shardRouting = shardIterator.nextOrNull();
+            }
             if (shardRouting != null) {
                 if (shardRouting.active()) {
                     processShardRouting(locations, shardRouting);
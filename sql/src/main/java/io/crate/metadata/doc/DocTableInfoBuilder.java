@@ -24,6 +24,7 @@ package io.crate.metadata.doc;
 import io.crate.Constants;
 import io.crate.exceptions.TableUnknownException;
 import io.crate.exceptions.UnhandledServerException;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.TableIdent;
 import org.elasticsearch.action.admin.indices.template.put.TransportPutIndexTemplateAction;
@@ -50,6 +51,7 @@ public class DocTableInfoBuilder {
 
     private final TableIdent ident;
     private ExecutorService executorService;
+    private final NodeResponseStats nodeResponseStats;
     private final boolean checkAliasSchema;
     private final DocSchemaInfo docSchemaInfo;
     private final ClusterService clusterService;
@@ -63,12 +65,14 @@ public class DocTableInfoBuilder {
                                ClusterService clusterService,
                                TransportPutIndexTemplateAction transportPutIndexTemplateAction,
                                ExecutorService executorService,
+                               NodeResponseStats nodeResponseStats,
                                boolean checkAliasSchema) {
         this.docSchemaInfo = docSchemaInfo;
         this.clusterService = clusterService;
         this.transportPutIndexTemplateAction = transportPutIndexTemplateAction;
         this.ident = ident;
         this.executorService = executorService;
+        this.nodeResponseStats = nodeResponseStats;
         this.metaData = clusterService.state().metaData();
         this.checkAliasSchema = checkAliasSchema;
     }
@@ -172,7 +176,8 @@ public class DocTableInfoBuilder {
                 md.partitionedBy(),
                 partitions,
                 md.columnPolicy(),
-                executorService);
+                executorService,
+                nodeResponseStats);
     }
 
 }
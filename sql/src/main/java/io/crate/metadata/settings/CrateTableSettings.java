@@ -200,6 +200,30 @@ public class CrateTableSettings {
         }
     };
 
+    public static final BoolSetting ROW_CACHE_ENABLED = new BoolSetting() {
+        @Override
+        public String name() {
+            return TableParameterInfo.ROW_CACHE_ENABLED;
+        }
+
+        @Override
+        public Boolean defaultValue() {
+            return false;
+        }
+    };
+
+    public static final BoolSetting RESULT_CACHE_ENABLED = new BoolSetting() {
+        @Override
+        public String name() {
+            return TableParameterInfo.RESULT_CACHE_ENABLED;
+        }
+
+        @Override
+        public Boolean defaultValue() {
+            return false;
+        }
+    };
+
     public static final TimeSetting GATEWAY_LOCAL_SYNC = new TimeSetting() {
         @Override
         public String name() {
@@ -49,6 +49,11 @@ public class SysJobsLogTableInfo extends SysTableInfo {
         public static final ColumnIdent STARTED = new ColumnIdent("started");
         public static final ColumnIdent ENDED = new ColumnIdent("ended");
         public static final ColumnIdent ERROR = new ColumnIdent("error");
+        public static final ColumnIdent ROWS_SCANNED = new ColumnIdent("rows_scanned");
+        public static final ColumnIdent ROWS_EMITTED = new ColumnIdent("rows_emitted");
+        public static final ColumnIdent CPU_TIME = new ColumnIdent("cpu_time");
+        public static final ColumnIdent BYTES_SENT = new ColumnIdent("bytes_sent");
+        public static final ColumnIdent USED_BYTES = new ColumnIdent("used_bytes");
     }
 
 
@@ -61,6 +66,11 @@ public class SysJobsLogTableInfo extends SysTableInfo {
         register(Columns.STARTED, DataTypes.TIMESTAMP);
         register(Columns.ENDED, DataTypes.TIMESTAMP);
         register(Columns.ERROR, DataTypes.STRING);
+        register(Columns.ROWS_SCANNED, DataTypes.LONG);
+        register(Columns.ROWS_EMITTED, DataTypes.LONG);
+        register(Columns.CPU_TIME, DataTypes.LONG);
+        register(Columns.BYTES_SENT, DataTypes.LONG);
+        register(Columns.USED_BYTES, DataTypes.LONG);
     }
 
     private void register(ColumnIdent column, DataType type) {
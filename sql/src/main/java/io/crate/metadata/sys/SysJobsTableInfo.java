@@ -46,12 +46,22 @@ public class SysJobsTableInfo extends SysTableInfo {
         public static final ColumnIdent ID = new ColumnIdent("id");
         public static final ColumnIdent STMT = new ColumnIdent("stmt");
         public static final ColumnIdent STARTED = new ColumnIdent("started");
+        public static final ColumnIdent ROWS_SCANNED = new ColumnIdent("rows_scanned");
+        public static final ColumnIdent ROWS_EMITTED = new ColumnIdent("rows_emitted");
+        public static final ColumnIdent CPU_TIME = new ColumnIdent("cpu_time");
+        public static final ColumnIdent BYTES_SENT = new ColumnIdent("bytes_sent");
+        public static final ColumnIdent USED_BYTES = new ColumnIdent("used_bytes");
     }
 
     static {
         register(Columns.ID, DataTypes.STRING, null);
         register(Columns.STMT, DataTypes.STRING, null);
         register(Columns.STARTED, DataTypes.TIMESTAMP, null);
+        register(Columns.ROWS_SCANNED, DataTypes.LONG, null);
+        register(Columns.ROWS_EMITTED, DataTypes.LONG, null);
+        register(Columns.CPU_TIME, DataTypes.LONG, null);
+        register(Columns.BYTES_SENT, DataTypes.LONG, null);
+        register(Columns.USED_BYTES, DataTypes.LONG, null);
     }
 
     @Inject
@@ -94,6 +94,19 @@ public class SysNodesTableInfo extends SysTableInfo {
         register("thread_pools", IntegerType.INSTANCE, ImmutableList.of("threads"));
         register("thread_pools", IntegerType.INSTANCE, ImmutableList.of("queue"));
 
+        register("response_stats", objectArrayType, null);
+        register("response_stats", StringType.INSTANCE, ImmutableList.of("node_id"));
+        register("response_stats", DoubleType.INSTANCE, ImmutableList.of("avg_response_time"));
+        register("response_stats", IntegerType.INSTANCE, ImmutableList.of("outstanding_requests"));
+        register("response_stats", LongType.INSTANCE, ImmutableList.of("responses"));
+
+        register("page_pool", DataTypes.OBJECT, null);
+        register("page_pool", DataTypes.LONG, ImmutableList.of("max"));
+        register("page_pool", DataTypes.LONG, ImmutableList.of("used"));
+        register("page_pool", DataTypes.LONG, ImmutableList.of("hits"));
+        register("page_pool", DataTypes.LONG, ImmutableList.of("misses"));
+        register("page_pool", DataTypes.DOUBLE, ImmutableList.of("hit_rate"));
+
         register("network", DataTypes.OBJECT, null);
         register("network", DataTypes.TIMESTAMP, ImmutableList.of("probe_timestamp"));
         register("network", DataTypes.OBJECT, ImmutableList.of("tcp"));
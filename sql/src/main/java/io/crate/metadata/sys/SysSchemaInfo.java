@@ -51,6 +51,7 @@ public class SysSchemaInfo implements SchemaInfo {
                 .put(SysOperationsTableInfo.IDENT.name(), new SysOperationsTableInfo(clusterService, this, sysNodesTableInfo))
                 .put(SysOperationsLogTableInfo.IDENT.name(), new SysOperationsLogTableInfo(clusterService, this))
                 .put(SysChecksTableInfo.IDENT.name(), new SysChecksTableInfo(clusterService, this))
+                .put(SysStatementStatsTableInfo.IDENT.name(), new SysStatementStatsTableInfo(clusterService, this))
                 .build();
     }
 
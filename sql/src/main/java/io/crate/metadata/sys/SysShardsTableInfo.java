@@ -56,6 +56,8 @@ public class SysShardsTableInfo extends SysTableInfo {
         public static final ColumnIdent SIZE = new ColumnIdent("size");
         public static final ColumnIdent STATE = new ColumnIdent("state");
         public static final ColumnIdent ORPHAN_PARTITION = new ColumnIdent("orphan_partition");
+        public static final ColumnIdent RESULT_CACHE_HITS = new ColumnIdent("result_cache_hits");
+        public static final ColumnIdent RESULT_CACHE_MISSES = new ColumnIdent("result_cache_misses");
     }
 
     public static class ReferenceIdents {
@@ -69,6 +71,8 @@ public class SysShardsTableInfo extends SysTableInfo {
         public static final ReferenceIdent SIZE = new ReferenceIdent(IDENT, Columns.SIZE);
         public static final ReferenceIdent STATE = new ReferenceIdent(IDENT, Columns.STATE);
         public static final ReferenceIdent ORPHAN_PARTITION = new ReferenceIdent(IDENT, Columns.ORPHAN_PARTITION);
+        public static final ReferenceIdent RESULT_CACHE_HITS = new ReferenceIdent(IDENT, Columns.RESULT_CACHE_HITS);
+        public static final ReferenceIdent RESULT_CACHE_MISSES = new ReferenceIdent(IDENT, Columns.RESULT_CACHE_MISSES);
     }
 
     private static final ImmutableList<ColumnIdent> primaryKey = ImmutableList.of(
@@ -95,6 +99,8 @@ public class SysShardsTableInfo extends SysTableInfo {
         register(Columns.SIZE, LongType.INSTANCE);
         register(Columns.STATE, StringType.INSTANCE);
         register(Columns.ORPHAN_PARTITION, BooleanType.INSTANCE);
+        register(Columns.RESULT_CACHE_HITS, LongType.INSTANCE);
+        register(Columns.RESULT_CACHE_MISSES, LongType.INSTANCE);
 
         INFOS.put(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT));
     }
@@ -0,0 +1,116 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.*;
+import io.crate.planner.RowGranularity;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+@Singleton
+public class SysStatementStatsTableInfo extends SysTableInfo {
+
+    public static class Columns {
+        public static final ColumnIdent STMT = new ColumnIdent("stmt");
+        public static final ColumnIdent COUNT = new ColumnIdent("count");
+        public static final ColumnIdent FAILED = new ColumnIdent("failed");
+        public static final ColumnIdent TOTAL_DURATION = new ColumnIdent("total_duration");
+        public static final ColumnIdent MIN_DURATION = new ColumnIdent("min_duration");
+        public static final ColumnIdent MAX_DURATION = new ColumnIdent("max_duration");
+        public static final ColumnIdent P50_DURATION = new ColumnIdent("p50_duration");
+        public static final ColumnIdent P90_DURATION = new ColumnIdent("p90_duration");
+        public static final ColumnIdent P99_DURATION = new ColumnIdent("p99_duration");
+        public static final ColumnIdent RETURNED_ROWS = new ColumnIdent("returned_rows");
+        public static final ColumnIdent USED_BYTES = new ColumnIdent("used_bytes");
+    }
+
+    public static final TableIdent IDENT = new TableIdent(SCHEMA, "statement_stats");
+
+    private final Map<ColumnIdent, ReferenceInfo> columns_info = new LinkedHashMap<>();
+    private final LinkedHashSet<ReferenceInfo> columns = new LinkedHashSet<>();
+
+    @Inject
+    protected SysStatementStatsTableInfo(ClusterService clusterService, SysSchemaInfo sysSchemaInfo) {
+        super(clusterService, sysSchemaInfo);
+        register(Columns.STMT, DataTypes.STRING);
+        register(Columns.COUNT, DataTypes.LONG);
+        register(Columns.FAILED, DataTypes.LONG);
+        register(Columns.TOTAL_DURATION, DataTypes.LONG);
+        register(Columns.MIN_DURATION, DataTypes.LONG);
+        register(Columns.MAX_DURATION, DataTypes.LONG);
+        register(Columns.P50_DURATION, DataTypes.LONG);
+        register(Columns.P90_DURATION, DataTypes.LONG);
+        register(Columns.P99_DURATION, DataTypes.LONG);
+        register(Columns.RETURNED_ROWS, DataTypes.LONG);
+        register(Columns.USED_BYTES, DataTypes.LONG);
+    }
+
+    private void register(ColumnIdent column, DataType type) {
+        ReferenceInfo info = new ReferenceInfo(new ReferenceIdent(IDENT, column), RowGranularity.DOC, type);
+        columns.add(info);
+        columns_info.put(column, info);
+    }
+
+    @Nullable
+    @Override
+    public ReferenceInfo getReferenceInfo(ColumnIdent columnIdent) {
+        return columns_info.get(columnIdent);
+    }
+
+    @Override
+    public Collection<ReferenceInfo> columns() {
+        return columns;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public TableIdent ident() {
+        return IDENT;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference) {
+        return tableRouting(whereClause);
+    }
+
+    @Override
+    public List<ColumnIdent> primaryKey() {
+        return ImmutableList.of();
+    }
+
+    @Override
+    public Iterator<ReferenceInfo> iterator() {
+        return columns_info.values().iterator();
+    }
+}
@@ -26,6 +26,7 @@ import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhase;
 import io.crate.planner.node.ExecutionPhases;
+import io.crate.planner.node.dql.MergePhase;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -88,7 +89,8 @@ public class NodeOperation implements Streamable {
                     downstreamExecutionPhase.executionPhaseId(),
                     inputId);
         } else {
-            if (executionPhase instanceof UpstreamPhase) {
+            // the upstreams of a phase with multiple inputs must send their buckets to tell the inputs apart
+            if (executionPhase instanceof UpstreamPhase && !hasMultipleInputs(downstreamExecutionPhase)) {
                 if (executionPhase.executionNodes().size() == 1
                         && executionPhase.executionNodes().equals(downstreamExecutionPhase.executionNodes())) {
                     ((UpstreamPhase) executionPhase).distributionType(DistributionType.SAME_NODE);
@@ -103,6 +105,10 @@ public class NodeOperation implements Streamable {
         }
     }
 
+    private static boolean hasMultipleInputs(ExecutionPhase executionPhase) {
+        return executionPhase instanceof MergePhase && ((MergePhase) executionPhase).numInputs() > 1;
+    }
+
     public ExecutionPhase executionPhase() {
         return executionPhase;
     }
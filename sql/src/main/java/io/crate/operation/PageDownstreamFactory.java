@@ -29,15 +29,21 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.NestedReferenceResolver;
 import io.crate.operation.merge.IteratorPageDownstream;
 import io.crate.operation.merge.PagingIterator;
+import io.crate.operation.merge.PartitionedGroupingPageDownstream;
 import io.crate.operation.merge.PassThroughPagingIterator;
 import io.crate.operation.merge.SortedPagingIterator;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
+import io.crate.operation.projectors.Projector;
 import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.planner.RowGranularity;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.projection.GroupProjection;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.symbol.InputColumn;
+import io.crate.planner.symbol.Symbol;
 import org.elasticsearch.action.bulk.BulkRetryCoordinatorPool;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.collect.Tuple;
@@ -46,12 +52,24 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 @Singleton
 public class PageDownstreamFactory {
 
+    /**
+     * number of threads which reduce the rows of a merge phase starting with a group projection,
+     * 1 disables the parallel reduce
+     */
+    public static final String MERGE_REDUCERS_SETTING = "sql.merge.reducers";
+    public static final int DEFAULT_MERGE_REDUCERS = 1;
+
     private final ProjectionToProjectorVisitor projectionToProjectorVisitor;
+    private final Executor reduceExecutor;
+    private final int numReducers;
 
     @Inject
     public PageDownstreamFactory(ClusterService clusterService,
@@ -74,6 +92,8 @@ public class PageDownstreamFactory {
                 bulkRetryCoordinatorPool,
                 implementationSymbolVisitor
         );
+        this.reduceExecutor = threadPool.executor(ThreadPool.Names.SEARCH);
+        this.numReducers = settings.getAsInt(MERGE_REDUCERS_SETTING, DEFAULT_MERGE_REDUCERS);
     }
 
     public ProjectorFactory projectorFactory() {
@@ -84,6 +104,11 @@ public class PageDownstreamFactory {
                                                                                    RowReceiver rowReceiver,
                                                                                    RamAccountingContext ramAccountingContext,
                                                                                    Optional<Executor> executorOptional) {
+        int[] keyIndices = parallelReduceKeyIndices(mergeNode);
+        if (keyIndices != null) {
+            return createPartitionedGroupingPageDownstream(mergeNode, rowReceiver, ramAccountingContext, keyIndices);
+        }
+
         FlatProjectorChain projectorChain = null;
         if (!mergeNode.projections().isEmpty()) {
             projectorChain = FlatProjectorChain.withAttachedDownstream(
@@ -111,4 +136,59 @@ public class PageDownstreamFactory {
         PageDownstream pageDownstream = new IteratorPageDownstream(rowReceiver, pagingIterator, executorOptional);
         return new Tuple<>(pageDownstream, projectorChain);
     }
+
+    /**
+     * @return the positions of the group keys if the first projection of the merge phase is a group projection
+     *         which can be reduced in parallel, otherwise null
+     */
+    @Nullable
+    private int[] parallelReduceKeyIndices(MergePhase mergeNode) {
+        if (numReducers < 2 || mergeNode.projections().isEmpty()) {
+            return null;
+        }
+        Projection firstProjection = mergeNode.projections().get(0);
+        if (!(firstProjection instanceof GroupProjection)) {
+            return null;
+        }
+        List<Symbol> keys = ((GroupProjection) firstProjection).keys();
+        int[] keyIndices = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            if (!(keys.get(i) instanceof InputColumn)) {
+                return null;
+            }
+            keyIndices[i] = ((InputColumn) keys.get(i)).index();
+        }
+        return keyIndices;
+    }
+
+    private Tuple<PageDownstream, FlatProjectorChain> createPartitionedGroupingPageDownstream(MergePhase mergeNode,
+                                                                                             RowReceiver rowReceiver,
+                                                                                             RamAccountingContext ramAccountingContext,
+                                                                                             int[] keyIndices) {
+        List<RowReceiver> rowReceivers = new ArrayList<>();
+        List<Projector> reducers = new ArrayList<>(numReducers);
+        Projection groupProjection = mergeNode.projections().get(0);
+        for (int i = 0; i < numReducers; i++) {
+            Projector reducer = projectionToProjectorVisitor.create(groupProjection, ramAccountingContext, mergeNode.jobId());
+            reducers.add(reducer);
+            rowReceivers.add(reducer);
+        }
+
+        List<Projection> remainingProjections = mergeNode.projections().subList(1, mergeNode.projections().size());
+        RowReceiver downstream = rowReceiver;
+        if (!remainingProjections.isEmpty()) {
+            FlatProjectorChain remainingChain = FlatProjectorChain.withAttachedDownstream(
+                    projectionToProjectorVisitor,
+                    ramAccountingContext,
+                    remainingProjections,
+                    rowReceiver,
+                    mergeNode.jobId()
+            );
+            downstream = remainingChain.firstProjector();
+            rowReceivers.addAll(remainingChain.rowReceivers());
+        }
+        PageDownstream pageDownstream = new PartitionedGroupingPageDownstream(
+                reducers, keyIndices, downstream, reduceExecutor);
+        return new Tuple<>(pageDownstream, FlatProjectorChain.withReceivers(rowReceivers));
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.aggregation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Scalar;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.aggregation.impl.MaximumAggregation;
+import io.crate.operation.aggregation.impl.MinimumAggregation;
+import io.crate.operation.aggregation.impl.SumAggregation;
+import io.crate.planner.symbol.Function;
+import io.crate.planner.symbol.Symbol;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+
+import java.util.Set;
+
+/**
+ * Scalar which merges two partial states of an aggregation using {@link AggregationFunction#reduce}.
+ *
+ * Only aggregations whose partial state is their final value are supported,
+ * so a stored result of such an aggregation can be merged with the result of
+ * aggregating additional rows. This is used to maintain materialized views incrementally.
+ *
+ * <pre>
+ *     _merge_max(max_value, values(max_value))
+ * </pre>
+ */
+public class MergeStateFunction extends Scalar<Object, Object> {
+
+    private static final String NAME_PREFIX = "_merge_";
+
+    public static final Set<String> SUPPORTED_AGGREGATIONS = ImmutableSet.of(
+            CountAggregation.NAME, SumAggregation.NAME, MinimumAggregation.NAME, MaximumAggregation.NAME);
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("merge_state", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    private final FunctionInfo info;
+    private final AggregationFunction aggregationFunction;
+
+    public MergeStateFunction(AggregationFunction aggregationFunction) {
+        this.aggregationFunction = aggregationFunction;
+        this.info = new FunctionInfo(new FunctionIdent(
+                name(aggregationFunction.info().ident().name()),
+                ImmutableList.of(aggregationFunction.partialType(), aggregationFunction.partialType())),
+                aggregationFunction.partialType());
+    }
+
+    public static String name(String aggregationName) {
+        return NAME_PREFIX + aggregationName;
+    }
+
+    public static boolean supports(AggregationFunction aggregationFunction) {
+        return SUPPORTED_AGGREGATIONS.contains(aggregationFunction.info().ident().name());
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+
+    @Override
+    public Symbol normalizeSymbol(Function symbol) {
+        return symbol;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object evaluate(Input<Object>... args) {
+        assert args.length == 2 : "merge function requires exactly 2 arguments";
+        Object state = args[0].value();
+        Object otherState = args[1].value();
+        if (state == null) {
+            return otherState;
+        }
+        if (otherState == null) {
+            return state;
+        }
+        return aggregationFunction.reduce(RAM_ACCOUNTING_CONTEXT, state, otherState);
+    }
+}
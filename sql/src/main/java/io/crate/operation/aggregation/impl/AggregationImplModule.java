@@ -21,10 +21,13 @@
 
 package io.crate.operation.aggregation.impl;
 
+import com.google.common.collect.ImmutableList;
 import io.crate.metadata.DynamicFunctionResolver;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.MergeStateFunction;
+import io.crate.types.DataType;
 import org.elasticsearch.common.inject.AbstractModule;
 import org.elasticsearch.common.inject.multibindings.MapBinder;
 
@@ -59,6 +62,9 @@ public class AggregationImplModule extends AbstractModule {
         VarianceAggregation.register(this);
         GeometricMeanAggregation.register(this);
         StandardDeviationAggregation.register(this);
+        PercentileAggregation.register(this);
+
+        registerMergeStateFunctions();
 
         // bind all registered functions and resolver
         // by doing it here instead of the register functions, plugins can also use the
@@ -77,4 +83,20 @@ public class AggregationImplModule extends AbstractModule {
         functions = null;
         resolver = null;
     }
+
+    private void registerMergeStateFunctions() {
+        for (FunctionImplementation impl : ImmutableList.copyOf(functions.values())) {
+            registerMergeStateFunction((AggregationFunction) impl);
+        }
+        // count is resolved dynamically, count(*) has the same partial state as count(column)
+        registerMergeStateFunction((AggregationFunction) resolver.get(CountAggregation.NAME)
+                .getForTypes(ImmutableList.<DataType>of()));
+    }
+
+    private void registerMergeStateFunction(AggregationFunction aggregationFunction) {
+        if (MergeStateFunction.supports(aggregationFunction)) {
+            MergeStateFunction mergeStateFunction = new MergeStateFunction(aggregationFunction);
+            functions.put(mergeStateFunction.info().ident(), mergeStateFunction);
+        }
+    }
 }
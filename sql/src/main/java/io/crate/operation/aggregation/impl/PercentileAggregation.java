@@ -0,0 +1,313 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.tdunning.math.stats.AVLTreeDigest;
+import com.tdunning.math.stats.Centroid;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.planner.symbol.Function;
+import io.crate.planner.symbol.Symbol;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypeFactory;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Approximates percentiles using a t-digest as partial state.
+ *
+ * The digest has a bounded number of centroids (depending on {@link #COMPRESSION}),
+ * so the memory used per group doesn't grow with the number of aggregated values
+ * and partial states can be merged and streamed between nodes cheaply.
+ */
+public class PercentileAggregation extends AggregationFunction<PercentileAggregation.TDigestState, Object> {
+
+    public static final String NAME = "percentile";
+
+    /**
+     * compression of the t-digest, a higher value leads to more accurate results but uses more memory
+     */
+    static final double COMPRESSION = 100.0;
+
+    /**
+     * estimated size of a single centroid inside the tree of the digest
+     */
+    static final int CENTROID_SIZE = 64;
+
+    private static final DataType DOUBLE_ARRAY = new ArrayType(DataTypes.DOUBLE);
+
+    static {
+        DataTypes.register(TDigestStateType.ID, TDigestStateType.INSTANCE);
+    }
+
+    public static void register(AggregationImplModule mod) {
+        List<DataType> types = ImmutableList.<DataType>builder()
+                .addAll(DataTypes.NUMERIC_PRIMITIVE_TYPES)
+                .add(DataTypes.TIMESTAMP)
+                .build();
+        for (DataType<?> t : types) {
+            mod.register(new PercentileAggregation(new FunctionInfo(
+                    new FunctionIdent(NAME, ImmutableList.<DataType>of(t, DataTypes.DOUBLE)), DataTypes.DOUBLE,
+                    FunctionInfo.Type.AGGREGATE)));
+            mod.register(new PercentileAggregation(new FunctionInfo(
+                    new FunctionIdent(NAME, ImmutableList.<DataType>of(t, DOUBLE_ARRAY)), DOUBLE_ARRAY,
+                    FunctionInfo.Type.AGGREGATE)));
+        }
+    }
+
+    public static class TDigestState extends AVLTreeDigest {
+
+        private double[] fractions;
+        private int accountedCentroids = 0;
+
+        public TDigestState(double compression) {
+            super(compression);
+        }
+
+        @Nullable
+        double[] fractions() {
+            return fractions;
+        }
+
+        void fractions(double[] fractions) {
+            this.fractions = fractions;
+        }
+
+        /**
+         * account the memory of centroids that were added since the last call
+         */
+        private void accountCentroids(RamAccountingContext ramAccountingContext) {
+            int centroids = centroidCount();
+            if (centroids > accountedCentroids) {
+                ramAccountingContext.addBytes((centroids - accountedCentroids) * CENTROID_SIZE);
+                accountedCentroids = centroids;
+            }
+        }
+    }
+
+    public static class TDigestStateType extends DataType<TDigestState>
+            implements Streamer<TDigestState>, DataTypeFactory {
+
+        public static final TDigestStateType INSTANCE = new TDigestStateType();
+        public static final int ID = 16384;
+
+        @Override
+        public int id() {
+            return ID;
+        }
+
+        @Override
+        public String getName() {
+            return "percentile_state";
+        }
+
+        @Override
+        public Streamer<?> streamer() {
+            return this;
+        }
+
+        @Override
+        public TDigestState value(Object value) throws IllegalArgumentException, ClassCastException {
+            return (TDigestState) value;
+        }
+
+        @Override
+        public int compareValueTo(TDigestState val1, TDigestState val2) {
+            if (val1 == null) return -1;
+            if (val2 == null) return 1;
+            return Long.compare(val1.size(), val2.size());
+        }
+
+        @Override
+        public DataType<?> create() {
+            return INSTANCE;
+        }
+
+        @Override
+        public TDigestState readValueFrom(StreamInput in) throws IOException {
+            TDigestState state = new TDigestState(in.readDouble());
+            int numFractions = in.readVInt();
+            if (numFractions > 0) {
+                double[] fractions = new double[numFractions];
+                for (int i = 0; i < numFractions; i++) {
+                    fractions[i] = in.readDouble();
+                }
+                state.fractions(fractions);
+            }
+            int numCentroids = in.readVInt();
+            for (int i = 0; i < numCentroids; i++) {
+                state.add(in.readDouble(), in.readVInt());
+            }
+            return state;
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, Object v) throws IOException {
+            TDigestState state = (TDigestState) v;
+            out.writeDouble(state.compression());
+            double[] fractions = state.fractions();
+            if (fractions == null) {
+                out.writeVInt(0);
+            } else {
+                out.writeVInt(fractions.length);
+                for (double fraction : fractions) {
+                    out.writeDouble(fraction);
+                }
+            }
+            out.writeVInt(state.centroidCount());
+            for (Centroid centroid : state.centroids()) {
+                out.writeDouble(centroid.mean());
+                out.writeVInt(centroid.count());
+            }
+        }
+    }
+
+    private final FunctionInfo info;
+    private final boolean multipleFractions;
+
+    PercentileAggregation(FunctionInfo info) {
+        this.info = info;
+        this.multipleFractions = info.returnType() instanceof ArrayType;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+
+    @Override
+    public Symbol normalizeSymbol(Function function) {
+        assert function.arguments().size() == 2 : "percentile requires 2 arguments";
+        Symbol fractions = function.arguments().get(1);
+        if (!fractions.symbolType().isValueSymbol()) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "%s: the fraction argument must be a literal", NAME));
+        }
+        return function;
+    }
+
+    @Nullable
+    @Override
+    public TDigestState newState(RamAccountingContext ramAccountingContext) {
+        ramAccountingContext.addBytes(CENTROID_SIZE);
+        return new TDigestState(COMPRESSION);
+    }
+
+    @Override
+    public TDigestState iterate(RamAccountingContext ramAccountingContext,
+                                TDigestState state,
+                                Input... args) throws CircuitBreakingException {
+        if (state.fractions() == null) {
+            state.fractions(toFractions(args[1].value()));
+        }
+        Number value = (Number) args[0].value();
+        if (value != null) {
+            state.add(value.doubleValue());
+            state.accountCentroids(ramAccountingContext);
+        }
+        return state;
+    }
+
+    @Override
+    public TDigestState reduce(RamAccountingContext ramAccountingContext, TDigestState state1, TDigestState state2) {
+        if (state1 == null) {
+            return state2;
+        }
+        if (state2 == null) {
+            return state1;
+        }
+        if (state1.fractions() == null) {
+            state1.fractions(state2.fractions());
+        }
+        if (state2.size() > 0) {
+            state1.add(state2);
+            state1.accountCentroids(ramAccountingContext);
+        }
+        return state1;
+    }
+
+    @Override
+    public Object terminatePartial(RamAccountingContext ramAccountingContext, TDigestState state) {
+        if (state.size() == 0 || state.fractions() == null) {
+            return null;
+        }
+        double[] fractions = state.fractions();
+        if (!multipleFractions) {
+            return state.quantile(fractions[0]);
+        }
+        Double[] percentiles = new Double[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            percentiles[i] = state.quantile(fractions[i]);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public DataType partialType() {
+        return TDigestStateType.INSTANCE;
+    }
+
+    private static double[] toFractions(Object value) {
+        List<?> values;
+        if (value instanceof Object[]) {
+            values = Arrays.asList((Object[]) value);
+        } else if (value instanceof List) {
+            values = (List<?>) value;
+        } else {
+            values = Collections.singletonList(value);
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "%s: at least one fraction is required", NAME));
+        }
+        double[] fractions = new double[values.size()];
+        int i = 0;
+        for (Object o : values) {
+            if (o == null) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "%s: fraction must not be null", NAME));
+            }
+            double fraction = ((Number) o).doubleValue();
+            if (fraction < 0.0 || fraction > 1.0) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "%s: fraction must be in the range [0,1], got: %s", NAME, fraction));
+            }
+            fractions[i++] = fraction;
+        }
+        return fractions;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.cache;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.*;
+import io.crate.breaker.CrateCircuitBreakerService;
+import jsr166e.LongAdder;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesLifecycle;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node wide cache of per shard results like counts or partial aggregation states.
+ *
+ * Entries are keyed by the shard, the version of the shard's {@link DirectoryReader} and a serialized
+ * description of the request (e.g. the where clause). A refresh which changes the shard creates a new
+ * reader version, so outdated entries are never hit; they are removed once a newer version of the shard is
+ * cached, if the shard is closed or by the LRU eviction.
+ *
+ * The cache is bounded by {@link #RESULT_CACHE_SIZE_SETTING}. Its entries are added to the node wide query
+ * circuit breaker without breaking when they are put and removed from it once they are evicted, so cached
+ * results reduce the memory which is left for running queries.
+ *
+ * Only results of deterministic requests may be cached, see {@link io.crate.planner.symbol.Symbols#isDeterministic}.
+ */
+@Singleton
+public class ResultCache {
+
+    public static final String INDEX_RESULT_CACHE_ENABLED = "index.result_cache.enabled";
+    public static final String RESULT_CACHE_SIZE_SETTING = "indices.result_cache.size";
+    public static final String DEFAULT_RESULT_CACHE_SIZE = "16mb";
+
+    /**
+     * rough per entry overhead of the key and the cache segment entry
+     */
+    static final int ENTRY_OVERHEAD = 128;
+
+    private final Cache<Key, Object> cache;
+    private final ConcurrentMap<ShardId, ShardStats> shardStats = new ConcurrentHashMap<>();
+    private final CircuitBreakerService breakerService;
+
+    @Inject
+    public ResultCache(Settings settings, IndicesService indicesService, CrateCircuitBreakerService breakerService) {
+        this(settings.getAsBytesSize(RESULT_CACHE_SIZE_SETTING, ByteSizeValue.parseBytesSizeValue(DEFAULT_RESULT_CACHE_SIZE)),
+                breakerService);
+        indicesService.indicesLifecycle().addListener(new IndicesLifecycle.Listener() {
+            @Override
+            public void beforeIndexShardClosed(ShardId shardId, @Nullable IndexShard indexShard, Settings indexSettings) {
+                invalidate(shardId);
+                shardStats.remove(shardId);
+            }
+        });
+    }
+
+    ResultCache(ByteSizeValue size, CircuitBreakerService breakerService) {
+        this.breakerService = breakerService;
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(size.bytes())
+                .weigher(new Weigher<Key, Object>() {
+                    @Override
+                    public int weigh(Key key, Object value) {
+                        return key.weight;
+                    }
+                })
+                .removalListener(new RemovalListener<Key, Object>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<Key, Object> notification) {
+                        breaker().addWithoutBreaking(-notification.getKey().weight);
+                    }
+                })
+                .build();
+    }
+
+    public static boolean isEnabled(Settings indexSettings) {
+        return indexSettings.getAsBoolean(INDEX_RESULT_CACHE_ENABLED, false);
+    }
+
+    /**
+     * @return the version of the reader or -1 if the reader has no version, results of such readers can't be cached
+     */
+    public static long readerVersion(IndexReader reader) {
+        if (reader instanceof DirectoryReader) {
+            return ((DirectoryReader) reader).getVersion();
+        }
+        return -1L;
+    }
+
+    /**
+     * serializes the parts which describe a request to a cache key
+     */
+    public static BytesReference key(String type, Streamable... parts) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.writeString(type);
+        for (Streamable part : parts) {
+            part.writeTo(out);
+        }
+        return out.bytes();
+    }
+
+    /**
+     * @return the cached result or null if there is none for the reader version
+     */
+    @Nullable
+    public Object get(ShardId shardId, long readerVersion, BytesReference key) {
+        if (readerVersion < 0) {
+            return null;
+        }
+        Object result = cache.getIfPresent(new Key(shardId, readerVersion, key, null));
+        ShardStats stats = shardStats(shardId);
+        if (result == null) {
+            stats.misses.increment();
+        } else {
+            stats.hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * cache a result, the result must not be modified afterwards.
+     * Entries of older reader versions of the shard are removed.
+     */
+    public void put(ShardId shardId, long readerVersion, BytesReference key, Object result) {
+        if (readerVersion < 0) {
+            return;
+        }
+        AtomicLong latestVersion = shardStats(shardId).readerVersion;
+        long latest;
+        while (readerVersion > (latest = latestVersion.get())) {
+            if (latestVersion.compareAndSet(latest, readerVersion)) {
+                if (latest >= 0) {
+                    invalidateOlderThan(shardId, readerVersion);
+                }
+                break;
+            }
+        }
+        if (readerVersion < latestVersion.get()) {
+            // the shard was refreshed in between, the result is outdated already
+            return;
+        }
+        Key cacheKey = new Key(shardId, readerVersion, key, result);
+        breaker().addWithoutBreaking(cacheKey.weight);
+        cache.put(cacheKey, result);
+    }
+
+    public void invalidate(ShardId shardId) {
+        Iterator<Key> it = cache.asMap().keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().shardId.equals(shardId)) {
+                it.remove();
+            }
+        }
+    }
+
+    private void invalidateOlderThan(ShardId shardId, long readerVersion) {
+        Iterator<Key> it = cache.asMap().keySet().iterator();
+        while (it.hasNext()) {
+            Key key = it.next();
+            if (key.shardId.equals(shardId) && key.readerVersion < readerVersion) {
+                it.remove();
+            }
+        }
+    }
+
+    public long hits(ShardId shardId) {
+        ShardStats stats = shardStats.get(shardId);
+        return stats == null ? 0L : stats.hits.sum();
+    }
+
+    public long misses(ShardId shardId) {
+        ShardStats stats = shardStats.get(shardId);
+        return stats == null ? 0L : stats.misses.sum();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * the breaker is looked up on every use because it is replaced if its settings change
+     */
+    private CircuitBreaker breaker() {
+        return breakerService.getBreaker(CrateCircuitBreakerService.QUERY_BREAKER);
+    }
+
+    private ShardStats shardStats(ShardId shardId) {
+        ShardStats stats = shardStats.get(shardId);
+        if (stats == null) {
+            stats = new ShardStats();
+            ShardStats existing = shardStats.putIfAbsent(shardId, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * rough estimate of the memory used by a cached result
+     */
+    static long sizeOf(@Nullable Object value) {
+        if (value == null) {
+            return 8L;
+        }
+        if (value instanceof Object[]) {
+            long size = 16L;
+            for (Object o : (Object[]) value) {
+                size += sizeOf(o);
+            }
+            return size;
+        }
+        if (value instanceof BytesRef) {
+            return 32L + ((BytesRef) value).length;
+        }
+        return 24L;
+    }
+
+    private static class ShardStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final AtomicLong readerVersion = new AtomicLong(-1L);
+    }
+
+    private static class Key {
+
+        private final ShardId shardId;
+        private final long readerVersion;
+        private final BytesReference request;
+        private final int weight;
+
+        Key(ShardId shardId, long readerVersion, BytesReference request, @Nullable Object result) {
+            this.shardId = shardId;
+            this.readerVersion = readerVersion;
+            this.request = request;
+            this.weight = (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + request.length() + sizeOf(result));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return readerVersion == key.readerVersion && shardId.equals(key.shardId) && request.equals(key.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(shardId, readerVersion, request);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.cache;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.*;
+import io.crate.breaker.CrateCircuitBreakerService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.indexing.IndexingOperationListener;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesLifecycle;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node wide cache of documents which were looked up by their primary key.
+ *
+ * Documents are stored as serialized {@link GetResult}s, the cache is bounded by
+ * {@link #ROW_CACHE_SIZE_SETTING}. The size of every cached document is charged to the query
+ * circuit breaker of the node while the document is in the cache.
+ *
+ * Every write to a shard invalidates the cached document and increments the write generation
+ * of the shard. A document read from the shard is only cached if the write generation didn't change
+ * in between, so a concurrent write can never be hidden by an outdated cache entry.
+ */
+@Singleton
+public class RowCache {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(RowCache.class);
+
+    public static final String INDEX_ROW_CACHE_ENABLED = "index.row_cache.enabled";
+    public static final String ROW_CACHE_SIZE_SETTING = "indices.row_cache.size";
+    public static final String DEFAULT_ROW_CACHE_SIZE = "64mb";
+
+    /**
+     * rough per entry overhead of the key and the cache segment entry
+     */
+    static final int ENTRY_OVERHEAD = 128;
+
+    private final Cache<Key, BytesReference> cache;
+    private final ConcurrentMap<ShardId, AtomicLong> writeGenerations = new ConcurrentHashMap<>();
+    private final CircuitBreakerService breakerService;
+
+    @Inject
+    public RowCache(Settings settings, IndicesService indicesService, CrateCircuitBreakerService breakerService) {
+        this(settings.getAsBytesSize(ROW_CACHE_SIZE_SETTING, ByteSizeValue.parseBytesSizeValue(DEFAULT_ROW_CACHE_SIZE)),
+                breakerService);
+        indicesService.indicesLifecycle().addListener(new ShardListener());
+    }
+
+    RowCache(ByteSizeValue size, CircuitBreakerService breakerService) {
+        this.breakerService = breakerService;
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(size.bytes())
+                .weigher(new Weigher<Key, BytesReference>() {
+                    @Override
+                    public int weigh(Key key, BytesReference value) {
+                        return value.length() + ENTRY_OVERHEAD;
+                    }
+                })
+                .removalListener(new RemovalListener<Key, BytesReference>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<Key, BytesReference> notification) {
+                        breaker().addWithoutBreaking(-(notification.getValue().length() + ENTRY_OVERHEAD));
+                    }
+                })
+                .build();
+    }
+
+    public static boolean isEnabled(Settings indexSettings) {
+        return indexSettings.getAsBoolean(INDEX_ROW_CACHE_ENABLED, false);
+    }
+
+    /**
+     * @return the cached document or null if it isn't cached
+     */
+    @Nullable
+    public GetResult get(ShardId shardId, String type, String id) {
+        BytesReference bytes = cache.getIfPresent(new Key(shardId, type, id));
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return GetResult.readGetResult(bytes.streamInput());
+        } catch (IOException e) {
+            LOGGER.warn("could not read cached document [{}] of shard {}", e, id, shardId);
+            invalidate(shardId, type, id);
+            return null;
+        }
+    }
+
+    /**
+     * the write generation of a shard must be read before the document is read from the shard
+     * and passed to {@link #put(ShardId, GetResult, long)}
+     */
+    public long writeGeneration(ShardId shardId) {
+        return generation(shardId).get();
+    }
+
+    /**
+     * cache a document if the shard didn't change since <code>writeGeneration</code> was read
+     */
+    public void put(ShardId shardId, GetResult getResult, long writeGeneration) {
+        AtomicLong generation = generation(shardId);
+        if (generation.get() != writeGeneration) {
+            return;
+        }
+        BytesReference bytes;
+        try {
+            BytesStreamOutput out = new BytesStreamOutput();
+            getResult.writeTo(out);
+            bytes = out.bytes();
+        } catch (IOException e) {
+            LOGGER.warn("could not serialize document [{}] of shard {}", e, getResult.getId(), shardId);
+            return;
+        }
+        breaker().addWithoutBreaking(bytes.length() + ENTRY_OVERHEAD);
+        Key key = new Key(shardId, getResult.getType(), getResult.getId());
+        cache.put(key, bytes);
+        if (generation.get() != writeGeneration) {
+            // the shard was written while the document was put into the cache
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidate(ShardId shardId, String type, String id) {
+        generation(shardId).incrementAndGet();
+        cache.invalidate(new Key(shardId, type, id));
+    }
+
+    public void invalidate(ShardId shardId) {
+        generation(shardId).incrementAndGet();
+        Iterator<Key> it = cache.asMap().keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().shardId.equals(shardId)) {
+                it.remove();
+            }
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private CircuitBreaker breaker() {
+        // not kept in a field, changing the breaker settings registers a new breaker
+        return breakerService.getBreaker(CrateCircuitBreakerService.QUERY_BREAKER);
+    }
+
+    private AtomicLong generation(ShardId shardId) {
+        AtomicLong generation = writeGenerations.get(shardId);
+        if (generation == null) {
+            generation = new AtomicLong(0L);
+            AtomicLong existing = writeGenerations.putIfAbsent(shardId, generation);
+            if (existing != null) {
+                generation = existing;
+            }
+        }
+        return generation;
+    }
+
+    private class ShardListener extends IndicesLifecycle.Listener {
+
+        private final ConcurrentMap<ShardId, IndexingOperationListener> listeners = new ConcurrentHashMap<>();
+
+        @Override
+        public void afterIndexShardCreated(IndexShard indexShard) {
+            IndexingOperationListener listener = new InvalidatingListener(indexShard.shardId());
+            listeners.put(indexShard.shardId(), listener);
+            indexShard.indexingService().addListener(listener);
+        }
+
+        @Override
+        public void beforeIndexShardClosed(ShardId shardId, @Nullable IndexShard indexShard, Settings indexSettings) {
+            IndexingOperationListener listener = listeners.remove(shardId);
+            if (listener != null && indexShard != null) {
+                indexShard.indexingService().removeListener(listener);
+            }
+            invalidate(shardId);
+            writeGenerations.remove(shardId);
+        }
+    }
+
+    private class InvalidatingListener extends IndexingOperationListener {
+
+        private final ShardId shardId;
+
+        InvalidatingListener(ShardId shardId) {
+            this.shardId = shardId;
+        }
+
+        @Override
+        public Engine.Create preCreate(Engine.Create create) {
+            invalidate(shardId, create.type(), create.id());
+            return create;
+        }
+
+        @Override
+        public void postCreate(Engine.Create create) {
+            invalidate(shardId, create.type(), create.id());
+        }
+
+        @Override
+        public Engine.Index preIndex(Engine.Index index) {
+            invalidate(shardId, index.type(), index.id());
+            return index;
+        }
+
+        @Override
+        public void postIndex(Engine.Index index) {
+            invalidate(shardId, index.type(), index.id());
+        }
+
+        @Override
+        public Engine.Delete preDelete(Engine.Delete delete) {
+            invalidate(shardId, delete.type(), delete.id());
+            return delete;
+        }
+
+        @Override
+        public void postDelete(Engine.Delete delete) {
+            invalidate(shardId, delete.type(), delete.id());
+        }
+
+        @Override
+        public void postDeleteByQuery(Engine.DeleteByQuery deleteByQuery) {
+            invalidate(shardId);
+        }
+    }
+
+    private static class Key {
+
+        private final ShardId shardId;
+        private final String type;
+        private final String id;
+
+        Key(ShardId shardId, String type, String id) {
+            this.shardId = shardId;
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return id.equals(key.id) && type.equals(key.type) && shardId.equals(key.shardId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(shardId, type, id);
+        }
+    }
+}
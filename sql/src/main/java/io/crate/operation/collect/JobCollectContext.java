@@ -32,13 +32,16 @@ import io.crate.operation.projectors.ListenableRowReceiver;
 import io.crate.jobs.ExecutionState;
 import io.crate.jobs.AbstractExecutionSubContext;
 import io.crate.jobs.KeepAliveListener;
+import io.crate.jobs.ResourceUsage;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.operation.projectors.RowReceivers;
 import io.crate.planner.node.dql.CollectPhase;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CancellationException;
 
@@ -157,7 +160,31 @@ public class JobCollectContext extends AbstractExecutionSubContext implements Ex
 
     @Override
     protected void innerPrepare() {
-        collectors = collectOperation.createCollectors(collectPhase, rowReceiver, this);
+        Collection<CrateCollector> collectors = collectOperation.createCollectors(collectPhase, rowReceiver, this);
+        ResourceUsage resourceUsage = future.resourceUsage();
+        if (resourceUsage != null) {
+            List<CrateCollector> accountingCollectors = new ArrayList<>(collectors.size());
+            for (CrateCollector collector : collectors) {
+                accountingCollectors.add(new CpuTimeAccountingCollector(collector, resourceUsage));
+            }
+            collectors = accountingCollectors;
+        }
+        this.collectors = collectors;
+    }
+
+    /**
+     * account the rows passed to <code>rowReceiver</code> as scanned rows if the resources are accounted,
+     * must be used by the collect sources for the receiver the collectors emit to.
+     *
+     * Lucene collectors only emit the documents which match the query, so the documents which the
+     * query skipped aren't scanned rows.
+     */
+    public RowReceiver accountScannedRows(RowReceiver rowReceiver) {
+        ResourceUsage resourceUsage = future.resourceUsage();
+        if (resourceUsage == null) {
+            return rowReceiver;
+        }
+        return RowReceivers.countScannedRows(rowReceiver, resourceUsage);
     }
 
     @Override
@@ -180,4 +207,33 @@ public class JobCollectContext extends AbstractExecutionSubContext implements Ex
     public SharedShardContexts sharedShardContexts() {
         return sharedShardContexts;
     }
+
+    /**
+     * measures the cpu time the collector consumes on the thread which starts it
+     */
+    private static class CpuTimeAccountingCollector implements CrateCollector {
+
+        private final CrateCollector delegate;
+        private final ResourceUsage resourceUsage;
+
+        CpuTimeAccountingCollector(CrateCollector delegate, ResourceUsage resourceUsage) {
+            this.delegate = delegate;
+            this.resourceUsage = resourceUsage;
+        }
+
+        @Override
+        public void doCollect() {
+            long startCpuTime = ResourceUsage.currentThreadCpuTime();
+            try {
+                delegate.doCollect();
+            } finally {
+                resourceUsage.addCpuTimeSince(startCpuTime);
+            }
+        }
+
+        @Override
+        public void kill(@Nullable Throwable throwable) {
+            delegate.kill(throwable);
+        }
+    }
 }
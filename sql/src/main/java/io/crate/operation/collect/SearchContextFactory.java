@@ -24,10 +24,14 @@ package io.crate.operation.collect;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import io.crate.action.sql.query.CrateSearchContext;
+import io.crate.analyze.TableSample;
 import io.crate.analyze.WhereClause;
 import io.crate.jobs.JobContextService;
 import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.lucene.TableSampleFilter;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.FilteredQuery;
+import org.apache.lucene.search.Query;
 import org.elasticsearch.cache.recycler.CacheRecycler;
 import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.cluster.ClusterService;
@@ -44,6 +48,8 @@ import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
+
 @Singleton
 public class SearchContextFactory {
 
@@ -77,7 +83,8 @@ public class SearchContextFactory {
             int jobSearchContextId,
             IndexShard indexshard,
             Engine.Searcher engineSearcher,
-            WhereClause whereClause) {
+            WhereClause whereClause,
+            @Nullable TableSample tableSample) {
 
         ShardId shardId = indexshard.shardId();
         SearchShardTarget searchShardTarget = new SearchShardTarget(
@@ -103,7 +110,11 @@ public class SearchContextFactory {
         );
         LuceneQueryBuilder.Context context = luceneQueryBuilder.convert(
                 whereClause,  indexService.mapperService(), indexService.fieldData(), indexService.cache());
-        searchContext.parsedQuery(new ParsedQuery(context.query(), EMPTY_NAMED_FILTERS));
+        Query query = context.query();
+        if (tableSample != null && tableSample.percentage() < 100.0) {
+            query = new FilteredQuery(query, new TableSampleFilter(tableSample, shardId));
+        }
+        searchContext.parsedQuery(new ParsedQuery(query, EMPTY_NAMED_FILTERS));
 
         Float minScore = context.minScore();
         if (minScore != null) {
@@ -31,8 +31,10 @@ import io.crate.metadata.shard.ShardReferenceResolver;
 import io.crate.metadata.shard.blob.BlobShardReferenceResolver;
 import io.crate.operation.ImplementationSymbolVisitor;
 import io.crate.operation.Input;
+import io.crate.operation.cache.ResultCache;
 import io.crate.operation.collect.blobs.BlobDocCollector;
 import io.crate.operation.collect.collectors.CrateDocCollector;
+import io.crate.operation.collect.collectors.IndexStatsCollector;
 import io.crate.operation.collect.collectors.OrderedCrateDocCollector;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.RowReceiver;
@@ -68,6 +70,7 @@ public class ShardCollectService {
     private final ProjectionToProjectorVisitor projectorVisitor;
     private final boolean isBlobShard;
     private final BlobIndices blobIndices;
+    private final ResultCache resultCache;
 
     @Inject
     public ShardCollectService(SearchContextFactory searchContextFactory,
@@ -81,8 +84,10 @@ public class ShardCollectService {
                                ShardReferenceResolver referenceResolver,
                                BlobIndices blobIndices,
                                BlobShardReferenceResolver blobShardReferenceResolver,
-                               MapperService mapperService) {
+                               MapperService mapperService,
+                               ResultCache resultCache) {
         this.searchContextFactory = searchContextFactory;
+        this.resultCache = resultCache;
         this.threadPool = threadPool;
         this.shardId = shardId;
         this.blobIndices = blobIndices;
@@ -143,7 +148,8 @@ public class ShardCollectService {
                                           int jobSearchContextId,
                                           int pageSize) throws Exception {
         CollectPhase normalizedCollectNode = collectNode.normalize(shardNormalizer);
-        RowReceiver downstream = projectorChain.newShardDownstreamProjector(projectorVisitor);
+        RowReceiver downstream = jobCollectContext.accountScannedRows(
+                projectorChain.newShardDownstreamProjector(projectorVisitor));
 
         if (normalizedCollectNode.whereClause().noMatch()) {
             return RowsCollector.empty(downstream);
@@ -191,9 +197,13 @@ public class ShardCollectService {
                     jobSearchContextId,
                     indexShard,
                     searcher,
-                    collectNode.whereClause()
+                    collectNode.whereClause(),
+                    collectNode.tableSample()
             );
             jobCollectContext.addSearchContext(jobSearchContextId, searchContext);
+            if (IndexStatsCollector.canCollect(collectNode)) {
+                return new IndexStatsCollector(searchContext, collectNode, downstream, docInputSymbolVisitor, resultCache);
+            }
             CollectInputSymbolVisitor.Context docCtx = docInputSymbolVisitor.extractImplementations(collectNode);
             Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
             if (collectNode.orderBy() != null) {
@@ -21,13 +21,20 @@
 
 package io.crate.operation.collect;
 
-import com.google.common.collect.EvictingQueue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import io.crate.core.collections.NoopQueue;
+import io.crate.core.collections.RingBuffer;
+import io.crate.jobs.ResourceUsage;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
+import io.crate.operation.reference.sys.job.StatementStats;
 import io.crate.operation.reference.sys.operation.OperationContext;
 import io.crate.operation.reference.sys.operation.OperationContextLog;
+import io.crate.sql.parser.StatementFingerprint;
 import jsr166e.LongAdder;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -40,6 +47,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -56,15 +64,40 @@ public class StatsTables {
     private final static Queue<OperationContextLog> NOOP_OPERATIONS_LOG = NoopQueue.instance();
     private final static Queue<JobContextLog> NOOP_JOBS_LOG = NoopQueue.instance();
 
+    /**
+     * maximum number of statement fingerprints which are tracked,
+     * the least recently used fingerprints are evicted first
+     */
+    static final int STATEMENT_STATS_SIZE = 1000;
+
+    /**
+     * maximum number of finished jobs which are kept to account the resources
+     * reported by other nodes after the job has already finished on this node
+     */
+    static final int FINISHED_JOBS_SIZE = 1000;
+
     protected final Map<UUID, JobContext> jobsTable = new ConcurrentHashMap<>();
     protected final Map<Integer, OperationContext> operationsTable = new ConcurrentHashMap<>();
     protected final AtomicReference<Queue<JobContextLog>> jobsLog = new AtomicReference<>(NOOP_JOBS_LOG);
     protected final AtomicReference<Queue<OperationContextLog>> operationsLog = new AtomicReference<>(NOOP_OPERATIONS_LOG);
+    protected final LoadingCache<String, StatementStats> statementStats = CacheBuilder.newBuilder()
+            .maximumSize(STATEMENT_STATS_SIZE)
+            .build(new CacheLoader<String, StatementStats>() {
+                @Override
+                public StatementStats load(String fingerprint) {
+                    return new StatementStats(fingerprint);
+                }
+            });
+    protected final Cache<UUID, JobContext> finishedJobs = CacheBuilder.newBuilder()
+            .maximumSize(FINISHED_JOBS_SIZE)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
 
     private final JobsLogIterableGetter jobsLogIterableGetter;
     private final JobsIterableGetter jobsIterableGetter;
     private final OperationsIterableGetter operationsIterableGetter;
     private final OperationsLogIterableGetter operationsLogIterableGetter;
+    private final StatementStatsIterableGetter statementStatsIterableGetter;
 
     protected final NodeSettingsService.Listener listener = new NodeSettingListener();
     protected volatile int lastOperationsLogSize;
@@ -108,6 +141,7 @@ public class StatsTables {
         jobsIterableGetter = new JobsIterableGetter();
         operationsIterableGetter = new OperationsIterableGetter();
         operationsLogIterableGetter = new OperationsLogIterableGetter();
+        statementStatsIterableGetter = new StatementStatsIterableGetter();
     }
 
     /**
@@ -137,6 +171,17 @@ public class StatsTables {
      * If {@link #isEnabled()} is false this method won't do anything.
      */
     public void jobFinished(UUID jobId, @Nullable String errorMessage) {
+        jobFinished(jobId, errorMessage, 0L);
+    }
+
+    /**
+     * mark a job as finished and add it to the statistics of its statement.
+     *
+     * If {@link #isEnabled()} is false this method won't do anything.
+     *
+     * @param returnedRows the number of rows the job returned to the client
+     */
+    public void jobFinished(UUID jobId, @Nullable String errorMessage, long returnedRows) {
         if (!isEnabled()) {
             return;
         }
@@ -144,8 +189,16 @@ public class StatsTables {
         if (jobContext == null) {
             return;
         }
+        finishedJobs.put(jobId, jobContext);
+        JobContextLog jobContextLog = new JobContextLog(jobContext, errorMessage);
         Queue<JobContextLog> jobContextLogs = jobsLog.get();
-        jobContextLogs.offer(new JobContextLog(jobContext, errorMessage));
+        jobContextLogs.offer(jobContextLog);
+
+        statementStats.getUnchecked(StatementFingerprint.of(jobContext.stmt)).record(
+                jobContextLog.ended() - jobContextLog.started(),
+                returnedRows,
+                jobContext.usedBytes(),
+                errorMessage == null);
     }
 
     public void operationStarted(int operationId, UUID jobId, String name) {
@@ -157,6 +210,19 @@ public class StatsTables {
     }
 
     public void operationFinished(@Nullable Integer operationId, @Nullable String errorMessage, long usedBytes) {
+        operationFinished(operationId, errorMessage, usedBytes, null);
+    }
+
+    /**
+     * mark an operation as finished and account the resources it consumed to its job
+     * if the job is executed by this node.
+     *
+     * @param resourceUsage the resources consumed by the operation, including the <code>usedBytes</code>
+     */
+    public void operationFinished(@Nullable Integer operationId,
+                                  @Nullable String errorMessage,
+                                  long usedBytes,
+                                  @Nullable ResourceUsage resourceUsage) {
         if (operationId == null || !isEnabled()) {
             return;
         }
@@ -167,11 +233,39 @@ public class StatsTables {
             return;
         }
         operationContext.usedBytes = usedBytes;
+        operationContext.resourceUsage = resourceUsage;
+        JobContext jobContext = jobsTable.get(operationContext.jobId);
+        if (jobContext != null) {
+            if (resourceUsage != null) {
+                jobContext.resourceUsage().add(resourceUsage);
+            } else if (usedBytes > 0) {
+                jobContext.addUsedBytes(usedBytes);
+            }
+        }
         Queue<OperationContextLog> operationContextLogs = operationsLog.get();
         operationContextLogs.offer(new OperationContextLog(operationContext, errorMessage));
     }
 
 
+    /**
+     * account the resources consumed by the operations of a job on another node.
+     * The job might already have finished on this node as the other nodes report once their
+     * operations are closed.
+     */
+    public void jobResourceUsage(UUID jobId, ResourceUsage resourceUsage) {
+        if (!isEnabled()) {
+            return;
+        }
+        JobContext jobContext = jobsTable.get(jobId);
+        if (jobContext == null) {
+            jobContext = finishedJobs.getIfPresent(jobId);
+            if (jobContext == null) {
+                return;
+            }
+        }
+        jobContext.resourceUsage().add(resourceUsage);
+    }
+
     public IterableGetter jobsGetter() {
         return jobsIterableGetter;
     }
@@ -188,6 +282,10 @@ public class StatsTables {
         return operationsLogIterableGetter;
     }
 
+    public IterableGetter statementStatsGetter() {
+        return statementStatsIterableGetter;
+    }
+
     private class JobsLogIterableGetter implements IterableGetter {
 
         @Override
@@ -220,12 +318,20 @@ public class StatsTables {
         }
     }
 
+    private class StatementStatsIterableGetter implements IterableGetter {
+
+        @Override
+        public Iterable<?> getIterable() {
+            return statementStats.asMap().values();
+        }
+    }
+
     private void setOperationsLog(int size) {
         if (size == 0) {
             operationsLog.set(NOOP_OPERATIONS_LOG);
         } else {
             Queue<OperationContextLog> oldQ = operationsLog.get();
-            EvictingQueue<OperationContextLog> newQ = EvictingQueue.create(size);
+            RingBuffer<OperationContextLog> newQ = new RingBuffer<>(size);
             newQ.addAll(oldQ);
             operationsLog.set(newQ);
         }
@@ -236,7 +342,7 @@ public class StatsTables {
             jobsLog.set(NOOP_JOBS_LOG);
         } else {
             Queue<JobContextLog> oldQ = jobsLog.get();
-            EvictingQueue<JobContextLog> newQ = EvictingQueue.create(size);
+            RingBuffer<JobContextLog> newQ = new RingBuffer<>(size);
             newQ.addAll(oldQ);
             jobsLog.set(newQ);
         }
@@ -265,6 +371,8 @@ public class StatsTables {
             } else if (wasEnabled) { // !becomesEnabled
                 setOperationsLog(0);
                 setJobsLog(0);
+                statementStats.invalidateAll();
+                finishedJobs.invalidateAll();
                 lastIsEnabled = false;
 
                 lastOperationsLogSize = CrateSettings.STATS_OPERATIONS_LOG_SIZE.extract(settings);
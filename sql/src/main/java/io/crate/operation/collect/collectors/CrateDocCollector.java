@@ -26,6 +26,7 @@ import io.crate.action.sql.query.CrateSearchContext;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.jobs.KeepAliveListener;
 import io.crate.operation.Input;
 import io.crate.operation.InputRow;
@@ -33,7 +34,9 @@ import io.crate.operation.collect.CollectionFinishedEarlyException;
 import io.crate.operation.collect.CollectionPauseException;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.UnexpectedCollectionTerminatedException;
+import io.crate.operation.projectors.RowBatchReceiver;
 import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.projectors.RowReceivers;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.planner.node.dql.CollectPhase;
@@ -60,6 +63,7 @@ public class CrateDocCollector implements CrateCollector {
     private final RowReceiver rowReceiver;
     private final Collection<? extends LuceneCollectorExpression<?>> expressions;
     private final Collector luceneCollector;
+    private final LuceneDocCollector docCollector;
     private final TopRowUpstream upstreamState;
     private final State state = new State();
 
@@ -88,15 +92,16 @@ public class CrateDocCollector implements CrateCollector {
                 ((int) searchContext.id())
         );
         rowReceiver.setUpstream(upstreamState);
-        Collector collector = new LuceneDocCollector(
+        docCollector = new LuceneDocCollector(
                 keepAliveListener,
                 ramAccountingContext,
                 upstreamState,
                 collectPhase.limit(),
                 rowReceiver,
-                new InputRow(inputs),
+                inputs,
                 expressions
         );
+        Collector collector = docCollector;
         if (searchContext.minimumScore() != null) {
             collector = new MinimumScoreCollector(collector, searchContext.minimumScore());
         }
@@ -108,6 +113,9 @@ public class CrateDocCollector implements CrateCollector {
         for (LuceneCollectorExpression<?> expression : expressions) {
             expression.startCollect(collectorContext);
         }
+        if (RowReceivers.acceptsBatches(rowReceiver)) {
+            docCollector.collectBatches();
+        }
         Collector collector = luceneCollector;
         if (collectorContext.visitor().required()) {
             collector = new FieldVisitorCollector(collector, collectorContext.visitor());
@@ -174,16 +182,29 @@ public class CrateDocCollector implements CrateCollector {
         try {
             scorer.score(collector);
         } catch (CollectionPauseException e) {
-            state.collector = collector;
-            state.leaveIt = leaves;
-            state.scorer = scorer;
-            state.weight = weight;
-            upstreamState.pauseProcessed();
+            pause(collector, weight, leaves, scorer);
+            return true;
+        }
+        // rows of the leaf which are still part of an incomplete batch
+        if (!docCollector.emitBatch()) {
+            throw CollectionFinishedEarlyException.INSTANCE;
+        }
+        if (upstreamState.shouldPause()) {
+            // the scorer is exhausted, continue with the next leaf on resume
+            pause(collector, weight, leaves, null);
             return true;
         }
         return false;
     }
 
+    private void pause(Collector collector, Weight weight, Iterator<AtomicReaderContext> leaves, @Nullable BulkScorer scorer) {
+        state.collector = collector;
+        state.leaveIt = leaves;
+        state.scorer = scorer;
+        state.weight = weight;
+        upstreamState.pauseProcessed();
+    }
+
     @Override
     public void kill(@Nullable Throwable throwable) {
         upstreamState.kill(throwable);
@@ -199,32 +220,61 @@ public class CrateDocCollector implements CrateCollector {
     static class LuceneDocCollector extends Collector {
 
         private static final int KEEP_ALIVE_AFTER_ROWS = 1_000_000;
+        static final int BATCH_SIZE = 256;
         private final KeepAliveListener keepAliveListener;
         private final RamAccountingContext ramAccountingContext;
         private final TopRowUpstream topRowUpstream;
         private final RowReceiver rowReceiver;
+        private final List<Input<?>> inputs;
         private final Row inputRow;
         private final Integer limit;
         private final Collection<? extends LuceneCollectorExpression<?>> expressions;
 
         private int rowCount;
+        @Nullable
+        private RowBatch batch;
 
         public LuceneDocCollector(KeepAliveListener keepAliveListener,
                                   RamAccountingContext ramAccountingContext,
                                   TopRowUpstream topRowUpstream,
                                   Integer limit,
                                   RowReceiver rowReceiver,
-                                  Row inputRow,
+                                  List<Input<?>> inputs,
                                   Collection<? extends LuceneCollectorExpression<?>> expressions) {
             this.keepAliveListener = keepAliveListener;
             this.ramAccountingContext = ramAccountingContext;
             this.topRowUpstream = topRowUpstream;
             this.rowReceiver = rowReceiver;
-            this.inputRow = inputRow;
+            this.inputs = inputs;
+            this.inputRow = new InputRow(inputs);
             this.limit = limit;
             this.expressions = expressions;
         }
 
+        /**
+         * pass the rows to the rowReceiver in batches instead of one at a time.
+         * The values of a row are read when the document is collected, so expressions which depend
+         * on the current document (like the score or the stored fields) stay correct.
+         */
+        void collectBatches() {
+            int capacity = limit == null ? BATCH_SIZE : Math.max(1, Math.min(limit, BATCH_SIZE));
+            batch = new RowBatch(inputs.size(), capacity);
+        }
+
+        /**
+         * pass the incomplete batch to the rowReceiver
+         *
+         * @return false if the rowReceiver doesn't need any more rows
+         */
+        boolean emitBatch() {
+            if (batch == null || batch.isEmpty()) {
+                return true;
+            }
+            boolean wantMore = ((RowBatchReceiver) rowReceiver).setNextBatch(batch);
+            batch.clear();
+            return wantMore;
+        }
+
         @Override
         public void setScorer(Scorer scorer) throws IOException {
             for (LuceneCollectorExpression<?> expression : expressions) {
@@ -244,8 +294,21 @@ public class CrateDocCollector implements CrateCollector {
             for (LuceneCollectorExpression<?> expression : expressions) {
                 expression.setNextDocId(doc);
             }
-            boolean wantMore = rowReceiver.setNextRow(inputRow);
-            if (!wantMore || (limit != null && rowCount >= limit)) {
+            boolean limitReached = limit != null && rowCount >= limit;
+            boolean wantMore;
+            if (batch == null) {
+                wantMore = rowReceiver.setNextRow(inputRow);
+            } else {
+                int position = batch.add();
+                for (int i = 0; i < inputs.size(); i++) {
+                    batch.set(position, i, inputs.get(i).value());
+                }
+                if (!batch.isFull() && !limitReached) {
+                    return;
+                }
+                wantMore = emitBatch();
+            }
+            if (!wantMore || limitReached) {
                 throw CollectionFinishedEarlyException.INSTANCE;
             }
             if (topRowUpstream.shouldPause()) {
@@ -0,0 +1,304 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.action.sql.query.CrateSearchContext;
+import io.crate.core.collections.RowN;
+import io.crate.jobs.ExecutionState;
+import io.crate.metadata.FunctionInfo;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.aggregation.impl.MinimumAggregation;
+import io.crate.operation.cache.ResultCache;
+import io.crate.operation.collect.CollectInputSymbolVisitor;
+import io.crate.operation.collect.CrateCollector;
+import io.crate.operation.projectors.IterableRowEmitter;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.reference.doc.lucene.CollectorContext;
+import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.planner.node.dql.CollectPhase;
+import io.crate.planner.symbol.Function;
+import io.crate.planner.symbol.Reference;
+import io.crate.planner.symbol.Symbol;
+import io.crate.planner.symbol.Symbols;
+import io.crate.types.*;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.search.internal.SearchContext;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Collector for global min, max and count(*) aggregations which computes the partial
+ * aggregation states of a shard from index statistics instead of visiting every document.
+ *
+ * <ul>
+ *     <li>count(*) is the sum of the live documents of all segments</li>
+ *     <li>min and max are the first and last term of the column inside the terms dictionary of a segment</li>
+ * </ul>
+ *
+ * The terms dictionary still contains the values of deleted documents, so segments with deletions
+ * are scanned for min and max.
+ *
+ * Emits exactly one row which contains a partial state for every aggregation.
+ * The states are cached in the {@link ResultCache} if it is enabled for the table.
+ * The planner only uses this collector if the whole table is matched,
+ * see {@link io.crate.planner.consumer.GlobalAggregateConsumer}.
+ */
+public class IndexStatsCollector implements CrateCollector, ExecutionState {
+
+    private final CrateSearchContext searchContext;
+    private final RowReceiver rowReceiver;
+    private final List<Function> aggregations;
+    private final CollectInputSymbolVisitor<?> inputSymbolVisitor;
+    private final ResultCache resultCache;
+    private final boolean cacheable;
+
+    private volatile boolean killed;
+
+    public IndexStatsCollector(CrateSearchContext searchContext,
+                               CollectPhase collectPhase,
+                               RowReceiver rowReceiver,
+                               CollectInputSymbolVisitor<?> inputSymbolVisitor,
+                               ResultCache resultCache) {
+        this.searchContext = searchContext;
+        this.resultCache = resultCache;
+        this.rowReceiver = rowReceiver;
+        this.inputSymbolVisitor = inputSymbolVisitor;
+        ImmutableList.Builder<Function> builder = ImmutableList.builder();
+        boolean deterministic = !collectPhase.whereClause().hasQuery()
+                                || Symbols.isDeterministic(collectPhase.whereClause().query());
+        for (Symbol symbol : collectPhase.toCollect()) {
+            builder.add((Function) symbol);
+            deterministic &= Symbols.isDeterministic(symbol);
+        }
+        this.aggregations = builder.build();
+        this.cacheable = deterministic;
+    }
+
+    /**
+     * @return true if the collectPhase collects aggregations whose states should be computed from index statistics
+     */
+    public static boolean canCollect(CollectPhase collectPhase) {
+        if (collectPhase.toCollect().isEmpty()) {
+            return false;
+        }
+        for (Symbol symbol : collectPhase.toCollect()) {
+            if (!(symbol instanceof Function)
+                || ((Function) symbol).info().type() != FunctionInfo.Type.AGGREGATE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void doCollect() {
+        Object[] states;
+        try {
+            states = cachedStates();
+        } catch (Throwable t) {
+            rowReceiver.fail(t);
+            return;
+        } finally {
+            searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
+        }
+        new IterableRowEmitter(rowReceiver, this, ImmutableList.of(new RowN(states))).run();
+    }
+
+    private Object[] cachedStates() throws IOException {
+        IndexShard indexShard = searchContext.indexShard();
+        if (!cacheable || !ResultCache.isEnabled(indexShard.indexService().settingsService().getSettings())) {
+            return collectStates();
+        }
+        long readerVersion = ResultCache.readerVersion(searchContext.searcher().getIndexReader());
+        BytesReference cacheKey = ResultCache.key("index_stats", aggregations.toArray(new Function[aggregations.size()]));
+        Object[] states = (Object[]) resultCache.get(indexShard.shardId(), readerVersion, cacheKey);
+        if (states == null) {
+            states = collectStates();
+            resultCache.put(indexShard.shardId(), readerVersion, cacheKey, states.clone());
+        } else {
+            // the emitted row must not share its cells with the cache
+            states = states.clone();
+        }
+        return states;
+    }
+
+    private Object[] collectStates() throws IOException {
+        Object[] states = new Object[aggregations.size()];
+        for (int i = 0; i < states.length; i++) {
+            if (isCount(aggregations.get(i))) {
+                states[i] = 0L;
+            }
+        }
+        for (AtomicReaderContext leaf : searchContext.searcher().getTopReaderContext().leaves()) {
+            for (int i = 0; i < states.length; i++) {
+                if (killed) {
+                    throw new CancellationException();
+                }
+                Function aggregation = aggregations.get(i);
+                if (isCount(aggregation)) {
+                    states[i] = (Long) states[i] + leaf.reader().numDocs();
+                    continue;
+                }
+                Reference reference = (Reference) aggregation.arguments().get(0);
+                boolean min = MinimumAggregation.NAME.equals(aggregation.info().ident().name());
+                Object value;
+                if (leaf.reader().hasDeletions()) {
+                    value = scanSegment(leaf, reference, min);
+                } else {
+                    value = fromTerms(leaf.reader(), reference, min);
+                }
+                states[i] = pick(reference.valueType(), states[i], value, min);
+            }
+        }
+        return states;
+    }
+
+    private static boolean isCount(Function aggregation) {
+        return aggregation.info().ident().name().equals(CountAggregation.NAME);
+    }
+
+    @Nullable
+    private Object fromTerms(AtomicReader reader, Reference reference, boolean min) throws IOException {
+        FieldMapper<?> mapper = searchContext.mapperService().smartNameFieldMapper(
+                reference.info().ident().columnIdent().fqn());
+        if (mapper == null) {
+            return null;
+        }
+        Terms terms = reader.terms(mapper.names().indexName());
+        if (terms == null) {
+            return null;
+        }
+        return termsValue(terms, reference.valueType(), min);
+    }
+
+    /**
+     * decode the smallest or biggest value of a column from its terms
+     *
+     * @return the value or null if the terms are empty
+     */
+    @Nullable
+    static Object termsValue(Terms terms, DataType type, boolean min) throws IOException {
+        if (terms.getMin() == null) {
+            return null;
+        }
+        switch (type.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+                return min ? NumericUtils.getMinLong(terms) : NumericUtils.getMaxLong(terms);
+            case DoubleType.ID:
+                return NumericUtils.sortableLongToDouble(
+                        min ? NumericUtils.getMinLong(terms) : NumericUtils.getMaxLong(terms));
+            case IntegerType.ID:
+                return min ? NumericUtils.getMinInt(terms) : NumericUtils.getMaxInt(terms);
+            case ShortType.ID:
+                return (short) (min ? NumericUtils.getMinInt(terms) : NumericUtils.getMaxInt(terms));
+            case ByteType.ID:
+                return (byte) (min ? NumericUtils.getMinInt(terms) : NumericUtils.getMaxInt(terms));
+            case FloatType.ID:
+                return NumericUtils.sortableIntToFloat(
+                        min ? NumericUtils.getMinInt(terms) : NumericUtils.getMaxInt(terms));
+            case StringType.ID:
+                return BytesRef.deepCopyOf(min ? terms.getMin() : terms.getMax());
+            default:
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Cannot compute min/max of type %s from index statistics", type.getName()));
+        }
+    }
+
+    @Nullable
+    private Object scanSegment(AtomicReaderContext leaf, Reference reference, boolean min) {
+        CollectInputSymbolVisitor.Context ctx = new CollectInputSymbolVisitor.Context();
+        Input<?> input = inputSymbolVisitor.process(reference, ctx);
+        CollectorContext collectorContext = new CollectorContext(
+                searchContext.mapperService(),
+                searchContext.fieldData(),
+                new CollectorFieldsVisitor(0),
+                (int) searchContext.id()
+        );
+        @SuppressWarnings("unchecked")
+        List<? extends LuceneCollectorExpression<?>> expressions = ctx.docLevelExpressions();
+        for (LuceneCollectorExpression<?> expression : expressions) {
+            expression.startCollect(collectorContext);
+            expression.setNextReader(leaf);
+        }
+
+        DataType type = reference.valueType();
+        Bits liveDocs = leaf.reader().getLiveDocs();
+        Object result = null;
+        for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+            if (liveDocs != null && !liveDocs.get(doc)) {
+                continue;
+            }
+            if (killed) {
+                throw new CancellationException();
+            }
+            for (LuceneCollectorExpression<?> expression : expressions) {
+                expression.setNextDocId(doc);
+            }
+            Object value = input.value();
+            Object picked = pick(type, result, value, min);
+            if (picked != result && picked instanceof BytesRef) {
+                // values of string columns are reused by the expression
+                picked = BytesRef.deepCopyOf((BytesRef) picked);
+            }
+            result = picked;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object pick(DataType type, @Nullable Object current, @Nullable Object value, boolean min) {
+        if (value == null) {
+            return current;
+        }
+        if (current == null) {
+            return value;
+        }
+        int cmp = type.compareValueTo(value, current);
+        return (min ? cmp < 0 : cmp > 0) ? value : current;
+    }
+
+    @Override
+    public void kill(@Nullable Throwable throwable) {
+        killed = true;
+    }
+
+    @Override
+    public boolean isKilled() {
+        return killed;
+    }
+}
@@ -24,10 +24,8 @@ package io.crate.operation.collect.collectors;
 
 import io.crate.action.sql.query.CrateSearchContext;
 import io.crate.action.sql.query.LuceneSortGenerator;
-import io.crate.analyze.OrderBy;
 import io.crate.core.collections.Row;
 import io.crate.jobs.KeepAliveListener;
-import io.crate.lucene.QueryBuilderHelper;
 import io.crate.operation.Input;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.CollectInputSymbolVisitor;
@@ -37,17 +35,15 @@ import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.OrderByCollectorExpression;
 import io.crate.planner.node.dql.CollectPhase;
-import io.crate.planner.symbol.Reference;
-import io.crate.planner.symbol.Symbol;
 import org.apache.lucene.index.AtomicReaderContext;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.ReaderUtil;
-import org.apache.lucene.search.*;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreCachingWrappingScorer;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
 
 import javax.annotation.Nullable;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -68,11 +64,10 @@ public class OrderedCrateDocCollector implements CrateCollector {
     private final Row inputRow;
     private final Scorer scorer;
     private final DummyScorer dummyScorer;
-    private final State state = new State();
     private final TopRowUpstream upstream;
-    private final OrderBy orderBy;
     private final KeepAliveListener keepAliveListener;
 
+    private OrderedDocIterator docIterator;
     private int rowCount = 0;
 
 
@@ -89,7 +84,7 @@ public class OrderedCrateDocCollector implements CrateCollector {
         this.upstream = new TopRowUpstream(executor, new Runnable() {
             @Override
             public void run() {
-                innerCollect(state.scoreDocs, state.scoreDocPos, state.lastDoc);
+                innerCollect();
             }
         });
         this.searchContext = searchContext;
@@ -102,7 +97,6 @@ public class OrderedCrateDocCollector implements CrateCollector {
                 new CollectorFieldsVisitor(expressions.size()),
                 ((int) searchContext.id())
         );
-        orderBy = collectPhase.orderBy();
         limit = collectPhase.limit();
         inputRow = new InputRow(inputs);
         dummyScorer = new DummyScorer();
@@ -139,20 +133,25 @@ public class OrderedCrateDocCollector implements CrateCollector {
         searchContext.searcher().inStage(ContextIndexSearcher.Stage.MAIN_QUERY);
         assert !collectorContext.visitor().required() : "Expressions that require FieldsVisitor are not supported";
 
-        TopFieldDocs topFieldDocs;
+        if (limit != null && limit == 0) {
+            finishCollect();
+            rowReceiver.finish();
+            return;
+        }
         try {
-            topFieldDocs = searchContext.searcher().search(searchContext.query(), batchSize(), sort);
-        } catch (IOException e) {
-            rowReceiver.fail(e);
+            docIterator = new OrderedDocIterator(searchContext.searcher(), searchContext.query(), sort, batchSize());
+        } catch (Throwable t) {
+            finishCollect();
+            rowReceiver.fail(t);
             return;
         }
-        innerCollect(topFieldDocs.scoreDocs, 0, null);
+        innerCollect();
     }
 
-    private void innerCollect(ScoreDoc[] scoreDocs, int position, @Nullable FieldDoc lastDoc) {
+    private void innerCollect() {
         boolean paused = false;
         try {
-            if (emitRows(scoreDocs, position, lastDoc) == Result.FINISHED) {
+            if (emitRows() == Result.FINISHED) {
                 rowReceiver.finish();
             } else {
                 paused = true;
@@ -161,52 +160,37 @@ public class OrderedCrateDocCollector implements CrateCollector {
             rowReceiver.fail(t);
         } finally {
             if (!paused) {
-                searchContext.searcher().finishStage(ContextIndexSearcher.Stage.MAIN_QUERY);
-                searchContext.clearReleasables(SearchContext.Lifetime.PHASE);
+                finishCollect();
             }
         }
     }
 
+    private void finishCollect() {
+        searchContext.searcher().finishStage(ContextIndexSearcher.Stage.MAIN_QUERY);
+        searchContext.clearReleasables(SearchContext.Lifetime.PHASE);
+    }
 
-    private Result emitRows(ScoreDoc[] scoreDocs, int scoreDocPos, @Nullable FieldDoc lastDoc) throws Throwable {
-        if (scoreDocs.length == 0) {
-            return Result.FINISHED;
-        }
-
-        int i = scoreDocPos;
-        IndexReader indexReader = searchContext.searcher().getIndexReader();
-        while (limit == null || rowCount < limit) {
+    /**
+     * emits the documents of the {@link OrderedDocIterator}, which sorts the documents of every
+     * segment only once in a while and merges the segments, so the cost per row doesn't grow
+     * with the number of rows which were already emitted.
+     */
+    private Result emitRows() throws Throwable {
+        while ((limit == null || rowCount < limit) && docIterator.hasNext()) {
             upstream.throwIfKilled();
-            if (i == scoreDocs.length) {
-                int batchSize = batchSize();
-                if (scoreDocs.length < batchSize) {
-                    // no more docs
-                    break;
-                }
-                // there should be more docs.. do internal paging
-                scoreDocs = searchContext.searcher().searchAfter(lastDoc, query(lastDoc), batchSize, sort).scoreDocs;
-                if (scoreDocs.length == 0) {
-                    break;
-                }
-                i = 0;
-            }
-            lastDoc = ((FieldDoc) scoreDocs[i]);
-            i++;
+            FieldDoc doc = docIterator.next();
             rowCount++;
             if (rowCount % KEEP_ALIVE_AFTER_ROWS == 0) {
                 keepAliveListener.keepAlive();
             }
-            dummyScorer.score(lastDoc.score);
-            processNextDocId(lastDoc, indexReader);
+            dummyScorer.score(doc.score);
+            processNextDocId(doc, docIterator.leaf());
             boolean wantMore = rowReceiver.setNextRow(inputRow);
             if (!wantMore) {
                 break;
             }
 
             if (upstream.shouldPause()) {
-                state.lastDoc = lastDoc;
-                state.scoreDocPos = i;
-                state.scoreDocs = scoreDocs;
                 upstream.pauseProcessed();
                 return Result.PAUSED;
             }
@@ -214,63 +198,19 @@ public class OrderedCrateDocCollector implements CrateCollector {
         return Result.FINISHED;
     }
 
-    private void processNextDocId(FieldDoc lastDoc, IndexReader indexReader) {
+    private void processNextDocId(FieldDoc doc, AtomicReaderContext subReaderContext) {
         for (OrderByCollectorExpression orderByCollectorExpression : orderByCollectorExpressions) {
-            orderByCollectorExpression.setNextFieldDoc(lastDoc);
+            orderByCollectorExpression.setNextFieldDoc(doc);
         }
-        List<AtomicReaderContext> leaves = indexReader.leaves();
-        int readerIndex = ReaderUtil.subIndex(lastDoc.doc, leaves);
-        AtomicReaderContext subReaderContext = leaves.get(readerIndex);
-        int subDoc = lastDoc.doc - subReaderContext.docBase;
+        int subDoc = doc.doc - subReaderContext.docBase;
         for (LuceneCollectorExpression<?> expression : expressions) {
             expression.setNextReader(subReaderContext);
             expression.setNextDocId(subDoc);
         }
     }
 
-    private Query query(FieldDoc lastDoc) {
-        Query query = nextPageQuery(lastDoc);
-        if (query == null) {
-            return searchContext.query();
-        }
-        BooleanQuery searchAfterQuery = new BooleanQuery();
-        searchAfterQuery.add(searchContext.query(), BooleanClause.Occur.MUST);
-        searchAfterQuery.add(query, BooleanClause.Occur.MUST_NOT);
-        return searchAfterQuery;
-    }
-
-    @Nullable
-    private Query nextPageQuery(FieldDoc lastCollected) {
-        BooleanQuery query = new BooleanQuery();
-        for (int i = 0; i < orderBy.orderBySymbols().size(); i++) {
-            Symbol order = orderBy.orderBySymbols().get(i);
-            Object value = lastCollected.fields[i];
-            // only filter for null values if nulls last
-            if (order instanceof Reference && (value != null || !orderBy.nullsFirst()[i])) {
-                QueryBuilderHelper helper = QueryBuilderHelper.forType(order.valueType());
-                String columnName = ((Reference) order).info().ident().columnIdent().fqn();
-                if (orderBy.reverseFlags()[i]) {
-                    query.add(helper.rangeQuery(columnName, value, null, false, false), BooleanClause.Occur.MUST);
-                } else {
-                    query.add(helper.rangeQuery(columnName, null, value, false, false), BooleanClause.Occur.MUST);
-                }
-            }
-        }
-        if (query.clauses().size() > 0) {
-            return query;
-        } else {
-            return null;
-        }
-    }
-
     @Override
     public void kill(@Nullable Throwable throwable) {
         upstream.kill(throwable);
     }
-
-    private static class State {
-        ScoreDoc[] scoreDocs;
-        int scoreDocPos;
-        FieldDoc lastDoc;
-    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.*;
+import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Iterates over all documents matching a query in the order of a {@link Sort}.
+ *
+ * Every segment is sorted on its own and the sorted segments are merged lazily, so a document is
+ * compared only to the current documents of the other segments.
+ * A segment is sorted in chunks: the first chunk gets an equal share of <code>batchSize</code>,
+ * every following chunk continues after the last document of the previous one and is twice as large,
+ * up to {@link #MAX_CHUNK_BATCHES} times <code>batchSize</code>.
+ * Every chunk requires a search over the whole segment, so the chunks grow beyond the batch size to search
+ * a segment less often. They're capped because the collector of a chunk holds all of its documents,
+ * so the memory of a cursor doesn't grow with the number of consumed documents.
+ *
+ * {@link #leaf()} returns the segment of the document which was returned by the last call to {@link #next()}.
+ */
+public class OrderedDocIterator extends AbstractIterator<FieldDoc> {
+
+    private static final int MIN_INITIAL_CHUNK_SIZE = 128;
+
+    /**
+     * the maximum chunk size as a multiple of the batch size
+     */
+    static final int MAX_CHUNK_BATCHES = 8;
+
+    private final ContextIndexSearcher searcher;
+    private final Weight weight;
+    private final Sort sort;
+    private final int maxChunkSize;
+    private final SegmentQueue queue;
+
+    private AtomicReaderContext leaf;
+    private SegmentCursor current;
+
+    public OrderedDocIterator(ContextIndexSearcher searcher,
+                              Query query,
+                              Sort sort,
+                              int batchSize) throws IOException {
+        assert batchSize > 0 : "batchSize must be greater than 0";
+        this.searcher = searcher;
+        this.sort = sort;
+        this.maxChunkSize = (int) Math.min(Integer.MAX_VALUE, (long) MAX_CHUNK_BATCHES * batchSize);
+        this.weight = searcher.createNormalizedWeight(query);
+
+        List<AtomicReaderContext> leaves = searcher.getIndexReader().leaves();
+        queue = new SegmentQueue(sort, Math.max(1, leaves.size()));
+        int initialChunkSize = Math.min(batchSize,
+                Math.max(MIN_INITIAL_CHUNK_SIZE, batchSize / Math.max(1, leaves.size())));
+        for (AtomicReaderContext leaf : leaves) {
+            SegmentCursor cursor = new SegmentCursor(leaf, Math.max(1, Math.min(initialChunkSize, leaf.reader().maxDoc())));
+            if (cursor.fetch()) {
+                queue.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * the segment of the document returned by the last call to {@link #next()}
+     */
+    public AtomicReaderContext leaf() {
+        return leaf;
+    }
+
+    @Override
+    protected FieldDoc computeNext() {
+        try {
+            if (current != null) {
+                // the previous document is consumed, advance its segment
+                if (current.advance()) {
+                    queue.updateTop();
+                } else {
+                    queue.pop();
+                }
+                current = null;
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        if (queue.size() == 0) {
+            return endOfData();
+        }
+        current = queue.top();
+        leaf = current.leaf;
+        return current.doc();
+    }
+
+    private class SegmentCursor {
+
+        private final AtomicReaderContext leaf;
+        private int chunkSize;
+        private ScoreDoc[] docs;
+        private int pos;
+        private boolean exhausted = false;
+
+        SegmentCursor(AtomicReaderContext leaf, int chunkSize) {
+            this.leaf = leaf;
+            this.chunkSize = chunkSize;
+        }
+
+        FieldDoc doc() {
+            return (FieldDoc) docs[pos];
+        }
+
+        /**
+         * sorts the next chunk of the segment
+         *
+         * @return false if the segment has no more documents
+         */
+        boolean fetch() throws IOException {
+            FieldDoc after = docs == null ? null : doc();
+            TopFieldCollector collector = TopFieldCollector.create(
+                    sort, chunkSize, after, true, false, false, !weight.scoresDocsOutOfOrder());
+            searcher.search(Collections.singletonList(leaf), weight, collector);
+            docs = collector.topDocs().scoreDocs;
+            pos = 0;
+            exhausted = docs.length < chunkSize;
+            chunkSize = (int) Math.min(Math.min(maxChunkSize, leaf.reader().maxDoc()), 2L * chunkSize);
+            return docs.length > 0;
+        }
+
+        boolean advance() throws IOException {
+            if (pos + 1 < docs.length) {
+                pos++;
+                return true;
+            }
+            return !exhausted && fetch();
+        }
+    }
+
+    /**
+     * orders the segment cursors by their current document, like {@link TopDocs#merge(Sort, int, TopDocs[])}
+     */
+    private static class SegmentQueue extends PriorityQueue<SegmentCursor> {
+
+        private final FieldComparator<?>[] comparators;
+        private final int[] reverseMul;
+
+        SegmentQueue(Sort sort, int size) throws IOException {
+            super(size);
+            SortField[] sortFields = sort.getSort();
+            comparators = new FieldComparator[sortFields.length];
+            reverseMul = new int[sortFields.length];
+            for (int i = 0; i < sortFields.length; i++) {
+                comparators[i] = sortFields[i].getComparator(1, i);
+                reverseMul[i] = sortFields[i].getReverse() ? -1 : 1;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected boolean lessThan(SegmentCursor a, SegmentCursor b) {
+            FieldDoc first = a.doc();
+            FieldDoc second = b.doc();
+            for (int i = 0; i < comparators.length; i++) {
+                FieldComparator<Object> comparator = (FieldComparator<Object>) comparators[i];
+                int cmp = reverseMul[i] * comparator.compareValues(first.fields[i], second.fields[i]);
+                if (cmp != 0) {
+                    return cmp < 0;
+                }
+            }
+            return first.doc < second.doc;
+        }
+    }
+}
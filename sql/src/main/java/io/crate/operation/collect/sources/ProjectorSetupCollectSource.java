@@ -44,7 +44,8 @@ public class ProjectorSetupCollectSource implements CollectSource {
     @Override
     public Collection<CrateCollector> getCollectors(CollectPhase collectPhase, RowReceiver downstream, JobCollectContext jobCollectContext) {
         if (collectPhase.projections().isEmpty()) {
-            return sourceDelegate.getCollectors(collectPhase, downstream, jobCollectContext);
+            return sourceDelegate.getCollectors(
+                    collectPhase, jobCollectContext.accountScannedRows(downstream), jobCollectContext);
         }
         FlatProjectorChain projectorChain = FlatProjectorChain.withAttachedDownstream(
                 projectorFactory,
@@ -54,6 +55,7 @@ public class ProjectorSetupCollectSource implements CollectSource {
                 collectPhase.jobId()
         );
         projectorChain.startProjections(jobCollectContext);
-        return sourceDelegate.getCollectors(collectPhase, projectorChain.firstProjector(), jobCollectContext);
+        return sourceDelegate.getCollectors(
+                collectPhase, jobCollectContext.accountScannedRows(projectorChain.firstProjector()), jobCollectContext);
     }
 }
@@ -162,7 +162,8 @@ public class ShardCollectSource implements CollectSource {
 
         if (normalizedPhase.maxRowGranularity() == RowGranularity.SHARD) {
             shardCollectors.addAll(
-                    getShardCollectors(collectPhase, normalizedPhase, projectorFactory, localNodeId, projectorChain));
+                    getShardCollectors(collectPhase, normalizedPhase, projectorFactory, localNodeId, projectorChain,
+                            jobCollectContext));
         } else {
             Map<String, List<Integer>> indexShards = locations.get(localNodeId);
             if (indexShards != null) {
@@ -252,7 +253,8 @@ public class ShardCollectSource implements CollectSource {
                                                           CollectPhase normalizedPhase,
                                                           ProjectorFactory projectorFactory,
                                                           String localNodeId,
-                                                          ShardProjectorChain projectorChain) {
+                                                          ShardProjectorChain projectorChain,
+                                                          JobCollectContext jobCollectContext) {
         Map<String, Map<String, List<Integer>>> locations = collectPhase.routing().locations();
         assert locations != null : "locations must not be null";
         List<CrateCollector> shardCollectors = new ArrayList<>();
@@ -281,7 +283,8 @@ public class ShardCollectSource implements CollectSource {
                     shardCollectors.add(
                             shardCollectService.getShardCollector(
                                     normalizedPhase,
-                                    projectorChain.newShardDownstreamProjector(projectorFactory)));
+                                    jobCollectContext.accountScannedRows(
+                                            projectorChain.newShardDownstreamProjector(projectorFactory))));
                 } catch (IndexShardMissingException | IllegalIndexShardStateException e) {
                     unassignedShards.add(toUnassignedShard(new ShardId(indexName, shard)));
                 } catch (Throwable t) {
@@ -294,7 +297,9 @@ public class ShardCollectSource implements CollectSource {
             // since unassigned shards aren't really on any node we use the collectPhase which is NOT normalized here
             // because otherwise if _node was also selected it would contain something which is wrong
             shardCollectors.addAll(unassignedShardsCollectSource.getCollectors(
-                    collectPhase, unassignedShards, projectorChain.newShardDownstreamProjector(projectorFactory)));
+                    collectPhase,
+                    unassignedShards,
+                    jobCollectContext.accountScannedRows(projectorChain.newShardDownstreamProjector(projectorFactory))));
         }
         return shardCollectors;
     }
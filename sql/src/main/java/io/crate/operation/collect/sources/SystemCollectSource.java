@@ -53,13 +53,14 @@ public class SystemCollectSource implements CollectSource {
     public SystemCollectSource(DiscoveryService discoveryService, Functions functions, StatsTables statsTables, SysChecker sysChecker) {
         docInputSymbolVisitor = new CollectInputSymbolVisitor<>(functions, RowContextReferenceResolver.INSTANCE);
 
-        iterableGetters = ImmutableMap.of(
-                SysJobsTableInfo.IDENT.fqn(), statsTables.jobsGetter(),
-                SysJobsLogTableInfo.IDENT.fqn(), statsTables.jobsLogGetter(),
-                SysOperationsTableInfo.IDENT.fqn(), statsTables.operationsGetter(),
-                SysOperationsLogTableInfo.IDENT.fqn(), statsTables.operationsLogGetter(),
-                SysChecksTableInfo.IDENT.fqn(), sysChecker
-        );
+        iterableGetters = ImmutableMap.<String, IterableGetter>builder()
+                .put(SysJobsTableInfo.IDENT.fqn(), statsTables.jobsGetter())
+                .put(SysJobsLogTableInfo.IDENT.fqn(), statsTables.jobsLogGetter())
+                .put(SysOperationsTableInfo.IDENT.fqn(), statsTables.operationsGetter())
+                .put(SysOperationsLogTableInfo.IDENT.fqn(), statsTables.operationsLogGetter())
+                .put(SysChecksTableInfo.IDENT.fqn(), sysChecker)
+                .put(SysStatementStatsTableInfo.IDENT.fqn(), statsTables.statementStatsGetter())
+                .build();
         this.discoveryService = discoveryService;
     }
 
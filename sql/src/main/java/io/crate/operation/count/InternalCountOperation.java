@@ -29,7 +29,10 @@ import io.crate.exceptions.TableUnknownException;
 import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.metadata.PartitionName;
 import io.crate.operation.ThreadPools;
+import io.crate.operation.cache.ResultCache;
 import io.crate.operation.collect.EngineSearcher;
+import io.crate.planner.symbol.Symbols;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.lucene.Lucene;
@@ -55,6 +58,7 @@ public class InternalCountOperation implements CountOperation {
 
     private final LuceneQueryBuilder queryBuilder;
     private final IndicesService indicesService;
+    private final ResultCache resultCache;
     private final ThreadPoolExecutor executor;
     private final int corePoolSize;
 
@@ -62,8 +66,10 @@ public class InternalCountOperation implements CountOperation {
     public InternalCountOperation(ScriptService scriptService, // DO NOT REMOVE, RESULTS IN WEIRD GUICE DI ERRORS
                                   LuceneQueryBuilder queryBuilder,
                                   ThreadPool threadPool,
-                                  IndicesService indicesService) {
+                                  IndicesService indicesService,
+                                  ResultCache resultCache) {
         this.queryBuilder = queryBuilder;
+        this.resultCache = resultCache;
         executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
         corePoolSize = executor.getMaximumPoolSize();
         this.indicesService = indicesService;
@@ -105,12 +111,27 @@ public class InternalCountOperation implements CountOperation {
 
         IndexShard indexShard = indexService.shardSafe(shardId);
         try (Engine.Searcher searcher = EngineSearcher.getSearcherWithRetry(indexShard, "count-operation", null)) {
+            long readerVersion = -1L;
+            BytesReference cacheKey = null;
+            if (ResultCache.isEnabled(indexService.settingsService().getSettings())
+                && (!whereClause.hasQuery() || Symbols.isDeterministic(whereClause.query()))) {
+                readerVersion = ResultCache.readerVersion(searcher.reader());
+                cacheKey = ResultCache.key("count", whereClause);
+                Long cachedCount = (Long) resultCache.get(indexShard.shardId(), readerVersion, cacheKey);
+                if (cachedCount != null) {
+                    return cachedCount;
+                }
+            }
             LuceneQueryBuilder.Context queryCtx = queryBuilder.convert(
                     whereClause, indexService.mapperService(), indexService.fieldData(), indexService.cache());
             if (Thread.interrupted()) {
                 throw new InterruptedException();
             }
-            return Lucene.count(searcher.searcher(), queryCtx.query());
+            long count = Lucene.count(searcher.searcher(), queryCtx.query());
+            if (cacheKey != null) {
+                resultCache.put(indexShard.shardId(), readerVersion, cacheKey, count);
+            }
+            return count;
         }
     }
 
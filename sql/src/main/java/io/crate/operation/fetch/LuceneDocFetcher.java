@@ -116,16 +116,22 @@ public class LuceneDocFetcher implements RowUpstream {
         visitorEnabled = fieldsVisitor.required();
 
         try {
+            List<AtomicReaderContext> leaves = searcher.searcher().getIndexReader().leaves();
+            int currentReaderIndex = -1;
+            AtomicReaderContext subReaderContext = null;
             for (int index = 0; index < shardDocIdsBucket.size(); index++) {
                 if (executionState.isKilled()) {
                     throw new CancellationException();
                 }
 
                 int docId = shardDocIdsBucket.docId(index);
-                int readerIndex = ReaderUtil.subIndex(docId, searcher.searcher().getIndexReader().leaves());
-                AtomicReaderContext subReaderContext = searcher.searcher().getIndexReader().leaves().get(readerIndex);
+                int readerIndex = ReaderUtil.subIndex(docId, leaves);
+                if (readerIndex != currentReaderIndex) {
+                    currentReaderIndex = readerIndex;
+                    subReaderContext = leaves.get(readerIndex);
+                    setNextReader(subReaderContext);
+                }
                 int subDoc = docId - subReaderContext.docBase;
-                setNextReader(subReaderContext);
                 boolean needMoreRows = fetch(shardDocIdsBucket.position(index), subDoc);
                 if (!needMoreRows) {
                     break;
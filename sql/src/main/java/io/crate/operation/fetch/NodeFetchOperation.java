@@ -52,6 +52,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.RejectedExecutionException;
@@ -74,6 +75,11 @@ public class NodeFetchOperation {
 
     private static final ESLogger LOGGER = Loggers.getLogger(NodeFetchOperation.class);
 
+    /**
+     * the docs of a shard are only fetched by multiple fetchers if each of them fetches at least this number of docs
+     */
+    static final int MIN_DOCS_PER_FETCHER = 1000;
+
     public NodeFetchOperation(UUID jobId,
                               int executionPhaseId,
                               LongArrayList jobSearchContextDocIds,
@@ -134,22 +140,27 @@ public class NodeFetchOperation {
             }
         });
 
-        List<LuceneDocFetcher> shardFetchers = new ArrayList<>(numShards);
+        // split the docs of large shards into ranges which are fetched concurrently to use all available threads
+        int availableThreads = Math.max(poolSize - executor.getActiveCount(), 1);
+        int maxDocsPerFetcher = maxDocsPerFetcher(inputCursor, availableThreads);
+        List<LuceneDocFetcher> shardFetchers = new ArrayList<>(Math.max(numShards, availableThreads));
         for (IntObjectCursor<ShardDocIdsBucket> entry : shardBuckets) {
             Engine.Searcher searcher = fetchContext.searcher(entry.key);
             IndexService indexService = fetchContext.indexService(entry.key);
-            // create new collect expression for every shard (collect expressions are not thread-safe)
-            CollectInputSymbolVisitor.Context docCtx = docInputSymbolVisitor.extractImplementations(toFetchReferences);
-            shardFetchers.add(
-                    new LuceneDocFetcher(
-                            docCtx.topLevelInputs(),
-                            docCtx.docLevelExpressions(),
-                            upstreamsRowMerger,
-                            entry.value,
-                            indexService.mapperService(),
-                            indexService.fieldData(),
-                            searcher,
-                            fetchContext));
+            for (ShardDocIdsBucket range : entry.value.split(maxDocsPerFetcher)) {
+                // create new collect expression for every fetcher (collect expressions are not thread-safe)
+                CollectInputSymbolVisitor.Context docCtx = docInputSymbolVisitor.extractImplementations(toFetchReferences);
+                shardFetchers.add(
+                        new LuceneDocFetcher(
+                                docCtx.topLevelInputs(),
+                                docCtx.docLevelExpressions(),
+                                upstreamsRowMerger,
+                                range,
+                                indexService.mapperService(),
+                                indexService.fieldData(),
+                                searcher,
+                                fetchContext));
+            }
         }
         try {
             runFetchThreaded(shardFetchers, ramAccountingContext);
@@ -158,10 +169,17 @@ public class NodeFetchOperation {
         }
 
         if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("started {} shardFetchers", numShards);
+            LOGGER.trace("started {} shardFetchers for {} shards", shardFetchers.size(), numShards);
         }
     }
 
+    /**
+     * @return the max number of docs fetched by one fetcher so that the docs are spread across the available threads
+     */
+    static int maxDocsPerFetcher(int numDocs, int availableThreads) {
+        return Math.max(MIN_DOCS_PER_FETCHER, (numDocs + availableThreads - 1) / availableThreads);
+    }
+
     private void runFetchThreaded(final List<LuceneDocFetcher> shardFetchers,
                                   final RamAccountingContext ramAccountingContext) throws RejectedExecutionException {
 
@@ -204,6 +222,29 @@ public class NodeFetchOperation {
         public int position(int idx) {
             return positions.get(idx);
         }
+
+        /**
+         * split the bucket into consecutive ranges of about the same size with at most maxSize docs each.
+         * The order of the docs is kept, so the positions within each range are still ascending.
+         */
+        public List<ShardDocIdsBucket> split(int maxSize) {
+            int size = size();
+            if (size <= maxSize) {
+                return Collections.singletonList(this);
+            }
+            int numRanges = (size + maxSize - 1) / maxSize;
+            int rangeSize = (size + numRanges - 1) / numRanges;
+            List<ShardDocIdsBucket> ranges = new ArrayList<>(numRanges);
+            for (int start = 0; start < size; start += rangeSize) {
+                ShardDocIdsBucket range = new ShardDocIdsBucket();
+                int end = Math.min(start + rangeSize, size);
+                for (int i = start; i < end; i++) {
+                    range.add(positions.get(i), docIds.get(i));
+                }
+                ranges.add(range);
+            }
+            return ranges;
+        }
     }
 
 }
@@ -0,0 +1,391 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.join;
+
+import io.crate.breaker.ConstSizeEstimator;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.types.DataType;
+import io.crate.types.FixedWidthType;
+import io.crate.types.IpType;
+import io.crate.types.StringType;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Joins the rows of two inputs on equal join keys.
+ *
+ * The rows of the build input are put into a hash table, the rows of the probe input are looked up in it.
+ * The join keys are the first <code>numKeys</code> columns of both inputs, rows with a null key never match.
+ * A joined row consists of the columns of the left input followed by the columns of the right input,
+ * independent of which input is the build input.
+ *
+ * The hash table is accounted on the {@link RamAccountingContext},
+ * the join fails if the circuit breaker trips.
+ *
+ * If the probe input sends rows before the build input has finished, the probe input is paused
+ * and resumed once the hash table is complete.
+ */
+public class HashJoiner implements RowUpstream {
+
+    private static final ESLogger LOGGER = Loggers.getLogger(HashJoiner.class);
+
+    /**
+     * assumed size of values which don't have a {@link SizeEstimator}, like objects or arrays
+     */
+    private static final long UNKNOWN_VALUE_SIZE = 64L;
+
+    /**
+     * rough overhead of a row in the hash table: the row array, the list it is stored in and the map entry
+     */
+    private static final long ROW_OVERHEAD = 64L;
+
+    private final RamAccountingContext ramAccountingContext;
+    private final int numKeys;
+    private final byte buildInputId;
+    private final int numLeftColumns;
+    private final RowReceiver downstream;
+    private final List<SizeEstimator<Object>> buildEstimators;
+    private final Map<Object, List<Object[]>> buildTable = new HashMap<>();
+
+    private final Object lock = new Object();
+    private final List<Object[]> pendingProbeRows = new ArrayList<>();
+    private volatile boolean buildFinished = false;
+    private boolean probeFinished = false;
+    private boolean probePaused = false;
+    private RowUpstream probeUpstream;
+
+    private final Object[] joinedCells;
+    private final RowN joinedRow;
+    private final AtomicBoolean prepared = new AtomicBoolean(false);
+    private final AtomicBoolean downstreamFinished = new AtomicBoolean(false);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean wantMore = true;
+
+    private final RowReceiver leftReceiver;
+    private final RowReceiver rightReceiver;
+
+    /**
+     * @param buildInputId the input whose rows are put into the hash table, 0 for the left, 1 for the right input
+     */
+    public HashJoiner(RamAccountingContext ramAccountingContext,
+                      List<? extends DataType> leftTypes,
+                      List<? extends DataType> rightTypes,
+                      int numKeys,
+                      byte buildInputId,
+                      RowReceiver downstream) {
+        assert buildInputId == 0 || buildInputId == 1 : "buildInputId must be 0 or 1";
+        this.ramAccountingContext = ramAccountingContext;
+        this.numKeys = numKeys;
+        this.buildInputId = buildInputId;
+        this.numLeftColumns = leftTypes.size();
+        this.downstream = downstream;
+        List<? extends DataType> buildTypes = buildInputId == 0 ? leftTypes : rightTypes;
+        buildEstimators = new ArrayList<>(buildTypes.size());
+        for (DataType type : buildTypes) {
+            buildEstimators.add(sizeEstimator(type));
+        }
+        joinedCells = new Object[leftTypes.size() + rightTypes.size()];
+        joinedRow = new RowN(joinedCells);
+        leftReceiver = buildInputId == 0 ? new BuildReceiver() : new ProbeReceiver();
+        rightReceiver = buildInputId == 0 ? new ProbeReceiver() : new BuildReceiver();
+        downstream.setUpstream(this);
+    }
+
+    private static SizeEstimator<Object> sizeEstimator(DataType type) {
+        if (type instanceof FixedWidthType || type.id() == StringType.ID || type.id() == IpType.ID) {
+            return SizeEstimatorFactory.create(type);
+        }
+        return new ConstSizeEstimator(UNKNOWN_VALUE_SIZE);
+    }
+
+    public RowReceiver leftReceiver() {
+        return leftReceiver;
+    }
+
+    public RowReceiver rightReceiver() {
+        return rightReceiver;
+    }
+
+    public RowReceiver receiver(byte inputId) {
+        return inputId == 0 ? leftReceiver : rightReceiver;
+    }
+
+    public byte buildInputId() {
+        return buildInputId;
+    }
+
+    @Override
+    public void pause() {
+        RowUpstream upstream = probeUpstream;
+        if (upstream != null) {
+            upstream.pause();
+        }
+    }
+
+    @Override
+    public void resume(boolean async) {
+        RowUpstream upstream = probeUpstream;
+        if (upstream != null) {
+            upstream.resume(async);
+        }
+    }
+
+    private void prepareDownstream(ExecutionState executionState) {
+        if (prepared.compareAndSet(false, true)) {
+            downstream.prepare(executionState);
+        }
+    }
+
+    /**
+     * @return the key of a row or null if any key column is null
+     */
+    private Object key(Row row) {
+        if (numKeys == 1) {
+            return row.get(0);
+        }
+        Object[] key = new Object[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            Object value = row.get(i);
+            if (value == null) {
+                return null;
+            }
+            key[i] = value;
+        }
+        return Arrays.asList(key);
+    }
+
+    private void addToBuildTable(Row row) {
+        Object key = key(row);
+        if (key == null) {
+            return;
+        }
+        Object[] cells = row.materialize();
+        long bytes = ROW_OVERHEAD;
+        for (int i = 0; i < cells.length; i++) {
+            bytes += buildEstimators.get(i).estimateSize(cells[i]);
+        }
+        ramAccountingContext.addBytes(bytes);
+        List<Object[]> rows = buildTable.get(key);
+        if (rows == null) {
+            rows = new ArrayList<>(1);
+            buildTable.put(key, rows);
+        }
+        rows.add(cells);
+    }
+
+    /**
+     * emits the joined rows of a probe row
+     *
+     * @return false if the downstream doesn't need any more rows
+     */
+    private boolean probe(Row row) {
+        Object key = key(row);
+        if (key == null) {
+            return true;
+        }
+        List<Object[]> matches = buildTable.get(key);
+        if (matches == null) {
+            return true;
+        }
+        int probeOffset = buildInputId == 0 ? numLeftColumns : 0;
+        int buildOffset = buildInputId == 0 ? 0 : numLeftColumns;
+        for (int i = 0; i < row.size(); i++) {
+            joinedCells[probeOffset + i] = row.get(i);
+        }
+        for (Object[] match : matches) {
+            System.arraycopy(match, 0, joinedCells, buildOffset, match.length);
+            if (!downstream.setNextRow(joinedRow)) {
+                wantMore = false;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean probePendingRows() {
+        List<Object[]> rows;
+        synchronized (lock) {
+            if (pendingProbeRows.isEmpty()) {
+                return wantMore;
+            }
+            rows = new ArrayList<>(pendingProbeRows);
+            pendingProbeRows.clear();
+        }
+        RowN row = new RowN(rows.get(0).length);
+        for (Object[] cells : rows) {
+            row.cells(cells);
+            if (!wantMore || !probe(row)) {
+                return false;
+            }
+        }
+        return wantMore;
+    }
+
+    private void onBuildFinished() {
+        if (buildTable.isEmpty()) {
+            // nothing can match, the probe input can stop early
+            wantMore = false;
+        }
+        boolean resumeProbe;
+        boolean probeDone;
+        synchronized (lock) {
+            buildFinished = true;
+            resumeProbe = probePaused;
+            probePaused = false;
+            probeDone = probeFinished;
+        }
+        LOGGER.trace("build input finished with {} keys, probe input finished: {}", buildTable.size(), probeDone);
+        if (probeDone) {
+            // no other thread emits rows anymore
+            probePendingRows();
+            finishDownstream();
+        } else if (resumeProbe) {
+            probeUpstream.resume(true);
+        }
+    }
+
+    private void onProbeFinished() {
+        synchronized (lock) {
+            probeFinished = true;
+            if (!buildFinished) {
+                return;
+            }
+        }
+        probePendingRows();
+        finishDownstream();
+    }
+
+    private void finishDownstream() {
+        if (downstreamFinished.compareAndSet(false, true)) {
+            downstream.finish();
+        }
+    }
+
+    private void onFailure(Throwable t) {
+        wantMore = false;
+        if (failure.compareAndSet(null, t) && downstreamFinished.compareAndSet(false, true)) {
+            downstream.fail(t);
+        }
+        boolean resumeProbe;
+        synchronized (lock) {
+            resumeProbe = probePaused;
+            probePaused = false;
+            pendingProbeRows.clear();
+        }
+        if (resumeProbe) {
+            // let the probe input finish, it won't get any more rows accepted
+            probeUpstream.resume(true);
+        }
+    }
+
+    private class BuildReceiver implements RowReceiver {
+
+        @Override
+        public boolean setNextRow(Row row) {
+            if (!wantMore) {
+                return false;
+            }
+            try {
+                addToBuildTable(row);
+            } catch (Throwable t) {
+                onFailure(t);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void finish() {
+            if (failure.get() == null) {
+                onBuildFinished();
+            }
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            onFailure(throwable);
+        }
+
+        @Override
+        public void prepare(ExecutionState executionState) {
+            prepareDownstream(executionState);
+        }
+
+        @Override
+        public void setUpstream(RowUpstream rowUpstream) {
+        }
+    }
+
+    private class ProbeReceiver implements RowReceiver {
+
+        @Override
+        public boolean setNextRow(Row row) {
+            if (!wantMore) {
+                return false;
+            }
+            if (!buildFinished) {
+                synchronized (lock) {
+                    if (!buildFinished) {
+                        pendingProbeRows.add(row.materialize());
+                        probePaused = true;
+                        probeUpstream.pause();
+                        return true;
+                    }
+                }
+            }
+            return probePendingRows() && probe(row);
+        }
+
+        @Override
+        public void finish() {
+            if (failure.get() == null) {
+                onProbeFinished();
+            }
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            onFailure(throwable);
+        }
+
+        @Override
+        public void prepare(ExecutionState executionState) {
+            prepareDownstream(executionState);
+        }
+
+        @Override
+        public void setUpstream(RowUpstream rowUpstream) {
+            probeUpstream = rowUpstream;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.merge;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.crate.core.MultiFutureCallback;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.BucketPage;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.PageConsumeListener;
+import io.crate.operation.PageDownstream;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.Projector;
+import io.crate.operation.projectors.RowReceiver;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PageDownstream which reduces the rows of a page with several grouping projectors in parallel.
+ *
+ * The rows of every page are partitioned by the hash of their group key so that all rows of a group
+ * end up in the same reducer. Each reducer consumes its partition in a separate task on the given executor,
+ * the next page is only requested once all reducers are done.
+ *
+ * Once all pages are consumed the reducers emit their groups one after the other into the downstream,
+ * as the groups are disjoint this is the same result a single grouping projector would produce.
+ */
+public class PartitionedGroupingPageDownstream implements PageDownstream, RowUpstream {
+
+    private final List<? extends Projector> reducers;
+    private final int[] keyIndices;
+    private final RowReceiver downstream;
+    private final Executor executor;
+    private final List<ReducerDownstream> reducerDownstreams;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    private volatile int emittingReducer = -1;
+    private volatile boolean downstreamWantsMore = true;
+
+    /**
+     * @param reducers grouping projectors which aren't connected to a downstream yet
+     * @param keyIndices the positions of the group key columns in the incoming rows
+     */
+    public PartitionedGroupingPageDownstream(List<? extends Projector> reducers,
+                                             int[] keyIndices,
+                                             RowReceiver downstream,
+                                             Executor executor) {
+        Preconditions.checkArgument(!reducers.isEmpty(), "at least one reducer is required");
+        this.reducers = reducers;
+        this.keyIndices = keyIndices;
+        this.downstream = downstream;
+        this.executor = executor;
+        reducerDownstreams = new ArrayList<>(reducers.size());
+        for (Projector reducer : reducers) {
+            ReducerDownstream reducerDownstream = new ReducerDownstream();
+            reducerDownstreams.add(reducerDownstream);
+            reducer.downstream(reducerDownstream);
+            reducer.setUpstream(this);
+        }
+        downstream.setUpstream(this);
+    }
+
+    static int partition(Row row, int[] keyIndices, int numPartitions) {
+        int hash = 1;
+        for (int keyIndex : keyIndices) {
+            hash = 31 * hash + Objects.hashCode(row.get(keyIndex));
+        }
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % numPartitions;
+    }
+
+    @Override
+    public void nextPage(BucketPage page, final PageConsumeListener listener) {
+        FutureCallback<List<Bucket>> finalCallback = new FutureCallback<List<Bucket>>() {
+            @Override
+            public void onSuccess(List<Bucket> buckets) {
+                reduce(buckets, listener);
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                fail(t);
+                listener.finish();
+            }
+        };
+
+        // wait for all buckets, see IteratorPageDownstream#nextPage
+        MultiFutureCallback<Bucket> multiFutureCallback = new MultiFutureCallback<>(page.buckets().size(), finalCallback);
+        for (ListenableFuture<Bucket> bucketFuture : page.buckets()) {
+            Futures.addCallback(bucketFuture, multiFutureCallback);
+        }
+    }
+
+    private void reduce(List<Bucket> buckets, final PageConsumeListener listener) {
+        if (finished.get()) {
+            listener.finish();
+            return;
+        }
+        List<List<Object[]>> partitions = new ArrayList<>(reducers.size());
+        for (int i = 0; i < reducers.size(); i++) {
+            partitions.add(new ArrayList<Object[]>());
+        }
+        for (Bucket bucket : buckets) {
+            for (Row row : bucket) {
+                partitions.get(partition(row, keyIndices, reducers.size())).add(row.materialize());
+            }
+        }
+
+        final AtomicInteger pendingReducers = new AtomicInteger(reducers.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int i = 0; i < reducers.size(); i++) {
+            final Projector reducer = reducers.get(i);
+            final List<Object[]> rows = partitions.get(i);
+            Runnable reduceTask = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        RowN row = null;
+                        for (Object[] cells : rows) {
+                            if (failure.get() != null) {
+                                break;
+                            }
+                            if (row == null) {
+                                row = new RowN(cells);
+                            } else {
+                                row.cells(cells);
+                            }
+                            reducer.setNextRow(row);
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                    if (pendingReducers.decrementAndGet() == 0) {
+                        Throwable t = failure.get();
+                        if (t == null) {
+                            listener.needMore();
+                        } else {
+                            fail(t);
+                            listener.finish();
+                        }
+                    }
+                }
+            };
+            if (rows.isEmpty()) {
+                reduceTask.run();
+                continue;
+            }
+            try {
+                executor.execute(reduceTask);
+            } catch (EsRejectedExecutionException | RejectedExecutionException e) {
+                // reduce on the current thread instead of failing the whole query
+                reduceTask.run();
+            }
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (finished.compareAndSet(false, true)) {
+            emit(0);
+        }
+    }
+
+    private void emit(int reducerIdx) {
+        if (reducerIdx < reducers.size() && downstreamWantsMore) {
+            emittingReducer = reducerIdx;
+            reducers.get(reducerIdx).finish();
+        } else {
+            downstream.finish();
+        }
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        if (finished.compareAndSet(false, true)) {
+            downstream.fail(t);
+        }
+    }
+
+    @Override
+    public void pause() {
+        reducerDownstreams.get(emittingReducer).upstream.pause();
+    }
+
+    @Override
+    public void resume(boolean async) {
+        reducerDownstreams.get(emittingReducer).upstream.resume(async);
+    }
+
+    /**
+     * receives the groups of one reducer and passes them on to the shared downstream
+     */
+    private class ReducerDownstream implements RowReceiver {
+
+        private RowUpstream upstream;
+
+        @Override
+        public boolean setNextRow(Row row) {
+            downstreamWantsMore = downstream.setNextRow(row);
+            return downstreamWantsMore;
+        }
+
+        @Override
+        public void finish() {
+            emit(emittingReducer + 1);
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            downstream.fail(throwable);
+        }
+
+        @Override
+        public void prepare(ExecutionState executionState) {
+        }
+
+        @Override
+        public void setUpstream(RowUpstream rowUpstream) {
+            upstream = rowUpstream;
+        }
+    }
+}
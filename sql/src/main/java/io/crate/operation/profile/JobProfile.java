@@ -0,0 +1,57 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.profile;
+
+import io.crate.planner.node.ExecutionPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link PhaseProfiler}s of all execution phases of a job which run on the local node.
+ */
+public class JobProfile {
+
+    private final ConcurrentMap<Integer, PhaseProfiler> phases = new ConcurrentHashMap<>();
+
+    public PhaseProfiler phase(ExecutionPhase executionPhase) {
+        PhaseProfiler profiler = phases.get(executionPhase.executionPhaseId());
+        if (profiler == null) {
+            profiler = new PhaseProfiler(executionPhase.executionPhaseId(), executionPhase.name());
+            PhaseProfiler existing = phases.putIfAbsent(executionPhase.executionPhaseId(), profiler);
+            if (existing != null) {
+                profiler = existing;
+            }
+        }
+        return profiler;
+    }
+
+    public List<PhaseProfile> snapshot(String nodeId) {
+        List<PhaseProfile> profiles = new ArrayList<>(phases.size());
+        for (PhaseProfiler profiler : phases.values()) {
+            profiles.add(profiler.snapshot(nodeId));
+        }
+        return profiles;
+    }
+}
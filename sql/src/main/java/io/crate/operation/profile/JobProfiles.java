@@ -0,0 +1,88 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.profile;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node wide registry of the jobs which are profiled by <code>EXPLAIN ANALYZE</code>.
+ *
+ * Only jobs which were started with profiling enabled are registered, all other jobs
+ * don't pay anything for the instrumentation.
+ * The profile of a job is removed once it has been collected by the handler node,
+ * profiles which are never collected (e.g. because the handler node left the cluster) expire.
+ */
+@Singleton
+public class JobProfiles {
+
+    static final long EXPIRE_AFTER_MINUTES = 60L;
+
+    private final Cache<UUID, JobProfile> profiles = CacheBuilder.newBuilder()
+            .expireAfterAccess(EXPIRE_AFTER_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * enable profiling of the job on the local node
+     */
+    public JobProfile start(UUID jobId) {
+        JobProfile profile = profiles.getIfPresent(jobId);
+        if (profile == null) {
+            profile = new JobProfile();
+            JobProfile existing = profiles.asMap().putIfAbsent(jobId, profile);
+            if (existing != null) {
+                profile = existing;
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * @return the profile of the job or null if the job isn't profiled
+     */
+    @Nullable
+    public JobProfile get(UUID jobId) {
+        return profiles.getIfPresent(jobId);
+    }
+
+    /**
+     * remove the profile of the job and return the statistics of its phases on the local node
+     */
+    public List<PhaseProfile> remove(UUID jobId, String nodeId) {
+        JobProfile profile = profiles.asMap().remove(jobId);
+        if (profile == null) {
+            return Collections.emptyList();
+        }
+        return profile.snapshot(nodeId);
+    }
+
+    public long size() {
+        return profiles.size();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.profile;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runtime statistics of a single execution phase on a single node.
+ */
+public class PhaseProfile implements Streamable {
+
+    private int phaseId;
+    private String phaseName;
+    private String nodeId;
+    private long durationNanos;
+    private long rows;
+    private long pauses;
+    private long resumes;
+    private long bytesSent;
+    private long bytesUsed;
+    private boolean failed;
+
+    public PhaseProfile() {
+    }
+
+    public PhaseProfile(int phaseId,
+                        String phaseName,
+                        String nodeId,
+                        long durationNanos,
+                        long rows,
+                        long pauses,
+                        long resumes,
+                        long bytesSent,
+                        long bytesUsed,
+                        boolean failed) {
+        this.phaseId = phaseId;
+        this.phaseName = phaseName;
+        this.nodeId = nodeId;
+        this.durationNanos = durationNanos;
+        this.rows = rows;
+        this.pauses = pauses;
+        this.resumes = resumes;
+        this.bytesSent = bytesSent;
+        this.bytesUsed = bytesUsed;
+        this.failed = failed;
+    }
+
+    public int phaseId() {
+        return phaseId;
+    }
+
+    public String phaseName() {
+        return phaseName;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long pauses() {
+        return pauses;
+    }
+
+    public long resumes() {
+        return resumes;
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return the peak number of bytes accounted by the phase or -1 if the phase doesn't account memory
+     */
+    public long bytesUsed() {
+        return bytesUsed;
+    }
+
+    public boolean failed() {
+        return failed;
+    }
+
+    /**
+     * @return the node level statistics as they are returned by <code>EXPLAIN ANALYZE</code>
+     */
+    public Map<String, Object> toMap() {
+        return ImmutableMap.<String, Object>builder()
+                .put("node_id", nodeId)
+                .put("duration", TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                .put("rows", rows)
+                .put("pauses", pauses)
+                .put("resumes", resumes)
+                .put("bytes_sent", bytesSent)
+                .put("bytes_used", Math.max(0L, bytesUsed))
+                .put("failed", failed)
+                .build();
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        phaseId = in.readVInt();
+        phaseName = in.readString();
+        nodeId = in.readString();
+        durationNanos = in.readVLong();
+        rows = in.readVLong();
+        pauses = in.readVLong();
+        resumes = in.readVLong();
+        bytesSent = in.readVLong();
+        bytesUsed = in.readLong();
+        failed = in.readBoolean();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(phaseId);
+        out.writeString(phaseName);
+        out.writeString(nodeId);
+        out.writeVLong(durationNanos);
+        out.writeVLong(rows);
+        out.writeVLong(pauses);
+        out.writeVLong(resumes);
+        out.writeVLong(bytesSent);
+        out.writeLong(bytesUsed);
+        out.writeBoolean(failed);
+    }
+}
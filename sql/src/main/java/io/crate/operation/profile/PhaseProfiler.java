@@ -0,0 +1,120 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.profile;
+
+import com.google.common.util.concurrent.FutureCallback;
+import io.crate.executor.transport.distributed.DistributingDownstream;
+import io.crate.jobs.ExecutionSubContext;
+import io.crate.jobs.SubExecutionContextFuture;
+import io.crate.operation.projectors.RowReceiver;
+import jsr166e.LongAdder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Collects the runtime statistics of one execution phase on the local node.
+ *
+ * The statistics are gathered by the {@link ProfilingRowReceiver} which wraps the output of the phase
+ * and by the future of the {@link ExecutionSubContext} which runs the phase.
+ */
+public class PhaseProfiler {
+
+    private final int phaseId;
+    private final String phaseName;
+    private final long startNanos = System.nanoTime();
+
+    final LongAdder rows = new LongAdder();
+    final LongAdder pauses = new LongAdder();
+    final LongAdder resumes = new LongAdder();
+
+    private volatile long endNanos = -1L;
+    private volatile long bytesUsed = -1L;
+    private volatile boolean failed = false;
+    private volatile DistributingDownstream distributingDownstream;
+
+    PhaseProfiler(int phaseId, String phaseName) {
+        this.phaseId = phaseId;
+        this.phaseName = phaseName;
+    }
+
+    /**
+     * wrap the output of the phase so that the rows and the pause/resume calls are counted
+     */
+    public RowReceiver profile(RowReceiver rowReceiver) {
+        if (rowReceiver instanceof DistributingDownstream) {
+            distributingDownstream = (DistributingDownstream) rowReceiver;
+        }
+        return new ProfilingRowReceiver(rowReceiver, this);
+    }
+
+    /**
+     * record the memory usage of the subContext once it is closed
+     */
+    public void profile(ExecutionSubContext subContext) {
+        subContext.future().addCallback(new FutureCallback<SubExecutionContextFuture.State>() {
+            @Override
+            public void onSuccess(@Nullable SubExecutionContextFuture.State state) {
+                if (state != null) {
+                    bytesUsed = state.bytesUsed();
+                }
+                finished(false);
+            }
+
+            @Override
+            public void onFailure(@Nonnull Throwable t) {
+                finished(true);
+            }
+        });
+    }
+
+    void finished(boolean failed) {
+        if (failed) {
+            this.failed = true;
+        }
+        if (endNanos == -1L) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return the statistics gathered so far, a phase which is still running is measured until now
+     */
+    public PhaseProfile snapshot(String nodeId) {
+        long end = endNanos;
+        if (end == -1L) {
+            end = System.nanoTime();
+        }
+        DistributingDownstream downstream = distributingDownstream;
+        return new PhaseProfile(
+                phaseId,
+                phaseName,
+                nodeId,
+                end - startNanos,
+                rows.sum(),
+                pauses.sum(),
+                resumes.sum(),
+                downstream == null ? 0L : downstream.bytesSent(),
+                bytesUsed,
+                failed);
+    }
+}
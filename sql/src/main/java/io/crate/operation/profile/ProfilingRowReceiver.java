@@ -0,0 +1,96 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.profile;
+
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
+import io.crate.jobs.ExecutionState;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.RowBatchReceiver;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.operation.projectors.RowReceivers;
+
+/**
+ * RowReceiver which counts the rows and the pause/resume calls of its upstream
+ * before they are passed on to the wrapped receiver.
+ */
+class ProfilingRowReceiver implements RowBatchReceiver {
+
+    private final RowReceiver delegate;
+    private final PhaseProfiler profiler;
+
+    ProfilingRowReceiver(RowReceiver delegate, PhaseProfiler profiler) {
+        this.delegate = delegate;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean setNextRow(Row row) {
+        profiler.rows.increment();
+        return delegate.setNextRow(row);
+    }
+
+    @Override
+    public boolean acceptsBatches() {
+        return RowReceivers.acceptsBatches(delegate);
+    }
+
+    @Override
+    public boolean setNextBatch(RowBatch batch) {
+        profiler.rows.add(batch.size());
+        return ((RowBatchReceiver) delegate).setNextBatch(batch);
+    }
+
+    @Override
+    public void finish() {
+        profiler.finished(false);
+        delegate.finish();
+    }
+
+    @Override
+    public void fail(Throwable throwable) {
+        profiler.finished(true);
+        delegate.fail(throwable);
+    }
+
+    @Override
+    public void prepare(ExecutionState executionState) {
+        delegate.prepare(executionState);
+    }
+
+    @Override
+    public void setUpstream(final RowUpstream rowUpstream) {
+        delegate.setUpstream(new RowUpstream() {
+            @Override
+            public void pause() {
+                profiler.pauses.increment();
+                rowUpstream.pause();
+            }
+
+            @Override
+            public void resume(boolean async) {
+                profiler.resumes.increment();
+                rowUpstream.resume(async);
+            }
+        });
+    }
+}
@@ -40,6 +40,7 @@ import io.crate.metadata.PartitionName;
 import io.crate.metadata.TableIdent;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.Input;
+import io.crate.operation.RowUpstream;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.collect.RowShardResolver;
 import io.crate.planner.symbol.Reference;
@@ -227,6 +228,13 @@ public abstract class AbstractIndexWriterProjector extends AbstractProjector {
         }
     }
 
+    @Override
+    public void setUpstream(RowUpstream upstream) {
+        super.setUpstream(upstream);
+        assert bulkShardProcessor != null : "must create a BulkShardProcessor first";
+        bulkShardProcessor.upstream(upstream);
+    }
+
     @Override
     public void downstream(RowReceiver rowDownstreamHandle) {
         super.downstream(rowDownstreamHandle);
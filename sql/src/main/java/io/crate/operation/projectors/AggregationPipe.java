@@ -23,6 +23,7 @@ package io.crate.operation.projectors;
 
 import io.crate.breaker.RamAccountingContext;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.core.collections.RowN;
 import io.crate.operation.AggregationContext;
 import io.crate.operation.aggregation.Aggregator;
@@ -30,7 +31,7 @@ import io.crate.operation.collect.CollectExpression;
 
 import java.util.Set;
 
-public class AggregationPipe extends AbstractProjector {
+public class AggregationPipe extends AbstractProjector implements RowBatchReceiver {
 
     private final Aggregator[] aggregators;
     private final Set<CollectExpression<Row, ?>> collectExpressions;
@@ -71,6 +72,19 @@ public class AggregationPipe extends AbstractProjector {
         return true;
     }
 
+    @Override
+    public boolean acceptsBatches() {
+        return true;
+    }
+
+    @Override
+    public boolean setNextBatch(RowBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            setNextRow(batch.row(i));
+        }
+        return true;
+    }
+
     @Override
     public void fail(Throwable t) {
         downstream.fail(t);
@@ -22,12 +22,13 @@
 package io.crate.operation.projectors;
 
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
 
 import java.util.Collection;
 
-public class FilterProjector extends AbstractProjector {
+public class FilterProjector extends AbstractProjector implements RowBatchReceiver {
 
     private final RowFilter<Row> rowFilter;
 
@@ -44,6 +45,21 @@ public class FilterProjector extends AbstractProjector {
         return true;
     }
 
+    @Override
+    public boolean acceptsBatches() {
+        return RowReceivers.acceptsBatches(downstream);
+    }
+
+    @Override
+    public boolean setNextBatch(RowBatch batch) {
+        batch.retain(rowFilter);
+        //noinspection SimplifiableIfStatement
+        if (batch.isEmpty()) {
+            return true;
+        }
+        return ((RowBatchReceiver) downstream).setNextBatch(batch);
+    }
+
     @Override
     public void finish() {
         downstream.finish();
@@ -66,6 +66,10 @@ public class FlatProjectorChain {
         return rowReceivers.get(0);
     }
 
+    public List<? extends RowReceiver> rowReceivers() {
+        return rowReceivers;
+    }
+
     /**
      * No ResultProvider will be added.
      * if <code>downstream</code> is a Projector, {@linkplain Projector#prepare(ExecutionState)} will not be called
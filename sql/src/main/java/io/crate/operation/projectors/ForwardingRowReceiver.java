@@ -23,10 +23,11 @@
 package io.crate.operation.projectors;
 
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.jobs.ExecutionState;
 import io.crate.operation.RowUpstream;
 
-public abstract class ForwardingRowReceiver implements RowReceiver {
+public abstract class ForwardingRowReceiver implements RowBatchReceiver {
 
     final RowReceiver rowReceiver;
 
@@ -49,6 +50,16 @@ public abstract class ForwardingRowReceiver implements RowReceiver {
         return rowReceiver.setNextRow(row);
     }
 
+    @Override
+    public boolean acceptsBatches() {
+        return RowReceivers.acceptsBatches(rowReceiver);
+    }
+
+    @Override
+    public boolean setNextBatch(RowBatch batch) {
+        return ((RowBatchReceiver) rowReceiver).setNextBatch(batch);
+    }
+
     @Override
     public void finish() {
         rowReceiver.finish();
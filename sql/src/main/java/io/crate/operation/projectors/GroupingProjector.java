@@ -28,6 +28,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.breaker.SizeEstimator;
 import io.crate.breaker.SizeEstimatorFactory;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.core.collections.RowN;
 import io.crate.jobs.ExecutionState;
 import io.crate.operation.AggregationContext;
@@ -47,7 +48,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class GroupingProjector extends AbstractProjector {
+public class GroupingProjector extends AbstractProjector implements RowBatchReceiver {
 
 
     private static final ESLogger logger = Loggers.getLogger(GroupingProjector.class);
@@ -103,6 +104,19 @@ public class GroupingProjector extends AbstractProjector {
         return grouper.setNextRow(row);
     }
 
+    @Override
+    public boolean acceptsBatches() {
+        return true;
+    }
+
+    @Override
+    public boolean setNextBatch(RowBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            grouper.setNextRow(batch.row(i));
+        }
+        return true;
+    }
+
     @Override
     public void finish() {
         grouper.finish();
@@ -27,14 +27,18 @@ import io.crate.executor.transport.distributed.*;
 import io.crate.operation.NodeOperation;
 import io.crate.operation.RowDownstream;
 import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.ShardDistribution;
 import io.crate.planner.node.ExecutionPhases;
 import io.crate.planner.node.StreamerVisitor;
+import io.crate.planner.node.dql.CollectPhase;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.util.BigArrays;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 @Singleton
@@ -42,12 +46,15 @@ public class InternalRowDownstreamFactory implements RowDownstreamFactory {
 
     private final ClusterService clusterService;
     private final TransportDistributedResultAction transportDistributedResultAction;
+    private final BigArrays bigArrays;
 
     @Inject
     public InternalRowDownstreamFactory(ClusterService clusterService,
-                                        TransportDistributedResultAction transportDistributedResultAction) {
+                                        TransportDistributedResultAction transportDistributedResultAction,
+                                        ResultPagePool resultPagePool) {
         this.clusterService = clusterService;
         this.transportDistributedResultAction = transportDistributedResultAction;
+        this.bigArrays = resultPagePool.bigArrays();
     }
 
     public RowReceiver createDownstream(NodeOperation nodeOperation,
@@ -63,17 +70,25 @@ public class InternalRowDownstreamFactory implements RowDownstreamFactory {
         Collections.sort(server);
         int bucketIdx = Math.max(server.indexOf(clusterService.localNode().id()), 0);
 
+        // the buckets must be in the same order as the downstreams of the DistributingDownstream
+        List<String> downstreamNodes = new ArrayList<>(nodeOperation.downstreamNodes());
         MultiBucketBuilder multiBucketBuilder;
         switch (distributionType) {
             case MODULO:
                 if (nodeOperation.downstreamNodes().size() == 1) {
-                    multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                    multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size(), bigArrays);
                 } else {
-                    multiBucketBuilder = new ModuloBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                    multiBucketBuilder = new ModuloBucketBuilder(streamers, nodeOperation.downstreamNodes().size(), bigArrays);
                 }
                 break;
             case BROADCAST:
-                multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size(), bigArrays);
+                break;
+            case SHARD:
+                ShardDistribution shardDistribution = ((CollectPhase) nodeOperation.executionPhase()).shardDistribution();
+                assert shardDistribution != null : "SHARD distribution requires a shardDistribution";
+                multiBucketBuilder = new ShardingBucketBuilder(
+                        streamers, downstreamNodes, shardDistribution, clusterService, bigArrays);
                 break;
             default:
                 throw new UnsupportedOperationException("Can't handle distributionType: " + distributionType);
@@ -85,7 +100,7 @@ public class InternalRowDownstreamFactory implements RowDownstreamFactory {
                 nodeOperation.downstreamExecutionPhaseId(),
                 nodeOperation.downstreamExecutionPhaseInputId(),
                 bucketIdx,
-                nodeOperation.downstreamNodes(),
+                downstreamNodes,
                 transportDistributedResultAction,
                 streamers,
                 pageSize
@@ -30,6 +30,7 @@ import io.crate.operation.ImplementationSymbolVisitor;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
+import io.crate.operation.projectors.writer.Output;
 import io.crate.planner.projection.*;
 import io.crate.planner.symbol.*;
 import io.crate.types.StringType;
@@ -196,13 +197,15 @@ public class ProjectionToProjectorVisitor
                 sb.append("/");
             }
             sb.append(fileName);
-            if (projection.settings().get("compression", "").equalsIgnoreCase("gzip")) {
-                sb.append(".gz");
+            Output.Compression compression = Output.parseCompression(projection.settings());
+            if (compression != null) {
+                sb.append(compression.fileExtension());
             }
             uri = sb.toString();
         }
         return new WriterProjector(
                 ((ThreadPoolExecutor) threadPool.generic()),
+                threadPool.executor(WriterProjector.THREAD_POOL_NAME),
                 uri,
                 projection.settings(),
                 inputs,
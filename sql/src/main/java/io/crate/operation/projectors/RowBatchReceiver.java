@@ -0,0 +1,52 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
+
+/**
+ * A {@link RowReceiver} which can also receive the rows of its upstream a {@link RowBatch} at a time.
+ *
+ * Batches are optional: an upstream which produces batches must check {@link #acceptsBatches()}
+ * after the receiver chain has been set up and fall back to {@link #setNextRow(Row)} otherwise.
+ */
+public interface RowBatchReceiver extends RowReceiver {
+
+    /**
+     * @return true if rows may be passed using {@link #setNextBatch(RowBatch)}.
+     *
+     * An upstream only pauses in between batches, so a receiver which pauses its upstream
+     * must still be able to handle the remaining rows of the current batch.
+     * Receivers which pass on batches accept them only if their downstream accepts them too.
+     */
+    boolean acceptsBatches();
+
+    /**
+     * Feed the receiver with the selected rows of <code>batch</code>.
+     *
+     * @param batch the next rows - the batch is reused by the upstream after the call,
+     *              the receiver may change its selection.
+     * @return false if the receiver does not need any more rows, true otherwise.
+     */
+    boolean setNextBatch(RowBatch batch);
+}
@@ -21,12 +21,13 @@
 
 package io.crate.operation.projectors;
 
+import com.google.common.base.Predicate;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
 
 import java.util.Collection;
 
-public class RowFilter<TRow> {
+public class RowFilter<TRow> implements Predicate<TRow> {
 
     private final Collection<CollectExpression<TRow, ?>> expressions;
     private final Input<Boolean> condition;
@@ -47,4 +48,9 @@ public class RowFilter<TRow> {
         }
         return !(match == null) && match;
     }
+
+    @Override
+    public boolean apply(TRow input) {
+        return matches(input);
+    }
 }
@@ -24,6 +24,9 @@ package io.crate.operation.projectors;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
+import io.crate.jobs.ResourceUsage;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 
@@ -36,6 +39,51 @@ public class RowReceivers {
         return new SettableFutureRowReceiver(rowReceiver);
     }
 
+    /**
+     * @return true if <code>rowReceiver</code> is a {@link RowBatchReceiver} which accepts batches
+     */
+    public static boolean acceptsBatches(RowReceiver rowReceiver) {
+        return rowReceiver instanceof RowBatchReceiver && ((RowBatchReceiver) rowReceiver).acceptsBatches();
+    }
+
+    /**
+     * count the rows passed to <code>rowReceiver</code> as rows emitted by an operation
+     */
+    public static RowReceiver countEmittedRows(RowReceiver rowReceiver, final ResourceUsage resourceUsage) {
+        return new ForwardingRowReceiver(rowReceiver) {
+            @Override
+            public boolean setNextRow(Row row) {
+                resourceUsage.addRowsEmitted(1L);
+                return super.setNextRow(row);
+            }
+
+            @Override
+            public boolean setNextBatch(RowBatch batch) {
+                resourceUsage.addRowsEmitted(batch.size());
+                return super.setNextBatch(batch);
+            }
+        };
+    }
+
+    /**
+     * count the rows passed to <code>rowReceiver</code> as rows scanned by an operation
+     */
+    public static RowReceiver countScannedRows(RowReceiver rowReceiver, final ResourceUsage resourceUsage) {
+        return new ForwardingRowReceiver(rowReceiver) {
+            @Override
+            public boolean setNextRow(Row row) {
+                resourceUsage.addRowsScanned(1L);
+                return super.setNextRow(row);
+            }
+
+            @Override
+            public boolean setNextBatch(RowBatch batch) {
+                resourceUsage.addRowsScanned(batch.size());
+                return super.setNextBatch(batch);
+            }
+        };
+    }
+
     @ParametersAreNonnullByDefault
     private static class SettableFutureRowReceiver extends ForwardingRowReceiver implements ListenableRowReceiver {
 
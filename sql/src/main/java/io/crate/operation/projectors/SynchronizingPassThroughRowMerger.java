@@ -23,6 +23,7 @@
 package io.crate.operation.projectors;
 
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.jobs.ExecutionState;
 import io.crate.operation.RowDownstream;
 import io.crate.operation.RowUpstream;
@@ -70,7 +71,7 @@ public class SynchronizingPassThroughRowMerger implements RowDownstream, RowUpst
         }
     }
 
-    class MultiUpstreamRowReceiver implements RowReceiver {
+    class MultiUpstreamRowReceiver implements RowBatchReceiver {
 
         final RowReceiver rowReceiver;
         private AtomicBoolean prepared = new AtomicBoolean(false);
@@ -86,6 +87,18 @@ public class SynchronizingPassThroughRowMerger implements RowDownstream, RowUpst
             }
         }
 
+        @Override
+        public boolean acceptsBatches() {
+            return RowReceivers.acceptsBatches(rowReceiver);
+        }
+
+        @Override
+        public boolean setNextBatch(RowBatch batch) {
+            synchronized (rowReceiver) {
+                return ((RowBatchReceiver) rowReceiver).setNextBatch(batch);
+            }
+        }
+
         @Override
         public void finish() {
             countdown();
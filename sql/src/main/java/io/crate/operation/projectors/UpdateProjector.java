@@ -29,6 +29,7 @@ import io.crate.executor.transport.ShardUpsertResponse;
 import io.crate.executor.transport.SymbolBasedShardUpsertRequest;
 import io.crate.executor.transport.TransportActionProvider;
 import io.crate.metadata.settings.CrateSettings;
+import io.crate.operation.RowUpstream;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.planner.symbol.Symbol;
 import org.apache.lucene.util.BytesRef;
@@ -96,6 +97,12 @@ public class UpdateProjector extends AbstractProjector {
         );
     }
 
+    @Override
+    public void setUpstream(RowUpstream upstream) {
+        super.setUpstream(upstream);
+        bulkShardProcessor.upstream(upstream);
+    }
+
     @Override
     public boolean setNextRow(Row row) {
         final Uid uid;
@@ -30,11 +30,15 @@ import io.crate.jobs.ExecutionState;
 import io.crate.metadata.ColumnIdent;
 import io.crate.operation.Input;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.projectors.writer.AsyncOutputStream;
 import io.crate.operation.projectors.writer.Output;
 import io.crate.operation.projectors.writer.OutputFile;
 import io.crate.operation.projectors.writer.OutputS3;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Preconditions;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -45,53 +49,114 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WriterProjector extends AbstractProjector {
 
     private static final byte NEW_LINE = (byte) '\n';
 
+    public static final String MAX_FILE_SIZE = "max_file_size";
+    public static final String MAX_ROWS_PER_FILE = "max_rows_per_file";
+
+    /**
+     * name of the fixed thread pool which compresses and writes the chunks of the output
+     */
+    public static final String THREAD_POOL_NAME = "copy_to";
+    public static final int THREAD_POOL_QUEUE_SIZE = 100;
+
+    /**
+     * number of chunks which may be encoded but not yet written, shared by all parts of a projector
+     */
+    static final int MAX_PENDING_CHUNKS = 4;
+
+    private final ExecutorService executorService;
+    private final Executor writeExecutor;
+    private final Settings settings;
     private final URI uri;
+    private final long maxFileSize;
+    private final long maxRowsPerFile;
+    private final Semaphore pendingChunks = new Semaphore(MAX_PENDING_CHUNKS);
     private final Set<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
     private final Map<String, Object> overwrites;
-    private Output output;
 
     protected final AtomicLong counter = new AtomicLong();
+    private PartsOutputStream outputStream;
     private RowWriter rowWriter;
 
     /**
+     * @param executorService used by outputs which upload in the background, e.g. the S3 output
+     * @param writeExecutor a bounded executor used to compress and write the chunks of the output,
+     *                      usually the {@link #THREAD_POOL_NAME} pool. The parts of a split output are
+     *                      written concurrently, if the executor rejects a chunk it is written on the calling thread
      * @param inputs a list of {@link io.crate.operation.Input}.
      *               If null the row that is received in {@link #setNextRow(Row)}
      *               is expected to contain the raw source in its first column.
      *               That raw source is then written to the output
      *
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param settings the <code>compression</code> of the output and optionally a
+     *                 {@link #MAX_FILE_SIZE} or {@link #MAX_ROWS_PER_FILE} after which a new part file is started.
+     *                 Part files get a <code>.partN</code> suffix in front of the file extension.
      */
     public WriterProjector(ExecutorService executorService,
+                           Executor writeExecutor,
                            String uri,
                            Settings settings,
                            @Nullable List<Input<?>> inputs,
                            Set<CollectExpression<Row, ?>> collectExpressions,
                            Map<ColumnIdent, Object> overwrites) {
+        this.executorService = executorService;
+        this.writeExecutor = writeExecutor;
+        this.settings = settings;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
         this.overwrites = toNestedStringObjectMap(overwrites);
+        ByteSizeValue maxFileSize = settings.getAsBytesSize(MAX_FILE_SIZE, null);
+        this.maxFileSize = maxFileSize == null ? 0L : maxFileSize.bytes();
+        this.maxRowsPerFile = settings.getAsLong(MAX_ROWS_PER_FILE, 0L);
+        Preconditions.checkArgument(this.maxFileSize >= 0, "%s must not be negative", MAX_FILE_SIZE);
+        Preconditions.checkArgument(this.maxRowsPerFile >= 0, "%s must not be negative", MAX_ROWS_PER_FILE);
         try {
             this.uri = new URI(uri);
         } catch (URISyntaxException e) {
             throw new ValidationException(String.format("Invalid uri '%s'", uri), e);
         }
-        if (this.uri.getScheme() == null || this.uri.getScheme().equals("file")) {
-            this.output = new OutputFile(this.uri, settings);
-        } else if (this.uri.getScheme().equalsIgnoreCase("s3")) {
-            this.output = new OutputS3(executorService, this.uri, settings);
+        // validates the scheme and the settings of the output
+        createOutput(this.uri);
+    }
+
+    private Output createOutput(URI uri) {
+        if (uri.getScheme() == null || uri.getScheme().equals("file")) {
+            return new OutputFile(uri, settings);
+        } else if (uri.getScheme().equalsIgnoreCase("s3")) {
+            return new OutputS3(executorService, uri, settings);
         } else {
-            throw new UnsupportedFeatureException(String.format("Unknown scheme '%s'", this.uri.getScheme()));
+            throw new UnsupportedFeatureException(String.format("Unknown scheme '%s'", uri.getScheme()));
         }
     }
 
+    private boolean isSplit() {
+        return maxFileSize > 0 || maxRowsPerFile > 0;
+    }
+
+    /**
+     * inserts <code>.partN</code> in front of the first extension of the file name,
+     * e.g. <code>/tmp/out.json.gz</code> becomes <code>/tmp/out.part0.json.gz</code>
+     */
+    static URI partUri(URI uri, int part) {
+        String str = uri.toString();
+        int nameStart = str.lastIndexOf('/') + 1;
+        int extensionStart = str.indexOf('.', nameStart);
+        if (extensionStart < 0) {
+            extensionStart = str.length();
+        }
+        return URI.create(str.substring(0, extensionStart) + ".part" + part + str.substring(extensionStart));
+    }
+
     protected static Map<String, Object> toNestedStringObjectMap(Map<ColumnIdent, Object> columnIdentObjectMap) {
         Map<String, Object> nestedMap = new HashMap<>();
         Map<String, Object> parent = nestedMap;
@@ -133,13 +198,15 @@ public class WriterProjector extends AbstractProjector {
     public void prepare(ExecutionState executionState) {
         counter.set(0);
         try {
+            outputStream = new PartsOutputStream();
+            // open the first part eagerly, so that an empty result still creates a file
+            outputStream.current();
             if (!overwrites.isEmpty()) {
-                rowWriter = new DocWriter(
-                        output.acquireOutputStream(), collectExpressions, overwrites);
+                rowWriter = new DocWriter(outputStream, collectExpressions, overwrites);
             } else if (inputs != null && !inputs.isEmpty()) {
-                rowWriter = new ColumnRowWriter(output.acquireOutputStream(), collectExpressions, inputs);
+                rowWriter = new ColumnRowWriter(outputStream, collectExpressions, inputs);
             } else {
-                rowWriter = new RawRowWriter(output.acquireOutputStream());
+                rowWriter = new RawRowWriter(outputStream);
             }
         } catch (IOException e) {
             throw new UnhandledServerException(String.format("Failed to open output: '%s'", e.getMessage()), e);
@@ -150,6 +217,11 @@ public class WriterProjector extends AbstractProjector {
     public boolean setNextRow(Row row) {
         rowWriter.write(row);
         counter.incrementAndGet();
+        try {
+            outputStream.rowWritten();
+        } catch (IOException e) {
+            throw new UnhandledServerException("Failed to write row to output", e);
+        }
         return true;
     }
 
@@ -180,12 +252,104 @@ public class WriterProjector extends AbstractProjector {
         downstream.fail(throwable);
     }
 
+    /**
+     * Writes to the current part and starts a new part once the current one has reached
+     * {@link #MAX_FILE_SIZE} (uncompressed) or {@link #MAX_ROWS_PER_FILE}.
+     *
+     * Each part is written by an {@link AsyncOutputStream}, so a finished part is still
+     * compressed and written while the next part is filled.
+     */
+    private class PartsOutputStream extends OutputStream {
+
+        private final List<AsyncOutputStream> closingParts = new ArrayList<>();
+        private AsyncOutputStream current;
+        private int part = 0;
+        private long bytesInPart = 0;
+        private long rowsInPart = 0;
+        private boolean closed = false;
+
+        private OutputStream current() throws IOException {
+            if (current == null) {
+                URI partUri = isSplit() ? partUri(uri, part) : uri;
+                part++;
+                current = new AsyncOutputStream(
+                        createOutput(partUri).acquireOutputStream(),
+                        writeExecutor,
+                        pendingChunks,
+                        AsyncOutputStream.DEFAULT_CHUNK_SIZE);
+                bytesInPart = 0;
+                rowsInPart = 0;
+            }
+            return current;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+            bytesInPart++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+            bytesInPart += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (current != null) {
+                current.flush();
+            }
+        }
+
+        void rowWritten() throws IOException {
+            rowsInPart++;
+            if ((maxFileSize > 0 && bytesInPart >= maxFileSize) || (maxRowsPerFile > 0 && rowsInPart >= maxRowsPerFile)) {
+                // the next part is opened lazily, so there is no empty trailing part
+                closingParts.add(current);
+                current = null;
+                closingParts.get(closingParts.size() - 1).closeAsync();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (current != null) {
+                closingParts.add(current);
+                current = null;
+            }
+            IOException failure = null;
+            for (AsyncOutputStream closingPart : closingParts) {
+                try {
+                    closingPart.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
     interface RowWriter {
 
         void write(Row row);
         void close() throws IOException;
     }
 
+    /**
+     * Writes the source of a row with the overwrites applied.
+     *
+     * If the source is received as raw JSON and none of the overwrites is nested the overwrites
+     * are appended to the raw source, otherwise the source is converted to a map which is then updated.
+     */
     static class DocWriter implements RowWriter {
 
         private final OutputStream outputStream;
@@ -193,6 +357,13 @@ public class WriterProjector extends AbstractProjector {
         private final Map<String, Object> overwrites;
         private final XContentBuilder builder;
 
+        /**
+         * the overwrites encoded as JSON object members including the closing brace of the object
+         * or null if the overwrites contain nested columns
+         */
+        @Nullable
+        private final BytesReference overwritesSuffix;
+
         public DocWriter(OutputStream outputStream,
                          Set<CollectExpression<Row, ?>> collectExpressions,
                          Map<String, Object> overwrites) throws IOException {
@@ -200,6 +371,19 @@ public class WriterProjector extends AbstractProjector {
             this.collectExpressions = collectExpressions;
             this.overwrites = overwrites;
             builder = XContentFactory.jsonBuilder(outputStream);
+            overwritesSuffix = encodeOverwritesSuffix(overwrites);
+        }
+
+        @Nullable
+        private static BytesReference encodeOverwritesSuffix(Map<String, Object> overwrites) throws IOException {
+            for (Object value : overwrites.values()) {
+                if (value instanceof Map) {
+                    return null;
+                }
+            }
+            BytesReference object = XContentFactory.jsonBuilder().map(overwrites).bytes();
+            // strip the opening brace
+            return object.slice(1, object.length() - 1);
         }
 
         @Override
@@ -208,9 +392,20 @@ public class WriterProjector extends AbstractProjector {
             for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
                 collectExpression.setNextRow(row);
             }
-            Map doc = (Map) row.get(0);
-            XContentHelper.update(doc, overwrites, false);
+            Object source = row.get(0);
             try {
+                if (source instanceof BytesRef && overwritesSuffix != null && appendOverwrites((BytesRef) source)) {
+                    outputStream.write(NEW_LINE);
+                    return;
+                }
+                Map doc;
+                if (source instanceof BytesRef) {
+                    BytesRef bytes = (BytesRef) source;
+                    doc = XContentHelper.convertToMap(bytes.bytes, bytes.offset, bytes.length, false).v2();
+                } else {
+                    doc = (Map) source;
+                }
+                XContentHelper.update(doc, overwrites, false);
                 builder.map(doc);
                 builder.flush();
                 outputStream.write(NEW_LINE);
@@ -219,6 +414,35 @@ public class WriterProjector extends AbstractProjector {
             }
         }
 
+        /**
+         * @return false if the source isn't a JSON object and nothing was written
+         */
+        private boolean appendOverwrites(BytesRef source) throws IOException {
+            int start = source.offset;
+            int end = source.offset + source.length - 1;
+            while (start <= end && Character.isWhitespace(source.bytes[start])) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(source.bytes[end])) {
+                end--;
+            }
+            if (start >= end || source.bytes[start] != '{' || source.bytes[end] != '}') {
+                return false;
+            }
+            int firstMember = start + 1;
+            while (firstMember < end && Character.isWhitespace(source.bytes[firstMember])) {
+                firstMember++;
+            }
+            if (firstMember < end) {
+                outputStream.write(source.bytes, start, end - start);
+                outputStream.write(',');
+            } else {
+                outputStream.write('{');
+            }
+            overwritesSuffix.writeTo(outputStream);
+            return true;
+        }
+
         @Override
         public void close() throws IOException {
             outputStream.close();
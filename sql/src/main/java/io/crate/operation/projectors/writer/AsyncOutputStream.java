@@ -0,0 +1,217 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors.writer;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * An OutputStream which buffers the written bytes into chunks and writes the chunks to the
+ * underlying stream using an executor.
+ * So encoding rows on the calling thread and compressing and writing them to the target happen concurrently.
+ *
+ * The number of chunks which are buffered but not yet written is bounded by a {@link Semaphore}
+ * which can be shared between multiple streams. If no permit is available a write blocks until
+ * a chunk has been written.
+ *
+ * Chunks are written in order, {@link #close()} blocks until all chunks are written
+ * and the underlying stream is closed, {@link #closeAsync()} doesn't.
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private static final BytesReference EOF = new BytesArray(new byte[0]);
+
+    private final OutputStream delegate;
+    private final Executor executor;
+    private final Semaphore pendingChunks;
+    private final int chunkSize;
+
+    private final ArrayDeque<BytesReference> queue = new ArrayDeque<>();
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private boolean draining = false;
+    private boolean closeRequested = false;
+    private volatile Throwable failure;
+
+    private byte[] buffer;
+    private int pos = 0;
+
+    public AsyncOutputStream(OutputStream delegate, Executor executor, Semaphore pendingChunks, int chunkSize) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.pendingChunks = pendingChunks;
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (pos == buffer.length) {
+            flushChunk();
+        }
+        buffer[pos++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (pos == buffer.length) {
+                flushChunk();
+            }
+            int n = Math.min(len, buffer.length - pos);
+            System.arraycopy(b, off, buffer, pos, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Doesn't write the current chunk, chunks are only written once they are full or the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkFailure();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeAsync();
+        awaitClosed();
+    }
+
+    /**
+     * Writes the remaining bytes and closes the underlying stream without waiting for it,
+     * use {@link #awaitClosed()} to wait until everything is written.
+     */
+    public void closeAsync() throws IOException {
+        if (closeRequested) {
+            return;
+        }
+        closeRequested = true;
+        try {
+            if (pos > 0) {
+                flushChunk();
+            }
+        } finally {
+            buffer = null;
+            enqueue(EOF);
+        }
+    }
+
+    public void awaitClosed() throws IOException {
+        try {
+            closed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the output to be written");
+        }
+        checkFailure();
+    }
+
+    private void flushChunk() throws IOException {
+        checkFailure();
+        try {
+            pendingChunks.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the output to be written");
+        }
+        enqueue(new BytesArray(buffer, 0, pos));
+        buffer = new byte[chunkSize];
+        pos = 0;
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable t = failure;
+        if (t != null) {
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            throw new IOException(t);
+        }
+    }
+
+    private void enqueue(BytesReference chunk) {
+        synchronized (queue) {
+            queue.add(chunk);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            BytesReference chunk;
+            synchronized (queue) {
+                chunk = queue.poll();
+                if (chunk == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            if (chunk == EOF) {
+                try {
+                    delegate.close();
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                } finally {
+                    closed.countDown();
+                }
+                continue;
+            }
+            try {
+                if (failure == null) {
+                    chunk.writeTo(delegate);
+                }
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                pendingChunks.release();
+            }
+        }
+    }
+}
@@ -21,28 +21,72 @@
 
 package io.crate.operation.projectors.writer;
 
-import com.google.common.base.Preconditions;
+import com.ning.compress.lzf.LZFOutputStream;
 import org.elasticsearch.common.settings.Settings;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class Output {
 
+    public static final String COMPRESSION_SETTING = "compression";
+
+    public enum Compression {
+        GZIP(".gz"),
+        LZF(".lzf");
+
+        private final String fileExtension;
+
+        Compression(String fileExtension) {
+            this.fileExtension = fileExtension;
+        }
+
+        public String fileExtension() {
+            return fileExtension;
+        }
+
+        OutputStream wrap(OutputStream outputStream) throws IOException {
+            switch (this) {
+                case GZIP:
+                    return new GZIPOutputStream(outputStream);
+                case LZF:
+                    return new LZFOutputStream(outputStream);
+                default:
+                    throw new AssertionError("unknown compression: " + this);
+            }
+        }
+    }
+
     /**
      * calling this method creates & acquires an OutputStream which must be closed by the caller if it is no longer needed
      * @throws IOException in case the Output can't be created (e.g. due to file permission errors or something like that)
      */
     public abstract OutputStream acquireOutputStream() throws IOException;
 
-    protected boolean parseCompression(Settings settings) {
-        String compressionType = settings.get("compression");
-        if (compressionType != null) {
-            Preconditions.checkArgument(compressionType.equals("gzip"),
-                    String.format("Unsupported compression type: '%s'", compressionType));
-            return true;
+    /**
+     * @return the compression defined by the <code>compression</code> setting or null if the output isn't compressed
+     */
+    @Nullable
+    public static Compression parseCompression(Settings settings) {
+        String compressionType = settings.get(COMPRESSION_SETTING);
+        if (compressionType == null) {
+            return null;
         }
+        try {
+            return Compression.valueOf(compressionType.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    String.format(Locale.ENGLISH, "Unsupported compression type: '%s'", compressionType));
+        }
+    }
 
-        return false;
+    protected static OutputStream compress(OutputStream outputStream, @Nullable Compression compression) throws IOException {
+        if (compression == null) {
+            return outputStream;
+        }
+        return compression.wrap(outputStream);
     }
 }
@@ -29,13 +29,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
-import java.util.zip.GZIPOutputStream;
 
 public class OutputFile extends Output {
 
     private final String path;
     private final boolean overwrite;
-    private final boolean compression;
+    private final Compression compression;
 
     public OutputFile(URI uri, Settings settings) {
         Preconditions.checkArgument(uri.getHost() == null);
@@ -56,9 +55,6 @@ public class OutputFile extends Output {
             }
         }
         OutputStream os = new FileOutputStream(outFile);
-        if (compression) {
-            os = new GZIPOutputStream(os);
-        }
-        return os;
+        return compress(os, compression);
     }
 }
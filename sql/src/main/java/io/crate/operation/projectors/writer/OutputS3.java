@@ -41,14 +41,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.zip.GZIPOutputStream;
 
 @NotThreadSafe
 public class OutputS3 extends Output {
 
     private final ExecutorService executorService;
     private final URI uri;
-    private final boolean compression;
+    private final Compression compression;
 
     public OutputS3(ExecutorService executorService, URI uri, Settings settings) {
         this.executorService = executorService;
@@ -59,10 +58,7 @@ public class OutputS3 extends Output {
     @Override
     public OutputStream acquireOutputStream() throws IOException {
         OutputStream outputStream = new S3OutputStream(executorService, uri, new S3ClientHelper());
-        if (compression) {
-            outputStream = new GZIPOutputStream(outputStream);
-        }
-        return outputStream;
+        return compress(outputStream, compression);
     }
 
 
@@ -24,7 +24,6 @@ package io.crate.operation.reference.doc.lucene;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.MapperService;
-import org.elasticsearch.search.lookup.SourceLookup;
 
 public class CollectorContext {
 
@@ -33,7 +32,7 @@ public class CollectorContext {
     private final CollectorFieldsVisitor fieldsVisitor;
     private final int jobSearchContextId;
 
-    private SourceLookup sourceLookup;
+    private ColumnSourceLookup sourceLookup;
 
     public CollectorContext(MapperService mapperService,
                         IndexFieldDataService fieldData,
@@ -67,9 +66,12 @@ public class CollectorContext {
         return fieldData;
     }
 
-    public SourceLookup sourceLookup() {
+    /**
+     * @return the source lookup shared by all expressions of a collector
+     */
+    public ColumnSourceLookup sourceLookup() {
         if (sourceLookup == null) {
-            sourceLookup = new SourceLookup();
+            sourceLookup = new ColumnSourceLookup();
         }
         return sourceLookup;
     }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import com.google.common.base.Throwables;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.fieldvisitor.JustSourceFieldsVisitor;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks up values of the source of a document, like {@link org.elasticsearch.search.lookup.SourceLookup}.
+ *
+ * Only the top level columns which were registered using {@link #addColumn(String)} are decoded,
+ * all other columns are skipped while parsing and parsing stops once all registered columns were read.
+ * The source is only read and parsed if a value of the current document is requested.
+ *
+ * If no column is registered the whole source is decoded.
+ */
+public class ColumnSourceLookup {
+
+    private final Set<String> columns = new HashSet<>();
+
+    private AtomicReader reader;
+    private int docId = -1;
+    private Map<String, Object> source;
+
+    /**
+     * register a column whose values are extracted, must be called before the first document is read
+     *
+     * @param column the fqn of the column, for nested columns only the top level column is decoded
+     */
+    public void addColumn(String column) {
+        int idx = column.indexOf('.');
+        columns.add(idx < 0 ? column : column.substring(0, idx));
+    }
+
+    public void setNextReader(AtomicReaderContext context) {
+        if (reader == context.reader()) {
+            return;
+        }
+        reader = context.reader();
+        docId = -1;
+        source = null;
+    }
+
+    public void setNextDocId(int docId) {
+        if (this.docId == docId) {
+            return;
+        }
+        this.docId = docId;
+        source = null;
+    }
+
+    @Nullable
+    public Object extractValue(String path) {
+        return XContentMapValues.extractValue(path, source());
+    }
+
+    private Map<String, Object> source() {
+        if (source == null) {
+            JustSourceFieldsVisitor visitor = new JustSourceFieldsVisitor();
+            try {
+                reader.document(docId, visitor);
+                source = parse(visitor.source(), columns);
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+        return source;
+    }
+
+    /**
+     * parse the given columns of a source, all columns are parsed if the given set is empty
+     */
+    static Map<String, Object> parse(@Nullable BytesReference bytes, Set<String> columns) throws IOException {
+        Map<String, Object> values = new HashMap<>(columns.isEmpty() ? 16 : columns.size());
+        if (bytes == null) {
+            return values;
+        }
+        try (XContentParser parser = XContentHelper.createParser(bytes)) {
+            XContentParser.Token token = parser.nextToken();
+            assert token == XContentParser.Token.START_OBJECT : "source must be an object";
+            while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                String name = parser.currentName();
+                token = parser.nextToken();
+                if (columns.isEmpty() || columns.contains(name)) {
+                    values.put(name, readValue(parser, token));
+                    if (values.size() == columns.size()) {
+                        break;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return parser.map();
+            case START_ARRAY:
+                List<Object> values = new ArrayList<>();
+                while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                    values.add(readValue(parser, token));
+                }
+                return values;
+            case VALUE_STRING:
+                return parser.text();
+            case VALUE_NUMBER:
+                return parser.numberValue();
+            case VALUE_BOOLEAN:
+                return parser.booleanValue();
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.binaryValue();
+            default:
+                return null;
+        }
+    }
+}
@@ -28,7 +28,6 @@ import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.reference.doc.ColumnReferenceExpression;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.elasticsearch.common.xcontent.XContentHelper;
-import org.elasticsearch.search.lookup.SourceLookup;
 
 import java.util.Map;
 
@@ -63,6 +62,7 @@ public class DocCollectorExpression extends
             @Override
             public void startCollect(CollectorContext context) {
                 super.startCollect(context);
+                sourceLookup.addColumn(fqn);
             }
 
             @Override
@@ -79,7 +79,7 @@ public class DocCollectorExpression extends
     public abstract static class ChildDocCollectorExpression<ReturnType> extends
             LuceneCollectorExpression<ReturnType> implements ColumnReferenceExpression {
 
-        protected SourceLookup sourceLookup;
+        protected ColumnSourceLookup sourceLookup;
 
         @Override
         public void setNextDocId(int doc) {
@@ -23,13 +23,12 @@ package io.crate.operation.reference.doc.lucene;
 
 
 import org.apache.lucene.index.AtomicReaderContext;
-import org.elasticsearch.search.lookup.SourceLookup;
 
 import java.util.Map;
 
 public class ObjectColumnReference extends ColumnReferenceCollectorExpression<Map<String, Object>> {
 
-    protected SourceLookup sourceLookup;
+    protected ColumnSourceLookup sourceLookup;
 
     public ObjectColumnReference(String columnName) {
         super(columnName);
@@ -48,6 +47,7 @@ public class ObjectColumnReference extends ColumnReferenceCollectorExpression<Ma
     @Override
     public void startCollect(CollectorContext context) {
         sourceLookup = context.sourceLookup();
+        sourceLookup.addColumn(columnName);
     }
 
 
@@ -21,6 +21,8 @@
 
 package io.crate.operation.reference.sys.job;
 
+import io.crate.jobs.ResourceUsage;
+
 import java.util.UUID;
 
 public class JobContext {
@@ -29,9 +31,30 @@ public class JobContext {
     public final String stmt;
     public final long started;
 
+    private final ResourceUsage resourceUsage = new ResourceUsage();
+
     public JobContext(UUID id, String stmt, long started) {
         this.id = id;
         this.stmt = stmt;
         this.started = started;
     }
+
+    /**
+     * account the bytes used by an operation of this job which was executed on this node
+     */
+    public void addUsedBytes(long bytes) {
+        resourceUsage.addUsedBytes(bytes);
+    }
+
+    public long usedBytes() {
+        return resourceUsage.usedBytes();
+    }
+
+    /**
+     * the resources consumed by the operations of this job on all nodes,
+     * other nodes report their share once the operations there have finished
+     */
+    public ResourceUsage resourceUsage() {
+        return resourceUsage;
+    }
 }
@@ -21,6 +21,8 @@
 
 package io.crate.operation.reference.sys.job;
 
+import io.crate.jobs.ResourceUsage;
+
 import javax.annotation.Nullable;
 import java.util.UUID;
 
@@ -55,6 +57,10 @@ public class JobContextLog {
         return ended;
     }
 
+    public ResourceUsage resourceUsage() {
+        return jobContext.resourceUsage();
+    }
+
     @Nullable
     public String errorMessage() {
         return errorMessage;
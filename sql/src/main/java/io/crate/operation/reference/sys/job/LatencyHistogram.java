@@ -0,0 +1,93 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.job;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of durations in milliseconds with a fixed number of buckets.
+ *
+ * Values below {@link #SUB_BUCKETS} are recorded exactly, bigger values are recorded into one of
+ * {@link #SUB_BUCKETS} linear sub buckets of their power of two, so the relative error
+ * of a percentile is at most 1/{@link #SUB_BUCKETS}.
+ *
+ * Recording is a single atomic increment, reading percentiles while values are recorded
+ * concurrently might not reflect the latest recordings.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * values above 2^MAX_EXPONENT ms (~50 days) are recorded as the maximum value
+     */
+    private static final int MAX_EXPONENT = 32;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+
+    public void record(long value) {
+        counts.incrementAndGet(index(Math.min(Math.max(value, 0L), MAX_VALUE)));
+    }
+
+    /**
+     * @param fraction the percentile as a fraction between 0 and 1
+     * @return the highest value that is equivalent to the percentile or -1 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return -1L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        // values were recorded after the total was computed
+        return highestEquivalentValue(counts.length() - 1);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = ((long) (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
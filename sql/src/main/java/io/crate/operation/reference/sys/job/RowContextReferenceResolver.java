@@ -22,6 +22,7 @@
 package io.crate.operation.reference.sys.job;
 
 import com.google.common.collect.ImmutableMap;
+import io.crate.jobs.ResourceUsage;
 import io.crate.metadata.*;
 import io.crate.metadata.expressions.RowCollectExpressionFactory;
 import io.crate.metadata.sys.*;
@@ -35,6 +36,7 @@ import org.elasticsearch.common.lucene.BytesRefs;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class RowContextReferenceResolver implements ReferenceResolver<RowCollectExpression<?, ?>> {
@@ -52,6 +54,7 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
         tableFactories.put(SysOperationsTableInfo.IDENT, getSysOperationExpressions());
         tableFactories.put(SysOperationsLogTableInfo.IDENT, getSysOperationLogExpressions());
         tableFactories.put(SysChecksTableInfo.IDENT, getSysChecksExpressions());
+        tableFactories.put(SysStatementStatsTableInfo.IDENT, getSysStatementStatsExpressions());
     }
 
     private Map<ColumnIdent, RowCollectExpressionFactory> getSysOperationLogExpressions() {
@@ -137,6 +140,66 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysOperationsLogTableInfo.Columns.ROWS_SCANNED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                ResourceUsage resourceUsage = row.resourceUsage();
+                                if (resourceUsage == null) {
+                                    return null;
+                                }
+                                return resourceUsage.rowsScanned();
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.ROWS_EMITTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                ResourceUsage resourceUsage = row.resourceUsage();
+                                if (resourceUsage == null) {
+                                    return null;
+                                }
+                                return resourceUsage.rowsEmitted();
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.CPU_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                ResourceUsage resourceUsage = row.resourceUsage();
+                                if (resourceUsage == null) {
+                                    return null;
+                                }
+                                return TimeUnit.NANOSECONDS.toMillis(resourceUsage.cpuTime());
+                            }
+                        };
+                    }
+                })
+                .put(SysOperationsLogTableInfo.Columns.BYTES_SENT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<OperationContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                ResourceUsage resourceUsage = row.resourceUsage();
+                                if (resourceUsage == null) {
+                                    return null;
+                                }
+                                return resourceUsage.bytesSent();
+                            }
+                        };
+                    }
+                })
                 .build();
     }
 
@@ -264,6 +327,187 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysJobsLogTableInfo.Columns.ROWS_SCANNED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().rowsScanned();
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsLogTableInfo.Columns.ROWS_EMITTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().rowsEmitted();
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsLogTableInfo.Columns.CPU_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return TimeUnit.NANOSECONDS.toMillis(row.resourceUsage().cpuTime());
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsLogTableInfo.Columns.BYTES_SENT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().bytesSent();
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsLogTableInfo.Columns.USED_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContextLog, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().usedBytes();
+                            }
+                        };
+                    }
+                })
+                .build();
+    }
+
+    private ImmutableMap<ColumnIdent, RowCollectExpressionFactory> getSysStatementStatsExpressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory>builder()
+                .put(SysStatementStatsTableInfo.Columns.STMT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, BytesRef>() {
+                            @Override
+                            public BytesRef value() {
+                                return new BytesRef(row.statement());
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.COUNT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.count();
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.FAILED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.failed();
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.TOTAL_DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.totalDuration();
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.MIN_DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.minDuration();
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.MAX_DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.maxDuration();
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.P50_DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.percentile(0.5);
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.P90_DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.percentile(0.9);
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.P99_DURATION, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.percentile(0.99);
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.RETURNED_ROWS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.returnedRows();
+                            }
+                        };
+                    }
+                })
+                .put(SysStatementStatsTableInfo.Columns.USED_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<StatementStats, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.usedBytes();
+                            }
+                        };
+                    }
+                })
                 .build();
     }
 
@@ -302,6 +546,61 @@ public class RowContextReferenceResolver implements ReferenceResolver<RowCollect
                         };
                     }
                 })
+                .put(SysJobsTableInfo.Columns.ROWS_SCANNED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().rowsScanned();
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsTableInfo.Columns.ROWS_EMITTED, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().rowsEmitted();
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsTableInfo.Columns.CPU_TIME, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return TimeUnit.NANOSECONDS.toMillis(row.resourceUsage().cpuTime());
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsTableInfo.Columns.BYTES_SENT, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().bytesSent();
+                            }
+                        };
+                    }
+                })
+                .put(SysJobsTableInfo.Columns.USED_BYTES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowCollectExpression create() {
+                        return new RowContextCollectorExpression<JobContext, Long>() {
+                            @Override
+                            public Long value() {
+                                return row.resourceUsage().usedBytes();
+                            }
+                        };
+                    }
+                })
                 .build();
     }
 
@@ -0,0 +1,110 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.job;
+
+import jsr166e.LongAdder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of all jobs with the same statement fingerprint,
+ * see {@link io.crate.sql.parser.StatementFingerprint}
+ *
+ * Updated incrementally once a job has finished.
+ */
+public class StatementStats {
+
+    private final String statement;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalDuration = new LongAdder();
+    private final AtomicLong minDuration = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxDuration = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder returnedRows = new LongAdder();
+    private final LongAdder usedBytes = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public StatementStats(String statement) {
+        this.statement = statement;
+    }
+
+    public void record(long duration, long rows, long bytes, boolean success) {
+        count.increment();
+        if (!success) {
+            failed.increment();
+        }
+        totalDuration.add(duration);
+        histogram.record(duration);
+        returnedRows.add(rows);
+        usedBytes.add(bytes);
+
+        long min;
+        while (duration < (min = minDuration.get())) {
+            if (minDuration.compareAndSet(min, duration)) {
+                break;
+            }
+        }
+        long max;
+        while (duration > (max = maxDuration.get())) {
+            if (maxDuration.compareAndSet(max, duration)) {
+                break;
+            }
+        }
+    }
+
+    public String statement() {
+        return statement;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public long totalDuration() {
+        return totalDuration.sum();
+    }
+
+    public long minDuration() {
+        return minDuration.get();
+    }
+
+    public long maxDuration() {
+        return maxDuration.get();
+    }
+
+    public long percentile(double fraction) {
+        return histogram.percentile(fraction);
+    }
+
+    public long returnedRows() {
+        return returnedRows.sum();
+    }
+
+    public long usedBytes() {
+        return usedBytes.sum();
+    }
+}
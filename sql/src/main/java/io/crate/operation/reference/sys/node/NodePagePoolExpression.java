@@ -0,0 +1,76 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.node;
+
+import io.crate.executor.transport.distributed.ResultPagePool;
+import io.crate.operation.reference.sys.SysNodeObjectReference;
+
+public class NodePagePoolExpression extends SysNodeObjectReference {
+
+    abstract class PagePoolExpression extends SysNodeExpression<Object> {
+    }
+
+    public static final String NAME = "page_pool";
+
+    public static final String MAX = "max";
+    public static final String USED = "used";
+    public static final String HITS = "hits";
+    public static final String MISSES = "misses";
+    public static final String HIT_RATE = "hit_rate";
+
+    public NodePagePoolExpression(ResultPagePool pagePool) {
+        addChildImplementations(pagePool);
+    }
+
+    private void addChildImplementations(final ResultPagePool pagePool) {
+        childImplementations.put(MAX, new PagePoolExpression() {
+            @Override
+            public Long value() {
+                return pagePool.maxBytes();
+            }
+        });
+        childImplementations.put(USED, new PagePoolExpression() {
+            @Override
+            public Long value() {
+                return pagePool.usedBytes();
+            }
+        });
+        childImplementations.put(HITS, new PagePoolExpression() {
+            @Override
+            public Long value() {
+                return pagePool.hits();
+            }
+        });
+        childImplementations.put(MISSES, new PagePoolExpression() {
+            @Override
+            public Long value() {
+                return pagePool.misses();
+            }
+        });
+        childImplementations.put(HIT_RATE, new PagePoolExpression() {
+            @Override
+            public Double value() {
+                return pagePool.hitRate();
+            }
+        });
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.node;
+
+import io.crate.executor.transport.NodeResponseStats;
+import io.crate.metadata.ColumnIdent;
+import io.crate.operation.reference.NestedObjectExpression;
+import io.crate.operation.reference.sys.SysNodeObjectArrayReference;
+import io.crate.operation.reference.sys.SysNodeObjectReference;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class NodeResponseStatsExpression extends SysNodeObjectArrayReference {
+
+    public static final String NAME = "response_stats";
+
+    private final NodeResponseStats nodeResponseStats;
+
+    public NodeResponseStatsExpression(NodeResponseStats nodeResponseStats) {
+        super(new ColumnIdent(NAME));
+        this.nodeResponseStats = nodeResponseStats;
+    }
+
+    @Override
+    protected List<NestedObjectExpression> getChildImplementations() {
+        Map<String, NodeResponseStats.Stats> statsByNode = nodeResponseStats.stats();
+        List<NestedObjectExpression> childImplementations = new ArrayList<>(statsByNode.size());
+        for (Map.Entry<String, NodeResponseStats.Stats> entry : statsByNode.entrySet()) {
+            childImplementations.add(new NodeResponseStatsChildExpression(entry.getKey(), entry.getValue()));
+        }
+        return childImplementations;
+    }
+
+    private static class NodeResponseStatsChildExpression extends SysNodeObjectReference {
+
+        public static final String NODE_ID = "node_id";
+        public static final String AVG_RESPONSE_TIME = "avg_response_time";
+        public static final String OUTSTANDING_REQUESTS = "outstanding_requests";
+        public static final String RESPONSES = "responses";
+
+        private final BytesRef nodeId;
+        private final NodeResponseStats.Stats stats;
+
+        protected NodeResponseStatsChildExpression(String nodeId, NodeResponseStats.Stats stats) {
+            this.nodeId = new BytesRef(nodeId);
+            this.stats = stats;
+            addChildImplementations();
+        }
+
+        private void addChildImplementations() {
+            childImplementations.put(NODE_ID, new ChildExpression<BytesRef>() {
+                @Override
+                public BytesRef value() {
+                    return nodeId;
+                }
+            });
+            childImplementations.put(AVG_RESPONSE_TIME, new ChildExpression<Double>() {
+                @Override
+                public Double value() {
+                    return stats.avgResponseTime();
+                }
+            });
+            childImplementations.put(OUTSTANDING_REQUESTS, new ChildExpression<Integer>() {
+                @Override
+                public Integer value() {
+                    return stats.outstandingRequests();
+                }
+            });
+            childImplementations.put(RESPONSES, new ChildExpression<Long>() {
+                @Override
+                public Long value() {
+                    return stats.responses();
+                }
+            });
+        }
+    }
+}
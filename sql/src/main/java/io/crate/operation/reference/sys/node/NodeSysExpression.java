@@ -21,6 +21,8 @@
 
 package io.crate.operation.reference.sys.node;
 
+import io.crate.executor.transport.NodeResponseStats;
+import io.crate.executor.transport.distributed.ResultPagePool;
 import io.crate.metadata.*;
 import io.crate.operation.reference.NestedObjectExpression;
 import io.crate.operation.reference.sys.node.fs.NodeFsExpression;
@@ -62,7 +64,9 @@ public class NodeSysExpression extends NestedObjectExpression {
                              NetworkService networkService,
                              NodeEnvironment nodeEnvironment,
                              Discovery discovery,
-                             ThreadPool threadPool) {
+                             ThreadPool threadPool,
+                             NodeResponseStats nodeResponseStats,
+                             ResultPagePool resultPagePool) {
         this.nodeService = nodeService;
         this.osService = osService;
         this.jvmService = jvmService;
@@ -85,6 +89,10 @@ public class NodeSysExpression extends NestedObjectExpression {
                 new NodeThreadPoolsExpression(threadPool));
         childImplementations.put(NodeOsInfoExpression.NAME,
                 new NodeOsInfoExpression(osService.info()));
+        childImplementations.put(NodeResponseStatsExpression.NAME,
+                new NodeResponseStatsExpression(nodeResponseStats));
+        childImplementations.put(NodePagePoolExpression.NAME,
+                new NodePagePoolExpression(resultPagePool));
     }
 
     @Override
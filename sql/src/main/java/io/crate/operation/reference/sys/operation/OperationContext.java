@@ -21,6 +21,9 @@
 
 package io.crate.operation.reference.sys.operation;
 
+import io.crate.jobs.ResourceUsage;
+
+import javax.annotation.Nullable;
 import java.util.UUID;
 
 public class OperationContext {
@@ -30,6 +33,8 @@ public class OperationContext {
     public final String name;
     public final long started;
     public long usedBytes;
+    @Nullable
+    public ResourceUsage resourceUsage;
 
     public OperationContext(int id, UUID jobId, String name, long started) {
         this.id = id;
@@ -21,6 +21,8 @@
 
 package io.crate.operation.reference.sys.operation;
 
+import io.crate.jobs.ResourceUsage;
+
 import javax.annotation.Nullable;
 import java.util.UUID;
 
@@ -61,6 +63,14 @@ public class OperationContextLog {
         return  operationContext.usedBytes;
     }
 
+    /**
+     * @return the resources consumed by the operation or null if they weren't accounted
+     */
+    @Nullable
+    public ResourceUsage resourceUsage() {
+        return operationContext.resourceUsage;
+    }
+
     @Nullable
     public String errorMessage() {
         return errorMessage;
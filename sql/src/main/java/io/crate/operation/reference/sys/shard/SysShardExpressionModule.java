@@ -48,5 +48,7 @@ public class SysShardExpressionModule extends AbstractModule {
         b.addBinding(SysShardsTableInfo.ReferenceIdents.SCHEMA_NAME).to(ShardSchemaNameExpression.class).asEagerSingleton();
         b.addBinding(SysShardsTableInfo.ReferenceIdents.PARTITION_IDENT).to(ShardPartitionIdentExpression.class).asEagerSingleton();
         b.addBinding(SysShardsTableInfo.ReferenceIdents.ORPHAN_PARTITION).to(ShardPartitionOrphanedExpression.class).asEagerSingleton();
+        b.addBinding(SysShardsTableInfo.ReferenceIdents.RESULT_CACHE_HITS).to(ShardResultCacheHitsExpression.class).asEagerSingleton();
+        b.addBinding(SysShardsTableInfo.ReferenceIdents.RESULT_CACHE_MISSES).to(ShardResultCacheMissesExpression.class).asEagerSingleton();
     }
 }
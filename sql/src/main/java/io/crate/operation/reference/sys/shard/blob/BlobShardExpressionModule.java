@@ -56,6 +56,8 @@ public class BlobShardExpressionModule extends AbstractModule {
             binder.addBinding(SysShardsTableInfo.ReferenceIdents.TABLE_NAME).to(BlobShardTableNameExpression.class).asEagerSingleton();
             binder.addBinding(SysShardsTableInfo.ReferenceIdents.PARTITION_IDENT).to(BlobShardPartitionIdentExpression.class).asEagerSingleton();
             binder.addBinding(SysShardsTableInfo.ReferenceIdents.ORPHAN_PARTITION).to(BlobShardPartitionOrphanedExpression.class).asEagerSingleton();
+            binder.addBinding(SysShardsTableInfo.ReferenceIdents.RESULT_CACHE_HITS).to(BlobShardResultCacheExpression.class);
+            binder.addBinding(SysShardsTableInfo.ReferenceIdents.RESULT_CACHE_MISSES).to(BlobShardResultCacheExpression.class);
         }
     }
 }
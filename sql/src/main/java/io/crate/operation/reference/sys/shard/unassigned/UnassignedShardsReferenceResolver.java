@@ -138,6 +138,28 @@ public class UnassignedShardsReferenceResolver implements ReferenceResolver<RowC
                         };
                     }
                 })
+                .put(SysShardsTableInfo.Columns.RESULT_CACHE_HITS, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowContextCollectorExpression create() {
+                        return new RowContextCollectorExpression<UnassignedShard, Long>() {
+                            @Override
+                            public Long value() {
+                                return 0L;
+                            }
+                        };
+                    }
+                })
+                .put(SysShardsTableInfo.Columns.RESULT_CACHE_MISSES, new RowCollectExpressionFactory() {
+                    @Override
+                    public RowContextCollectorExpression create() {
+                        return new RowContextCollectorExpression<UnassignedShard, Long>() {
+                            @Override
+                            public Long value() {
+                                return 0L;
+                            }
+                        };
+                    }
+                })
                 .put(SysNodesTableInfo.SYS_COL_IDENT, new RowCollectExpressionFactory() {
                     @Override
                     public RowContextCollectorExpression create() {
@@ -174,6 +174,19 @@ public class PlanPrinter extends PlanVisitor<PlanPrinter.PrintContext, Void> {
             return null;
         }
 
+        @Override
+        public Void visitHashJoinPhase(HashJoinPhase node, PrintContext context) {
+            context.print("HashJoin");
+            context.indent();
+            context.print("strategy: %s", node.strategy());
+            context.print("build side: %s", node.buildInputId() == 0 ? "left" : "right");
+            context.print("join keys: %s", node.numKeys());
+            context.print("executionNodes: %s", node.executionNodes());
+            processProjections(node, context);
+            context.dedent();
+            return null;
+        }
+
         @Override
         public Void visitESGetNode(ESGetNode node, PrintContext context) {
             context.print(node.toString());
@@ -196,6 +209,9 @@ public class PlanPrinter extends PlanVisitor<PlanPrinter.PrintContext, Void> {
                 symbolPrinter.process(symbol, context);
             }
             context.print("where %s", node.whereClause().toString());
+            if (node.tableSample() != null) {
+                context.print("sample: %s %s%%", node.tableSample().method(), node.tableSample().percentage());
+            }
 
             processProjections(node, context);
             context.dedent();
@@ -309,6 +325,36 @@ public class PlanPrinter extends PlanVisitor<PlanPrinter.PrintContext, Void> {
         return null;
     }
 
+    @Override
+    public Void visitHashJoin(HashJoin plan, PrintContext context) {
+        context.print(plan.getClass().getSimpleName() + ": ");
+        context.indent();
+        context.print("left:");
+        context.indent();
+        planNodePrinter.process(plan.leftCollectPhase(), context);
+        context.dedent();
+        context.print("right:");
+        context.indent();
+        planNodePrinter.process(plan.rightCollectPhase(), context);
+        context.dedent();
+        planNodePrinter.process(plan.joinPhase(), context);
+        planNodePrinter.process(plan.localMergePhase(), context);
+        context.dedent();
+        return null;
+    }
+
+    @Override
+    public Void visitUnion(Union plan, PrintContext context) {
+        context.print(plan.getClass().getSimpleName() + ": ");
+        context.indent();
+        for (CollectPhase collectPhase : plan.collectPhases()) {
+            planNodePrinter.process(collectPhase, context);
+        }
+        planNodePrinter.process(plan.localMergePhase(), context);
+        context.dedent();
+        return null;
+    }
+
     @Override
     public Void visitIterablePlan(IterablePlan plan, PrintContext context) {
         visitPlan(plan, context);
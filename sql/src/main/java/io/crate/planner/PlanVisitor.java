@@ -24,6 +24,7 @@ package io.crate.planner;
 import io.crate.planner.node.dml.InsertFromSubQuery;
 import io.crate.planner.node.dml.Upsert;
 import io.crate.planner.node.dql.*;
+import io.crate.planner.node.management.ExplainAnalyzePlan;
 import io.crate.planner.node.management.GenericShowPlan;
 import io.crate.planner.node.management.KillPlan;
 import org.elasticsearch.common.Nullable;
@@ -62,6 +63,14 @@ public class PlanVisitor<C, R> {
         return visitPlan(node, context);
     }
 
+    public R visitHashJoin(HashJoin plan, C context) {
+        return visitPlan(plan, context);
+    }
+
+    public R visitUnion(Union plan, C context) {
+        return visitPlan(plan, context);
+    }
+
     public R visitInsertByQuery(InsertFromSubQuery node, C context) {
         return visitPlan(node, context);
     }
@@ -86,4 +95,8 @@ public class PlanVisitor<C, R> {
         return visitPlan(genericShowPlan, context);
     }
 
+    public R visitExplainAnalyzePlan(ExplainAnalyzePlan explainAnalyzePlan, C context) {
+        return visitPlan(explainAnalyzePlan, context);
+    }
+
 }
@@ -54,6 +54,7 @@ import io.crate.planner.node.dql.CollectAndMerge;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
 import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.management.ExplainAnalyzePlan;
 import io.crate.planner.node.management.GenericShowPlan;
 import io.crate.planner.node.management.KillPlan;
 import io.crate.planner.projection.Projection;
@@ -274,6 +275,11 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
         return consumingPlanner.plan(statement.relation(), context);
     }
 
+    @Override
+    public Plan visitExplainAnalyzeStatement(ExplainAnalyzeAnalyzedStatement statement, Context context) {
+        return new ExplainAnalyzePlan(process(statement.statement(), context));
+    }
+
     @Override
     protected Plan visitInsertFromValuesStatement(InsertFromValuesAnalyzedStatement statement, Context context) {
         Preconditions.checkState(!statement.sourceMaps().isEmpty(), "no values given");
@@ -357,12 +363,17 @@ public class Planner extends AnalyzedStatementVisitor<Planner.Context, Plan> {
             Reference sourceRef;
             if (analysis.table().isPartitioned() && partitionIdent == null) {
                 // table is partitioned, insert partitioned columns into the output
-                sourceRef = new Reference(analysis.table().getReferenceInfo(DocSysColumns.DOC));
                 Map<ColumnIdent, Symbol> overwrites = new HashMap<>();
+                boolean nestedPartitionColumns = false;
                 for (ReferenceInfo referenceInfo : analysis.table().partitionedByColumns()) {
-                    overwrites.put(referenceInfo.ident().columnIdent(), new Reference(referenceInfo));
+                    ColumnIdent columnIdent = referenceInfo.ident().columnIdent();
+                    nestedPartitionColumns |= !columnIdent.isColumn();
+                    overwrites.put(columnIdent, new Reference(referenceInfo));
                 }
                 projection.overwrites(overwrites);
+                // top level partition columns can be appended to the raw source without parsing it
+                sourceRef = new Reference(analysis.table().getReferenceInfo(
+                        nestedPartitionColumns ? DocSysColumns.DOC : DocSysColumns.RAW));
             } else {
                 sourceRef = new Reference(analysis.table().getReferenceInfo(DocSysColumns.RAW));
             }
@@ -43,6 +43,7 @@ public class ConsumingPlanner {
                             ReduceOnCollectorGroupByConsumer reduceOnCollectorGroupByConsumer,
                             DistributedGroupByConsumer distributedGroupByConsumer,
                             GlobalAggregateConsumer globalAggregateConsumer,
+                            HashJoinConsumer hashJoinConsumer,
                             QueryThenFetchConsumer queryThenFetchConsumer,
                             QueryAndFetchConsumer queryAndFetchConsumer) {
         consumers.add(nonDistributedGroupByConsumer);
@@ -54,6 +55,8 @@ public class ConsumingPlanner {
         consumers.add(queryThenFetchConsumer);
         consumers.add(new InsertFromSubQueryConsumer());
         consumers.add(queryAndFetchConsumer);
+        consumers.add(hashJoinConsumer);
+        consumers.add(new UnionConsumer());
     }
 
     @Nullable
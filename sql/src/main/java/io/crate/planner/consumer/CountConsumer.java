@@ -66,6 +66,10 @@ public class CountConsumer implements Consumer {
             if (!hasOnlyGlobalCount(querySpec.outputs())) {
                 return null;
             }
+            if (table.tableRelation().tableSample() != null) {
+                // the count of a sample must be collected
+                return null;
+            }
             if(querySpec.where().hasVersions()){
                 context.validationException(new VersionInvalidException());
                 return null;
@@ -121,6 +121,7 @@ public class DistributedGroupByConsumer implements Consumer {
                     querySpec.where(),
                     DistributionType.MODULO
             );
+            collectNode.tableSample(table.tableRelation().tableSample());
             // end: Map/Collect side
 
             // start: Reducer
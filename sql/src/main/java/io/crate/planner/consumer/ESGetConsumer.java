@@ -51,7 +51,8 @@ public class ESGetConsumer implements Consumer {
 
             if (table.querySpec().hasAggregates()
                     || table.querySpec().groupBy() != null
-                    || !table.querySpec().where().docKeys().isPresent()) {
+                    || !table.querySpec().where().docKeys().isPresent()
+                    || table.tableRelation().tableSample() != null) {
                 return null;
             }
 
@@ -22,15 +22,21 @@
 package io.crate.planner.consumer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.crate.analyze.HavingClause;
 import io.crate.analyze.QueriedTable;
 import io.crate.analyze.QueriedTableRelation;
+import io.crate.analyze.WhereClause;
 import io.crate.analyze.relations.*;
 import io.crate.exceptions.VersionInvalidException;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Functions;
 import io.crate.metadata.ReferenceInfo;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.aggregation.impl.MaximumAggregation;
+import io.crate.operation.aggregation.impl.MinimumAggregation;
 import io.crate.planner.Planner;
+import io.crate.planner.RowGranularity;
 import io.crate.planner.node.NoopPlannedAnalyzedRelation;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.GlobalAggregate;
@@ -41,12 +47,15 @@ import io.crate.planner.projection.TopNProjection;
 import io.crate.planner.projection.builder.ProjectionBuilder;
 import io.crate.planner.projection.builder.SplitPoints;
 import io.crate.planner.symbol.*;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 
@@ -55,6 +64,11 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 public class GlobalAggregateConsumer implements Consumer {
 
     private static final AggregationOutputValidator AGGREGATION_OUTPUT_VALIDATOR = new AggregationOutputValidator();
+    private static final Set<DataType> INDEX_STATS_TYPES = ImmutableSet.<DataType>builder()
+            .addAll(DataTypes.NUMERIC_PRIMITIVE_TYPES)
+            .add(DataTypes.TIMESTAMP)
+            .add(DataTypes.STRING)
+            .build();
     private final Visitor visitor;
 
     @Inject
@@ -114,19 +128,34 @@ public class GlobalAggregateConsumer implements Consumer {
         ProjectionBuilder projectionBuilder = new ProjectionBuilder(functions, table.querySpec());
         SplitPoints splitPoints = projectionBuilder.getSplitPoints();
 
-        AggregationProjection ap = projectionBuilder.aggregationProjection(
-                splitPoints.leaves(),
-                splitPoints.aggregates(),
-                Aggregation.Step.ITER,
-                Aggregation.Step.PARTIAL);
-
-
-        CollectPhase collectPhase = CollectPhase.forQueriedTable(
-                plannerContext,
-                table,
-                splitPoints.leaves(),
-                ImmutableList.<Projection>of(ap)
-        );
+        CollectPhase collectPhase;
+        if (canUseIndexStats(table, splitPoints.aggregates())) {
+            // the shards compute the partial states from index statistics (see IndexStatsCollector)
+            // so they only have to be merged on the node
+            AggregationProjection ap = projectionBuilder.aggregationProjection(
+                    splitPoints.aggregates(),
+                    splitPoints.aggregates(),
+                    Aggregation.Step.PARTIAL,
+                    Aggregation.Step.PARTIAL);
+            collectPhase = CollectPhase.forQueriedTable(
+                    plannerContext,
+                    table,
+                    new ArrayList<Symbol>(splitPoints.aggregates()),
+                    ImmutableList.<Projection>of(ap)
+            );
+        } else {
+            AggregationProjection ap = projectionBuilder.aggregationProjection(
+                    splitPoints.leaves(),
+                    splitPoints.aggregates(),
+                    Aggregation.Step.ITER,
+                    Aggregation.Step.PARTIAL);
+            collectPhase = CollectPhase.forQueriedTable(
+                    plannerContext,
+                    table,
+                    splitPoints.leaves(),
+                    ImmutableList.<Projection>of(ap)
+            );
+        }
 
         //// the handler stuff
         List<Projection> projections = new ArrayList<>();
@@ -162,6 +191,47 @@ public class GlobalAggregateConsumer implements Consumer {
         return new GlobalAggregate(collectPhase, localMergeNode, plannerContext.jobId());
     }
 
+    /**
+     * count(*), min and max on plain indexed columns can be computed from the index statistics
+     * of the shards if the whole table (or whole partitions) is matched.
+     */
+    private static boolean canUseIndexStats(QueriedTableRelation table, List<Function> aggregates) {
+        if (!(table.tableRelation() instanceof DocTableRelation)
+            || ((DocTableRelation) table.tableRelation()).tableSample() != null) {
+            return false;
+        }
+        WhereClause where = table.querySpec().where();
+        if (where.hasQuery() || where.noMatch() || where.hasVersions()) {
+            return false;
+        }
+        for (Function aggregate : aggregates) {
+            String name = aggregate.info().ident().name();
+            if (name.equals(CountAggregation.NAME)) {
+                if (!aggregate.arguments().isEmpty()) {
+                    return false;
+                }
+            } else if (name.equals(MinimumAggregation.NAME) || name.equals(MaximumAggregation.NAME)) {
+                if (!isIndexStatsColumn(aggregate.arguments().get(0))) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIndexStatsColumn(Symbol symbol) {
+        if (!(symbol instanceof Reference)) {
+            return false;
+        }
+        ReferenceInfo info = ((Reference) symbol).info();
+        return info.granularity() == RowGranularity.DOC
+               && info.indexType() == ReferenceInfo.IndexType.NOT_ANALYZED
+               && !info.ident().columnIdent().isSystemColumn()
+               && INDEX_STATS_TYPES.contains(info.type());
+    }
+
     private static void validateAggregationOutputs(AbstractTableRelation tableRelation, Collection<? extends Symbol> outputSymbols) {
         OutputValidatorContext context = new OutputValidatorContext(tableRelation);
         for (Symbol outputSymbol : outputSymbols) {
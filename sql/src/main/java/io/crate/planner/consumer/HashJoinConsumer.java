@@ -0,0 +1,198 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import io.crate.Constants;
+import io.crate.analyze.EquiJoin;
+import io.crate.analyze.MultiSourceSelect;
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.PlannedAnalyzedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.exceptions.VersionInvalidException;
+import io.crate.metadata.Functions;
+import io.crate.planner.Planner;
+import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.node.NoopPlannedAnalyzedRelation;
+import io.crate.planner.node.dql.CollectPhase;
+import io.crate.planner.node.dql.HashJoin;
+import io.crate.planner.node.dql.HashJoinPhase;
+import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.projection.TopNProjection;
+import io.crate.planner.projection.builder.ProjectionBuilder;
+import io.crate.planner.symbol.Symbol;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import java.util.*;
+
+/**
+ * Plans an inner equi-join of two tables, see {@link HashJoinPhase}.
+ *
+ * The input with fewer shards is used as the build input. If sending it to every node of the other input
+ * is cheaper than distributing both inputs, it is broadcast, otherwise both inputs are repartitioned
+ * by the hash of their first join key. The number of shards is used as estimate for the size of an input.
+ */
+@Singleton
+public class HashJoinConsumer implements Consumer {
+
+    private final Visitor visitor;
+
+    @Inject
+    public HashJoinConsumer(Functions functions) {
+        visitor = new Visitor(functions);
+    }
+
+    @Override
+    public PlannedAnalyzedRelation consume(AnalyzedRelation relation, ConsumerContext context) {
+        return visitor.process(relation, context);
+    }
+
+    private static class Visitor extends AnalyzedRelationVisitor<ConsumerContext, PlannedAnalyzedRelation> {
+
+        private final Functions functions;
+
+        public Visitor(Functions functions) {
+            this.functions = functions;
+        }
+
+        @Override
+        public PlannedAnalyzedRelation visitMultiSourceSelect(MultiSourceSelect relation, ConsumerContext context) {
+            if (context.rootRelation() != relation) {
+                return null;
+            }
+            EquiJoin equiJoin = relation.equiJoin();
+            QueriedDocTable left = equiJoin.left();
+            QueriedDocTable right = equiJoin.right();
+            if (left.querySpec().where().hasVersions() || right.querySpec().where().hasVersions()) {
+                context.validationException(new VersionInvalidException());
+                return null;
+            }
+            Planner.Context plannerContext = context.plannerContext();
+            if (left.querySpec().where().noMatch() || right.querySpec().where().noMatch()) {
+                return new NoopPlannedAnalyzedRelation(relation, plannerContext.jobId());
+            }
+
+            CollectPhase leftCollectPhase = CollectPhase.forQueriedTable(
+                    plannerContext, left, left.querySpec().outputs(), ImmutableList.<Projection>of());
+            CollectPhase rightCollectPhase = CollectPhase.forQueriedTable(
+                    plannerContext, right, right.querySpec().outputs(), ImmutableList.<Projection>of());
+            if (leftCollectPhase.executionNodes().isEmpty() || rightCollectPhase.executionNodes().isEmpty()) {
+                // one of the tables has no shards, e.g. an empty partitioned table
+                return new NoopPlannedAnalyzedRelation(relation, plannerContext.jobId());
+            }
+
+            int leftShards = leftCollectPhase.routing().numShards();
+            int rightShards = rightCollectPhase.routing().numShards();
+            byte buildInputId = rightShards <= leftShards ? (byte) 1 : (byte) 0;
+            CollectPhase buildPhase = buildInputId == 0 ? leftCollectPhase : rightCollectPhase;
+            CollectPhase probePhase = buildInputId == 0 ? rightCollectPhase : leftCollectPhase;
+            int buildShards = Math.min(leftShards, rightShards);
+            int probeShards = Math.max(leftShards, rightShards);
+
+            HashJoinPhase.Strategy strategy;
+            Set<String> joinNodes;
+            if ((long) buildShards * probePhase.executionNodes().size() <= buildShards + probeShards) {
+                strategy = HashJoinPhase.Strategy.BROADCAST;
+                joinNodes = new TreeSet<>(probePhase.executionNodes());
+                buildPhase.distributionType(DistributionType.BROADCAST);
+                probePhase.distributionType(DistributionType.SAME_NODE);
+            } else {
+                strategy = HashJoinPhase.Strategy.REPARTITION;
+                // both inputs must see the join nodes in the same order to send equal keys to the same node
+                joinNodes = new TreeSet<>(Sets.union(leftCollectPhase.executionNodes(), rightCollectPhase.executionNodes()));
+                leftCollectPhase.distributionType(DistributionType.MODULO);
+                rightCollectPhase.distributionType(DistributionType.MODULO);
+            }
+
+            QuerySpec querySpec = relation.querySpec();
+            ProjectionBuilder projectionBuilder = new ProjectionBuilder(functions, querySpec);
+            List<Symbol> joinedSymbols = equiJoin.joinedSymbols();
+            OrderBy orderBy = querySpec.orderBy();
+            List<Symbol> toCollect = new ArrayList<>(querySpec.outputs());
+            if (orderBy != null) {
+                for (Symbol orderBySymbol : orderBy.orderBySymbols()) {
+                    if (!toCollect.contains(orderBySymbol)) {
+                        toCollect.add(orderBySymbol);
+                    }
+                }
+            }
+            int limit = MoreObjects.firstNonNull(querySpec.limit(), Constants.DEFAULT_SELECT_LIMIT);
+
+            List<Projection> joinProjections = new ArrayList<>(2);
+            if (equiJoin.remainingQuery() != null) {
+                joinProjections.add(projectionBuilder.filterProjection(joinedSymbols, equiJoin.remainingQuery()));
+            }
+            joinProjections.add(projectionBuilder.topNProjection(
+                    joinedSymbols, orderBy, 0, limit + querySpec.offset(), toCollect));
+
+            HashJoinPhase joinPhase = new HashJoinPhase(
+                    plannerContext.jobId(),
+                    plannerContext.nextExecutionPhaseId(),
+                    strategy,
+                    buildInputId,
+                    equiJoin.numKeys(),
+                    leftCollectPhase.outputTypes(),
+                    leftCollectPhase.distributionType() == DistributionType.SAME_NODE ? 1 : leftCollectPhase.executionNodes().size(),
+                    rightCollectPhase.outputTypes(),
+                    rightCollectPhase.distributionType() == DistributionType.SAME_NODE ? 1 : rightCollectPhase.executionNodes().size(),
+                    joinProjections,
+                    joinNodes
+            );
+
+            TopNProjection topN = projectionBuilder.topNProjection(
+                    toCollect, null, querySpec.offset(), limit, querySpec.outputs());
+            MergePhase localMergePhase;
+            if (orderBy == null) {
+                localMergePhase = MergePhase.localMerge(
+                        plannerContext.jobId(),
+                        plannerContext.nextExecutionPhaseId(),
+                        ImmutableList.<Projection>of(topN),
+                        joinPhase);
+            } else {
+                localMergePhase = MergePhase.sortedMerge(
+                        plannerContext.jobId(),
+                        plannerContext.nextExecutionPhaseId(),
+                        orderBy,
+                        toCollect,
+                        null,
+                        ImmutableList.<Projection>of(topN),
+                        joinPhase);
+            }
+            localMergePhase.executionNodes(Sets.newHashSet(
+                    plannerContext.clusterService().state().nodes().localNodeId()));
+
+            return new HashJoin(leftCollectPhase, rightCollectPhase, joinPhase, localMergePhase, plannerContext.jobId());
+        }
+
+        @Override
+        protected PlannedAnalyzedRelation visitAnalyzedRelation(AnalyzedRelation relation, ConsumerContext context) {
+            return null;
+        }
+    }
+}
@@ -23,24 +23,36 @@ package io.crate.planner.consumer;
 
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
+import io.crate.analyze.WhereClause;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelationVisitor;
 import io.crate.analyze.relations.PlannedAnalyzedRelation;
+import io.crate.metadata.doc.DocTableInfo;
 import io.crate.operation.aggregation.impl.CountAggregation;
 import io.crate.planner.Planner;
+import io.crate.planner.RowGranularity;
+import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.ShardDistribution;
 import io.crate.planner.node.dml.InsertFromSubQuery;
+import io.crate.planner.node.dql.CollectAndMerge;
+import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.projection.AggregationProjection;
 import io.crate.planner.projection.ColumnIndexWriterProjection;
 import io.crate.planner.projection.Projection;
 import org.elasticsearch.common.settings.ImmutableSettings;
 
+import javax.annotation.Nullable;
+import java.util.Set;
+
 
 public class InsertFromSubQueryConsumer implements Consumer {
 
     private static final Visitor VISITOR = new Visitor();
+    private static final String PRIMARY_PREFERENCE = "_primary";
 
     @Override
     public PlannedAnalyzedRelation consume(AnalyzedRelation relation, ConsumerContext context) {
@@ -74,6 +86,14 @@ public class InsertFromSubQueryConsumer implements Consumer {
                 return null;
             }
 
+            if (plannedSubQuery instanceof CollectAndMerge) {
+                InsertFromSubQuery distributedInsert = planDistributedInsert(
+                        (CollectAndMerge) plannedSubQuery, statement.tableInfo(), indexWriterProjection, plannerContext);
+                if (distributedInsert != null) {
+                    return distributedInsert;
+                }
+            }
+
             plannedSubQuery.addProjection(indexWriterProjection);
 
             MergePhase mergeNode = null;
@@ -90,6 +110,63 @@ public class InsertFromSubQueryConsumer implements Consumer {
             return new InsertFromSubQuery(plannedSubQuery.plan(), mergeNode, plannerContext.jobId());
         }
 
+        /**
+         * Plans an insert where the collected rows are sent directly to the nodes which hold the primaries
+         * of the shards they are written to, instead of being written from the nodes they are collected on.
+         *
+         * @return the plan or null if the rows can't be distributed by shard,
+         *         e.g. if the target is partitioned or the ids of the rows are generated.
+         */
+        @Nullable
+        private InsertFromSubQuery planDistributedInsert(CollectAndMerge subPlan,
+                                                         DocTableInfo tableInfo,
+                                                         ColumnIndexWriterProjection indexWriterProjection,
+                                                         Planner.Context plannerContext) {
+            CollectPhase collectPhase = subPlan.collectPhase();
+            if (subPlan.localMerge() != null
+                || collectPhase.maxRowGranularity() != RowGranularity.DOC
+                || collectPhase.executionNodes().isEmpty()
+                || tableInfo.isPartitioned()
+                || tableInfo.isAlias()
+                || (tableInfo.hasAutoGeneratedPrimaryKey() && indexWriterProjection.clusteredBy() == null)) {
+                return null;
+            }
+            Set<String> primaryNodes = tableInfo.getRouting(WhereClause.MATCH_ALL, PRIMARY_PREFERENCE).nodes();
+            if (primaryNodes.isEmpty()) {
+                return null;
+            }
+
+            collectPhase.distributionType(DistributionType.SHARD);
+            collectPhase.shardDistribution(new ShardDistribution(
+                    tableInfo.ident().esName(),
+                    indexWriterProjection.primaryKeys(),
+                    indexWriterProjection.ids(),
+                    indexWriterProjection.clusteredByIdent(),
+                    indexWriterProjection.clusteredBy()));
+
+            MergePhase writerPhase = new MergePhase(
+                    plannerContext.jobId(),
+                    plannerContext.nextExecutionPhaseId(),
+                    "distributed insert",
+                    collectPhase.executionNodes().size(),
+                    collectPhase.outputTypes(),
+                    ImmutableList.<Projection>of(indexWriterProjection),
+                    DistributionType.BROADCAST
+            );
+            writerPhase.executionNodes(ImmutableSet.copyOf(primaryNodes));
+
+            MergePhase handlerMerge = MergePhase.localMerge(
+                    plannerContext.jobId(),
+                    plannerContext.nextExecutionPhaseId(),
+                    ImmutableList.<Projection>of(CountAggregation.PARTIAL_COUNT_AGGREGATION_PROJECTION),
+                    writerPhase);
+            handlerMerge.executionNodes(Sets.newHashSet(plannerContext.clusterService().localNode().id()));
+            return new InsertFromSubQuery(
+                    new CollectAndMerge(collectPhase, writerPhase, plannerContext.jobId()),
+                    handlerMerge,
+                    plannerContext.jobId());
+        }
+
         @Override
         protected PlannedAnalyzedRelation visitAnalyzedRelation(AnalyzedRelation relation, ConsumerContext context) {
             return null;
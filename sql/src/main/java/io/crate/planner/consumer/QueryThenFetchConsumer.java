@@ -109,8 +109,10 @@ public class QueryThenFetchConsumer implements Consumer {
             for (Symbol symbol : pushedDownSpec.outputs()) {
                 outputNames.add(new OutputName(SymbolFormatter.format(symbol)));
             }
+            DocTableRelation subTableRelation = new DocTableRelation(table.tableRelation().tableInfo());
+            subTableRelation.tableSample(table.tableRelation().tableSample());
             QueriedDocTable subRelation = new QueriedDocTable(
-                    new DocTableRelation(table.tableRelation().tableInfo()),
+                    subTableRelation,
                     outputNames,
                     pushedDownSpec
             );
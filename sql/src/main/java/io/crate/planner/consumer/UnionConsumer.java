@@ -0,0 +1,194 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.consumer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import io.crate.Constants;
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.UnionSelect;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.PlannedAnalyzedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.exceptions.VersionInvalidException;
+import io.crate.planner.Planner;
+import io.crate.planner.node.NoopPlannedAnalyzedRelation;
+import io.crate.planner.node.dql.CollectPhase;
+import io.crate.planner.node.dql.MergePhase;
+import io.crate.planner.node.dql.Union;
+import io.crate.planner.projection.GroupProjection;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.projection.TopNProjection;
+import io.crate.planner.symbol.Aggregation;
+import io.crate.planner.symbol.InputColumn;
+import io.crate.planner.symbol.Symbol;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+/**
+ * Plans a {@link UnionSelect}, see {@link Union}.
+ *
+ * ORDER BY and LIMIT are pushed down into every collect phase, so that every branch returns at most
+ * limit + offset rows, sorted by the ORDER BY of the union. The sorted results are merged on the handler.
+ *
+ * For UNION (DISTINCT) every branch removes duplicates with a {@link GroupProjection} without aggregations
+ * before its rows are limited, the duplicates between the branches are removed on the handler.
+ */
+public class UnionConsumer implements Consumer {
+
+    private static final Visitor VISITOR = new Visitor();
+
+    @Override
+    public PlannedAnalyzedRelation consume(AnalyzedRelation relation, ConsumerContext context) {
+        return VISITOR.process(relation, context);
+    }
+
+    private static class Visitor extends AnalyzedRelationVisitor<ConsumerContext, PlannedAnalyzedRelation> {
+
+        @Override
+        public PlannedAnalyzedRelation visitUnionSelect(UnionSelect union, ConsumerContext context) {
+            if (context.rootRelation() != union) {
+                return null;
+            }
+            Planner.Context plannerContext = context.plannerContext();
+            QuerySpec querySpec = union.querySpec();
+            OrderBy orderBy = querySpec.orderBy();
+            List<Symbol> inputs = querySpec.outputs();
+            int limit = firstNonNull(querySpec.limit(), Constants.DEFAULT_SELECT_LIMIT);
+            int branchLimit = limit + querySpec.offset();
+
+            List<CollectPhase> collectPhases = new ArrayList<>(union.relations().size());
+            for (QueriedDocTable relation : union.relations()) {
+                QuerySpec branchQuerySpec = relation.querySpec();
+                if (branchQuerySpec.where().hasVersions()) {
+                    context.validationException(new VersionInvalidException());
+                    return null;
+                }
+                if (branchQuerySpec.where().noMatch()) {
+                    continue;
+                }
+                List<Projection> projections;
+                if (union.isDistinct()) {
+                    projections = ImmutableList.of(
+                            distinctProjection(inputs),
+                            topNProjection(inputs, orderBy, branchLimit, 0));
+                } else {
+                    projections = ImmutableList.<Projection>of(topNProjection(inputs, null, branchLimit, 0));
+                }
+                CollectPhase collectPhase = CollectPhase.forQueriedTable(
+                        plannerContext, relation, branchQuerySpec.outputs(), projections);
+                if (collectPhase.executionNodes().isEmpty()) {
+                    // e.g. an empty partitioned table
+                    continue;
+                }
+                if (!union.isDistinct()) {
+                    // rows are only limited after the duplicates are removed for UNION (DISTINCT)
+                    collectPhase.limit(branchLimit);
+                    if (orderBy != null) {
+                        collectPhase.orderBy(branchOrderBy(orderBy, branchQuerySpec.outputs()));
+                    }
+                }
+                collectPhases.add(collectPhase);
+            }
+            if (collectPhases.isEmpty()) {
+                return new NoopPlannedAnalyzedRelation(union, plannerContext.jobId());
+            }
+
+            MergePhase localMergePhase;
+            if (union.isDistinct()) {
+                localMergePhase = MergePhase.localMerge(
+                        plannerContext.jobId(),
+                        plannerContext.nextExecutionPhaseId(),
+                        ImmutableList.of(
+                                distinctProjection(inputs),
+                                topNProjection(inputs, orderBy, limit, querySpec.offset())),
+                        collectPhases.get(0));
+            } else if (orderBy == null) {
+                localMergePhase = MergePhase.localMerge(
+                        plannerContext.jobId(),
+                        plannerContext.nextExecutionPhaseId(),
+                        ImmutableList.<Projection>of(topNProjection(inputs, null, limit, querySpec.offset())),
+                        collectPhases.get(0));
+            } else {
+                // the branches are sorted already
+                localMergePhase = MergePhase.sortedMerge(
+                        plannerContext.jobId(),
+                        plannerContext.nextExecutionPhaseId(),
+                        orderBy,
+                        inputs,
+                        null,
+                        ImmutableList.<Projection>of(topNProjection(inputs, null, limit, querySpec.offset())),
+                        collectPhases.get(0));
+            }
+            int[] inputNumUpstreams = new int[collectPhases.size()];
+            for (int i = 0; i < collectPhases.size(); i++) {
+                inputNumUpstreams[i] = collectPhases.get(i).executionNodes().size();
+            }
+            localMergePhase.inputNumUpstreams(inputNumUpstreams);
+            localMergePhase.executionNodes(Sets.newHashSet(
+                    plannerContext.clusterService().state().nodes().localNodeId()));
+
+            return new Union(collectPhases, localMergePhase, plannerContext.jobId());
+        }
+
+        @Override
+        protected PlannedAnalyzedRelation visitAnalyzedRelation(AnalyzedRelation relation, ConsumerContext context) {
+            return null;
+        }
+
+        private static GroupProjection distinctProjection(List<Symbol> inputs) {
+            return new GroupProjection(inputs, ImmutableList.<Aggregation>of());
+        }
+
+        private static TopNProjection topNProjection(List<Symbol> inputs,
+                                                     @Nullable OrderBy orderBy,
+                                                     int limit,
+                                                     int offset) {
+            TopNProjection topNProjection;
+            if (orderBy == null) {
+                topNProjection = new TopNProjection(limit, offset);
+            } else {
+                topNProjection = new TopNProjection(limit, offset,
+                        orderBy.orderBySymbols(), orderBy.reverseFlags(), orderBy.nullsFirst());
+            }
+            topNProjection.outputs(inputs);
+            return topNProjection;
+        }
+
+        /**
+         * the ORDER BY of the union references its outputs, the branches must be sorted by their own outputs
+         */
+        private static OrderBy branchOrderBy(OrderBy orderBy, List<Symbol> branchOutputs) {
+            List<Symbol> orderBySymbols = new ArrayList<>(orderBy.orderBySymbols().size());
+            for (Symbol symbol : orderBy.orderBySymbols()) {
+                orderBySymbols.add(branchOutputs.get(((InputColumn) symbol).index()));
+            }
+            return new OrderBy(orderBySymbols, orderBy.reverseFlags(), orderBy.nullsFirst());
+        }
+    }
+}
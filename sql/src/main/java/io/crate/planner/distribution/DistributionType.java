@@ -24,5 +24,10 @@ package io.crate.planner.distribution;
 public enum DistributionType {
     MODULO,
     BROADCAST,
-    SAME_NODE
+    SAME_NODE,
+    /**
+     * rows are sent to the node which holds the primary of the shard they are written to,
+     * see {@link ShardDistribution}
+     */
+    SHARD
 }
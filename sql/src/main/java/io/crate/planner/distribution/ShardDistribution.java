@@ -0,0 +1,163 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.distribution;
+
+import com.google.common.base.Objects;
+import io.crate.metadata.ColumnIdent;
+import io.crate.planner.symbol.Symbol;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes how the shard a row is written to is resolved, used by phases with {@link DistributionType#SHARD}.
+ *
+ * The symbols are {@link io.crate.planner.symbol.InputColumn}s which point to the primary key and
+ * clustered by values of the rows sent by the phase.
+ */
+public class ShardDistribution implements Streamable {
+
+    private String indexName;
+    private List<ColumnIdent> primaryKeys;
+    private List<Symbol> primaryKeySymbols;
+    @Nullable
+    private ColumnIdent clusteredByColumn;
+    @Nullable
+    private Symbol clusteredBySymbol;
+
+    public ShardDistribution(String indexName,
+                             List<ColumnIdent> primaryKeys,
+                             List<Symbol> primaryKeySymbols,
+                             @Nullable ColumnIdent clusteredByColumn,
+                             @Nullable Symbol clusteredBySymbol) {
+        this.indexName = indexName;
+        this.primaryKeys = primaryKeys;
+        this.primaryKeySymbols = primaryKeySymbols;
+        this.clusteredByColumn = clusteredByColumn;
+        this.clusteredBySymbol = clusteredBySymbol;
+    }
+
+    private ShardDistribution() {}
+
+    public String indexName() {
+        return indexName;
+    }
+
+    public List<ColumnIdent> primaryKeys() {
+        return primaryKeys;
+    }
+
+    public List<Symbol> primaryKeySymbols() {
+        return primaryKeySymbols;
+    }
+
+    @Nullable
+    public ColumnIdent clusteredByColumn() {
+        return clusteredByColumn;
+    }
+
+    @Nullable
+    public Symbol clusteredBySymbol() {
+        return clusteredBySymbol;
+    }
+
+    public static void toStream(ShardDistribution shardDistribution, StreamOutput out) throws IOException {
+        shardDistribution.writeTo(out);
+    }
+
+    public static ShardDistribution fromStream(StreamInput in) throws IOException {
+        ShardDistribution shardDistribution = new ShardDistribution();
+        shardDistribution.readFrom(in);
+        return shardDistribution;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        indexName = in.readString();
+        int numPks = in.readVInt();
+        primaryKeys = new ArrayList<>(numPks);
+        primaryKeySymbols = new ArrayList<>(numPks);
+        for (int i = 0; i < numPks; i++) {
+            ColumnIdent ident = new ColumnIdent();
+            ident.readFrom(in);
+            primaryKeys.add(ident);
+        }
+        int numPkSymbols = in.readVInt();
+        for (int i = 0; i < numPkSymbols; i++) {
+            primaryKeySymbols.add(Symbol.fromStream(in));
+        }
+        if (in.readBoolean()) {
+            clusteredByColumn = new ColumnIdent();
+            clusteredByColumn.readFrom(in);
+        }
+        if (in.readBoolean()) {
+            clusteredBySymbol = Symbol.fromStream(in);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(indexName);
+        out.writeVInt(primaryKeys.size());
+        for (ColumnIdent primaryKey : primaryKeys) {
+            primaryKey.writeTo(out);
+        }
+        out.writeVInt(primaryKeySymbols.size());
+        for (Symbol primaryKeySymbol : primaryKeySymbols) {
+            Symbol.toStream(primaryKeySymbol, out);
+        }
+        if (clusteredByColumn == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            clusteredByColumn.writeTo(out);
+        }
+        if (clusteredBySymbol == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            Symbol.toStream(clusteredBySymbol, out);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ShardDistribution that = (ShardDistribution) o;
+        return indexName.equals(that.indexName)
+               && primaryKeys.equals(that.primaryKeys)
+               && primaryKeySymbols.equals(that.primaryKeySymbols)
+               && Objects.equal(clusteredByColumn, that.clusteredByColumn)
+               && Objects.equal(clusteredBySymbol, that.clusteredBySymbol);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(indexName, primaryKeys, primaryKeySymbols, clusteredByColumn, clusteredBySymbol);
+    }
+}
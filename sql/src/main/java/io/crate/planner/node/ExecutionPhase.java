@@ -24,6 +24,7 @@ package io.crate.planner.node;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
+import io.crate.planner.node.dql.HashJoinPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.fetch.FetchPhase;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -46,7 +47,8 @@ public interface ExecutionPhase extends Streamable {
         COUNT(CountPhase.FACTORY),
         FILE_URI_COLLECT(FileUriCollectPhase.FACTORY),
         MERGE(MergePhase.FACTORY),
-        FETCH(FetchPhase.FACTORY);
+        FETCH(FetchPhase.FACTORY),
+        HASH_JOIN(HashJoinPhase.FACTORY);
 
         private final ExecutionPhaseFactory factory;
 
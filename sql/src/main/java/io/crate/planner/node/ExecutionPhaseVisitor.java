@@ -23,6 +23,7 @@ package io.crate.planner.node;
 
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
+import io.crate.planner.node.dql.HashJoinPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.fetch.FetchPhase;
 
@@ -51,4 +52,8 @@ public class ExecutionPhaseVisitor<C, R> {
     public R visitFetchPhase(FetchPhase phase, C context) {
         return visitExecutionPhase(phase, context);
     }
+
+    public R visitHashJoinPhase(HashJoinPhase phase, C context) {
+        return visitExecutionPhase(phase, context);
+    }
 }
@@ -27,6 +27,7 @@ import io.crate.planner.node.dml.ESDeleteNode;
 import io.crate.planner.node.dml.SymbolBasedUpsertByIdNode;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.ESGetNode;
+import io.crate.planner.node.dql.HashJoinPhase;
 import io.crate.planner.node.dql.MergePhase;
 import org.elasticsearch.common.Nullable;
 
@@ -48,6 +49,10 @@ public class PlanNodeVisitor<C, R> {
         return visitPlanNode(node, context);
     }
 
+    public R visitHashJoinPhase(HashJoinPhase node, C context) {
+        return visitPlanNode(node, context);
+    }
+
     public R visitESGetNode(ESGetNode node, C context) {
         return visitPlanNode(node, context);
     }
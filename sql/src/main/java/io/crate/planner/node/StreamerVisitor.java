@@ -24,6 +24,7 @@ package io.crate.planner.node;
 import io.crate.Streamer;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.CountPhase;
+import io.crate.planner.node.dql.HashJoinPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.types.DataTypes;
 
@@ -54,6 +55,11 @@ public class StreamerVisitor {
             return DataTypes.getStreamer(phase.outputTypes());
         }
 
+        @Override
+        public Streamer<?>[] visitHashJoinPhase(HashJoinPhase phase, Void context) {
+            return DataTypes.getStreamer(phase.outputTypes());
+        }
+
         @Override
         public Streamer<?>[] visitCountPhase(CountPhase phase, Void context) {
             return COUNT_STREAMERS;
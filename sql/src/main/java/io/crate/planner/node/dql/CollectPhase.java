@@ -27,12 +27,15 @@ import com.google.common.collect.Iterables;
 import io.crate.analyze.EvaluatingNormalizer;
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.QueriedTableRelation;
+import io.crate.analyze.TableSample;
 import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
 import io.crate.metadata.Routing;
 import io.crate.metadata.table.TableInfo;
 import io.crate.planner.Planner;
 import io.crate.planner.RowGranularity;
 import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.ShardDistribution;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.node.PlanNodeVisitor;
@@ -72,6 +75,8 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
 
     private @Nullable Integer limit = null;
     private @Nullable OrderBy orderBy = null;
+    private @Nullable TableSample tableSample = null;
+    private @Nullable ShardDistribution shardDistribution = null;
 
     protected CollectPhase() {
         super();
@@ -143,6 +148,29 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
         this.orderBy = orderBy;
     }
 
+    /**
+     * @return the sample of the collected table or null if all matching rows are collected
+     */
+    public @Nullable TableSample tableSample() {
+        return tableSample;
+    }
+
+    public void tableSample(@Nullable TableSample tableSample) {
+        this.tableSample = tableSample;
+    }
+
+    /**
+     * @return how the target shards of the collected rows are resolved if the
+     * distribution type is {@link DistributionType#SHARD}, otherwise null
+     */
+    public @Nullable ShardDistribution shardDistribution() {
+        return shardDistribution;
+    }
+
+    public void shardDistribution(@Nullable ShardDistribution shardDistribution) {
+        this.shardDistribution = shardDistribution;
+    }
+
     public WhereClause whereClause() {
         return whereClause;
     }
@@ -206,6 +234,12 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
             orderBy = OrderBy.fromStream(in);
         }
         isPartitioned = in.readBoolean();
+        if (in.readBoolean()) {
+            tableSample = TableSample.fromStream(in);
+        }
+        if (in.readBoolean()) {
+            shardDistribution = ShardDistribution.fromStream(in);
+        }
     }
 
     @Override
@@ -243,6 +277,18 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
             out.writeBoolean(false);
         }
         out.writeBoolean(isPartitioned);
+        if (tableSample != null) {
+            out.writeBoolean(true);
+            TableSample.toStream(tableSample, out);
+        } else {
+            out.writeBoolean(false);
+        }
+        if (shardDistribution != null) {
+            out.writeBoolean(true);
+            ShardDistribution.toStream(shardDistribution, out);
+        } else {
+            out.writeBoolean(false);
+        }
     }
 
     /**
@@ -272,6 +318,8 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
                     distributionType
             );
             result.handlerSideCollect = handlerSideCollect;
+            result.tableSample = tableSample;
+            result.shardDistribution = shardDistribution;
         }
         return result;
     }
@@ -291,7 +339,7 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
                                                List<Projection> projections) {
         TableInfo tableInfo = table.tableRelation().tableInfo();
         WhereClause where = table.querySpec().where();
-        return new CollectPhase(
+        CollectPhase collectPhase = new CollectPhase(
                 plannerContext.jobId(),
                 plannerContext.nextExecutionPhaseId(),
                 "collect",
@@ -302,5 +350,9 @@ public class CollectPhase extends AbstractDQLPlanPhase implements UpstreamPhase
                 where,
                 DistributionType.BROADCAST
         );
+        if (table.tableRelation() instanceof DocTableRelation) {
+            collectPhase.tableSample(((DocTableRelation) table.tableRelation()).tableSample());
+        }
+        return collectPhase;
     }
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.node.dql;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.UpstreamPhase;
+import io.crate.planner.node.ExecutionPhaseVisitor;
+import io.crate.planner.node.PlanNodeVisitor;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.symbol.Symbols;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A phase which joins the rows of two upstream phases on equal join keys.
+ *
+ * Input 0 is the left, input 1 the right side of the join, the join keys are the first
+ * <code>numKeys</code> columns of both inputs.
+ * The rows of the build input are put into a hash table, the other input is probed against it.
+ */
+public class HashJoinPhase extends AbstractDQLPlanPhase implements UpstreamPhase {
+
+    public static final ExecutionPhaseFactory<HashJoinPhase> FACTORY = new ExecutionPhaseFactory<HashJoinPhase>() {
+        @Override
+        public HashJoinPhase create() {
+            return new HashJoinPhase();
+        }
+    };
+
+    public enum Strategy {
+        /**
+         * the build input is sent to all nodes of the probe input, the probe input stays on its nodes
+         */
+        BROADCAST,
+        /**
+         * both inputs are distributed across the join nodes by the hash of their first join key
+         */
+        REPARTITION
+    }
+
+    private Strategy strategy;
+    private byte buildInputId;
+    private int numKeys;
+    private List<DataType> leftInputTypes;
+    private List<DataType> rightInputTypes;
+    private int leftNumUpstreams;
+    private int rightNumUpstreams;
+    private DistributionType distributionType;
+    private Set<String> executionNodes;
+
+    private HashJoinPhase() {
+    }
+
+    public HashJoinPhase(UUID jobId,
+                         int executionPhaseId,
+                         Strategy strategy,
+                         byte buildInputId,
+                         int numKeys,
+                         List<DataType> leftInputTypes,
+                         int leftNumUpstreams,
+                         List<DataType> rightInputTypes,
+                         int rightNumUpstreams,
+                         List<Projection> projections,
+                         Set<String> executionNodes) {
+        super(jobId, executionPhaseId, "hashJoin", projections);
+        this.strategy = strategy;
+        this.buildInputId = buildInputId;
+        this.numKeys = numKeys;
+        this.leftInputTypes = leftInputTypes;
+        this.leftNumUpstreams = leftNumUpstreams;
+        this.rightInputTypes = rightInputTypes;
+        this.rightNumUpstreams = rightNumUpstreams;
+        this.executionNodes = executionNodes;
+        this.distributionType = DistributionType.BROADCAST;
+        if (projections.isEmpty()) {
+            outputTypes = new ArrayList<>(leftInputTypes.size() + rightInputTypes.size());
+            outputTypes.addAll(leftInputTypes);
+            outputTypes.addAll(rightInputTypes);
+        } else {
+            outputTypes = Symbols.extractTypes(Iterables.getLast(projections).outputs());
+        }
+    }
+
+    @Override
+    public Type type() {
+        return Type.HASH_JOIN;
+    }
+
+    public Strategy strategy() {
+        return strategy;
+    }
+
+    /**
+     * @return the id of the input which is put into the hash table
+     */
+    public byte buildInputId() {
+        return buildInputId;
+    }
+
+    public int numKeys() {
+        return numKeys;
+    }
+
+    public List<DataType> inputTypes(byte inputId) {
+        return inputId == 0 ? leftInputTypes : rightInputTypes;
+    }
+
+    public int numUpstreams(byte inputId) {
+        return inputId == 0 ? leftNumUpstreams : rightNumUpstreams;
+    }
+
+    @Override
+    public Set<String> executionNodes() {
+        if (executionNodes == null) {
+            return ImmutableSet.of();
+        }
+        return executionNodes;
+    }
+
+    @Override
+    public DistributionType distributionType() {
+        return distributionType;
+    }
+
+    @Override
+    public void distributionType(DistributionType distributionType) {
+        this.distributionType = distributionType;
+    }
+
+    @Override
+    public <C, R> R accept(PlanNodeVisitor<C, R> visitor, C context) {
+        return visitor.visitHashJoinPhase(this, context);
+    }
+
+    @Override
+    public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
+        return visitor.visitHashJoinPhase(this, context);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        strategy = Strategy.values()[in.readVInt()];
+        buildInputId = in.readByte();
+        numKeys = in.readVInt();
+        distributionType = DistributionType.values()[in.readVInt()];
+        leftNumUpstreams = in.readVInt();
+        leftInputTypes = readTypes(in);
+        rightNumUpstreams = in.readVInt();
+        rightInputTypes = readTypes(in);
+
+        int numExecutionNodes = in.readVInt();
+        executionNodes = new HashSet<>(numExecutionNodes);
+        for (int i = 0; i < numExecutionNodes; i++) {
+            executionNodes.add(in.readString());
+        }
+    }
+
+    private static List<DataType> readTypes(StreamInput in) throws IOException {
+        int numCols = in.readVInt();
+        List<DataType> types = new ArrayList<>(numCols);
+        for (int i = 0; i < numCols; i++) {
+            types.add(DataTypes.fromStream(in));
+        }
+        return types;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(strategy.ordinal());
+        out.writeByte(buildInputId);
+        out.writeVInt(numKeys);
+        out.writeVInt(distributionType.ordinal());
+        out.writeVInt(leftNumUpstreams);
+        writeTypes(leftInputTypes, out);
+        out.writeVInt(rightNumUpstreams);
+        writeTypes(rightInputTypes, out);
+
+        Set<String> nodes = executionNodes();
+        out.writeVInt(nodes.size());
+        for (String node : nodes) {
+            out.writeString(node);
+        }
+    }
+
+    private static void writeTypes(List<DataType> types, StreamOutput out) throws IOException {
+        out.writeVInt(types.size());
+        for (DataType type : types) {
+            DataTypes.toStream(type, out);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("executionPhaseId", executionPhaseId())
+                .add("name", name())
+                .add("strategy", strategy)
+                .add("buildInputId", buildInputId)
+                .add("numKeys", numKeys)
+                .add("projections", projections)
+                .add("outputTypes", outputTypes)
+                .add("jobId", jobId())
+                .add("leftNumUpstreams", leftNumUpstreams)
+                .add("rightNumUpstreams", rightNumUpstreams)
+                .add("executionNodes", executionNodes)
+                .toString();
+    }
+}
@@ -60,6 +60,13 @@ public class MergePhase extends AbstractDQLPlanPhase implements UpstreamPhase {
     private DistributionType distributionType;
     private Set<String> executionNodes;
 
+    /**
+     * number of upstreams of every input if the results of multiple upstream phases are merged,
+     * the buckets of the inputs are numbered consecutively
+     */
+    @Nullable
+    private int[] inputNumUpstreams;
+
     /**
      * expects sorted input and produces sorted output
      */
@@ -168,6 +175,38 @@ public class MergePhase extends AbstractDQLPlanPhase implements UpstreamPhase {
         return numUpstreams;
     }
 
+    /**
+     * merge the results of multiple upstream phases, every upstream phase sends to its own input
+     *
+     * @param inputNumUpstreams the number of upstreams of every input
+     */
+    public void inputNumUpstreams(int[] inputNumUpstreams) {
+        this.inputNumUpstreams = inputNumUpstreams;
+        numUpstreams = 0;
+        for (int inputUpstreams : inputNumUpstreams) {
+            numUpstreams += inputUpstreams;
+        }
+    }
+
+    public int numInputs() {
+        return inputNumUpstreams == null ? 1 : inputNumUpstreams.length;
+    }
+
+    /**
+     * @return the index of the first bucket of every input or null if the phase has only one input
+     */
+    @Nullable
+    public int[] inputBucketOffsets() {
+        if (inputNumUpstreams == null) {
+            return null;
+        }
+        int[] offsets = new int[inputNumUpstreams.length];
+        for (int i = 1; i < inputNumUpstreams.length; i++) {
+            offsets[i] = offsets[i - 1] + inputNumUpstreams[i - 1];
+        }
+        return offsets;
+    }
+
     public Collection<? extends DataType> inputTypes() {
         return inputTypes;
     }
@@ -236,6 +275,13 @@ public class MergePhase extends AbstractDQLPlanPhase implements UpstreamPhase {
                 nullsFirst[i] = in.readOptionalBoolean();
             }
         }
+        int numInputs = in.readVInt();
+        if (numInputs > 1) {
+            inputNumUpstreams = new int[numInputs];
+            for (int i = 0; i < numInputs; i++) {
+                inputNumUpstreams[i] = in.readVInt();
+            }
+        }
     }
 
     @Override
@@ -268,6 +314,14 @@ public class MergePhase extends AbstractDQLPlanPhase implements UpstreamPhase {
                 out.writeOptionalBoolean(nullsFirst[i]);
             }
         }
+        if (inputNumUpstreams == null) {
+            out.writeVInt(1);
+        } else {
+            out.writeVInt(inputNumUpstreams.length);
+            for (int inputUpstreams : inputNumUpstreams) {
+                out.writeVInt(inputUpstreams);
+            }
+        }
     }
 
     @Override
@@ -279,6 +333,7 @@ public class MergePhase extends AbstractDQLPlanPhase implements UpstreamPhase {
                 .add("outputTypes", outputTypes)
                 .add("jobId", jobId())
                 .add("numUpstreams", numUpstreams)
+                .add("inputNumUpstreams", Arrays.toString(inputNumUpstreams))
                 .add("nodeOperations", executionNodes)
                 .add("inputTypes", inputTypes)
                 .add("sortedInputOutput", sortedInputOutput);
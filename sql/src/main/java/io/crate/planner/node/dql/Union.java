@@ -0,0 +1,81 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.node.dql;
+
+import io.crate.planner.PlanAndPlannedAnalyzedRelation;
+import io.crate.planner.PlanVisitor;
+import io.crate.planner.projection.Projection;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The union of multiple queries.
+ *
+ * All collect phases run concurrently, each of them sends its results to its own input
+ * of the local merge phase on the handler.
+ */
+public class Union extends PlanAndPlannedAnalyzedRelation {
+
+    private final List<CollectPhase> collectPhases;
+    private final MergePhase localMergePhase;
+    private final UUID id;
+
+    public Union(List<CollectPhase> collectPhases, MergePhase localMergePhase, UUID id) {
+        this.collectPhases = collectPhases;
+        this.localMergePhase = localMergePhase;
+        this.id = id;
+    }
+
+    @Override
+    public <C, R> R accept(PlanVisitor<C, R> visitor, C context) {
+        return visitor.visitUnion(this, context);
+    }
+
+    @Override
+    public UUID jobId() {
+        return id;
+    }
+
+    public List<CollectPhase> collectPhases() {
+        return collectPhases;
+    }
+
+    public MergePhase localMergePhase() {
+        return localMergePhase;
+    }
+
+    @Override
+    public void addProjection(Projection projection) {
+        localMergePhase.addProjection(projection);
+    }
+
+    @Override
+    public boolean resultIsDistributed() {
+        return false;
+    }
+
+    @Override
+    public DQLPlanNode resultNode() {
+        return localMergePhase;
+    }
+}
@@ -107,7 +107,8 @@ public class ProjectionBuilder {
                 aggregation = Aggregation.partialAggregation(
                         function.info(),
                         ((AggregationFunction) this.functions.get(function.info().ident())).partialType(),
-                        aggregationInputs
+                        aggregationInputs,
+                        fromStep
                 );
             } else {
                 aggregation = Aggregation.finalAggregation(function.info(), aggregationInputs, fromStep);
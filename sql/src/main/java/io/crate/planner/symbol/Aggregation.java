@@ -65,7 +65,14 @@ public class Aggregation extends Symbol {
     private Step toStep;
 
     public static Aggregation partialAggregation(FunctionInfo functionInfo, DataType partialType, List<Symbol> inputs) {
-        return new Aggregation(functionInfo, partialType, inputs, Step.ITER, Step.PARTIAL);
+        return partialAggregation(functionInfo, partialType, inputs, Step.ITER);
+    }
+
+    public static Aggregation partialAggregation(FunctionInfo functionInfo,
+                                                 DataType partialType,
+                                                 List<Symbol> inputs,
+                                                 Step fromStep) {
+        return new Aggregation(functionInfo, partialType, inputs, fromStep, Step.PARTIAL);
     }
 
     public static Aggregation finalAggregation(FunctionInfo functionInfo, List<Symbol> inputs, Step fromStep) {
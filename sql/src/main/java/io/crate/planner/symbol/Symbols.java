@@ -41,4 +41,24 @@ public class Symbols {
     public static List<DataType> extractTypes(List<? extends Symbol> symbols) {
         return Lists.transform(symbols, TYPES_FUNCTION);
     }
+
+    /**
+     * @return false if the symbol contains a function whose result may differ between evaluations
+     *         (e.g. <code>random()</code>), the result of such a symbol must not be cached
+     */
+    public static boolean isDeterministic(Symbol symbol) {
+        if (symbol.symbolType() != SymbolType.FUNCTION) {
+            return true;
+        }
+        Function function = (Function) symbol;
+        if (!function.info().isDeterministic()) {
+            return false;
+        }
+        for (Symbol argument : function.arguments()) {
+            if (!isDeterministic(argument)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -40,12 +40,15 @@ import io.crate.metadata.settings.Setting;
 import io.crate.metadata.shard.MetaDataShardModule;
 import io.crate.metadata.sys.MetaDataSysModule;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
+import io.crate.operation.cache.ResultCache;
+import io.crate.operation.cache.RowCache;
 import io.crate.jobs.JobContextService;
 import io.crate.operation.collect.CollectOperationModule;
 import io.crate.operation.collect.CollectShardModule;
 import io.crate.operation.merge.MergeOperationModule;
 import io.crate.operation.operator.OperatorModule;
 import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.projectors.WriterProjector;
 import io.crate.operation.reference.sys.check.SysChecksModule;
 import io.crate.operation.reference.sys.cluster.SysClusterExpressionModule;
 import io.crate.operation.reference.sys.node.SysNodeExpressionModule;
@@ -65,9 +68,12 @@ import org.elasticsearch.common.component.LifecycleComponent;
 import org.elasticsearch.common.inject.Module;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.index.settings.IndexDynamicSettingsModule;
 import org.elasticsearch.plugins.AbstractPlugin;
 import org.elasticsearch.rest.RestModule;
 import org.elasticsearch.script.ScriptModule;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Collection;
 import java.util.List;
@@ -93,6 +99,16 @@ public class SQLPlugin extends AbstractPlugin {
         // partitions explicitly
         settingsBuilder.put("action.auto_create_index", false);
 
+        // COPY TO compresses and writes its output on a fixed pool with a bounded queue,
+        // if the queue is full the producing thread writes the chunks itself.
+        // Plugin settings override the node settings, so configured values are carried over.
+        String copyToPool = ThreadPool.THREADPOOL_GROUP + WriterProjector.THREAD_POOL_NAME + ".";
+        settingsBuilder.put(copyToPool + "type", "fixed");
+        settingsBuilder.put(copyToPool + "size",
+                settings.getAsInt(copyToPool + "size", EsExecutors.boundedNumberOfProcessors(settings)));
+        settingsBuilder.put(copyToPool + "queue_size",
+                settings.getAsInt(copyToPool + "queue_size", WriterProjector.THREAD_POOL_QUEUE_SIZE));
+
         return settingsBuilder.build();
     }
 
@@ -183,6 +199,11 @@ public class SQLPlugin extends AbstractPlugin {
         }
     }
 
+    public void onModule(IndexDynamicSettingsModule indexDynamicSettingsModule) {
+        indexDynamicSettingsModule.addDynamicSettings(RowCache.INDEX_ROW_CACHE_ENABLED);
+        indexDynamicSettingsModule.addDynamicSettings(ResultCache.INDEX_RESULT_CACHE_ENABLED);
+    }
+
     public void onModule(ScriptModule scriptModule) {
         NumericScalarSearchScript.register(scriptModule);
         NumericScalarSortScript.register(scriptModule);
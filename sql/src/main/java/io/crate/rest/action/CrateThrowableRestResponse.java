@@ -54,7 +54,7 @@ public class CrateThrowableRestResponse extends RestResponse {
     }
 
     private static XContentBuilder convert(RestChannel channel, Throwable t) throws IOException {
-        XContentBuilder builder = channel.newBuilder().startObject()
+        XContentBuilder builder = RestSQLAction.newBuilder(channel).startObject()
             .startObject("error");
 
         SQLActionException sqlActionException = null;
@@ -32,14 +32,20 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.*;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
 public class RestSQLAction extends BaseRestHandler {
 
     private static final String REQUEST_HEADER_USER = "User";
+    private static final String REQUEST_HEADER_ACCEPT = "Accept";
+    private static final String REQUEST_HEADER_CONTENT_TYPE = "Content-Type";
 
     @Inject
     public RestSQLAction(Settings settings, Client client, RestController controller) {
@@ -59,7 +65,7 @@ public class RestSQLAction extends BaseRestHandler {
         SQLXContentSourceContext context = new SQLXContentSourceContext();
         SQLXContentSourceParser parser = new SQLXContentSourceParser(context);
         try {
-            parser.parseSource(request.content());
+            parser.parseSource(request.content(), xContentType(request.header(REQUEST_HEADER_CONTENT_TYPE)));
         } catch (SQLParseException e) {
             StringWriter stackTrace = new StringWriter();
             e.printStackTrace(new PrintWriter(stackTrace));
@@ -96,6 +102,51 @@ public class RestSQLAction extends BaseRestHandler {
         return flags;
     }
 
+    /**
+     * @return the first of the given comma separated media types which is a known XContent type
+     *         (JSON, Smile, YAML or CBOR), parameters like the charset are ignored.
+     */
+    @Nullable
+    static XContentType xContentType(@Nullable String mediaTypes) {
+        if (mediaTypes == null) {
+            return null;
+        }
+        for (String mediaType : mediaTypes.split(",")) {
+            int paramsStart = mediaType.indexOf(';');
+            if (paramsStart >= 0) {
+                mediaType = mediaType.substring(0, paramsStart);
+            }
+            XContentType xContentType = XContentType.fromRestContentType(mediaType.trim().toLowerCase());
+            if (xContentType != null) {
+                return xContentType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the builder for a response, its XContent type is selected by the <code>format</code> parameter,
+     * the <code>Accept</code> header or the <code>Content-Type</code> header, in this order. Defaults to JSON.
+     */
+    static XContentBuilder newBuilder(RestChannel channel) throws IOException {
+        RestRequest request = channel.request();
+        if (request.param("format") != null) {
+            return channel.newBuilder();
+        }
+        XContentType xContentType = xContentType(request.header(REQUEST_HEADER_ACCEPT));
+        if (xContentType == null) {
+            xContentType = xContentType(request.header(REQUEST_HEADER_CONTENT_TYPE));
+        }
+        if (xContentType == null) {
+            return channel.newBuilder();
+        }
+        XContentBuilder builder = XContentFactory.contentBuilder(xContentType, channel.bytesOutput());
+        if (request.paramAsBoolean("pretty", false)) {
+            builder.prettyPrint().lfAtEnd();
+        }
+        return builder;
+    }
+
     private void executeSimpleRequest(SQLXContentSourceContext context, final RestRequest request, final RestChannel channel, Client client) {
         final SQLRequestBuilder requestBuilder = new SQLRequestBuilder(client);
         requestBuilder.stmt(context.stmt());
@@ -133,7 +184,7 @@ public class RestSQLAction extends BaseRestHandler {
         @Override
         public void onResponse(TResponse tResponse) {
             try {
-                XContentBuilder builder = channel.newBuilder();
+                XContentBuilder builder = newBuilder(channel);
                 tResponse.toXContent(builder, request);
                 channel.sendResponse(new BytesRestResponse(RestStatus.OK, builder));
             } catch (Throwable e) {
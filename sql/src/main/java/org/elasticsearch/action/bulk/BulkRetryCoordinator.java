@@ -21,171 +21,279 @@
 
 package org.elasticsearch.action.bulk;
 
+import io.crate.exceptions.Exceptions;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.common.util.concurrent.EsExecutors.daemonThreadFactory;
 
 /**
- * coordinates bulk operation retries for one node
+ * coordinates the bulk requests sent to one node
+ *
+ * The number of requests in flight and the bulk size are adapted AIMD-style
+ * (additive increase, multiplicative decrease):
+ * every response that is not considerably slower (per item) than the smoothed latency
+ * increases the limits a bit, a rejected request or a latency spike halves them.
+ * Limits are halved at most once per window of requests that were sent with the same limits.
+ *
+ * Requests exceeding the in-flight limit are queued and sent once responses arrive.
+ * Rejected requests are requeued after a delay that grows with consecutive rejections.
+ * Nothing in here ever blocks the calling thread.
  */
 public class BulkRetryCoordinator {
 
     private static final ESLogger LOGGER = Loggers.getLogger(BulkRetryCoordinator.class);
-    private static final int DELAY_INCREMENT = 1;
 
-    private final ReadWriteLock retryLock;
-    private final AtomicInteger currentDelay;
+    static final int INITIAL_IN_FLIGHT_LIMIT = 4;
+    static final int MAX_IN_FLIGHT_LIMIT = 32;
+    static final double MIN_BULK_SIZE_FACTOR = 1.0 / 16;
+    static final double BULK_SIZE_FACTOR_INCREMENT = 1.0 / 16;
+    static final double LATENCY_SPIKE_FACTOR = 2.0;
+    static final double LATENCY_SMOOTHING = 0.2;
+    static final long MAX_RETRY_DELAY_MS = 1000L;
+    private static final int MAX_RETRY_DELAY_SHIFT = 10;
 
     private final ScheduledExecutorService retryExecutorService;
 
+    private final Object lock = new Object();
+    private final ArrayDeque<BulkTask<?, ?>> queue = new ArrayDeque<>();
+    private double inFlightLimit = INITIAL_IN_FLIGHT_LIMIT;
+    private double bulkSizeFactor = 1.0;
+    private double smoothedItemLatency = -1.0;
+    private int inFlight = 0;
+    private int window = 0;
+    private int consecutiveRejections = 0;
+    private boolean closed = false;
+
     public BulkRetryCoordinator(Settings settings) {
         this.retryExecutorService = Executors.newSingleThreadScheduledExecutor(
                 daemonThreadFactory(settings, getClass().getSimpleName()));
-        this.retryLock = new ReadWriteLock();
-        this.currentDelay = new AtomicInteger(0);
     }
 
-    public ReadWriteLock retryLock() {
-        return retryLock;
+    /**
+     * send a request to the node as soon as the in-flight limit allows it.
+     *
+     * Rejected requests are retried, so the listener only receives the final response or failure.
+     *
+     * @param onDispatch called once the request has been sent for the first time,
+     *                   possibly synchronously from within this method
+     */
+    public <Request extends BulkProcessorRequest, Response extends BulkProcessorResponse<?>> void execute(
+                                                        Request request,
+                                                        BulkRequestExecutor<Request, Response> executor,
+                                                        ActionListener<Response> listener,
+                                                        @Nullable Runnable onDispatch) {
+        enqueue(new BulkTask<>(request, executor, listener, onDispatch), false);
     }
 
-    public <Request extends BulkProcessorRequest, Response extends BulkProcessorResponse<?>> void retry(
-                                                            final Request request,
-                                                            final BulkRequestExecutor<Request, Response> executor,
-                                                            boolean repeatingRetry,
-                                                            ActionListener<Response> listener) {
-        trace("doRetry");
-        final RetryBulkActionListener<Response> retryBulkActionListener = new RetryBulkActionListener<>(listener);
-        if (repeatingRetry) {
-            try {
-                Thread.sleep(currentDelay.getAndAdd(DELAY_INCREMENT));
-            } catch (InterruptedException e) {
-                Thread.interrupted();
-            }
-            executor.execute(request, retryBulkActionListener);
-        } else {
-            // new retries will be spawned in new thread because they can block
-            retryExecutorService.schedule(
-                    new Runnable() {
-                        @Override
-                        public void run() {
-                            LOGGER.trace("retry thread [{}] started", Thread.currentThread().getName());
-                            // will block if other retries/writer are active
-                            try {
-                                retryLock.acquireWriteLock();
-                            } catch (InterruptedException e) {
-                                Thread.interrupted();
-                            }
-                            LOGGER.trace("retry thread [{}] executing", Thread.currentThread().getName());
-                            executor.execute(request, retryBulkActionListener);
-                        }
-                    }, currentDelay.getAndAdd(DELAY_INCREMENT), TimeUnit.MILLISECONDS);
+    /**
+     * @return the bulk size to use for requests sent to this node, at most <code>maxBulkSize</code>
+     */
+    public int bulkSize(int maxBulkSize) {
+        synchronized (lock) {
+            return Math.max(1, (int) (maxBulkSize * bulkSizeFactor));
         }
     }
 
-    private void trace(String message, Object ... args) {
-        if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("BulkRetryCoordinator: active retries: {} - {}",
-                    retryLock.activeWriters(), String.format(Locale.ENGLISH, message, args));
+    public int inFlightLimit() {
+        synchronized (lock) {
+            return (int) inFlightLimit;
         }
     }
 
-    public void close() {
-        if (!retryExecutorService.isTerminated()) {
-            retryExecutorService.shutdown();
-            try {
-                retryExecutorService.awaitTermination(currentDelay.get() + 100, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } finally {
-                retryExecutorService.shutdownNow();
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int queued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    private void enqueue(BulkTask<?, ?> task, boolean first) {
+        synchronized (lock) {
+            if (first) {
+                queue.addFirst(task);
+            } else {
+                queue.addLast(task);
             }
         }
+        dispatch();
     }
 
-    public void shutdown() {
-        retryExecutorService.shutdownNow();
+    private void dispatch() {
+        List<BulkTask<?, ?>> tasks = null;
+        synchronized (lock) {
+            while (!queue.isEmpty() && (closed || inFlight < (int) inFlightLimit)) {
+                if (tasks == null) {
+                    tasks = new ArrayList<>();
+                }
+                BulkTask<?, ?> task = queue.poll();
+                task.window = window;
+                inFlight++;
+                tasks.add(task);
+            }
+        }
+        if (tasks != null) {
+            for (BulkTask<?, ?> task : tasks) {
+                task.send();
+            }
+        }
     }
 
-    private class RetryBulkActionListener<Response> implements ActionListener<Response> {
+    void onResponse(int taskWindow, long tookNanos, int numItems) {
+        synchronized (lock) {
+            inFlight--;
+            consecutiveRejections = 0;
+            double itemLatency = tookNanos / (double) Math.max(1, numItems);
+            if (smoothedItemLatency >= 0 && itemLatency > LATENCY_SPIKE_FACTOR * smoothedItemLatency) {
+                trace("latency spike: %.0fns per item, smoothed: %.0fns", itemLatency, smoothedItemLatency);
+                decrease(taskWindow);
+            } else {
+                inFlightLimit = Math.min(MAX_IN_FLIGHT_LIMIT, inFlightLimit + 1.0 / inFlightLimit);
+                bulkSizeFactor = Math.min(1.0, bulkSizeFactor + BULK_SIZE_FACTOR_INCREMENT);
+            }
+            if (smoothedItemLatency < 0) {
+                smoothedItemLatency = itemLatency;
+            } else {
+                smoothedItemLatency += LATENCY_SMOOTHING * (itemLatency - smoothedItemLatency);
+            }
+        }
+    }
 
-        private final ActionListener<Response> listener;
+    /**
+     * @return the delay in ms after which the rejected request should be retried
+     */
+    long onRejected(int taskWindow) {
+        synchronized (lock) {
+            inFlight--;
+            decrease(taskWindow);
+            consecutiveRejections++;
+            trace("request rejected, consecutive rejections: %d", consecutiveRejections);
+            return Math.min(MAX_RETRY_DELAY_MS, 1L << Math.min(consecutiveRejections, MAX_RETRY_DELAY_SHIFT));
+        }
+    }
 
-        private RetryBulkActionListener(ActionListener<Response> listener) {
-            this.listener = listener;
+    void onFailure() {
+        synchronized (lock) {
+            inFlight--;
         }
+    }
 
-        @Override
-        public void onResponse(Response response) {
-            currentDelay.set(0);
-            try {
-                retryLock.releaseWriteLock();
-            } catch (InterruptedException e) {
-                Thread.interrupted();
-            }
-            listener.onResponse(response);
+    private void decrease(int taskWindow) {
+        if (taskWindow != window) {
+            // limits were already decreased since the request was sent
+            return;
         }
+        window++;
+        inFlightLimit = Math.max(1.0, inFlightLimit / 2);
+        bulkSizeFactor = Math.max(MIN_BULK_SIZE_FACTOR, bulkSizeFactor / 2);
+    }
 
-        @Override
-        public void onFailure(Throwable e) {
-            listener.onFailure(e);
+    private void retry(final BulkTask<?, ?> task, long delay) {
+        try {
+            retryExecutorService.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    enqueue(task, true);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // coordinator was closed, send it right away
+            enqueue(task, true);
         }
     }
 
+    private void trace(String message, Object ... args) {
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("BulkRetryCoordinator: in flight: {}/{}, queued: {}, bulk size factor: {} - {}",
+                    inFlight, (int) inFlightLimit, queue.size(), bulkSizeFactor, String.format(Locale.ENGLISH, message, args));
+        }
+    }
 
     /**
-     * A {@link Semaphore} based read/write lock allowing multiple readers,
-     * no reader will block others, and only 1 active writer. Writers take
-     * precedence over readers, a writer will block all readers.
-     * Compared to a {@link ReadWriteLock}, no lock is owned by a thread.
+     * stop limiting, all queued requests are sent
      */
-    static class ReadWriteLock {
-        private final Semaphore readLock = new Semaphore(1, true);
-        private final Semaphore writeLock = new Semaphore(1, true);
-        private final AtomicInteger activeWriters = new AtomicInteger(0);
-        private final AtomicInteger waitingReaders = new AtomicInteger(0);
-
-        public ReadWriteLock() {
+    public void close() {
+        synchronized (lock) {
+            closed = true;
         }
+        retryExecutorService.shutdown();
+        dispatch();
+    }
 
-        public void acquireWriteLock() throws InterruptedException {
-            // check readLock permits to prevent deadlocks
-            if (activeWriters.getAndIncrement() == 0 && readLock.availablePermits() == 1) {
-                // draining read permits, so all reads will block
-                readLock.drainPermits();
-            }
-            writeLock.acquire();
-        }
+    public void shutdown() {
+        retryExecutorService.shutdownNow();
+    }
 
-        public void releaseWriteLock() throws InterruptedException {
-            if (activeWriters.decrementAndGet() == 0) {
-                // unlock all readers
-                readLock.release(waitingReaders.getAndSet(0)+1);
-            }
-            writeLock.release();
+    private class BulkTask<Request extends BulkProcessorRequest, Response extends BulkProcessorResponse<?>>
+            implements ActionListener<Response> {
+
+        private final Request request;
+        private final BulkRequestExecutor<Request, Response> executor;
+        private final ActionListener<Response> listener;
+        private Runnable onDispatch;
+        private int window;
+        private long startNanos;
+
+        private BulkTask(Request request,
+                         BulkRequestExecutor<Request, Response> executor,
+                         ActionListener<Response> listener,
+                         @Nullable Runnable onDispatch) {
+            this.request = request;
+            this.executor = executor;
+            this.listener = listener;
+            this.onDispatch = onDispatch;
         }
 
-        public void acquireReadLock() throws InterruptedException {
-            // only acquire permit if writers are active
-            if(activeWriters.get() > 0) {
-                waitingReaders.getAndIncrement();
-                readLock.acquire();
+        private void send() {
+            if (onDispatch != null) {
+                onDispatch.run();
+                onDispatch = null;
+            }
+            startNanos = System.nanoTime();
+            try {
+                executor.execute(request, this);
+            } catch (Throwable t) {
+                onFailure(t);
             }
         }
 
-        public int activeWriters() {
-            return activeWriters.get();
+        @Override
+        public void onResponse(Response response) {
+            BulkRetryCoordinator.this.onResponse(window, System.nanoTime() - startNanos, request.itemIndices().size());
+            dispatch();
+            listener.onResponse(response);
         }
 
+        @Override
+        public void onFailure(Throwable e) {
+            if (Exceptions.unwrap(e) instanceof EsRejectedExecutionException) {
+                LOGGER.trace("{}, retrying", e.getMessage());
+                long delay = onRejected(window);
+                retry(this, delay);
+                dispatch();
+            } else {
+                BulkRetryCoordinator.this.onFailure();
+                dispatch();
+                listener.onFailure(e);
+            }
+        }
     }
 }
@@ -35,6 +35,7 @@ import io.crate.core.collections.Row;
 import io.crate.core.collections.RowN;
 import io.crate.exceptions.Exceptions;
 import io.crate.metadata.settings.CrateSettings;
+import io.crate.operation.RowUpstream;
 import io.crate.operation.collect.RowShardResolver;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.BulkCreateIndicesRequest;
@@ -47,7 +48,6 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
-import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndexMissingException;
 
@@ -62,8 +62,10 @@ import java.util.concurrent.atomic.AtomicReference;
  * Processor to do Bulk Inserts, similar to {@link BulkProcessor}
  * but less flexible (only supports IndexRequests)
  *
- * If the Bulk threadPool Queue is full retries are made and
- * the {@link #add} method will start to block.
+ * Requests are sent through the {@link BulkRetryCoordinator} of the target node,
+ * which limits the requests in flight, adapts the bulk size and retries rejected requests.
+ * If requests have to be queued because a node is saturated the upstream is paused
+ * until they are sent, see {@link #upstream(RowUpstream)}.
  */
 public class BulkShardProcessor<Request extends BulkProcessorRequest, Response extends BulkProcessorResponse<?>> {
 
@@ -84,6 +86,7 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
     private final AtomicInteger globalCounter = new AtomicInteger(0);
     private final AtomicInteger counter = new AtomicInteger(0);
     private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicInteger queuedRequests = new AtomicInteger(0);
     private final Semaphore executeLock = new Semaphore(1);
 
     private final SettableFuture<BitSet> result;
@@ -105,6 +108,20 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
 
     private final BulkRequestBuilder<Request> bulkRequestBuilder;
     private final BulkRequestExecutor<Request, Response> bulkRequestExecutor;
+    private final Runnable requestDispatched = new Runnable() {
+        @Override
+        public void run() {
+            if (queuedRequests.decrementAndGet() == 0) {
+                resumeUpstream();
+            }
+        }
+    };
+
+    @Nullable
+    private RowUpstream upstream;
+    private final Object throttleLock = new Object();
+    private boolean paused = false;
+    private boolean pauseSupported = true;
 
     public BulkShardProcessor(ClusterService clusterService,
                               Settings settings,
@@ -156,20 +173,20 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
 
         rowShardResolver.setNextRow(row);
         ShardId shardId = shardId(indexName, rowShardResolver.id(), rowShardResolver.routing());
+        int effectiveBulkSize = bulkSize;
         if (shardId == null) {
             addRequestForNewIndex(indexName, rowShardResolver.id(), row, rowShardResolver.routing(), version);
         } else {
             try {
-                bulkRetryCoordinatorPool.coordinator(shardId).retryLock().acquireReadLock();
-            } catch (InterruptedException e) {
-                Thread.interrupted();
+                effectiveBulkSize = bulkRetryCoordinatorPool.coordinator(shardId).bulkSize(bulkSize);
             } catch (Throwable e) {
                 setFailure(e);
                 return false;
             }
             partitionRequestByShard(shardId, rowShardResolver.id(), row, rowShardResolver.routing(), version);
         }
-        executeIfNeeded();
+        executeIfNeeded(effectiveBulkSize);
+        pauseIfThrottled();
         return true;
     }
 
@@ -237,10 +254,20 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
         return result;
     }
 
+    /**
+     * the upstream is paused if requests have to be queued because the target nodes are saturated,
+     * and resumed once they are sent. {@link #add} must be called from the thread of the upstream.
+     *
+     * Upstreams which don't support pausing are blocked in {@link #add} instead.
+     */
+    public void upstream(@Nullable RowUpstream upstream) {
+        this.upstream = upstream;
+    }
+
     public void close() {
         trace("close");
         closed = true;
-        executeIfNeeded();
+        executeIfNeeded(bulkSize);
         if (pending.get() == 0) {
             setResult();
         }
@@ -249,11 +276,55 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
     public void kill() {
         failure.compareAndSet(null, new CancellationException());
         result.cancel(true);
+        resumeUpstream();
     }
 
     private void setFailure(Throwable e) {
         failure.compareAndSet(null, e);
         result.setException(e);
+        resumeUpstream();
+    }
+
+    private void pauseIfThrottled() {
+        if (upstream == null || queuedRequests.get() == 0) {
+            return;
+        }
+        synchronized (throttleLock) {
+            if (pauseSupported && !paused && queuedRequests.get() > 0) {
+                try {
+                    upstream.pause();
+                    paused = true;
+                } catch (UnsupportedOperationException e) {
+                    pauseSupported = false;
+                }
+            }
+            if (!pauseSupported) {
+                while (queuedRequests.get() > 0 && failure.get() == null) {
+                    try {
+                        throttleLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.interrupted();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void resumeUpstream() {
+        if (upstream == null) {
+            return;
+        }
+        boolean resume;
+        synchronized (throttleLock) {
+            throttleLock.notifyAll();
+            resume = paused;
+            paused = false;
+        }
+        if (resume) {
+            trace("resume upstream");
+            upstream.resume(true);
+        }
     }
 
     private void setResult() {
@@ -272,17 +343,17 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
         }
     }
 
-    private void executeIfNeeded() {
+    private void executeIfNeeded(int effectiveBulkSize) {
         if ((closed
                 || requestsForNewIndices.size() >= createIndicesBulkSize
                 || pendingNewIndexRequests.get() >= bulkSize) && failure.get() == null) {
             createPendingIndices();
         }
-        executeRequestsIfNeeded();
+        executeRequestsIfNeeded(effectiveBulkSize);
     }
 
-    private void executeRequestsIfNeeded() {
-        if ((closed || counter.get() >= bulkSize) && failure.get() == null) {
+    private void executeRequestsIfNeeded(int effectiveBulkSize) {
+        if ((closed || counter.get() >= effectiveBulkSize) && failure.get() == null) {
             executeRequests();
         }
     }
@@ -297,8 +368,10 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
                 }
                 Map.Entry<ShardId, Request> entry = it.next();
                 final Request shardRequest = entry.getValue();
-                final ShardId shardId = entry.getKey();
-                bulkRequestExecutor.execute(shardRequest, new ActionListener<Response>() {
+                BulkRetryCoordinator coordinator = bulkRetryCoordinatorPool.coordinator(entry.getKey());
+                queuedRequests.incrementAndGet();
+                it.remove();
+                coordinator.execute(shardRequest, bulkRequestExecutor, new ActionListener<Response>() {
                     @Override
                     public void onResponse(Response response) {
                         processResponse(response);
@@ -306,10 +379,9 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
 
                     @Override
                     public void onFailure(Throwable e) {
-                        processFailure(e, shardId, shardRequest, false);
+                        processFailure(e, shardRequest);
                     }
-                });
-                it.remove();
+                }, requestDispatched);
             }
         } catch (InterruptedException e) {
             Thread.interrupted();
@@ -363,7 +435,7 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
                                 pendingRequest.routing, pendingRequest.version);
                     }
                     trace("added %d pending requests, lets see if we can execute them", pendings.size());
-                    executeRequestsIfNeeded();
+                    executeRequestsIfNeeded(bulkSize);
                 }
 
                 @Override
@@ -406,46 +478,15 @@ public class BulkShardProcessor<Request extends BulkProcessorRequest, Response e
         setResultIfDone(response.itemIndices().size());
     }
 
-    private void processFailure(Throwable e, final ShardId shardId, final Request request, boolean repeatingRetry) {
+    private void processFailure(Throwable e, Request request) {
         trace("execute failure");
         e = Exceptions.unwrap(e);
-        BulkRetryCoordinator coordinator;
-        try {
-            coordinator = bulkRetryCoordinatorPool.coordinator(shardId);
-        } catch (Throwable t) {
-            setFailure(t);
-            return;
-        }
-        if (e instanceof EsRejectedExecutionException) {
-            LOGGER.trace("{}, retrying", e.getMessage());
-            coordinator.retry(request, bulkRequestExecutor, repeatingRetry, new ActionListener<Response>() {
-
-                @Override
-                public void onFailure(Throwable e) {
-                    processFailure(e, shardId, request, true);
-                }
-
-                @Override
-                public void onResponse(Response response) {
-                    processResponse(response);
-                }
-            });
-        } else {
-            if (repeatingRetry) {
-                // release failed retry
-                try {
-                    coordinator.retryLock().releaseWriteLock();
-                } catch (InterruptedException ex) {
-                    Thread.interrupted();
-                }
-            }
-            for (IntCursor intCursor : request.itemIndices()) {
-                synchronized (responsesLock) {
-                    responses.set(intCursor.value, false);
-                }
+        for (IntCursor intCursor : request.itemIndices()) {
+            synchronized (responsesLock) {
+                responses.set(intCursor.value, false);
             }
-            setFailure(e);
         }
+        setFailure(e);
     }
 
     private void trace(String message, Object ... args) {
@@ -33,6 +33,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.crate.Constants;
 import io.crate.exceptions.Exceptions;
 import io.crate.metadata.settings.CrateSettings;
+import io.crate.operation.RowUpstream;
 import io.crate.planner.symbol.Symbol;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.BulkCreateIndicesRequest;
@@ -43,7 +44,6 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
-import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndexMissingException;
 
@@ -57,8 +57,10 @@ import java.util.concurrent.atomic.AtomicReference;
  * Processor to do Bulk Inserts, similar to {@link org.elasticsearch.action.bulk.BulkProcessor}
  * but less flexible (only supports IndexRequests)
  *
- * If the Bulk threadPool Queue is full retries are made and
- * the {@link #add} method will start to block.
+ * Requests are sent through the {@link BulkRetryCoordinator} of the target node,
+ * which limits the requests in flight, adapts the bulk size and retries rejected requests.
+ * If requests have to be queued because a node is saturated the upstream is paused
+ * until they are sent, see {@link #upstream(RowUpstream)}.
  */
 public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest, Response extends BulkProcessorResponse<?>> {
 
@@ -75,6 +77,7 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
     private final AtomicInteger globalCounter = new AtomicInteger(0);
     private final AtomicInteger requestItemCounter = new AtomicInteger(0);
     private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicInteger queuedRequests = new AtomicInteger(0);
     private final Semaphore executeLock = new Semaphore(1);
 
     private final SettableFuture<BitSet> result;
@@ -94,6 +97,20 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
 
     private final BulkRequestBuilder<Request> requestBuilder;
     private final BulkRequestExecutor<Request, Response> requestExecutor;
+    private final Runnable requestDispatched = new Runnable() {
+        @Override
+        public void run() {
+            if (queuedRequests.decrementAndGet() == 0) {
+                resumeUpstream();
+            }
+        }
+    };
+
+    @Nullable
+    private RowUpstream upstream;
+    private final Object throttleLock = new Object();
+    private boolean paused = false;
+    private boolean pauseSupported = true;
 
     private static final ESLogger LOGGER = Loggers.getLogger(SymbolBasedBulkShardProcessor.class);
 
@@ -150,21 +167,20 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
         }
 
         ShardId shardId = shardId(indexName, id, routing);
+        int effectiveBulkSize = bulkSize;
         if (shardId == null) {
             addRequestForNewIndex(indexName, id, assignments, missingAssignments, routing, version);
         } else {
             try {
-                // will only block if retries/writer are active
-                bulkRetryCoordinatorPool.coordinator(shardId).retryLock().acquireReadLock();
-            } catch (InterruptedException e) {
-                Thread.interrupted();
+                effectiveBulkSize = bulkRetryCoordinatorPool.coordinator(shardId).bulkSize(bulkSize);
             } catch (Throwable e) {
                 setFailure(e);
                 return false;
             }
             partitionRequestByShard(shardId, id, assignments, missingAssignments, routing, version);
         }
-        executeIfNeeded();
+        executeIfNeeded(effectiveBulkSize);
+        pauseIfThrottled();
         return true;
     }
 
@@ -190,17 +206,16 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
             return false;
         }
 
-        // will only block if retries/writer are active
+        int effectiveBulkSize;
         try {
-            bulkRetryCoordinatorPool.coordinator(shardId).retryLock().acquireReadLock();
-        } catch (InterruptedException e) {
-            Thread.interrupted();
+            effectiveBulkSize = bulkRetryCoordinatorPool.coordinator(shardId).bulkSize(bulkSize);
         } catch (Throwable e) {
             setFailure(e);
             return false;
         }
         partitionRequestByShard(shardId, id, assignments, missingAssignments, routing, version);
-        executeIfNeeded();
+        executeIfNeeded(effectiveBulkSize);
+        pauseIfThrottled();
         return true;
     }
 
@@ -283,8 +298,10 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
                 }
                 Map.Entry<ShardId, Request> entry = it.next();
                 final Request request = entry.getValue();
-                final ShardId shardId = entry.getKey();
-                requestExecutor.execute(request, new ActionListener<Response>() {
+                BulkRetryCoordinator coordinator = bulkRetryCoordinatorPool.coordinator(entry.getKey());
+                queuedRequests.incrementAndGet();
+                it.remove();
+                coordinator.execute(request, requestExecutor, new ActionListener<Response>() {
                     @Override
                     public void onResponse(Response response) {
                         processResponse(response);
@@ -292,10 +309,9 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
 
                     @Override
                     public void onFailure(Throwable e) {
-                        processFailure(e, shardId, request, false);
+                        processFailure(e, request);
                     }
-                });
-                it.remove();
+                }, requestDispatched);
             }
         } catch (InterruptedException e) {
             Thread.interrupted();
@@ -347,7 +363,7 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
                                 pendingRequest.routing, pendingRequest.version);
                     }
                     trace("added %d pending requests, lets see if we can execute them", pendings.size());
-                    executeRequestsIfNeeded();
+                    executeRequestsIfNeeded(bulkSize);
                 }
 
                 @Override
@@ -381,10 +397,20 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
         return result;
     }
 
+    /**
+     * the upstream is paused if requests have to be queued because the target nodes are saturated,
+     * and resumed once they are sent. {@link #add} must be called from the thread of the upstream.
+     *
+     * Upstreams which don't support pausing are blocked in {@link #add} instead.
+     */
+    public void upstream(@Nullable RowUpstream upstream) {
+        this.upstream = upstream;
+    }
+
     public void close() {
         trace("close");
         closed = true;
-        executeIfNeeded();
+        executeIfNeeded(bulkSize);
         if (pending.get() == 0) {
             setResult();
         }
@@ -393,11 +419,55 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
     public void kill(@Nullable Throwable throwable) {
         failure.compareAndSet(null, throwable);
         result.cancel(true);
+        resumeUpstream();
     }
 
     private void setFailure(Throwable e) {
         failure.compareAndSet(null, e);
         result.setException(e);
+        resumeUpstream();
+    }
+
+    private void pauseIfThrottled() {
+        if (upstream == null || queuedRequests.get() == 0) {
+            return;
+        }
+        synchronized (throttleLock) {
+            if (pauseSupported && !paused && queuedRequests.get() > 0) {
+                try {
+                    upstream.pause();
+                    paused = true;
+                } catch (UnsupportedOperationException e) {
+                    pauseSupported = false;
+                }
+            }
+            if (!pauseSupported) {
+                while (queuedRequests.get() > 0 && failure.get() == null) {
+                    try {
+                        throttleLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.interrupted();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void resumeUpstream() {
+        if (upstream == null) {
+            return;
+        }
+        boolean resume;
+        synchronized (throttleLock) {
+            throttleLock.notifyAll();
+            resume = paused;
+            paused = false;
+        }
+        if (resume) {
+            trace("resume upstream");
+            upstream.resume(true);
+        }
     }
 
     private void setResult() {
@@ -415,17 +485,17 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
         }
     }
 
-    private void executeIfNeeded() {
+    private void executeIfNeeded(int effectiveBulkSize) {
         if ((closed
                 || requestsForNewIndices.size() >= createIndicesBulkSize
                 || pendingNewIndexRequests.get() >= bulkSize) && failure.get() == null) {
             createPendingIndices();
         }
-        executeRequestsIfNeeded();
+        executeRequestsIfNeeded(effectiveBulkSize);
     }
 
-    private void executeRequestsIfNeeded() {
-        if ((closed || requestItemCounter.get() >= bulkSize) && failure.get() == null) {
+    private void executeRequestsIfNeeded(int effectiveBulkSize) {
+        if ((closed || requestItemCounter.get() >= effectiveBulkSize) && failure.get() == null) {
             executeRequests();
         }
     }
@@ -442,45 +512,15 @@ public class SymbolBasedBulkShardProcessor<Request extends BulkProcessorRequest,
         trace("response executed.");
     }
 
-    private void processFailure(Throwable e, final ShardId shardId, final Request request, boolean repeatingRetry) {
+    private void processFailure(Throwable e, Request request) {
         trace("execute failure");
         e = Exceptions.unwrap(e);
-        BulkRetryCoordinator coordinator;
-        try {
-            coordinator = bulkRetryCoordinatorPool.coordinator(shardId);
-        } catch (Throwable coordinatorException) {
-            setFailure(coordinatorException);
-            return;
-        }
-        if (e instanceof EsRejectedExecutionException) {
-            LOGGER.trace("{}, retrying", e.getMessage());
-            coordinator.retry(request, requestExecutor, repeatingRetry, new ActionListener<Response>() {
-                @Override
-                public void onResponse(Response response) {
-                    processResponse(response);
-                }
-
-                @Override
-                public void onFailure(Throwable e) {
-                    processFailure(e, shardId, request, true);
-                }
-            });
-        } else {
-            if (repeatingRetry) {
-                // release failed retry
-                try {
-                    coordinator.retryLock().releaseWriteLock();
-                } catch (InterruptedException ex) {
-                    Thread.interrupted();
-                }
-            }
-            for (IntCursor intCursor : request.itemIndices()) {
-                synchronized (responsesLock) {
-                    responses.set(intCursor.value, false);
-                }
+        for (IntCursor intCursor : request.itemIndices()) {
+            synchronized (responsesLock) {
+                responses.set(intCursor.value, false);
             }
-            setFailure(e);
         }
+        setFailure(e);
     }
 
     private void trace(String message, Object ... args) {
@@ -0,0 +1,143 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.action.get;
+
+import io.crate.operation.cache.RowCache;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.RoutingMissingException;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.single.shard.TransportShardSingleOperationAction;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.operation.plain.Preference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.search.fetch.source.FetchSourceContext;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+/**
+ * Realtime get of a single document which is served from the {@link RowCache}
+ * if it is enabled for the index of the document.
+ *
+ * Lookups on indices with an enabled row cache prefer the primary shard, so that a document
+ * is only cached once. On cache misses the whole source is loaded and cached,
+ * independent of the requested source fields.
+ */
+@Singleton
+public class TransportCachedGetAction extends TransportShardSingleOperationAction<GetRequest, GetResponse> {
+
+    private final static String ACTION_NAME = "indices:crate/data/read/get";
+
+    private final IndicesService indicesService;
+    private final RowCache rowCache;
+
+    @Inject
+    public TransportCachedGetAction(Settings settings,
+                                    ClusterService clusterService,
+                                    TransportService transportService,
+                                    IndicesService indicesService,
+                                    ThreadPool threadPool,
+                                    ActionFilters actionFilters,
+                                    RowCache rowCache) {
+        super(settings, ACTION_NAME, threadPool, clusterService, transportService, actionFilters);
+        this.indicesService = indicesService;
+        this.rowCache = rowCache;
+    }
+
+    @Override
+    protected String executor() {
+        return ThreadPool.Names.GET;
+    }
+
+    @Override
+    protected boolean resolveIndex() {
+        return true;
+    }
+
+    @Override
+    protected void resolveRequest(ClusterState state, InternalRequest request) {
+        GetRequest getRequest = request.request();
+        getRequest.routing(state.metaData().resolveIndexRouting(getRequest.routing(), getRequest.index()));
+        if (getRequest.routing() == null && state.getMetaData().routingRequired(request.concreteIndex(), getRequest.type())) {
+            throw new RoutingMissingException(request.concreteIndex(), getRequest.type(), getRequest.id());
+        }
+    }
+
+    @Override
+    protected ShardIterator shards(ClusterState state, InternalRequest request) {
+        GetRequest getRequest = request.request();
+        String preference = getRequest.preference();
+        if (preference == null) {
+            IndexMetaData indexMetaData = state.metaData().index(request.concreteIndex());
+            if (indexMetaData != null && RowCache.isEnabled(indexMetaData.settings())) {
+                preference = Preference.PRIMARY.type();
+            }
+        }
+        return clusterService.operationRouting().getShards(
+                state, request.concreteIndex(), getRequest.type(), getRequest.id(), getRequest.routing(), preference);
+    }
+
+    @Override
+    protected GetResponse shardOperation(GetRequest request, ShardId shardId) throws ElasticsearchException {
+        IndexService indexService = indicesService.indexServiceSafe(shardId.getIndex());
+        IndexShard indexShard = indexService.shardSafe(shardId.id());
+
+        if (!RowCache.isEnabled(indexService.settingsService().getSettings())
+            || !request.realtime()
+            || request.fields() != null
+            || request.version() != Versions.MATCH_ANY) {
+            return new GetResponse(indexShard.getService().get(request.type(), request.id(), request.fields(),
+                    request.realtime(), request.version(), request.versionType(), request.fetchSourceContext(),
+                    request.ignoreErrorsOnGeneratedFields()));
+        }
+
+        GetResult result = rowCache.get(shardId, request.type(), request.id());
+        if (result == null) {
+            long writeGeneration = rowCache.writeGeneration(shardId);
+            result = indexShard.getService().get(request.type(), request.id(), null, true,
+                    Versions.MATCH_ANY, VersionType.INTERNAL, FetchSourceContext.FETCH_SOURCE, false);
+            rowCache.put(shardId, result, writeGeneration);
+        }
+        return new GetResponse(result);
+    }
+
+    @Override
+    protected GetRequest newRequest() {
+        return new GetRequest();
+    }
+
+    @Override
+    protected GetResponse newResponse() {
+        return new GetResponse();
+    }
+}
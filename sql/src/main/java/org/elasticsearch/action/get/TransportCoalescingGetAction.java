@@ -0,0 +1,235 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.action.get;
+
+import io.crate.operation.cache.RowCache;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.TransportAction;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Realtime get of a single document which, if enabled, is coalesced with concurrent gets on the same index.
+ *
+ * Gets are buffered per index for at most {@link #DELAY_SETTING} microseconds or until
+ * {@link #BATCH_SIZE_SETTING} gets are buffered. The buffered gets are then sent as one {@link MultiGetRequest},
+ * which is split into one request per shard by the {@link TransportMultiGetAction}, and the responses are
+ * passed to the listeners of the single gets.
+ *
+ * Gets which can't be expressed as a multi get item or which are served by the {@link RowCache}
+ * are passed to the {@link TransportCachedGetAction} directly, as are items which failed within
+ * the multi get, so that their listener receives the same failure as without coalescing.
+ */
+@Singleton
+public class TransportCoalescingGetAction extends TransportAction<GetRequest, GetResponse> {
+
+    private final static String ACTION_NAME = "indices:crate/data/read/get/coalesced";
+
+    public static final String ENABLED_SETTING = "sql.get_coalescing.enabled";
+    public static final String DELAY_SETTING = "sql.get_coalescing.delay_micros";
+    public static final String BATCH_SIZE_SETTING = "sql.get_coalescing.batch_size";
+
+    static final int DEFAULT_DELAY_MICROS = 500;
+    static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final ClusterService clusterService;
+    private final TransportCachedGetAction getAction;
+    private final TransportMultiGetAction multiGetAction;
+    private final boolean enabled;
+    private final long delayMicros;
+    private final int batchSize;
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+
+    @Inject
+    public TransportCoalescingGetAction(Settings settings,
+                                        ThreadPool threadPool,
+                                        ActionFilters actionFilters,
+                                        ClusterService clusterService,
+                                        TransportCachedGetAction getAction,
+                                        TransportMultiGetAction multiGetAction) {
+        super(settings, ACTION_NAME, threadPool, actionFilters);
+        this.clusterService = clusterService;
+        this.getAction = getAction;
+        this.multiGetAction = multiGetAction;
+        this.enabled = settings.getAsBoolean(ENABLED_SETTING, false);
+        this.delayMicros = Math.max(0, settings.getAsInt(DELAY_SETTING, DEFAULT_DELAY_MICROS));
+        this.batchSize = Math.max(1, settings.getAsInt(BATCH_SIZE_SETTING, DEFAULT_BATCH_SIZE));
+    }
+
+    @Override
+    protected void doExecute(GetRequest request, ActionListener<GetResponse> listener) {
+        if (!enabled || !canCoalesce(request)) {
+            executeGet(request, listener);
+            return;
+        }
+        while (true) {
+            Batch batch = batches.get(request.index());
+            if (batch == null) {
+                batch = new Batch(request.index());
+                Batch existing = batches.putIfAbsent(request.index(), batch);
+                if (existing == null) {
+                    scheduleFlush(batch);
+                } else {
+                    batch = existing;
+                }
+            }
+            int size = batch.add(request, listener);
+            if (size < 0) {
+                // batch was flushed concurrently, add to the next one
+                continue;
+            }
+            if (size >= batchSize) {
+                flush(batch);
+            }
+            return;
+        }
+    }
+
+    private boolean canCoalesce(GetRequest request) {
+        if (!request.realtime()
+            || request.refresh()
+            || request.preference() != null
+            || request.fields() != null
+            || request.version() != Versions.MATCH_ANY) {
+            return false;
+        }
+        IndexMetaData indexMetaData = clusterService.state().metaData().index(request.index());
+        return indexMetaData != null && !RowCache.isEnabled(indexMetaData.settings());
+    }
+
+    private void scheduleFlush(final Batch batch) {
+        threadPool.scheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush(batch);
+            }
+        }, delayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private void flush(Batch batch) {
+        batches.remove(batch.index, batch);
+        if (!batch.close()) {
+            return;
+        }
+        final List<GetRequest> requests = batch.requests;
+        final List<ActionListener<GetResponse>> listeners = batch.listeners;
+        if (requests.size() == 1) {
+            executeGet(requests.get(0), listeners.get(0));
+            return;
+        }
+        MultiGetRequest multiGetRequest = new MultiGetRequest();
+        multiGetRequest.realtime(true);
+        for (GetRequest request : requests) {
+            MultiGetRequest.Item item = new MultiGetRequest.Item(request.index(), request.type(), request.id());
+            item.routing(request.routing());
+            item.fetchSourceContext(request.fetchSourceContext());
+            multiGetRequest.add(item);
+        }
+        executeMultiGet(multiGetRequest, new ActionListener<MultiGetResponse>() {
+            @Override
+            public void onResponse(MultiGetResponse response) {
+                MultiGetItemResponse[] items = response.getResponses();
+                for (int i = 0; i < items.length; i++) {
+                    if (items[i].isFailed()) {
+                        executeGet(requests.get(i), listeners.get(i));
+                    } else {
+                        respond(listeners.get(i), items[i].getResponse());
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                for (ActionListener<GetResponse> listener : listeners) {
+                    try {
+                        listener.onFailure(e);
+                    } catch (Throwable t) {
+                        logger.warn("failed to notify listener of coalesced get", t);
+                    }
+                }
+            }
+        });
+    }
+
+    private void respond(ActionListener<GetResponse> listener, GetResponse response) {
+        try {
+            listener.onResponse(response);
+        } catch (Throwable t) {
+            logger.warn("failed to notify listener of coalesced get", t);
+        }
+    }
+
+    void executeGet(GetRequest request, ActionListener<GetResponse> listener) {
+        getAction.execute(request, listener);
+    }
+
+    void executeMultiGet(MultiGetRequest request, ActionListener<MultiGetResponse> listener) {
+        multiGetAction.execute(request, listener);
+    }
+
+    private static class Batch {
+
+        private final String index;
+        private final List<GetRequest> requests = new ArrayList<>();
+        private final List<ActionListener<GetResponse>> listeners = new ArrayList<>();
+        private boolean closed = false;
+
+        Batch(String index) {
+            this.index = index;
+        }
+
+        /**
+         * @return the number of buffered gets or -1 if the batch was closed already
+         */
+        synchronized int add(GetRequest request, ActionListener<GetResponse> listener) {
+            if (closed) {
+                return -1;
+            }
+            requests.add(request);
+            listeners.add(listener);
+            return requests.size();
+        }
+
+        /**
+         * @return true if the batch was closed by this call, no gets are added afterwards
+         */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+    }
+}
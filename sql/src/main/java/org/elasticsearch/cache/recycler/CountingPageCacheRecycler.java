@@ -0,0 +1,101 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.cache.recycler;
+
+import jsr166e.LongAdder;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+
+/**
+ * PageCacheRecycler which takes its byte pages from another recycler and counts
+ * how many of them have been recycled and how many bytes are currently in use.
+ *
+ * The recyclers of this instance itself are disabled, all other page types are allocated without recycling.
+ * It lives in this package so that it reads the same component settings as {@link PageCacheRecycler}.
+ */
+public class CountingPageCacheRecycler extends PageCacheRecycler {
+
+    private final PageCacheRecycler delegate;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder usedBytes = new LongAdder();
+
+    public CountingPageCacheRecycler(Settings settings, ThreadPool threadPool, PageCacheRecycler delegate) {
+        super(ImmutableSettings.builder()
+                .put(settings)
+                .put("cache.recycler." + TYPE, Type.NONE.name())
+                .build(), threadPool);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Recycler.V<byte[]> bytePage(boolean clear) {
+        final Recycler.V<byte[]> page = delegate.bytePage(clear);
+        if (page.isRecycled()) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        final int length = page.v().length;
+        usedBytes.add(length);
+        return new Recycler.V<byte[]>() {
+            @Override
+            public byte[] v() {
+                return page.v();
+            }
+
+            @Override
+            public boolean isRecycled() {
+                return page.isRecycled();
+            }
+
+            @Override
+            public void close() {
+                usedBytes.add(-length);
+                page.close();
+            }
+        };
+    }
+
+    /**
+     * @return the number of byte pages which have been taken from the delegate and were recycled
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of byte pages which have been taken from the delegate and had to be allocated
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of bytes of all byte pages which have been taken and not released yet
+     */
+    public long usedBytes() {
+        return usedBytes.sum();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.action.sql.parser;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+public class SQLXContentSourceParserTest extends CrateUnitTest {
+
+    private static XContentBuilder bulkInsert(XContentBuilder builder) throws Exception {
+        return builder.startObject()
+                .field("stmt", "insert into t (i, l, d, s, o) values (?, ?, ?, ?, ?)")
+                .startArray("bulk_args")
+                    .startArray().value(1).value(10L).value(1.5d).value("foo").startObject().field("x", 1).endObject().endArray()
+                    .startArray().value(2).value(20L).value(2.5d).nullValue().nullValue().endArray()
+                .endArray()
+                .endObject();
+    }
+
+    private static SQLXContentSourceContext parse(XContentBuilder builder, XContentType contentType) throws Exception {
+        SQLXContentSourceContext context = new SQLXContentSourceContext();
+        new SQLXContentSourceParser(context).parseSource(builder.bytes(), contentType);
+        return context;
+    }
+
+    private static void assertBulkArgs(SQLXContentSourceContext context) {
+        assertThat(context.stmt(), is("insert into t (i, l, d, s, o) values (?, ?, ?, ?, ?)"));
+        Object[][] bulkArgs = context.bulkArgs();
+        assertThat(bulkArgs.length, is(2));
+
+        assertThat(bulkArgs[0].length, is(5));
+        assertThat(((Number) bulkArgs[0][0]).intValue(), is(1));
+        assertThat(((Number) bulkArgs[0][1]).longValue(), is(10L));
+        assertThat(bulkArgs[0][2], instanceOf(Double.class));
+        assertThat((Double) bulkArgs[0][2], is(1.5d));
+        assertThat((String) bulkArgs[0][3], is("foo"));
+        assertThat(((Map<?, ?>) bulkArgs[0][4]).get("x"), is((Object) 1));
+
+        assertThat(bulkArgs[1].length, is(5));
+        assertThat(((Number) bulkArgs[1][0]).intValue(), is(2));
+        assertThat(bulkArgs[1][3], nullValue());
+        assertThat(bulkArgs[1][4], nullValue());
+    }
+
+    @Test
+    public void testParseSmile() throws Exception {
+        assertBulkArgs(parse(bulkInsert(XContentFactory.smileBuilder()), XContentType.SMILE));
+    }
+
+    @Test
+    public void testParseCbor() throws Exception {
+        assertBulkArgs(parse(bulkInsert(XContentFactory.cborBuilder()), XContentType.CBOR));
+    }
+
+    @Test
+    public void testContentTypeIsDetected() throws Exception {
+        assertBulkArgs(parse(bulkInsert(XContentFactory.smileBuilder()), null));
+        assertBulkArgs(parse(bulkInsert(XContentFactory.jsonBuilder()), null));
+    }
+}
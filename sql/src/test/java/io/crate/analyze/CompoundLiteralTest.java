@@ -27,6 +27,7 @@ import io.crate.analyze.expressions.ExpressionAnalyzer;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.AnalyzedRelationVisitor;
 import io.crate.analyze.relations.FullQualifedNameFieldProvider;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.*;
 import io.crate.metadata.table.SchemaInfo;
 import io.crate.planner.symbol.Field;
@@ -45,6 +46,7 @@ import org.elasticsearch.cluster.metadata.IndexTemplateMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.collect.MapBuilder;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matchers;
 import org.junit.After;
@@ -88,7 +90,8 @@ public class CompoundLiteralTest extends CrateUnitTest {
                         Collections.<String, SchemaInfo>emptyMap(),
                         clusterService,
                         threadPool,
-                        transportPutIndexTemplateAction),
+                        transportPutIndexTemplateAction,
+                        new NodeResponseStats(ImmutableSettings.EMPTY)),
                 new GlobalReferenceResolver(Collections.<ReferenceIdent, ReferenceImplementation>emptyMap())
         );
     }
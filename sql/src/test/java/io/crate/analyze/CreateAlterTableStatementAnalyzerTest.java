@@ -736,6 +736,26 @@ public class CreateAlterTableStatementAnalyzerTest extends BaseAnalyzerTest {
         assertThat(analysis.tableParameter().settings().get(TableParameterInfo.ROUTING_ALLOCATION_ENABLE), is("none"));
     }
 
+    @Test
+    public void testRowCacheEnabled() throws Exception {
+        AlterTableAnalyzedStatement analysis =
+                (AlterTableAnalyzedStatement)analyze("alter table users set (\"row_cache.enabled\"=true)");
+        assertThat(analysis.tableParameter().settings().get(TableParameterInfo.ROW_CACHE_ENABLED), is("true"));
+
+        analysis = (AlterTableAnalyzedStatement)analyze("alter table users reset (\"row_cache.enabled\")");
+        assertThat(analysis.tableParameter().settings().get(TableParameterInfo.ROW_CACHE_ENABLED), is("false"));
+    }
+
+    @Test
+    public void testResultCacheEnabled() throws Exception {
+        AlterTableAnalyzedStatement analysis =
+                (AlterTableAnalyzedStatement)analyze("alter table users set (\"result_cache.enabled\"=true)");
+        assertThat(analysis.tableParameter().settings().get(TableParameterInfo.RESULT_CACHE_ENABLED), is("true"));
+
+        analysis = (AlterTableAnalyzedStatement)analyze("alter table users reset (\"result_cache.enabled\")");
+        assertThat(analysis.tableParameter().settings().get(TableParameterInfo.RESULT_CACHE_ENABLED), is("false"));
+    }
+
     @Test
     public void testRoutingAllocationValidation() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
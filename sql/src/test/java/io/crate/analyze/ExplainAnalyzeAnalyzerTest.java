@@ -0,0 +1,95 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.metadata.MetaDataModule;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.sys.MetaDataSysModule;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.operation.operator.OperatorModule;
+import io.crate.operation.predicate.PredicateModule;
+import io.crate.testing.MockedClusterServiceModule;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.inject.Module;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExplainAnalyzeAnalyzerTest extends BaseAnalyzerTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    static class TestMetaDataModule extends MetaDataModule {
+        @Override
+        protected void bindSchemas() {
+            super.bindSchemas();
+            SchemaInfo schemaInfo = mock(SchemaInfo.class);
+            when(schemaInfo.getTableInfo(TEST_DOC_TABLE_IDENT.name())).thenReturn(userTableInfo);
+            schemaBinder.addBinding(Schemas.DEFAULT_SCHEMA_NAME).toInstance(schemaInfo);
+        }
+    }
+
+    @Override
+    protected List<Module> getModules() {
+        List<Module> modules = super.getModules();
+        modules.addAll(Arrays.<Module>asList(
+                        new MockedClusterServiceModule(),
+                        new TestMetaDataModule(),
+                        new MetaDataSysModule(),
+                        new PredicateModule(),
+                        new OperatorModule())
+        );
+        return modules;
+    }
+
+    @Test
+    public void testExplainAnalyzeSelect() throws Exception {
+        ExplainAnalyzeAnalyzedStatement statement =
+                (ExplainAnalyzeAnalyzedStatement) analyze("explain analyze select name from users where id = 1");
+        assertThat(statement.statement(), instanceOf(SelectAnalyzedStatement.class));
+        assertThat(statement.fields().size(), is(1));
+        assertThat(statement.fields().get(0).path().outputName(), is("EXPLAIN ANALYZE"));
+        assertThat(statement.fields().get(0).valueType(), is(DataTypes.OBJECT));
+    }
+
+    @Test
+    public void testExplainAnalyzeDeleteIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("EXPLAIN ANALYZE is only supported for SELECT statements");
+        analyze("explain analyze delete from users");
+    }
+
+    @Test
+    public void testExplainWithoutAnalyzeIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        analyze("explain select name from users");
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.Constants;
+import io.crate.metadata.MetaDataModule;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.sys.MetaDataSysModule;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
+import io.crate.metadata.table.TestingTableInfo;
+import io.crate.operation.aggregation.impl.AggregationImplModule;
+import io.crate.operation.operator.OperatorModule;
+import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.scalar.ScalarFunctionModule;
+import io.crate.sql.SqlFormatter;
+import io.crate.sql.parser.SqlParser;
+import io.crate.testing.MockedClusterServiceModule;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.common.inject.Module;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class MaterializedViewAnalyzerTest extends BaseAnalyzerTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private static final TableIdent VIEW_IDENT = new TableIdent(Schemas.DEFAULT_SCHEMA_NAME, "v");
+    private static final TableInfo VIEW_INFO = TestingTableInfo.builder(VIEW_IDENT, shardRouting)
+            .add("name", DataTypes.STRING, null)
+            .add("cnt", DataTypes.LONG, null)
+            .add("max_id", DataTypes.LONG, null)
+            .addPrimaryKey("name")
+            .build();
+
+    static class TestMetaDataModule extends MetaDataModule {
+        @Override
+        protected void bindSchemas() {
+            super.bindSchemas();
+            SchemaInfo schemaInfo = mock(SchemaInfo.class);
+            when(schemaInfo.getTableInfo(TEST_DOC_TABLE_IDENT.name())).thenReturn(userTableInfo);
+            when(schemaInfo.getTableInfo(VIEW_IDENT.name())).thenReturn(VIEW_INFO);
+            schemaBinder.addBinding(Schemas.DEFAULT_SCHEMA_NAME).toInstance(schemaInfo);
+        }
+    }
+
+    @Override
+    protected List<Module> getModules() {
+        List<Module> modules = super.getModules();
+        modules.addAll(Arrays.<Module>asList(
+                new MockedClusterServiceModule(),
+                new TestMetaDataModule(),
+                new MetaDataSysModule(),
+                new OperatorModule(),
+                new AggregationImplModule(),
+                new PredicateModule(),
+                new ScalarFunctionModule()
+        ));
+        return modules;
+    }
+
+    /**
+     * creates a view and registers its mapping as the mapping of the existing table {@link #VIEW_IDENT}
+     */
+    private RefreshMaterializedViewAnalyzedStatement refresh(String createStatement) throws Exception {
+        CreateTableAnalyzedStatement create = (CreateTableAnalyzedStatement) analyze(createStatement);
+        IndexMetaData indexMetaData = IndexMetaData.builder(VIEW_IDENT.esName())
+                .settings(ImmutableSettings.builder()
+                        .put("index.number_of_shards", 1)
+                        .put("index.number_of_replicas", 0))
+                .putMapping(new MappingMetaData(Constants.DEFAULT_MAPPING_TYPE, create.mapping()))
+                .build();
+        ClusterService clusterService = injector.getInstance(ClusterService.class);
+        when(clusterService.state().metaData().index(VIEW_IDENT.esName())).thenReturn(indexMetaData);
+        return (RefreshMaterializedViewAnalyzedStatement) analyze("refresh materialized view v");
+    }
+
+    @Test
+    public void testCreateMaterializedView() throws Exception {
+        CreateTableAnalyzedStatement analysis = (CreateTableAnalyzedStatement) analyze(
+                "create materialized view mv incremental on id as " +
+                "select name, count(*) as cnt, max(id) as max_id from users where id > 0 group by name");
+
+        assertThat(analysis.tableIdent(), is(new TableIdent(Schemas.DEFAULT_SCHEMA_NAME, "mv")));
+        assertThat(analysis.primaryKeys(), contains("name"));
+        assertThat((String) ((Map) analysis.mappingProperties().get("name")).get("type"), is("string"));
+        assertThat((String) ((Map) analysis.mappingProperties().get("cnt")).get("type"), is("long"));
+        assertThat((String) ((Map) analysis.mappingProperties().get("max_id")).get("type"), is("long"));
+
+        Map<String, Object> viewMeta = (Map<String, Object>) ((Map) analysis.mapping().get("_meta"))
+                .get(MaterializedViewAnalyzer.META_KEY);
+        assertThat((String) viewMeta.get(MaterializedViewAnalyzer.META_INCREMENTAL_COLUMN), is("id"));
+        assertThat((String) viewMeta.get(MaterializedViewAnalyzer.META_DEFAULT_SCHEMA), is(Schemas.DEFAULT_SCHEMA_NAME));
+        assertThat((String) viewMeta.get(MaterializedViewAnalyzer.META_QUERY), is(SqlFormatter.formatSql(SqlParser.createStatement(
+                "select name, count(*) as cnt, max(id) as max_id from users where id > 0 group by name"))));
+    }
+
+    @Test
+    public void testRefreshMaterializedView() throws Exception {
+        RefreshMaterializedViewAnalyzedStatement analysis = refresh(
+                "create materialized view mv as select name, count(*) as cnt, max(id) as max_id from users group by name");
+
+        assertThat(analysis.view().ident(), is(VIEW_IDENT));
+        assertThat(analysis.source().ident().name(), is("users"));
+        assertThat(analysis.watermarkQuery(), nullValue());
+        assertThat(analysis.incrementalRefreshStatement(), nullValue());
+        assertThat(analysis.refreshStatement(), is(SqlParser.createStatement(
+                "insert into doc.v (name, cnt, max_id) " +
+                "(select name, count(*) as cnt, max(id) as max_id from users group by name) " +
+                "on duplicate key update cnt = values(cnt), max_id = values(max_id)")));
+    }
+
+    @Test
+    public void testRefreshIncrementalMaterializedView() throws Exception {
+        RefreshMaterializedViewAnalyzedStatement analysis = refresh(
+                "create materialized view mv incremental on id as " +
+                "select name, count(*) as cnt, max(id) as max_id from users where id > 0 group by name");
+
+        assertThat(analysis.watermarkQuery(), is(SqlParser.createStatement(
+                "select max(id) from users where id > 0")));
+        assertThat(analysis.refreshStatement(), is(SqlParser.createStatement(
+                "insert into doc.v (name, cnt, max_id) " +
+                "(select name, count(*) as cnt, max(id) as max_id from users where id > 0 and id <= ? group by name) " +
+                "on duplicate key update cnt = values(cnt), max_id = values(max_id)")));
+        assertThat(analysis.incrementalRefreshStatement(), is(SqlParser.createStatement(
+                "insert into doc.v (name, cnt, max_id) " +
+                "(select name, count(*) as cnt, max(id) as max_id from users where id > 0 and (id > ? and id <= ?) group by name) " +
+                "on duplicate key update cnt = _merge_count(cnt, values(cnt)), max_id = _merge_max(max_id, values(max_id))")));
+
+        // the refresh statements must be valid
+        InsertFromSubQueryAnalyzedStatement insert = (InsertFromSubQueryAnalyzedStatement) analyzer.analyze(
+                analysis.refreshStatement(), new ParameterContext(new Object[]{10L}, new Object[0][], null)).analyzedStatement();
+        assertThat(insert.onDuplicateKeyAssignments().size(), is(2));
+        insert = (InsertFromSubQueryAnalyzedStatement) analyzer.analyze(analysis.incrementalRefreshStatement(),
+                new ParameterContext(new Object[]{5L, 10L}, new Object[0][], null)).analyzedStatement();
+        assertThat(insert.onDuplicateKeyAssignments().size(), is(2));
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithoutGroupBy() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("A materialized view must be defined by a query with GROUP BY");
+        analyze("create materialized view mv as select count(*) from users");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithUnsupportedAggregation() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("Column 'avg_id' of a materialized view must be a GROUP BY key or one of the aggregations");
+        analyze("create materialized view mv as select name, avg(id) as avg_id from users group by name");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithoutGroupKeyInOutputs() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("All GROUP BY keys must be selected in the definition of a materialized view");
+        analyze("create materialized view mv as select count(*) as cnt from users group by name");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithOrderBy() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("HAVING, ORDER BY, LIMIT and OFFSET are not supported");
+        analyze("create materialized view mv as select name, count(*) as cnt from users group by name order by name");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithInvalidIncrementalColumn() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Incremental column 'name' of a materialized view must be of type timestamp or of a numeric type");
+        analyze("create materialized view mv incremental on name as select name, count(*) as cnt from users group by name");
+    }
+
+    @Test
+    public void testRefreshTableWhichIsNotAMaterializedView() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Table 'users' is not a materialized view");
+        analyze("refresh materialized view users");
+    }
+}
@@ -23,6 +23,7 @@ package io.crate.analyze;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.*;
 import io.crate.metadata.doc.DocSchemaInfo;
 import io.crate.metadata.doc.DocTableInfo;
@@ -82,18 +83,21 @@ public class MetaDataToASTNodeResolverTest extends CrateUnitTest {
                     partitionedBy,
                     Collections.EMPTY_LIST,
                     policy,
-                    mock(ExecutorService.class));
+                    mock(ExecutorService.class),
+                    mock(NodeResponseStats.class));
         }
     }
 
     static DocSchemaInfo DOC_SCHEMA_INFO = new DocSchemaInfo(mock(ClusterService.class),
             mock(ThreadPool.class),
-            mock(TransportPutIndexTemplateAction.class));
+            mock(TransportPutIndexTemplateAction.class),
+            mock(NodeResponseStats.class));
 
     static DocSchemaInfo MY_SCHEMA_INFO = new DocSchemaInfo("myschema",
             mock(ExecutorService.class),
             mock(ClusterService.class),
-            mock(TransportPutIndexTemplateAction.class));
+            mock(TransportPutIndexTemplateAction.class),
+            mock(NodeResponseStats.class));
 
     private static ReferenceInfo newReferenceInfo(TableIdent tableIdent, String name, DataType type) {
         return newReferenceInfo(tableIdent, name, type, null, null, false);
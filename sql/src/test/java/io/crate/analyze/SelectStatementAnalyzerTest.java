@@ -24,6 +24,7 @@ package io.crate.analyze;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
 import io.crate.analyze.relations.QueriedRelation;
 import io.crate.exceptions.AmbiguousColumnAliasException;
 import io.crate.exceptions.ColumnUnknownException;
@@ -697,10 +698,24 @@ public class SelectStatementAnalyzerTest extends BaseAnalyzerTest {
 
 
     @Test
-    public void test2From() throws Exception {
+    public void test2FromWithoutJoinCondition() throws Exception {
         expectedException.expect(UnsupportedOperationException.class);
-        expectedException.expectMessage("Only exactly one table is allowed in the FROM clause, got: 2");
-        analyze("select name from users a, users b");
+        expectedException.expectMessage("Only equi-joins are supported");
+        analyze("select a.name from users a, users b");
+    }
+
+    @Test
+    public void test3From() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("Only one table or a join of two tables is allowed in the FROM clause, got: 3");
+        analyze("select a.name from users a, users b, users c");
+    }
+
+    @Test
+    public void testSameTableTwiceWithoutAlias() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("is specified more than once, use an alias to distinguish them");
+        analyze("select name from users, users");
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -724,14 +739,174 @@ public class SelectStatementAnalyzerTest extends BaseAnalyzerTest {
         analyze("select id, name from parted where not date");
     }
 
-    @Test(expected = UnsupportedOperationException.class)
+    @Test
     public void testJoin() throws Exception {
-        analyze("select * from users join users_multi_pk on users.id = users.multi_pk.id");
+        SelectAnalyzedStatement statement = analyze("select users.name, users_multi_pk.name " +
+                                                    "from users join users_multi_pk on users.id = users_multi_pk.id " +
+                                                    "where users.name = 'Arthur'");
+        assertThat(statement.relation(), instanceOf(MultiSourceSelect.class));
+        EquiJoin equiJoin = ((MultiSourceSelect) statement.relation()).equiJoin();
+        assertThat(equiJoin.numKeys(), is(1));
+        assertThat(equiJoin.remainingQuery(), nullValue());
+
+        assertThat(equiJoin.left().tableRelation().tableInfo(), is(userTableInfo));
+        assertThat(equiJoin.left().querySpec().outputs(), contains(isReference("id"), isReference("name")));
+        assertThat(equiJoin.left().querySpec().where().query(), isFunction(EqOperator.NAME));
+
+        assertThat(equiJoin.right().tableRelation().tableInfo(), is(userTableInfoMultiPk));
+        assertThat(equiJoin.right().querySpec().outputs(), contains(isReference("id"), isReference("name")));
+        assertThat(equiJoin.right().querySpec().where().hasQuery(), is(false));
     }
 
-    @Test(expected = UnsupportedOperationException.class)
-    public void testUnion() throws Exception {
-        analyze("select * from users union select * from users_multi_pk");
+    @Test
+    public void testImplicitJoinWithMultipleKeysAndRemainingQuery() throws Exception {
+        SelectAnalyzedStatement statement = analyze("select a.name from users a, users b " +
+                                                    "where a.id = b.id and b.name = a.name and (a.awesome or b.awesome)");
+        EquiJoin equiJoin = ((MultiSourceSelect) statement.relation()).equiJoin();
+        assertThat(equiJoin.numKeys(), is(2));
+        assertThat(equiJoin.left().querySpec().outputs(), contains(
+                isReference("id"), isReference("name"), isReference("awesome")));
+        assertThat(equiJoin.right().querySpec().outputs(), contains(
+                isReference("id"), isReference("name"), isReference("awesome")));
+        assertThat(equiJoin.remainingQuery(), isFunction(OrOperator.NAME));
+        assertThat(equiJoin.joinedSymbols().size(), is(6));
+    }
+
+    @Test
+    public void testJoinUsing() throws Exception {
+        SelectAnalyzedStatement statement = analyze("select a.name, b.name from users a join users b using (id, name)");
+        EquiJoin equiJoin = ((MultiSourceSelect) statement.relation()).equiJoin();
+        assertThat(equiJoin.numKeys(), is(2));
+        assertThat(equiJoin.left().querySpec().outputs(), contains(isReference("id"), isReference("name")));
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("LEFT JOIN is not supported");
+        analyze("select * from users left join users_multi_pk on users.id = users_multi_pk.id");
+    }
+
+    @Test
+    public void testJoinWithAggregation() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("GROUP BY, HAVING, DISTINCT and aggregations are not supported on joins");
+        analyze("select count(*) from users a join users b on a.id = b.id");
+    }
+
+    @Test
+    public void testTableSample() throws Exception {
+        SelectAnalyzedStatement analysis = analyze("select name from users u tablesample bernoulli (2.5) repeatable (42)");
+        QueriedDocTable relation = (QueriedDocTable) analysis.relation();
+        TableSample tableSample = relation.tableRelation().tableSample();
+        assertThat(tableSample.method(), is(TableSample.Method.BERNOULLI));
+        assertThat(tableSample.percentage(), is(2.5));
+        assertThat(tableSample.seed(), is(42L));
+
+        analysis = analyze("select name from users tablesample system (?)", new Object[]{10});
+        tableSample = ((QueriedDocTable) analysis.relation()).tableRelation().tableSample();
+        assertThat(tableSample.method(), is(TableSample.Method.SYSTEM));
+        assertThat(tableSample.percentage(), is(10.0));
+
+        analysis = analyze("select name from users");
+        assertThat(((QueriedDocTable) analysis.relation()).tableRelation().tableSample(), nullValue());
+    }
+
+    @Test
+    public void testTableSampleWithInvalidPercentage() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("TABLESAMPLE percentage must be between 0 and 100, got: 120.0");
+        analyze("select name from users tablesample system (120)");
+    }
+
+    @Test
+    public void testTableSampleOnSystemTable() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("TABLESAMPLE is only supported on user tables");
+        analyze("select name from sys.nodes tablesample system (10)");
+    }
+
+    @Test
+    public void testTableSampleWithStratifyOn() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("TABLESAMPLE with STRATIFY ON is not supported");
+        analyze("select name from users tablesample bernoulli (10) stratify on (name)");
+    }
+
+    @Test
+    public void testUnionAll() throws Exception {
+        SelectAnalyzedStatement analysis = analyze("select id, name from users union all " +
+                                                   "select id, name from users_multi_pk order by name desc limit 10 offset 1");
+        UnionSelect union = (UnionSelect) analysis.relation();
+        assertThat(union.isDistinct(), is(false));
+        assertThat(union.relations().size(), is(2));
+        assertThat(union.relations().get(1).tableRelation().tableInfo().ident().name(), is("users_multi_pk"));
+        assertThat(union.fields().get(1).path().outputName(), is("name"));
+
+        QuerySpec querySpec = union.querySpec();
+        assertThat(querySpec.outputs(), contains(
+                (Symbol) new InputColumn(0, DataTypes.LONG), new InputColumn(1, DataTypes.STRING)));
+        assertThat(querySpec.orderBy().orderBySymbols(), contains((Symbol) new InputColumn(1, DataTypes.STRING)));
+        assertThat(querySpec.orderBy().reverseFlags()[0], is(true));
+        assertThat(querySpec.limit(), is(10));
+        assertThat(querySpec.offset(), is(1));
+    }
+
+    @Test
+    public void testUnionIsDistinctAndFlattened() throws Exception {
+        UnionSelect union = (UnionSelect) analyze("select name from users union select name from users_multi_pk " +
+                                                  "union select name from users_clustered_by_only order by 1").relation();
+        assertThat(union.isDistinct(), is(true));
+        assertThat(union.relations().size(), is(3));
+        assertThat(union.querySpec().orderBy().orderBySymbols(), contains((Symbol) new InputColumn(0, DataTypes.STRING)));
+    }
+
+    @Test
+    public void testUnionCastsOutputsToTypesOfFirstQuery() throws Exception {
+        UnionSelect union = (UnionSelect) analyze("select id from users union all select 1 from users_multi_pk").relation();
+        assertThat(union.relations().get(1).querySpec().outputs().get(0).valueType(), is((DataType) DataTypes.LONG));
+        assertThat(union.fields().get(0).valueType(), is((DataType) DataTypes.LONG));
+    }
+
+    @Test
+    public void testUnionWithDifferentNumberOfColumns() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Each query of a UNION must have the same number of columns, expected 2 but got 1");
+        analyze("select id, name from users union all select name from users_multi_pk");
+    }
+
+    @Test
+    public void testUnionWithIncompatibleTypes() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Column 1 of the queries of a UNION has incompatible types");
+        analyze("select details from users union all select friends from users_multi_pk");
+    }
+
+    @Test
+    public void testUnionOfAggregationIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("UNION is not supported on queries with aggregations, GROUP BY or DISTINCT");
+        analyze("select count(*) from users union all select count(*) from users_multi_pk");
+    }
+
+    @Test
+    public void testUnionOfSystemTableIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("UNION is only supported on queries of user tables");
+        analyze("select name from users union all select name from sys.nodes");
+    }
+
+    @Test
+    public void testUnionAllOfUnionIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("UNION ALL of the result of a UNION is not supported");
+        analyze("select name from users union select name from users_multi_pk union all select name from users");
+    }
+
+    @Test
+    public void testUnionOrderByUnknownColumn() throws Exception {
+        expectedException.expect(ColumnUnknownException.class);
+        analyze("select name from users union all select name from users_multi_pk order by id");
     }
 
     @Test(expected = IllegalArgumentException.class)
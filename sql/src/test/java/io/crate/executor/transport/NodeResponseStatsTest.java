@@ -0,0 +1,221 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.action.job.TransportJobAction;
+import io.crate.executor.transport.distributed.TransportDistributedResultAction;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.routing.ImmutableShardRouting;
+import org.elasticsearch.cluster.routing.PlainShardIterator;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+
+public class NodeResponseStatsTest extends CrateUnitTest {
+
+    private static ShardIterator shardIterator(ShardRouting... copies) {
+        return new PlainShardIterator(new ShardId("t", 0), ImmutableList.copyOf(copies));
+    }
+
+    private static ShardRouting copy(String nodeId, ShardRoutingState state) {
+        return new ImmutableShardRouting("t", 0, nodeId, false, state, 1L);
+    }
+
+    private static void recordResponseTime(NodeResponseStats nodeResponseStats, String nodeId, long millis) {
+        recordResponseTime(nodeResponseStats, nodeId, millis, System.nanoTime());
+    }
+
+    private static void recordResponseTime(NodeResponseStats nodeResponseStats, String nodeId, long millis, long sentNanos) {
+        NodeResponseStats.Stats stats = nodeResponseStats.stats(nodeId);
+        stats.requestSent(sentNanos);
+        stats.requestFailed();
+        stats.recordResponseTime(TimeUnit.MILLISECONDS.toNanos(millis), System.nanoTime());
+    }
+
+    @Test
+    public void testFirstCopyIsSelectedIfDisabled() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(false);
+        recordResponseTime(nodeResponseStats, "n1", 100);
+        recordResponseTime(nodeResponseStats, "n2", 10);
+
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n1"));
+    }
+
+    @Test
+    public void testFirstActiveCopyIsSelectedWithoutStats() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.INITIALIZING),
+                copy("n2", ShardRoutingState.STARTED),
+                copy("n3", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n2"));
+    }
+
+    @Test
+    public void testFastestCopyIsSelected() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 100);
+        recordResponseTime(nodeResponseStats, "n2", 10);
+
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n2"));
+    }
+
+    @Test
+    public void testOutstandingRequestsAreConsidered() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 20);
+        recordResponseTime(nodeResponseStats, "n2", 10);
+        for (int i = 0; i < 3; i++) {
+            nodeResponseStats.track("n2", new NoopListener());
+        }
+        assertThat(nodeResponseStats.stats().get("n2").outstandingRequests(), is(3));
+
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n1"));
+    }
+
+    @Test
+    public void testCopyWithoutRecentRequestsIsProbed() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 10);
+        recordResponseTime(nodeResponseStats, "n2", 100,
+                System.nanoTime() - NodeResponseStats.STALE_AFTER_NANOS - TimeUnit.SECONDS.toNanos(1));
+
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n2"));
+    }
+
+    @Test
+    public void testStalledCopyIsNotProbed() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 10);
+        recordResponseTime(nodeResponseStats, "n2", 20);
+        // n1 didn't respond to a request which was sent long ago
+        nodeResponseStats.stats("n1").requestSent(
+                System.nanoTime() - NodeResponseStats.STALE_AFTER_NANOS - TimeUnit.SECONDS.toNanos(1));
+
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n2"));
+    }
+
+    @Test
+    public void testCopyWithOnlyOutstandingRequestsIsNotProbed() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n2", 20);
+        nodeResponseStats.stats("n1").requestSent(System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+
+        ShardRouting selected = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(selected.currentNodeId(), is("n2"));
+    }
+
+    @Test
+    public void testOnlyFetchRequestsAndResultPagesAreTracked() throws Exception {
+        assertThat(NodeResponseStats.tracks(TransportFetchNodeAction.TRANSPORT_ACTION), is(true));
+        assertThat(NodeResponseStats.tracks(TransportDistributedResultAction.DISTRIBUTED_RESULT_ACTION), is(true));
+        assertThat(NodeResponseStats.tracks(TransportJobAction.ACTION_NAME), is(false));
+    }
+
+    @Test
+    public void testSelectedCopyCountsAsOutstandingRequest() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 10);
+        recordResponseTime(nodeResponseStats, "n2", 15);
+
+        ShardRouting first = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(first.currentNodeId(), is("n1"));
+        // no request was sent yet, but the next query doesn't pick n1 as well
+        ShardRouting second = nodeResponseStats.selectShard(shardIterator(
+                copy("n1", ShardRoutingState.STARTED), copy("n2", ShardRoutingState.STARTED)));
+        assertThat(second.currentNodeId(), is("n2"));
+    }
+
+    @Test
+    public void testSentRequestTakesOverReservation() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 10);
+        NodeResponseStats.Stats stats = nodeResponseStats.stats("n1");
+        long now = System.nanoTime();
+        double rankWithoutRequests = stats.rank(now);
+
+        stats.requestSelected(now);
+        assertThat(stats.rank(now), is(rankWithoutRequests * 2));
+        stats.requestSent(now);
+        assertThat(stats.outstandingRequests(), is(1));
+        assertThat(stats.rank(now), is(rankWithoutRequests * 2));
+    }
+
+    @Test
+    public void testReservationWithoutRequestExpires() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        recordResponseTime(nodeResponseStats, "n1", 10);
+        NodeResponseStats.Stats stats = nodeResponseStats.stats("n1");
+        long now = System.nanoTime();
+        double rankWithoutRequests = stats.rank(now);
+
+        stats.requestSelected(now - NodeResponseStats.RESERVATION_EXPIRES_AFTER_NANOS - 1);
+        assertThat(stats.rank(now), is(rankWithoutRequests));
+    }
+
+    @Test
+    public void testFailuresAreNotRecordedAsResponses() throws Exception {
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(true);
+        ActionListener<Object> listener = nodeResponseStats.track("n1", new NoopListener());
+        listener.onFailure(new IllegalStateException("dummy"));
+
+        NodeResponseStats.Stats stats = nodeResponseStats.stats().get("n1");
+        assertThat(stats.outstandingRequests(), is(0));
+        assertThat(stats.responses(), is(0L));
+        assertThat(stats.avgResponseTime(), is(-1.0));
+
+        nodeResponseStats.track("n1", new NoopListener()).onResponse(new Object());
+        assertThat(stats.outstandingRequests(), is(0));
+        assertThat(stats.responses(), is(1L));
+    }
+
+    private static class NoopListener implements ActionListener<Object> {
+
+        @Override
+        public void onResponse(Object o) {
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+        }
+    }
+}
@@ -26,6 +26,7 @@ import io.crate.test.integration.CrateUnitTest;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.test.cluster.NoopClusterService;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -78,7 +79,8 @@ public class TransportsTest extends CrateUnitTest {
                 throw new EsRejectedExecutionException();
             }
         });
-        Transports transports = new Transports(new NoopClusterService(), mock(TransportService.class), threadPool);
+        Transports transports = new Transports(new NoopClusterService(), mock(TransportService.class), threadPool,
+                new NodeResponseStats(ImmutableSettings.EMPTY));
 
         final SettableFuture<Boolean> failCalled = SettableFuture.create();
         ActionListener listener = new ActionListener() {
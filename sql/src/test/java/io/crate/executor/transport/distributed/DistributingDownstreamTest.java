@@ -78,7 +78,8 @@ public class DistributingDownstreamTest extends CrateUnitTest {
                 mock(Transports.class),
                 mock(JobContextService.class),
                 mock(ThreadPool.class),
-                mock(TransportService.class)) {
+                mock(TransportService.class),
+                mock(ResultPagePool.class)) {
 
 
             @Override
@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.crate.analyze.WhereClause;
 import io.crate.core.collections.TreeMapBuilder;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Routing;
 import io.crate.operation.NodeOperation;
 import io.crate.operation.Paging;
@@ -32,12 +33,15 @@ import io.crate.operation.projectors.InternalRowDownstreamFactory;
 import io.crate.operation.projectors.RowReceiver;
 import io.crate.planner.RowGranularity;
 import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.ShardDistribution;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.projection.Projection;
+import io.crate.planner.symbol.InputColumn;
 import io.crate.planner.symbol.Symbol;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import io.crate.types.LongType;
 import org.elasticsearch.test.cluster.NoopClusterService;
 import org.junit.Before;
@@ -56,10 +60,15 @@ public class InternalRowDownstreamFactoryTest extends CrateUnitTest {
     public void before() {
         rowDownstreamFactory = new InternalRowDownstreamFactory(
                 new NoopClusterService(),
-                mock(TransportDistributedResultAction.class));
+                mock(TransportDistributedResultAction.class),
+                mock(ResultPagePool.class));
     }
 
     private RowReceiver createDownstream(Set<String> downstreamExecutionNodes) {
+        return createDownstream(downstreamExecutionNodes, DistributionType.MODULO);
+    }
+
+    private RowReceiver createDownstream(Set<String> downstreamExecutionNodes, DistributionType distributionType) {
         UUID jobId = UUID.randomUUID();
         Routing routing = new Routing(
                 TreeMapBuilder.<String, Map<String, List<Integer>>>newMapBuilder()
@@ -74,8 +83,14 @@ public class InternalRowDownstreamFactoryTest extends CrateUnitTest {
                 ImmutableList.<Symbol>of(),
                 ImmutableList.<Projection>of(),
                 WhereClause.MATCH_ALL,
-                DistributionType.MODULO
+                distributionType
         );
+        collectPhase.shardDistribution(new ShardDistribution(
+                "i1",
+                ImmutableList.of(new ColumnIdent("id")),
+                ImmutableList.<Symbol>of(new InputColumn(0, DataTypes.INTEGER)),
+                null,
+                null));
         MergePhase mergePhase = new MergePhase(jobId, 2, "merge", 1,
                 ImmutableList.<DataType>of(LongType.INSTANCE),
                 ImmutableList.<Projection>of(),
@@ -97,4 +112,11 @@ public class InternalRowDownstreamFactoryTest extends CrateUnitTest {
         RowReceiver downstream = createDownstream(ImmutableSet.of("downstream_node1","downstream_node2"));
         assertThat(((DistributingDownstream) downstream).multiBucketBuilder, instanceOf(ModuloBucketBuilder.class));
     }
+
+    @Test
+    public void testCreateShardDownstream() throws Exception {
+        RowReceiver downstream = createDownstream(
+                ImmutableSet.of("downstream_node1","downstream_node2"), DistributionType.SHARD);
+        assertThat(((DistributingDownstream) downstream).multiBucketBuilder, instanceOf(ShardingBucketBuilder.class));
+    }
 }
@@ -21,14 +21,19 @@
 
 package io.crate.executor.transport.distributed;
 
+import com.google.common.base.Predicate;
 import io.crate.Streamer;
 import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row;
 import io.crate.core.collections.Row1;
+import io.crate.core.collections.RowBatch;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingHelpers;
 import io.crate.types.DataTypes;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+
 import static org.hamcrest.core.Is.is;
 
 public class ModuloBucketBuilderTest extends CrateUnitTest {
@@ -53,4 +58,28 @@ public class ModuloBucketBuilderTest extends CrateUnitTest {
         assertThat(rowsD2.size(), is(2));
         assertThat(TestingHelpers.printedTable(rowsD2), is("1\n3\n"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSelectedRowsOfABatchAreDistributedByModulo() throws Exception {
+        final ModuloBucketBuilder builder = new ModuloBucketBuilder(new Streamer[]{DataTypes.INTEGER.streamer()}, 2);
+
+        RowBatch batch = new RowBatch(1, 5);
+        for (int i = 1; i <= 5; i++) {
+            batch.add(new Row1(i));
+        }
+        batch.retain(new Predicate<Row>() {
+            @Override
+            public boolean apply(@Nullable Row input) {
+                assert input != null;
+                return (Integer) input.get(0) != 3;
+            }
+        });
+        builder.add(batch);
+        assertThat(builder.size(), is(4));
+
+        Bucket[] buckets = new Bucket[2];
+        builder.build(buckets);
+        assertThat(TestingHelpers.printedTable(buckets[0]), is("2\n4\n"));
+        assertThat(TestingHelpers.printedTable(buckets[1]), is("1\n5\n"));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import io.crate.Streamer;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.Row1;
+import io.crate.executor.transport.StreamBucket;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cache.recycler.PageCacheRecycler;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+
+public class ResultPagePoolTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.STRING.streamer() };
+    private static final int NUM_ROWS = 10_000;
+
+    private ThreadPool threadPool;
+    private PageCacheRecycler pageCacheRecycler;
+    private ResultPagePool pagePool;
+
+    @Before
+    public void prepare() throws Exception {
+        threadPool = new ThreadPool("testing");
+        Settings settings = ImmutableSettings.builder().put(ResultPagePool.LIMIT_HEAP_SETTING, "10mb").build();
+        pageCacheRecycler = new PageCacheRecycler(settings, threadPool);
+        pagePool = new ResultPagePool(settings, threadPool, pageCacheRecycler);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        pageCacheRecycler.close();
+        threadPool.shutdown();
+        threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private StreamBucket buildBucket(StreamBucket.Builder builder) throws Exception {
+        for (int i = 0; i < NUM_ROWS; i++) {
+            builder.add(new Row1(new BytesRef("row" + i)));
+        }
+        StreamBucket bucket = builder.build();
+        builder.reset();
+        return bucket;
+    }
+
+    private void assertRows(StreamBucket bucket) {
+        assertThat(bucket.size(), is(NUM_ROWS));
+        int i = 0;
+        for (Row row : bucket) {
+            assertThat((BytesRef) row.get(0), is(new BytesRef("row" + i)));
+            i++;
+        }
+        assertThat(i, is(NUM_ROWS));
+    }
+
+    @Test
+    public void testPagesAreReleasedAndRecycled() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, pagePool.bigArrays());
+        StreamBucket bucket = buildBucket(builder);
+        assertRows(bucket);
+        long misses = pagePool.misses();
+        assertThat(misses, greaterThan(1L));
+        assertThat(pagePool.usedBytes(), greaterThan((long) BigArrays.BYTE_PAGE_SIZE));
+
+        bucket.decRef();
+        assertThat(pagePool.usedBytes(), is(0L));
+
+        bucket = buildBucket(builder);
+        assertRows(bucket);
+        assertThat(pagePool.misses(), is(misses));
+        assertThat(pagePool.hits(), greaterThan(0L));
+        assertThat(pagePool.hitRate(), greaterThan(0.0d));
+        bucket.decRef();
+        assertThat(pagePool.usedBytes(), is(0L));
+    }
+
+    @Test
+    public void testPagesAreReleasedAfterLastReference() throws Exception {
+        StreamBucket bucket = buildBucket(new StreamBucket.Builder(STREAMERS, pagePool.bigArrays()));
+        bucket.incRef();
+        bucket.decRef();
+        assertThat(pagePool.usedBytes(), greaterThan(0L));
+        bucket.decRef();
+        assertThat(pagePool.usedBytes(), is(0L));
+    }
+
+    @Test
+    public void testReceivedRowsAreCopiedIntoPages() throws Exception {
+        StreamBucket bucket = buildBucket(new StreamBucket.Builder(STREAMERS));
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        assertThat(pagePool.usedBytes(), is(0L));
+
+        StreamBucket received = new StreamBucket(STREAMERS, pagePool.bigArrays());
+        received.readFrom(new BytesStreamInput(out.bytes()));
+        assertThat(pagePool.usedBytes(), greaterThan(0L));
+        assertRows(received);
+
+        received.decRef();
+        assertThat(pagePool.usedBytes(), is(0L));
+    }
+
+    @Test
+    public void testEmptyBucketHoldsNoPages() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, pagePool.bigArrays());
+        StreamBucket bucket = builder.build();
+        builder.reset();
+        assertThat(bucket.size(), is(0));
+        assertThat(pagePool.usedBytes(), is(0L));
+        assertThat(pagePool.hitRate(), is(0.0d));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.Streamer;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row1;
+import io.crate.core.collections.RowBatch;
+import io.crate.metadata.ColumnIdent;
+import io.crate.planner.distribution.ShardDistribution;
+import io.crate.planner.symbol.InputColumn;
+import io.crate.planner.symbol.Symbol;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingHelpers;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.*;
+import org.elasticsearch.cluster.routing.operation.OperationRouting;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShardingBucketBuilderTest extends CrateUnitTest {
+
+    private static final ShardDistribution SHARD_DISTRIBUTION = new ShardDistribution(
+            "t",
+            ImmutableList.of(new ColumnIdent("id")),
+            ImmutableList.<Symbol>of(new InputColumn(0, DataTypes.INTEGER)),
+            new ColumnIdent("id"),
+            new InputColumn(0, DataTypes.INTEGER));
+
+    private ClusterService clusterService;
+    private IndexRoutingTable indexRoutingTable;
+
+    @Before
+    public void prepare() throws Exception {
+        clusterService = mock(ClusterService.class);
+        ClusterState state = mock(ClusterState.class);
+        RoutingTable routingTable = mock(RoutingTable.class);
+        indexRoutingTable = mock(IndexRoutingTable.class);
+        when(clusterService.state()).thenReturn(state);
+        when(state.routingTable()).thenReturn(routingTable);
+        when(routingTable.index("t")).thenReturn(indexRoutingTable);
+
+        // the shard of a row is its id modulo 2
+        OperationRouting operationRouting = mock(OperationRouting.class);
+        when(clusterService.operationRouting()).thenReturn(operationRouting);
+        when(operationRouting.indexShards(any(ClusterState.class), eq("t"), anyString(), anyString(), anyString()))
+                .thenAnswer(new Answer<ShardIterator>() {
+                    @Override
+                    public ShardIterator answer(InvocationOnMock invocation) throws Throwable {
+                        int shard = Integer.parseInt((String) invocation.getArguments()[3]) % 2;
+                        return new PlainShardIterator(new ShardId("t", shard), Collections.<ShardRouting>emptyList());
+                    }
+                });
+    }
+
+    private void primary(int shard, String node) {
+        IndexShardRoutingTable shardRoutingTable = mock(IndexShardRoutingTable.class);
+        when(shardRoutingTable.primaryShard()).thenReturn(
+                new ImmutableShardRouting("t", shard, node, true, ShardRoutingState.STARTED, 0L));
+        when(indexRoutingTable.shard(shard)).thenReturn(shardRoutingTable);
+    }
+
+    private ShardingBucketBuilder builder() {
+        return new ShardingBucketBuilder(
+                new Streamer[]{DataTypes.INTEGER.streamer()},
+                ImmutableList.of("n1", "n2"),
+                SHARD_DISTRIBUTION,
+                clusterService,
+                null);
+    }
+
+    @Test
+    public void testRowsAreDistributedToTheNodeOfThePrimary() throws Exception {
+        primary(0, "n2");
+        primary(1, "n1");
+        ShardingBucketBuilder builder = builder();
+        for (int i = 1; i <= 4; i++) {
+            builder.add(new Row1(i));
+        }
+        assertThat(builder.size(), is(4));
+
+        Bucket[] buckets = new Bucket[2];
+        builder.build(buckets);
+        assertThat(TestingHelpers.printedTable(buckets[0]), is("1\n3\n"));
+        assertThat(TestingHelpers.printedTable(buckets[1]), is("2\n4\n"));
+        assertThat(builder.size(), is(0));
+    }
+
+    @Test
+    public void testRowsOfABatchAreDistributedToTheNodeOfThePrimary() throws Exception {
+        primary(0, "n2");
+        primary(1, "n1");
+        ShardingBucketBuilder builder = builder();
+        RowBatch batch = new RowBatch(1, 4);
+        for (int i = 1; i <= 4; i++) {
+            batch.add(new Row1(i));
+        }
+        builder.add(batch);
+        assertThat(builder.size(), is(4));
+
+        Bucket[] buckets = new Bucket[2];
+        builder.build(buckets);
+        assertThat(TestingHelpers.printedTable(buckets[0]), is("1\n3\n"));
+        assertThat(TestingHelpers.printedTable(buckets[1]), is("2\n4\n"));
+    }
+
+    @Test
+    public void testPrimaryOnOtherNodeIsDistributedByShardId() throws Exception {
+        primary(0, "n3");
+        primary(1, "n3");
+        ShardingBucketBuilder builder = builder();
+        for (int i = 1; i <= 4; i++) {
+            builder.add(new Row1(i));
+        }
+
+        Bucket[] buckets = new Bucket[2];
+        builder.build(buckets);
+        assertThat(TestingHelpers.printedTable(buckets[0]), is("2\n4\n"));
+        assertThat(TestingHelpers.printedTable(buckets[1]), is("1\n3\n"));
+    }
+}
@@ -21,9 +21,11 @@
 
 package io.crate.executor.transport.kill;
 
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.executor.transport.Transports;
 import io.crate.jobs.JobContextService;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.test.cluster.NoopClusterService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
@@ -61,7 +63,8 @@ public class TransportKillAllNodeActionTest {
 
         TransportKillAllNodeAction transportKillAllNodeAction = new TransportKillAllNodeAction(
                 jobContextService,
-                new Transports(noopClusterService, transportService, threadPool),
+                new Transports(noopClusterService, transportService, threadPool,
+                        new NodeResponseStats(ImmutableSettings.EMPTY)),
                 transportService
         );
 
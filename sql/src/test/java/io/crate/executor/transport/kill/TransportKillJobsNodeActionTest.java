@@ -22,9 +22,11 @@
 package io.crate.executor.transport.kill;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.executor.transport.Transports;
 import io.crate.jobs.JobContextService;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.test.cluster.NoopClusterService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
@@ -63,7 +65,8 @@ public class TransportKillJobsNodeActionTest {
         TransportKillJobsNodeAction transportKillJobsNodeAction = new TransportKillJobsNodeAction(
                 jobContextService,
                 new NoopClusterService(),
-                new Transports(noopClusterService, transportService, threadPool),
+                new Transports(noopClusterService, transportService, threadPool,
+                        new NodeResponseStats(ImmutableSettings.EMPTY)),
                 transportService
         );
 
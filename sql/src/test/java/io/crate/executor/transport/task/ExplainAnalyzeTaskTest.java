@@ -0,0 +1,69 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.task;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.operation.profile.PhaseProfile;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+
+public class ExplainAnalyzeTaskTest extends CrateUnitTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testProfilesAreAggregatedByPhase() throws Exception {
+        List<PhaseProfile> profiles = ImmutableList.of(
+                new PhaseProfile(1, "mergeOnHandler", "n1", TimeUnit.MILLISECONDS.toNanos(5), 20L, 0L, 0L, 0L, 128L, false),
+                new PhaseProfile(0, "collect", "n2", TimeUnit.MILLISECONDS.toNanos(3), 12L, 1L, 1L, 300L, -1L, false),
+                new PhaseProfile(0, "collect", "n1", TimeUnit.MILLISECONDS.toNanos(4), 8L, 0L, 0L, 200L, -1L, false)
+        );
+        Map<String, Object> result = ExplainAnalyzeTask.toMap(TimeUnit.MILLISECONDS.toNanos(10), 20L, profiles);
+        assertThat((Long) result.get("duration"), is(10L));
+        assertThat((Long) result.get("rows"), is(20L));
+
+        List<Map<String, Object>> phases = (List<Map<String, Object>>) result.get("phases");
+        assertThat(phases.size(), is(2));
+
+        Map<String, Object> collect = phases.get(0);
+        assertThat((Integer) collect.get("id"), is(0));
+        assertThat((String) collect.get("name"), is("collect"));
+        assertThat((Long) collect.get("rows"), is(20L));
+        assertThat((Long) collect.get("bytes_sent"), is(500L));
+        List<Map<String, Object>> nodes = (List<Map<String, Object>>) collect.get("nodes");
+        assertThat((String) nodes.get(0).get("node_id"), is("n1"));
+        assertThat((Long) nodes.get(0).get("duration"), is(4L));
+        assertThat((Long) nodes.get(0).get("bytes_used"), is(0L));
+        assertThat((String) nodes.get(1).get("node_id"), is("n2"));
+        assertThat((Long) nodes.get(1).get("pauses"), is(1L));
+
+        Map<String, Object> merge = phases.get(1);
+        assertThat((String) merge.get("name"), is("mergeOnHandler"));
+        nodes = (List<Map<String, Object>>) merge.get("nodes");
+        assertThat((Long) nodes.get(0).get("bytes_used"), is(128L));
+    }
+}
@@ -65,7 +65,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testDefaultTables() throws Exception {
         execute("select * from information_schema.tables order by schema_name, table_name");
-        assertEquals(14L, response.rowCount());
+        assertEquals(15L, response.rowCount());
 
         assertArrayEquals(response.rows()[0], new Object[]{"information_schema", "columns", 1, "0", null, null, null, "strict", null});
         assertArrayEquals(response.rows()[1], new Object[]{"information_schema", "routines", 1, "0", null, null, null, "strict", null});
@@ -81,6 +81,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
         assertArrayEquals(response.rows()[11], new Object[]{"sys", "operations", 1, "0", null, null, null, "strict", null});
         assertArrayEquals(response.rows()[12], new Object[]{"sys", "operations_log", 1, "0", null, null, null, "strict", null});
         assertArrayEquals(response.rows()[13], new Object[]{"sys", "shards", 1, "0", null, null, null, "strict", null});
+        assertArrayEquals(response.rows()[14], new Object[]{"sys", "statement_stats", 1, "0", null, null, null, "strict", null});
     }
 
     @Test
@@ -120,7 +121,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
         serviceSetup();
 
         execute("select * from information_schema.tables");
-        assertEquals(17L, response.rowCount());
+        assertEquals(18L, response.rowCount());
 
         client().execute(SQLAction.INSTANCE,
             new SQLRequest("create table t4 (col1 integer, col2 string)")).actionGet();
@@ -130,7 +131,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
         Thread.sleep(10);
 
         execute("select * from information_schema.tables");
-        assertEquals(18L, response.rowCount());
+        assertEquals(19L, response.rowCount());
     }
 
     @Test
@@ -438,7 +439,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
     @Test
     public void testDefaultColumns() throws Exception {
         execute("select * from information_schema.columns order by schema_name, table_name");
-        assertEquals(298L, response.rowCount());
+        assertEquals(336L, response.rowCount());
     }
 
     @Test
@@ -558,7 +559,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
         execute("select max(ordinal_position) from information_schema.columns");
         assertEquals(1, response.rowCount());
 
-        short max_ordinal = 94;
+        short max_ordinal = 102;
         assertEquals(max_ordinal, response.rows()[0][0]);
 
         execute("create table t1 (id integer, col1 string)");
@@ -623,7 +624,7 @@ public class InformationSchemaTest extends SQLTransportIntegrationTest {
         ensureYellow();
         execute("select count(*) from information_schema.tables");
         assertEquals(1, response.rowCount());
-        assertEquals(17L, response.rows()[0][0]);
+        assertEquals(18L, response.rows()[0][0]);
     }
 
     @Test
@@ -24,10 +24,16 @@ package io.crate.integrationtests;
 
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.util.EntityUtils;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.core.StringStartsWith.startsWith;
 
 public class RestSQLActionIntegrationTest extends SQLHttpIntegrationTest {
@@ -58,6 +64,32 @@ public class RestSQLActionIntegrationTest extends SQLHttpIntegrationTest {
         assertEquals("{\"error\":{\"message\":\"SQLActionException[request body contains args and bulk_args. It's forbidden to provide both]\",\"code\":4000},\"error_trace\":null}", bodyAsString);
     }
 
+    @Test
+    public void testSmileRequestAndResponse() throws Exception {
+        CloseableHttpResponse response = post(XContentFactory.smileBuilder().startObject()
+                .field("stmt", "select count(*) from sys.cluster where 1 = ?")
+                .startArray("args").value(1).endArray()
+                .endObject(), null);
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        assertThat(response.getEntity().getContentType().getValue(), is(XContentType.SMILE.restContentType()));
+
+        byte[] body = EntityUtils.toByteArray(response.getEntity());
+        assertThat(XContentFactory.xContentType(body), is(XContentType.SMILE));
+        Map<String, Object> map = XContentHelper.convertToMap(new BytesArray(body), false).v2();
+        assertEquals(1L, ((Number) map.get("rowcount")).longValue());
+    }
+
+    @Test
+    public void testResponseContentTypeFromAcceptHeader() throws Exception {
+        CloseableHttpResponse response = post(XContentFactory.cborBuilder().startObject()
+                .field("stmt", "select count(*) from sys.cluster where 1 = ?")
+                .startArray("args").value(1).endArray()
+                .endObject(), "application/json");
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        String bodyAsString = EntityUtils.toString(response.getEntity());
+        assertThat(bodyAsString, startsWith("{\"cols\":[\"count(*)\"],\"rows\":[[1]],\"rowcount\":1"));
+    }
+
     private String resolveEscapedNL(){
         String LN = System.getProperty("line.separator");
         // http://en.wikipedia.org/wiki/Newline#Representations
@@ -24,16 +24,19 @@ package io.crate.integrationtests;
 
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.search.suggest.CustomSuggesterPlugin;
 import org.junit.Before;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 
@@ -67,6 +70,20 @@ public abstract class SQLHttpIntegrationTest extends SQLTransportIntegrationTest
         return httpClient.execute(httpPost);
     }
 
+    /**
+     * posts the body with its content type, the response content type is requested by the Accept header if given
+     */
+    protected CloseableHttpResponse post(XContentBuilder body, @Nullable String accept) throws IOException {
+        httpPost.setEntity(new ByteArrayEntity(body.bytes().toBytes()));
+        httpPost.setHeader("Content-Type", body.contentType().restContentType());
+        if (accept == null) {
+            httpPost.removeHeaders("Accept");
+        } else {
+            httpPost.setHeader("Accept", accept);
+        }
+        return httpClient.execute(httpPost);
+    }
+
     protected CloseableHttpResponse post() throws IOException {
         return post(null);
     }
@@ -143,15 +143,15 @@ public class SysShardsTest extends ClassLifecycleIntegrationTest {
         SQLResponse response = transportExecutor.exec(
             "select * from sys.shards where table_name = 'characters'");
         assertEquals(10L, response.rowCount());
-        assertEquals(10, response.cols().length);
+        assertEquals(12, response.cols().length);
     }
 
     @Test
     public void testSelectStarAllTables() throws Exception {
         SQLResponse response = transportExecutor.exec("select * from sys.shards");
         assertEquals(30L, response.rowCount());
-        assertEquals(10, response.cols().length);
-        assertEquals("schema_name, table_name, id, partition_ident, num_docs, primary, relocating_node, size, state, orphan_partition",
+        assertEquals(12, response.cols().length);
+        assertEquals("schema_name, table_name, id, partition_ident, num_docs, primary, relocating_node, size, state, orphan_partition, result_cache_hits, result_cache_misses",
             Joiner.on(", ").join(response.cols()));
     }
 
@@ -160,7 +160,7 @@ public class SysShardsTest extends ClassLifecycleIntegrationTest {
         SQLResponse response = transportExecutor.exec(
             "select * from sys.shards where table_name like 'charact%'");
         assertEquals(10L, response.rowCount());
-        assertEquals(10, response.cols().length);
+        assertEquals(12, response.cols().length);
     }
 
     @Test
@@ -168,7 +168,7 @@ public class SysShardsTest extends ClassLifecycleIntegrationTest {
         SQLResponse response = transportExecutor.exec(
             "select * from sys.shards where table_name not like 'quotes%'");
         assertEquals(20L, response.rowCount());
-        assertEquals(10, response.cols().length);
+        assertEquals(12, response.cols().length);
     }
 
     @Test
@@ -176,7 +176,7 @@ public class SysShardsTest extends ClassLifecycleIntegrationTest {
         SQLResponse response = transportExecutor.exec(
             "select * from sys.shards where table_name in ('characters')");
         assertEquals(10L, response.rowCount());
-        assertEquals(10, response.cols().length);
+        assertEquals(12, response.cols().length);
     }
 
     @Test
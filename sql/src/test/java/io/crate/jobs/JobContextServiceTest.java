@@ -39,6 +39,8 @@ import org.junit.Test;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
@@ -46,6 +48,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.elasticsearch.common.unit.TimeValue.timeValueMillis;
 import static org.elasticsearch.common.unit.TimeValue.timeValueMinutes;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
@@ -246,6 +249,49 @@ public class JobContextServiceTest extends CrateUnitTest {
         assertThat(numContexts(ctx1), is(0));
     }
 
+    @Test
+    public void testResourceUsageIsReportedToCoordinator() throws Exception {
+        StatsTables statsTables = mock(StatsTables.class);
+        when(statsTables.isEnabled()).thenReturn(true);
+        JobContextService jobContextService1 = new JobContextService(settings, testThreadPool, statsTables);
+        final List<String> reportedTo = new ArrayList<>();
+        final List<ResourceUsage> reportedUsage = new ArrayList<>();
+        jobContextService1.addListener(new ResourceUsageListener() {
+            @Override
+            public void jobFinished(UUID jobId, String coordinatorNodeId, ResourceUsage resourceUsage) {
+                reportedTo.add(coordinatorNodeId);
+                reportedUsage.add(resourceUsage);
+            }
+        });
+
+        JobExecutionContext.Builder builder = jobContextService1.newBuilder(UUID.randomUUID());
+        builder.coordinatorNodeId("n2");
+        builder.addSubContext(new DummySubContext(1) {
+            @Override
+            protected void innerClose(@Nullable Throwable t) {
+                future.bytesUsed(100L);
+                future.resourceUsage().addRowsEmitted(2L);
+            }
+        });
+        builder.addSubContext(new DummySubContext(2) {
+            @Override
+            protected void innerClose(@Nullable Throwable t) {
+                future.resourceUsage().addRowsEmitted(3L);
+            }
+        });
+        jobContextService1.createContext(builder).close();
+
+        // contexts of jobs executed by this node aren't reported
+        builder = jobContextService1.newBuilder(UUID.randomUUID());
+        builder.addSubContext(new DummySubContext(1));
+        jobContextService1.createContext(builder).close();
+
+        assertThat(reportedTo, contains("n2"));
+        assertThat(reportedUsage.get(0).rowsEmitted(), is(5L));
+        assertThat(reportedUsage.get(0).usedBytes(), is(100L));
+        jobContextService1.close();
+    }
+
     private JobExecutionContext getJobExecutionContextWithOneActiveSubContext(JobContextService jobContextService) {
         JobExecutionContext.Builder builder1 = jobContextService.newBuilder(UUID.randomUUID());
         PageDownstreamContext pageDownstreamContext =
@@ -22,22 +22,27 @@
 package io.crate.jobs;
 
 import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
-import io.crate.core.collections.Row1;
-import io.crate.core.collections.SingleRowBucket;
+import io.crate.core.collections.*;
+import io.crate.operation.PageConsumeListener;
 import io.crate.operation.PageDownstream;
 import io.crate.operation.PageResultListener;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.test.integration.CrateUnitTest;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.Iterator;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.is;
@@ -74,6 +79,16 @@ public class PageDownstreamContextTest extends CrateUnitTest {
         assertThat(t.getMessage(), is("May not set the same bucket of a page more than once"));
     }
 
+    @Test
+    public void testBucketsOfMultipleInputsAreNumberedConsecutively() throws Exception {
+        PageDownstreamContext ctx = new PageDownstreamContext(1, "dummy", mock(PageDownstream.class), new Streamer[0],
+                RAM_ACCOUNTING_CONTEXT, 5, mock(FlatProjectorChain.class), new int[] { 0, 2, 3 });
+        assertThat(ctx.bucketIdx((byte) 0, 1), is(1));
+        assertThat(ctx.bucketIdx((byte) 1, 0), is(2));
+        assertThat(ctx.bucketIdx((byte) 2, 1), is(4));
+        assertThat(ctx.pageDownstreamContext((byte) 2), is(ctx));
+    }
+
     @Test
     public void testKillCallsDownstream() throws Exception {
         PageDownstream downstream = mock(PageDownstream.class);
@@ -96,4 +111,117 @@ public class PageDownstreamContextTest extends CrateUnitTest {
         assertThat(throwable.get(), Matchers.instanceOf(CancellationException.class));
         verify(downstream, times(1)).fail(any(CancellationException.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRefCountedBucketIsReleasedOnceItsRowsAreConsumed() throws Exception {
+        final AtomicReference<ListenableFuture<Bucket>> bucketFuture = new AtomicReference<>();
+        PageDownstream pageDownstream = mock(PageDownstream.class);
+        doAnswer(new Answer() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                BucketPage page = (BucketPage) invocation.getArguments()[0];
+                bucketFuture.set(page.buckets().iterator().next());
+                return null;
+            }
+        }).when(pageDownstream).nextPage(any(BucketPage.class), any(PageConsumeListener.class));
+        PageDownstreamContext ctx = new PageDownstreamContext(1, "dummy", pageDownstream, new Streamer[0],
+                RAM_ACCOUNTING_CONTEXT, 1, mock(FlatProjectorChain.class));
+
+        RefCountedBucket bucket = new RefCountedBucket(new Row1("foo"));
+        ctx.setBucket(0, bucket, true, mock(PageResultListener.class));
+        // the sender releases its reference once the page is received
+        bucket.decRef();
+        assertThat(bucket.released.get(), is(false));
+
+        Iterator<Row> it = bucketFuture.get().get().iterator();
+        assertThat(it.hasNext(), is(true));
+        assertThat((String) it.next().get(0), is("foo"));
+        assertThat(bucket.released.get(), is(false));
+        assertThat(it.hasNext(), is(false));
+        assertThat(bucket.released.get(), is(true));
+
+        // not released twice
+        ctx.close();
+    }
+
+    @Test
+    public void testRefCountedBucketIsReleasedOnClose() throws Exception {
+        PageDownstreamContext ctx = new PageDownstreamContext(1, "dummy", mock(PageDownstream.class), new Streamer[0],
+                RAM_ACCOUNTING_CONTEXT, 1, mock(FlatProjectorChain.class));
+
+        RefCountedBucket bucket = new RefCountedBucket(new Row1("foo"));
+        ctx.setBucket(0, bucket, true, mock(PageResultListener.class));
+        bucket.decRef();
+        assertThat(bucket.released.get(), is(false));
+        ctx.close();
+        assertThat(bucket.released.get(), is(true));
+    }
+
+    @Test
+    public void testRefCountedBucketIsReleasedOnKill() throws Exception {
+        final AtomicReference<ListenableFuture<Bucket>> bucketFuture = new AtomicReference<>();
+        PageDownstream pageDownstream = mock(PageDownstream.class);
+        doAnswer(new Answer() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                BucketPage page = (BucketPage) invocation.getArguments()[0];
+                bucketFuture.set(page.buckets().iterator().next());
+                return null;
+            }
+        }).when(pageDownstream).nextPage(any(BucketPage.class), any(PageConsumeListener.class));
+        PageDownstreamContext ctx = new PageDownstreamContext(1, "dummy", pageDownstream, new Streamer[0],
+                RAM_ACCOUNTING_CONTEXT, 1, mock(FlatProjectorChain.class));
+
+        RefCountedBucket bucket = new RefCountedBucket(new Row1("foo"));
+        ctx.setBucket(0, bucket, true, mock(PageResultListener.class));
+        bucket.decRef();
+        Iterator<Row> it = bucketFuture.get().get().iterator();
+
+        ctx.kill(null);
+        assertThat(bucket.released.get(), is(true));
+        // the pages of the bucket may be reused, a merge which still iterates the bucket doesn't read them anymore
+        assertThat(it.hasNext(), is(false));
+        assertThat(bucketFuture.get().get().iterator().hasNext(), is(false));
+    }
+
+    private static class RefCountedBucket implements Bucket, RefCounted {
+
+        private final Bucket bucket;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private final AbstractRefCounted refCounted = new AbstractRefCounted("test") {
+            @Override
+            protected void closeInternal() {
+                assertTrue(released.compareAndSet(false, true));
+            }
+        };
+
+        RefCountedBucket(Row row) {
+            bucket = new SingleRowBucket(row);
+        }
+
+        @Override
+        public int size() {
+            return bucket.size();
+        }
+
+        @Override
+        public Iterator<Row> iterator() {
+            return bucket.iterator();
+        }
+
+        @Override
+        public void incRef() {
+            refCounted.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return refCounted.tryIncRef();
+        }
+
+        @Override
+        public void decRef() {
+            refCounted.decRef();
+        }
+    }
+}
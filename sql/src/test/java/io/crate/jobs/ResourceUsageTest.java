@@ -0,0 +1,57 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.jobs;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class ResourceUsageTest extends CrateUnitTest {
+
+    @Test
+    public void testAddAndStreaming() throws Exception {
+        ResourceUsage usage = new ResourceUsage();
+        usage.addRowsScanned(10L);
+        usage.addRowsEmitted(3L);
+        usage.addBytesSent(1024L);
+        usage.addUsedBytes(512L);
+
+        ResourceUsage other = new ResourceUsage();
+        other.addRowsScanned(5L);
+        other.addUsedBytes(8L);
+        usage.add(other);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        usage.writeTo(out);
+        ResourceUsage streamed = new ResourceUsage();
+        streamed.readFrom(new BytesStreamInput(out.bytes()));
+
+        assertThat(streamed.rowsScanned(), is(15L));
+        assertThat(streamed.rowsEmitted(), is(3L));
+        assertThat(streamed.cpuTime(), is(0L));
+        assertThat(streamed.bytesSent(), is(1024L));
+        assertThat(streamed.usedBytes(), is(520L));
+    }
+}
@@ -23,9 +23,11 @@ package io.crate.lucene;
 
 import com.google.common.collect.Sets;
 import io.crate.analyze.WhereClause;
-import io.crate.metadata.Functions;
+import io.crate.metadata.*;
+import io.crate.metadata.table.ColumnPolicy;
 import io.crate.operation.operator.*;
 import io.crate.operation.operator.any.*;
+import io.crate.planner.RowGranularity;
 import io.crate.planner.symbol.Literal;
 import io.crate.planner.symbol.Reference;
 import io.crate.test.integration.CrateUnitTest;
@@ -35,7 +37,6 @@ import io.crate.types.DataTypes;
 import io.crate.types.SetType;
 import org.apache.lucene.queries.BooleanFilter;
 import org.apache.lucene.queries.TermsFilter;
-import org.apache.lucene.sandbox.queries.regex.RegexQuery;
 import org.apache.lucene.search.*;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.inject.ModulesBuilder;
@@ -44,6 +45,8 @@ import org.elasticsearch.common.lucene.search.RegexpFilter;
 import org.elasticsearch.common.lucene.search.XConstantScoreQuery;
 import org.elasticsearch.index.cache.IndexCache;
 import org.elasticsearch.index.cache.filter.FilterCache;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.search.internal.SearchContext;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,6 +60,9 @@ import java.util.Arrays;
 import static io.crate.testing.TestingHelpers.*;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LuceneQueryBuilderTest extends CrateUnitTest {
@@ -218,7 +224,10 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         Reference value = createReference("foo", DataTypes.STRING);
         Literal pattern = Literal.newLiteral(new BytesRef("\\D"));
         Query query = convert(whereClause(RegexpMatchOperator.NAME, value, pattern));
-        assertThat(query, instanceOf(RegexQuery.class));
+        assertThat(query, instanceOf(XConstantScoreQuery.class));
+        Filter filter = ((XConstantScoreQuery) query).getFilter();
+        assertThat(filter, instanceOf(MultiTermQueryWrapperFilter.class));
+        assertThat(filter.toString(), is("foo:\\D"));
     }
 
     @Test
@@ -334,6 +343,81 @@ public class LuceneQueryBuilderTest extends CrateUnitTest {
         assertThat(ltBQuery.toString(), is("(d:{* TO a} d:{* TO b} d:{* TO c})~1"));
     }
 
+    @Test
+    public void testFunctionFilterIsAppliedAfterOtherConjunctionClauses() throws Exception {
+        Reference foo = createReference("foo", DataTypes.STRING);
+        Query query = convert(new WhereClause(createFunction(AndOperator.NAME, DataTypes.BOOLEAN,
+                createFunction(EqOperator.NAME, DataTypes.BOOLEAN, foo, foo),
+                createFunction(EqOperator.NAME, DataTypes.BOOLEAN,
+                        createReference("x", DataTypes.INTEGER), Literal.newLiteral(10)))));
+        assertThat(query, instanceOf(FilteredQuery.class));
+        FilteredQuery filteredQuery = (FilteredQuery) query;
+        assertThat(filteredQuery.getFilterStrategy(), is(FilteredQuery.QUERY_FIRST_FILTER_STRATEGY));
+        assertThat(filteredQuery.getQuery(), instanceOf(BooleanQuery.class));
+        assertThat(((BooleanQuery) filteredQuery.getQuery()).clauses().size(), is(1));
+        assertThat(((BooleanQuery) filteredQuery.getQuery()).clauses().get(0).getQuery().toString(), is("x:[10 TO 10]"));
+    }
+
+    @Test
+    public void testDocValuesAreUsedIfAllColumnsSupportThem() throws Exception {
+        MapperService mapperService = mock(MapperService.class);
+        FieldMapper docValuesMapper = mock(FieldMapper.class);
+        when(docValuesMapper.hasDocValues()).thenReturn(true);
+        when(mapperService.smartNameFieldMapper("x")).thenReturn(docValuesMapper);
+        when(mapperService.smartNameFieldMapper("y")).thenReturn(mock(FieldMapper.class));
+        LuceneQueryBuilder.Context context = builder.convert(
+                WhereClause.MATCH_ALL, mapperService, searchContext.fieldData(), indexCache);
+
+        Reference x = createReference("x", DataTypes.INTEGER);
+        Reference y = createReference("y", DataTypes.INTEGER);
+        LuceneQueryBuilder.Visitor.DocValuesVisitor visitor = LuceneQueryBuilder.Visitor.DOC_VALUES_VISITOR;
+
+        assertThat(visitor.process(createFunction(EqOperator.NAME, DataTypes.BOOLEAN, x, x), context), is(true));
+        // y has no doc values
+        assertThat(visitor.process(createFunction(EqOperator.NAME, DataTypes.BOOLEAN, x, y), context), is(false));
+
+        Reference analyzed = new Reference(new ReferenceInfo(
+                new ReferenceIdent(new TableIdent(null, "dummyTable"), new ColumnIdent("x")),
+                RowGranularity.DOC,
+                DataTypes.STRING,
+                ColumnPolicy.DYNAMIC,
+                ReferenceInfo.IndexType.ANALYZED));
+        assertThat(visitor.process(createFunction(EqOperator.NAME, DataTypes.BOOLEAN, analyzed, analyzed), context), is(false));
+
+        Reference array = createReference("x", new ArrayType(DataTypes.INTEGER));
+        assertThat(visitor.process(createFunction(EqOperator.NAME, DataTypes.BOOLEAN, array, array), context), is(false));
+    }
+
+    @Test
+    public void testGenericFunctionFilterIsCached() throws Exception {
+        Reference foo = createReference("foo", DataTypes.STRING);
+        Query query1 = convert(whereClause(EqOperator.NAME, foo, foo));
+        Query query2 = convert(whereClause(EqOperator.NAME, foo, foo));
+
+        verify(indexCache.filter(), times(2)).cache(Matchers.any(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+        Filter filter1 = ((FilteredQuery) query1).getFilter();
+        Filter filter2 = ((FilteredQuery) query2).getFilter();
+        assertThat(filter1, instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+        // the filter cache is keyed by the filter
+        assertThat(filter1, is(filter2));
+        assertThat(filter1.hashCode(), is(filter2.hashCode()));
+    }
+
+    @Test
+    public void testFunctionFilterOfConjunctionIsNotCached() throws Exception {
+        Reference foo = createReference("foo", DataTypes.STRING);
+        Query query = convert(new WhereClause(createFunction(AndOperator.NAME, DataTypes.BOOLEAN,
+                createFunction(EqOperator.NAME, DataTypes.BOOLEAN, foo, foo),
+                createFunction(EqOperator.NAME, DataTypes.BOOLEAN,
+                        createReference("x", DataTypes.INTEGER), Literal.newLiteral(10)))));
+
+        // a cached filter would evaluate the function for every document of a segment
+        verify(indexCache.filter(), never()).cache(Matchers.any(Filter.class));
+        FilteredQuery filteredQuery = (FilteredQuery) query;
+        assertThat(filteredQuery.getFilterStrategy(), is(FilteredQuery.QUERY_FIRST_FILTER_STRATEGY));
+        assertThat(filteredQuery.getFilter(), instanceOf(LuceneQueryBuilder.Visitor.FunctionFilter.class));
+    }
+
     private Query convert(WhereClause clause) {
         return builder.convert(clause, searchContext.mapperService(), searchContext.fieldData(), indexCache).query;
     }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.analyze.TableSample;
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+
+public class TableSampleFilterTest extends CrateUnitTest {
+
+    private static final int NUM_DOCS = 20 * TableSampleFilter.BLOCK_SIZE;
+    private static final ShardId SHARD_ID = new ShardId("t", 0);
+
+    private IndexWriter writer;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+
+    @Before
+    public void prepare() throws Exception {
+        writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(Lucene.VERSION, new StandardAnalyzer()));
+        for (int i = 0; i < NUM_DOCS; i++) {
+            Document doc = new Document();
+            doc.add(new IntField("i", i, Field.Store.NO));
+            writer.addDocument(doc);
+            if (i % 5000 == 0) {
+                // create multiple segments
+                writer.commit();
+            }
+        }
+        writer.commit();
+        reader = DirectoryReader.open(writer, true);
+        searcher = new IndexSearcher(reader);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        reader.close();
+        writer.close();
+        writer.getDirectory().close();
+    }
+
+    private int count(TableSample tableSample) throws Exception {
+        return count(tableSample, SHARD_ID);
+    }
+
+    private int count(TableSample tableSample, ShardId shardId) throws Exception {
+        TotalHitCountCollector collector = new TotalHitCountCollector();
+        searcher.search(new FilteredQuery(new MatchAllDocsQuery(), new TableSampleFilter(tableSample, shardId)), collector);
+        return collector.getTotalHits();
+    }
+
+    @Test
+    public void testBernoulliSample() throws Exception {
+        int count = count(new TableSample(TableSample.Method.BERNOULLI, 10.0, 42L));
+        assertThat(count, allOf(greaterThan(NUM_DOCS / 10 - 300), lessThan(NUM_DOCS / 10 + 300)));
+    }
+
+    @Test
+    public void testSystemSampleIncludesWholeBlocks() throws Exception {
+        TableSample tableSample = new TableSample(TableSample.Method.SYSTEM, 50.0, 42L);
+        int count = count(tableSample);
+        assertThat(count, allOf(greaterThan(0), lessThan(NUM_DOCS)));
+        assertThat(count % TableSampleFilter.BLOCK_SIZE, is(0));
+    }
+
+    @Test
+    public void testSampleIsRepeatable() throws Exception {
+        TableSample tableSample = new TableSample(TableSample.Method.BERNOULLI, 25.0, 7L);
+        assertThat(count(tableSample), is(count(tableSample)));
+        assertThat(count(tableSample), not(is(count(new TableSample(TableSample.Method.BERNOULLI, 25.0, 8L)))));
+        assertThat(count(tableSample), not(is(count(tableSample, new ShardId("t", 1)))));
+    }
+
+    @Test
+    public void testFullAndEmptySample() throws Exception {
+        assertThat(count(new TableSample(TableSample.Method.BERNOULLI, 100.0, 1L)), is(NUM_DOCS));
+        assertThat(count(new TableSample(TableSample.Method.SYSTEM, 100.0, 1L)), is(NUM_DOCS));
+        assertThat(count(new TableSample(TableSample.Method.BERNOULLI, 0.0, 1L)), is(0));
+        assertThat(count(new TableSample(TableSample.Method.SYSTEM, 0.0, 1L)), is(0));
+    }
+
+    @Test
+    public void testSampleIsAppliedOnQueryResult() throws Exception {
+        TotalHitCountCollector collector = new TotalHitCountCollector();
+        Query query = NumericRangeQuery.newIntRange("i", 0, NUM_DOCS / 2, true, false);
+        searcher.search(new FilteredQuery(query, new TableSampleFilter(
+                new TableSample(TableSample.Method.SYSTEM, 50.0, 3L), SHARD_ID)), collector);
+        assertThat(collector.getTotalHits(), lessThanOrEqualTo(NUM_DOCS / 2));
+        assertThat(collector.getTotalHits() % TableSampleFilter.BLOCK_SIZE, is(0));
+    }
+
+    @Test
+    public void testInvalidPercentage() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("TABLESAMPLE percentage must be between 0 and 100, got: 101.0");
+        new TableSample(TableSample.Method.SYSTEM, 101.0, 3L);
+    }
+}
@@ -21,6 +21,7 @@
 
 package io.crate.metadata;
 
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.table.SchemaInfo;
 import io.crate.metadata.table.TableInfo;
@@ -30,6 +31,7 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexTemplateMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Before;
 import org.junit.Rule;
@@ -109,6 +111,7 @@ public class ReferenceInfosTest {
         Map<String, SchemaInfo> builtInSchema = new HashMap<>();
         builtInSchema.put(schemaInfo.name(), schemaInfo);
 
-        return new ReferenceInfos(builtInSchema, clusterService, mock(ThreadPool.class), mock(TransportPutIndexTemplateAction.class));
+        return new ReferenceInfos(builtInSchema, clusterService, mock(ThreadPool.class), mock(TransportPutIndexTemplateAction.class),
+                new NodeResponseStats(ImmutableSettings.EMPTY));
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import io.crate.analyze.Analysis;
 import io.crate.analyze.CreateTableAnalyzedStatement;
 import io.crate.analyze.CreateTableStatementAnalyzer;
 import io.crate.analyze.ParameterContext;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.*;
 import io.crate.metadata.table.ColumnPolicy;
 import io.crate.metadata.table.SchemaInfo;
@@ -833,13 +834,15 @@ public class DocIndexMetaDataTest extends CrateUnitTest {
         when(metaData.settings()).thenReturn(ImmutableSettings.EMPTY);
         when(clusterService.state()).thenReturn(state);
         TransportPutIndexTemplateAction transportPutIndexTemplateAction = mock(TransportPutIndexTemplateAction.class);
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(ImmutableSettings.EMPTY);
         CreateTableStatementAnalyzer analyzer = new CreateTableStatementAnalyzer(
             new ReferenceInfos(
                 ImmutableMap.<String, SchemaInfo>of("doc",
-                    new DocSchemaInfo(clusterService, threadPool, transportPutIndexTemplateAction)),
+                    new DocSchemaInfo(clusterService, threadPool, transportPutIndexTemplateAction, nodeResponseStats)),
                     clusterService,
                     threadPool,
-                    transportPutIndexTemplateAction),
+                    transportPutIndexTemplateAction,
+                    nodeResponseStats),
             new FulltextAnalyzerResolver(clusterService, mock(IndicesAnalysisService.class))
         );
 
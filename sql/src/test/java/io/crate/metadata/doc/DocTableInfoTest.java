@@ -2,6 +2,7 @@ package io.crate.metadata.doc;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.crate.executor.transport.NodeResponseStats;
 import io.crate.metadata.*;
 import io.crate.metadata.table.ColumnPolicy;
 import io.crate.planner.RowGranularity;
@@ -9,6 +10,7 @@ import io.crate.planner.symbol.DynamicReference;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -61,7 +63,8 @@ public class DocTableInfoTest extends CrateUnitTest {
                 ImmutableList.<ColumnIdent>of(),
                 ImmutableList.<PartitionName>of(),
                 ColumnPolicy.DYNAMIC,
-                executorService
+                executorService,
+                new NodeResponseStats(ImmutableSettings.EMPTY)
         );
 
         ReferenceInfo foobar = info.getReferenceInfo(new ColumnIdent("o", ImmutableList.of("foobar")));
@@ -110,7 +113,8 @@ public class DocTableInfoTest extends CrateUnitTest {
                 ImmutableList.<ColumnIdent>of(),
                 ImmutableList.<PartitionName>of(),
                 ColumnPolicy.DYNAMIC,
-                executorService
+                executorService,
+                new NodeResponseStats(ImmutableSettings.EMPTY)
         );
 
 
@@ -61,7 +61,7 @@ public class TestingTableInfo extends DocTableInfo {
                             List<PartitionName> partitions,
                             ColumnPolicy columnPolicy, Routing routing) {
         super(schemaInfo, ident, columns, partitionedByColumns, indexColumns, references,
-                ImmutableMap.<ColumnIdent, String>of(), primaryKeys, clusteredBy, isAlias, hasAutoGeneratedPrimaryKey, concreteIndices, null, numberOfShards, numberOfReplicas, tableParameters, partitionedBy, partitions, columnPolicy, null);
+                ImmutableMap.<ColumnIdent, String>of(), primaryKeys, clusteredBy, isAlias, hasAutoGeneratedPrimaryKey, concreteIndices, null, numberOfShards, numberOfReplicas, tableParameters, partitionedBy, partitions, columnPolicy, null, null);
         this.routing = routing;
     }
 
@@ -35,6 +35,7 @@ import io.crate.jobs.ExecutionState;
 import io.crate.metadata.*;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.aggregation.impl.MinimumAggregation;
+import io.crate.operation.merge.PartitionedGroupingPageDownstream;
 import io.crate.operation.projectors.FlatProjectorChain;
 import io.crate.operation.projectors.TopN;
 import io.crate.planner.distribution.DistributionType;
@@ -75,6 +76,7 @@ import java.util.concurrent.TimeUnit;
 
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.mockito.Mockito.mock;
 
 public class PageDownstreamFactoryTest extends CrateUnitTest {
@@ -222,4 +224,61 @@ public class PageDownstreamFactoryTest extends CrateUnitTest {
         Bucket mergeResult = rowReceiver.result();
         assertThat(mergeResult, contains(isRow(0, 2.5)));
     }
+
+    @Test
+    public void testParallelReduceOfGroupProjection() throws Exception {
+        TopNProjection topNProjection = new TopNProjection(5, TopN.NO_OFFSET,
+                Arrays.<Symbol>asList(new InputColumn(0)), new boolean[]{false}, new Boolean[]{null});
+        topNProjection.outputs(Arrays.<Symbol>asList(new InputColumn(0), new InputColumn(1)));
+        MergePhase mergeNode = new MergePhase(UUID.randomUUID(), 0, "merge", 2,
+                ImmutableList.<DataType>of(DataTypes.INTEGER, DataTypes.DOUBLE),
+                Arrays.asList(groupProjection, topNProjection), DistributionType.BROADCAST);
+        final PageDownstreamFactory pageDownstreamFactory = new PageDownstreamFactory(
+                mock(ClusterService.class),
+                threadPool,
+                ImmutableSettings.builder().put(PageDownstreamFactory.MERGE_REDUCERS_SETTING, 4).build(),
+                mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
+                mock(BulkRetryCoordinatorPool.class),
+                referenceResolver,
+                functions
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        final PageDownstream pageDownstream = getPageDownstream(mergeNode, pageDownstreamFactory, rowReceiver);
+        assertThat(pageDownstream, instanceOf(PartitionedGroupingPageDownstream.class));
+
+        Object[][] objs = new Object[1000][];
+        for (int i = 0; i < objs.length; i++) {
+            objs[i] = new Object[]{i % 20, 1000.5d - i};
+        }
+        BucketPage page1 = new BucketPage(ImmutableList.of(
+                Futures.<Bucket>immediateFuture(new ArrayBucket(Arrays.copyOfRange(objs, 0, 500))),
+                Futures.<Bucket>immediateFuture(new ArrayBucket(Arrays.copyOfRange(objs, 500, 800)))));
+        BucketPage page2 = new BucketPage(Futures.<Bucket>immediateFuture(
+                new ArrayBucket(Arrays.copyOfRange(objs, 800, 1000))));
+        final Iterator<BucketPage> iterator = Iterators.forArray(page1, page2);
+
+        pageDownstream.nextPage(iterator.next(), new PageConsumeListener() {
+            @Override
+            public void needMore() {
+                if (iterator.hasNext()) {
+                    pageDownstream.nextPage(iterator.next(), this);
+                } else {
+                    pageDownstream.finish();
+                }
+            }
+
+            @Override
+            public void finish() {
+                fail("should still want more");
+            }
+        });
+        Bucket mergeResult = rowReceiver.result();
+        assertThat(mergeResult, IsIterableContainingInOrder.contains(
+                isRow(0, 20.5d),
+                isRow(1, 19.5d),
+                isRow(2, 18.5d),
+                isRow(3, 17.5d),
+                isRow(4, 16.5d)
+        ));
+    }
 }
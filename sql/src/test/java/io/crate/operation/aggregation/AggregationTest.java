@@ -38,6 +38,8 @@ import org.elasticsearch.common.inject.Injector;
 import org.elasticsearch.common.inject.ModulesBuilder;
 import org.junit.Before;
 
+import java.util.List;
+
 public abstract class AggregationTest extends CrateUnitTest {
 
     protected static final RamAccountingContext ramAccountingContext =
@@ -64,15 +66,17 @@ public abstract class AggregationTest extends CrateUnitTest {
     }
 
     public Object[][] executeAggregation(String name, DataType dataType, Object[][] data) throws Exception {
-
-        FunctionIdent fi;
-        InputCollectExpression[] inputs;
         if (dataType != null) {
-            fi = new FunctionIdent(name, ImmutableList.of(dataType));
-            inputs = new InputCollectExpression[]{new InputCollectExpression(0)};
-        } else {
-            fi = new FunctionIdent(name, ImmutableList.<DataType>of());
-            inputs = new InputCollectExpression[0];
+            return executeAggregation(name, ImmutableList.of(dataType), data);
+        }
+        return executeAggregation(name, ImmutableList.<DataType>of(), data);
+    }
+
+    public Object[][] executeAggregation(String name, List<DataType> argumentTypes, Object[][] data) throws Exception {
+        FunctionIdent fi = new FunctionIdent(name, argumentTypes);
+        InputCollectExpression[] inputs = new InputCollectExpression[argumentTypes.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new InputCollectExpression(i);
         }
         AggregationFunction impl = (AggregationFunction) functions.get(fi);
         Object state = impl.newState(ramAccountingContext);
@@ -0,0 +1,67 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.aggregation;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.metadata.FunctionIdent;
+import io.crate.operation.Input;
+import io.crate.planner.symbol.Literal;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MergeStateFunctionTest extends AggregationTest {
+
+    @SuppressWarnings("unchecked")
+    private Object merge(String aggregation, DataType type, Object state, Object otherState) {
+        MergeStateFunction function = (MergeStateFunction) functions.getSafe(
+                new FunctionIdent(MergeStateFunction.name(aggregation), ImmutableList.of(type, type)));
+        return function.evaluate(
+                (Input) Literal.newLiteral(type, state), (Input) Literal.newLiteral(type, otherState));
+    }
+
+    @Test
+    public void testMergeStates() throws Exception {
+        assertThat((Long) merge("count", DataTypes.LONG, 3L, 4L), is(7L));
+        assertThat((Double) merge("sum", DataTypes.DOUBLE, 1.5d, 2.0d), is(3.5d));
+        assertThat((Long) merge("min", DataTypes.LONG, 3L, 4L), is(3L));
+        assertThat((Long) merge("max", DataTypes.LONG, 3L, 4L), is(4L));
+        assertThat((BytesRef) merge("max", DataTypes.STRING, new BytesRef("a"), new BytesRef("b")), is(new BytesRef("b")));
+    }
+
+    @Test
+    public void testMergeWithNullState() throws Exception {
+        assertThat((Long) merge("count", DataTypes.LONG, null, 4L), is(4L));
+        assertThat((Long) merge("min", DataTypes.LONG, 3L, null), is(3L));
+        assertThat(merge("sum", DataTypes.DOUBLE, null, null), nullValue());
+    }
+
+    @Test
+    public void testOnlyAggregationsWithFinalPartialStateAreSupported() throws Exception {
+        assertThat(functions.get(new FunctionIdent(
+                MergeStateFunction.name("avg"), ImmutableList.<DataType>of(DataTypes.DOUBLE, DataTypes.DOUBLE))), nullValue());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.metadata.FunctionIdent;
+import io.crate.operation.Input;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.aggregation.AggregationTest;
+import io.crate.planner.symbol.Literal;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PercentileAggregationTest extends AggregationTest {
+
+    private static final ArrayType DOUBLE_ARRAY = new ArrayType(DataTypes.DOUBLE);
+
+    private Object[][] executeAggregation(DataType valueType, DataType fractionType, Object[][] data) throws Exception {
+        return executeAggregation("percentile", ImmutableList.of(valueType, fractionType), data);
+    }
+
+    private static Object[][] withFraction(Object fraction, Object... values) {
+        Object[][] rows = new Object[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = new Object[]{values[i], fraction};
+        }
+        return rows;
+    }
+
+    private PercentileAggregation singleFractionImpl() {
+        return (PercentileAggregation) functions.get(
+                new FunctionIdent("percentile", ImmutableList.<DataType>of(DataTypes.DOUBLE, DataTypes.DOUBLE)));
+    }
+
+    @Test
+    public void testReturnType() throws Exception {
+        for (DataType type : DataTypes.NUMERIC_PRIMITIVE_TYPES) {
+            assertEquals(DataTypes.DOUBLE, functions.get(new FunctionIdent("percentile",
+                    ImmutableList.<DataType>of(type, DataTypes.DOUBLE))).info().returnType());
+            assertEquals(DOUBLE_ARRAY, functions.get(new FunctionIdent("percentile",
+                    ImmutableList.<DataType>of(type, DOUBLE_ARRAY))).info().returnType());
+        }
+    }
+
+    @Test
+    public void testSingleFraction() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.INTEGER, DataTypes.DOUBLE,
+                withFraction(0.5, 1, 2, 3, 4, 5));
+        assertThat((Double) result[0][0], is(3.0));
+    }
+
+    @Test
+    public void testMultipleFractions() throws Exception {
+        Object[] fractions = new Object[]{0.0, 0.5, 1.0};
+        Object[][] result = executeAggregation(DataTypes.LONG, DOUBLE_ARRAY,
+                withFraction(fractions, 10L, 20L, 30L, 40L, 50L));
+        assertThat(result[0][0], instanceOf(Double[].class));
+        Double[] percentiles = (Double[]) result[0][0];
+        assertThat(percentiles.length, is(3));
+        assertThat(percentiles[0], is(10.0));
+        assertThat(percentiles[1], is(30.0));
+        assertThat(percentiles[2], is(50.0));
+    }
+
+    @Test
+    public void testNullValuesAreIgnored() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.DOUBLE, DataTypes.DOUBLE,
+                withFraction(0.5, 1.0, null, 3.0, null, 5.0));
+        assertThat((Double) result[0][0], is(3.0));
+    }
+
+    @Test
+    public void testOnlyNullValues() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.DOUBLE, DataTypes.DOUBLE,
+                withFraction(0.5, null, null));
+        assertThat(result[0][0], is(nullValue()));
+    }
+
+    @Test
+    public void testFractionOutOfRange() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("percentile: fraction must be in the range [0,1], got: 1.5");
+        executeAggregation(DataTypes.DOUBLE, DataTypes.DOUBLE, withFraction(1.5, 1.0));
+    }
+
+    @Test
+    public void testReduceAndStreamPartialStates() throws Exception {
+        PercentileAggregation impl = singleFractionImpl();
+        Input<Double> fraction = Literal.newLiteral(0.99);
+
+        PercentileAggregation.TDigestState state1 = impl.newState(ramAccountingContext);
+        PercentileAggregation.TDigestState state2 = impl.newState(ramAccountingContext);
+        for (int i = 0; i < 10000; i++) {
+            Input<Double> value = Literal.newLiteral((double) i);
+            if (i % 2 == 0) {
+                state1 = impl.iterate(ramAccountingContext, state1, value, fraction);
+            } else {
+                state2 = impl.iterate(ramAccountingContext, state2, value, fraction);
+            }
+        }
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        impl.partialType().streamer().writeValueTo(out, state2);
+        PercentileAggregation.TDigestState streamed = (PercentileAggregation.TDigestState)
+                impl.partialType().streamer().readValueFrom(new BytesStreamInput(out.bytes()));
+        assertThat(streamed.size(), is(5000L));
+        assertThat(streamed.centroidCount(), is(state2.centroidCount()));
+
+        PercentileAggregation.TDigestState reduced = impl.reduce(ramAccountingContext, state1, streamed);
+        assertThat(reduced.size(), is(10000L));
+        assertThat((Double) impl.terminatePartial(ramAccountingContext, reduced), closeTo(9900.0, 50.0));
+    }
+
+    @Test
+    public void testReduceWithEmptyState() throws Exception {
+        PercentileAggregation impl = singleFractionImpl();
+        PercentileAggregation.TDigestState state1 = impl.newState(ramAccountingContext);
+        PercentileAggregation.TDigestState state2 = impl.iterate(ramAccountingContext,
+                impl.newState(ramAccountingContext), Literal.newLiteral(42.0), Literal.newLiteral(0.5));
+
+        AggregationFunction<PercentileAggregation.TDigestState, Object> aggregation = impl;
+        Object result = aggregation.terminatePartial(ramAccountingContext,
+                aggregation.reduce(ramAccountingContext, state1, state2));
+        assertThat((Double) result, is(42.0));
+    }
+}
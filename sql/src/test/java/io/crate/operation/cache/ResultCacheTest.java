@@ -0,0 +1,124 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.cache;
+
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResultCacheTest extends CrateUnitTest {
+
+    private static final ShardId SHARD_ID = new ShardId("t", 0);
+    private static final BytesReference KEY = new BytesArray("count");
+
+    private ResultCache resultCache;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void prepare() throws Exception {
+        breaker = new MemoryCircuitBreaker(new ByteSizeValue(1, ByteSizeUnit.MB), 1.0, Loggers.getLogger(ResultCacheTest.class));
+        CircuitBreakerService breakerService = mock(CircuitBreakerService.class);
+        when(breakerService.getBreaker(CrateCircuitBreakerService.QUERY_BREAKER)).thenReturn(breaker);
+        resultCache = new ResultCache(new ByteSizeValue(10, ByteSizeUnit.KB), breakerService);
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        assertThat(resultCache.get(SHARD_ID, 1L, KEY), nullValue());
+
+        resultCache.put(SHARD_ID, 1L, KEY, 42L);
+        assertThat((Long) resultCache.get(SHARD_ID, 1L, KEY), is(42L));
+        assertThat(resultCache.get(SHARD_ID, 1L, new BytesArray("other")), nullValue());
+        assertThat(resultCache.get(new ShardId("t", 1), 1L, KEY), nullValue());
+        assertThat(breaker.getUsed(), greaterThan(0L));
+    }
+
+    @Test
+    public void testNewerReaderVersionRemovesOlderEntries() throws Exception {
+        resultCache.put(SHARD_ID, 1L, KEY, 42L);
+        resultCache.put(SHARD_ID, 2L, KEY, 43L);
+
+        assertThat(resultCache.get(SHARD_ID, 1L, KEY), nullValue());
+        assertThat((Long) resultCache.get(SHARD_ID, 2L, KEY), is(43L));
+        assertThat(resultCache.size(), is(1L));
+
+        // result of an outdated reader isn't cached anymore
+        resultCache.put(SHARD_ID, 1L, KEY, 42L);
+        assertThat(resultCache.get(SHARD_ID, 1L, KEY), nullValue());
+    }
+
+    @Test
+    public void testReaderWithoutVersionIsNotCached() throws Exception {
+        resultCache.put(SHARD_ID, -1L, KEY, 42L);
+        assertThat(resultCache.get(SHARD_ID, -1L, KEY), nullValue());
+        assertThat(resultCache.size(), is(0L));
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        resultCache.get(SHARD_ID, 1L, KEY);
+        resultCache.put(SHARD_ID, 1L, KEY, 42L);
+        resultCache.get(SHARD_ID, 1L, KEY);
+        resultCache.get(SHARD_ID, 1L, KEY);
+
+        assertThat(resultCache.hits(SHARD_ID), is(2L));
+        assertThat(resultCache.misses(SHARD_ID), is(1L));
+        assertThat(resultCache.hits(new ShardId("t", 1)), is(0L));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        resultCache.put(SHARD_ID, 1L, KEY, 42L);
+        resultCache.put(new ShardId("t", 1), 1L, KEY, 42L);
+        resultCache.invalidate(SHARD_ID);
+
+        assertThat(resultCache.get(SHARD_ID, 1L, KEY), nullValue());
+        assertThat(resultCache.size(), is(1L));
+
+        resultCache.invalidate(new ShardId("t", 1));
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            resultCache.put(SHARD_ID, 1L, new BytesArray(String.valueOf(i)), new Object[] { new BytesRef("foo"), 1L });
+        }
+        assertThat(resultCache.size(), lessThan(1000L));
+        assertThat(breaker.getUsed(), lessThanOrEqualTo(10 * 1024L));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.cache;
+
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.get.GetField;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RowCacheTest extends CrateUnitTest {
+
+    private static final ShardId SHARD_ID = new ShardId("t", 0);
+
+    private RowCache rowCache;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void prepare() throws Exception {
+        breaker = new MemoryCircuitBreaker(new ByteSizeValue(1, ByteSizeUnit.MB), 1.0, Loggers.getLogger(RowCacheTest.class));
+        CircuitBreakerService breakerService = mock(CircuitBreakerService.class);
+        when(breakerService.getBreaker(CrateCircuitBreakerService.QUERY_BREAKER)).thenReturn(breaker);
+        rowCache = new RowCache(new ByteSizeValue(10, ByteSizeUnit.KB), breakerService);
+    }
+
+    private static GetResult getResult(String id, long version) {
+        return new GetResult("t", "default", id, version, true,
+                new BytesArray("{\"id\": " + id + "}"), Collections.<String, GetField>emptyMap());
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        assertThat(rowCache.get(SHARD_ID, "default", "1"), nullValue());
+
+        rowCache.put(SHARD_ID, getResult("1", 3L), rowCache.writeGeneration(SHARD_ID));
+        GetResult cached = rowCache.get(SHARD_ID, "default", "1");
+        assertThat(cached, notNullValue());
+        assertThat(cached.getVersion(), is(3L));
+        assertThat(cached.sourceAsString(), is("{\"id\": 1}"));
+        assertThat(rowCache.get(new ShardId("t", 1), "default", "1"), nullValue());
+        assertThat(breaker.getUsed(), greaterThan(0L));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        rowCache.put(SHARD_ID, getResult("1", 1L), rowCache.writeGeneration(SHARD_ID));
+        rowCache.invalidate(SHARD_ID, "default", "1");
+        assertThat(rowCache.get(SHARD_ID, "default", "1"), nullValue());
+        assertThat(breaker.getUsed(), is(0L));
+
+        rowCache.put(SHARD_ID, getResult("1", 1L), rowCache.writeGeneration(SHARD_ID));
+        rowCache.put(SHARD_ID, getResult("2", 1L), rowCache.writeGeneration(SHARD_ID));
+        rowCache.invalidate(SHARD_ID);
+        assertThat(rowCache.size(), is(0L));
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testConcurrentWriteIsNotCached() throws Exception {
+        long generation = rowCache.writeGeneration(SHARD_ID);
+        // document is written while it is read
+        rowCache.invalidate(SHARD_ID, "default", "1");
+        rowCache.put(SHARD_ID, getResult("1", 1L), generation);
+        assertThat(rowCache.get(SHARD_ID, "default", "1"), nullValue());
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            rowCache.put(SHARD_ID, getResult(String.valueOf(i), 1L), rowCache.writeGeneration(SHARD_ID));
+        }
+        assertThat(rowCache.size(), lessThan(1000L));
+        assertThat(breaker.getUsed(), lessThanOrEqualTo(10 * 1024L));
+    }
+
+    @Test
+    public void testReplacedEntryIsNotAccountedTwice() throws Exception {
+        rowCache.put(SHARD_ID, getResult("1", 1L), rowCache.writeGeneration(SHARD_ID));
+        long used = breaker.getUsed();
+        rowCache.put(SHARD_ID, getResult("1", 1L), rowCache.writeGeneration(SHARD_ID));
+        assertThat(breaker.getUsed(), is(used));
+    }
+}
@@ -272,6 +272,37 @@ public class LuceneDocCollectorTest extends SQLTransportIntegrationTest {
         }}));
     }
 
+    @Test
+    public void testLimitWithBatches() throws Exception {
+        CollectingRowReceiver rowReceiver = CollectingRowReceiver.batchesWithPauseAfter(Integer.MAX_VALUE);
+        CrateCollector docCollector = createDocCollector(null, 15, orderBy.orderBySymbols(), WhereClause.MATCH_ALL, PAGE_SIZE, rowReceiver);
+        docCollector.doCollect();
+        assertThat(rowReceiver.result().size(), is(15));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testUnorderedBatchPauseResume() throws Exception {
+        int pauseAfter = NUMBER_OF_DOCS - 5;
+        CollectingRowReceiver rowReceiver = CollectingRowReceiver.batchesWithPauseAfter(pauseAfter);
+        ReferenceIdent populationIdent = new ReferenceIdent(new TableIdent("doc", "countries"), "population");
+        Reference population = new Reference(new ReferenceInfo(populationIdent, RowGranularity.DOC, DataTypes.INTEGER));
+        CrateCollector docCollector = createDocCollector(null, null, ImmutableList.<Symbol>of(population), WhereClause.MATCH_ALL, PAGE_SIZE, rowReceiver);
+        docCollector.doCollect();
+        // the upstream pauses once the batch which contains the row is processed
+        assertThat(rowReceiver.rows.size(), greaterThanOrEqualTo(pauseAfter));
+        assertThat(rowReceiver.isFinished(), is(false));
+        rowReceiver.resumeUpstream(false);
+
+        Bucket bucket = rowReceiver.result();
+        assertThat(bucket.size(), is(NUMBER_OF_DOCS));
+        assertThat(new ArrayList<>(rowReceiver.rows), containsInAnyOrder(new ArrayList() {{
+            for (int i = 0; i < NUMBER_OF_DOCS; i++) {
+                add(equalTo(new Object[]{i}));
+            }
+        }}));
+    }
+
     @Test
     public void testUnorderedPauseAfterLastDoc() throws Exception {
         int pauseAfter = NUMBER_OF_DOCS;
@@ -21,11 +21,13 @@
 
 package io.crate.operation.collect;
 
-import com.google.common.collect.EvictingQueue;
 import io.crate.core.collections.NoopQueue;
+import io.crate.core.collections.RingBuffer;
+import io.crate.jobs.ResourceUsage;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.operation.reference.sys.job.JobContext;
 import io.crate.operation.reference.sys.job.JobContextLog;
+import io.crate.operation.reference.sys.job.StatementStats;
 import io.crate.operation.reference.sys.operation.OperationContext;
 import io.crate.operation.reference.sys.operation.OperationContextLog;
 import io.crate.test.integration.CrateUnitTest;
@@ -35,6 +37,7 @@ import org.elasticsearch.node.settings.NodeSettingsService;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import java.util.Iterator;
 import java.util.UUID;
 
 import static org.hamcrest.core.Is.is;
@@ -62,7 +65,7 @@ public class StatsTablesTest extends CrateUnitTest {
         assertThat(stats.lastJobsLogSize, is(CrateSettings.STATS_JOBS_LOG_SIZE.defaultValue()));
         assertThat(stats.lastOperationsLogSize, is(200));
 
-        assertThat(stats.jobsLog.get(), Matchers.instanceOf(EvictingQueue.class));
+        assertThat(stats.jobsLog.get(), Matchers.instanceOf(RingBuffer.class));
 
 
         stats.listener.onRefreshSettings(ImmutableSettings.builder()
@@ -100,4 +103,74 @@ public class StatsTablesTest extends CrateUnitTest {
 
         assertThat(stats.operationsLog.get().size(), is(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStatementStatsAreGroupedByFingerprint() {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(ImmutableSettings.EMPTY);
+        Settings settings = ImmutableSettings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        UUID jobId = UUID.randomUUID();
+        stats.jobStarted(jobId, "select name from t where id = 1");
+        stats.operationStarted(1, jobId, "collect");
+        stats.operationFinished(1, null, 100L);
+        stats.jobFinished(jobId, null, 1L);
+
+        jobId = UUID.randomUUID();
+        stats.jobStarted(jobId, "SELECT name FROM t WHERE id = 2");
+        stats.jobFinished(jobId, "failed", 0L);
+
+        Iterator<?> it = stats.statementStatsGetter().getIterable().iterator();
+        StatementStats statementStats = (StatementStats) it.next();
+        assertThat(it.hasNext(), is(false));
+
+        assertThat(statementStats.statement(), is("SELECT name FROM t WHERE id = ?"));
+        assertThat(statementStats.count(), is(2L));
+        assertThat(statementStats.failed(), is(1L));
+        assertThat(statementStats.returnedRows(), is(1L));
+        assertThat(statementStats.usedBytes(), is(100L));
+
+        stats.listener.onRefreshSettings(ImmutableSettings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), false).build());
+        assertThat(stats.statementStatsGetter().getIterable().iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testResourceUsageIsAccountedToJob() {
+        NodeSettingsService nodeSettingsService = new NodeSettingsService(ImmutableSettings.EMPTY);
+        Settings settings = ImmutableSettings.builder()
+                .put(CrateSettings.STATS_ENABLED.settingName(), true).build();
+        StatsTables stats = new StatsTables(settings, nodeSettingsService);
+
+        UUID jobId = UUID.randomUUID();
+        stats.jobStarted(jobId, "select name from t");
+        stats.operationStarted(1, jobId, "collect");
+        ResourceUsage operationUsage = new ResourceUsage();
+        operationUsage.addRowsScanned(10L);
+        operationUsage.addRowsEmitted(2L);
+        operationUsage.addUsedBytes(100L);
+        stats.operationFinished(1, null, 100L, operationUsage);
+
+        OperationContextLog operationContextLog = (OperationContextLog) stats.operationsLogGetter().getIterable().iterator().next();
+        assertThat(operationContextLog.resourceUsage().rowsScanned(), is(10L));
+
+        JobContext jobContext = (JobContext) stats.jobsGetter().getIterable().iterator().next();
+        assertThat(jobContext.resourceUsage().rowsScanned(), is(10L));
+        assertThat(jobContext.usedBytes(), is(100L));
+
+        stats.jobFinished(jobId, null, 2L);
+
+        // other nodes report once their operations have finished, which might be after the job has finished
+        ResourceUsage remoteUsage = new ResourceUsage();
+        remoteUsage.addRowsScanned(5L);
+        remoteUsage.addBytesSent(42L);
+        stats.jobResourceUsage(jobId, remoteUsage);
+        stats.jobResourceUsage(UUID.randomUUID(), remoteUsage);
+
+        JobContextLog jobContextLog = (JobContextLog) stats.jobsLogGetter().getIterable().iterator().next();
+        assertThat(jobContextLog.resourceUsage().rowsScanned(), is(15L));
+        assertThat(jobContextLog.resourceUsage().rowsEmitted(), is(2L));
+        assertThat(jobContextLog.resourceUsage().bytesSent(), is(42L));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lucene.Lucene;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class IndexStatsCollectorTest extends CrateUnitTest {
+
+    private IndexWriter writer;
+    private DirectoryReader reader;
+
+    @Before
+    public void prepare() throws Exception {
+        writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(Lucene.VERSION, new StandardAnalyzer()));
+        long[] longs = new long[]{42L, -3L, 1000000000000L};
+        int[] ints = new int[]{7, -12, 4};
+        double[] doubles = new double[]{1.5, -0.25, 99.9};
+        String[] strings = new String[]{"Trillian", "Arthur", "Zaphod"};
+        for (int i = 0; i < longs.length; i++) {
+            Document doc = new Document();
+            doc.add(new LongField("l", longs[i], Field.Store.NO));
+            doc.add(new IntField("i", ints[i], Field.Store.NO));
+            doc.add(new DoubleField("d", doubles[i], Field.Store.NO));
+            doc.add(new FloatField("f", (float) doubles[i], Field.Store.NO));
+            doc.add(new StringField("s", strings[i], Field.Store.NO));
+            writer.addDocument(doc);
+        }
+        writer.commit();
+        reader = DirectoryReader.open(writer, true);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        reader.close();
+        writer.close();
+        writer.getDirectory().close();
+    }
+
+    private Terms terms(String field) throws Exception {
+        return SlowCompositeReaderWrapper.wrap(reader).terms(field);
+    }
+
+    @Test
+    public void testNumericTerms() throws Exception {
+        assertThat((Long) IndexStatsCollector.termsValue(terms("l"), DataTypes.LONG, true), is(-3L));
+        assertThat((Long) IndexStatsCollector.termsValue(terms("l"), DataTypes.LONG, false), is(1000000000000L));
+        assertThat((Long) IndexStatsCollector.termsValue(terms("l"), DataTypes.TIMESTAMP, false), is(1000000000000L));
+
+        assertThat((Integer) IndexStatsCollector.termsValue(terms("i"), DataTypes.INTEGER, true), is(-12));
+        assertThat((Integer) IndexStatsCollector.termsValue(terms("i"), DataTypes.INTEGER, false), is(7));
+        assertThat((Short) IndexStatsCollector.termsValue(terms("i"), DataTypes.SHORT, true), is((short) -12));
+        assertThat((Byte) IndexStatsCollector.termsValue(terms("i"), DataTypes.BYTE, false), is((byte) 7));
+
+        assertThat((Double) IndexStatsCollector.termsValue(terms("d"), DataTypes.DOUBLE, true), is(-0.25));
+        assertThat((Double) IndexStatsCollector.termsValue(terms("d"), DataTypes.DOUBLE, false), is(99.9));
+        assertThat((Float) IndexStatsCollector.termsValue(terms("f"), DataTypes.FLOAT, true), is(-0.25f));
+        assertThat((Float) IndexStatsCollector.termsValue(terms("f"), DataTypes.FLOAT, false), is(99.9f));
+    }
+
+    @Test
+    public void testStringTerms() throws Exception {
+        assertThat((BytesRef) IndexStatsCollector.termsValue(terms("s"), DataTypes.STRING, true),
+                is(new BytesRef("Arthur")));
+        assertThat((BytesRef) IndexStatsCollector.termsValue(terms("s"), DataTypes.STRING, false),
+                is(new BytesRef("Zaphod")));
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.action.sql.query.CrateSearchContext;
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderedDocIteratorTest extends CrateUnitTest {
+
+    private static final int NUM_SEGMENTS = 4;
+    private static final int DOCS_PER_SEGMENT = 250;
+
+    private RAMDirectory directory;
+    private DirectoryReader reader;
+    private ContextIndexSearcher searcher;
+    private List<Long> values;
+
+    @Before
+    public void prepare() throws Exception {
+        directory = new RAMDirectory();
+        values = new ArrayList<>();
+        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_4_10_4, new KeywordAnalyzer());
+        config.setMergePolicy(NoMergePolicy.INSTANCE);
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+                for (int i = 0; i < DOCS_PER_SEGMENT; i++) {
+                    long value = randomIntBetween(0, 100);
+                    Document document = new Document();
+                    document.add(new NumericDocValuesField("x", value));
+                    document.add(new StringField("even", String.valueOf(value % 2 == 0), Field.Store.NO));
+                    writer.addDocument(document);
+                    values.add(value);
+                }
+                writer.commit();
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        assertThat(reader.leaves().size(), is(NUM_SEGMENTS));
+
+        CrateSearchContext searchContext = mock(CrateSearchContext.class);
+        when(searchContext.timeoutInMillis()).thenReturn(-1L);
+        searcher = new ContextIndexSearcher(
+                searchContext, new Engine.Searcher("test", new IndexSearcher(reader)));
+        searcher.inStage(ContextIndexSearcher.Stage.MAIN_QUERY);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        searcher.finishStage(ContextIndexSearcher.Stage.MAIN_QUERY);
+        reader.close();
+        directory.close();
+    }
+
+    private List<Long> collect(OrderedDocIterator it) {
+        List<Long> result = new ArrayList<>();
+        while (it.hasNext()) {
+            FieldDoc doc = it.next();
+            assertThat(doc.doc - it.leaf().docBase, is(doc.doc % DOCS_PER_SEGMENT));
+            assertThat(values.get(doc.doc), is(doc.fields[0]));
+            result.add((Long) doc.fields[0]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSegmentsAreMergedInOrder() throws Exception {
+        OrderedDocIterator it = new OrderedDocIterator(
+                searcher, new MatchAllDocsQuery(), new Sort(new SortField("x", SortField.Type.LONG)), 3);
+
+        List<Long> expected = new ArrayList<>(values);
+        Collections.sort(expected);
+        assertThat(collect(it), is(expected));
+    }
+
+    @Test
+    public void testReverseOrderWithQuery() throws Exception {
+        OrderedDocIterator it = new OrderedDocIterator(
+                searcher,
+                new TermQuery(new Term("even", "true")),
+                new Sort(new SortField("x", SortField.Type.LONG, true)),
+                1000);
+
+        List<Long> expected = new ArrayList<>();
+        for (Long value : values) {
+            if (value % 2 == 0) {
+                expected.add(value);
+            }
+        }
+        Collections.sort(expected, Collections.reverseOrder());
+        assertThat(expected.size(), greaterThan(0));
+        assertThat(collect(it), is(expected));
+    }
+
+    @Test
+    public void testTiesAreOrderedByDocId() throws Exception {
+        OrderedDocIterator it = new OrderedDocIterator(
+                searcher, new MatchAllDocsQuery(), new Sort(new SortField("x", SortField.Type.LONG)), 5);
+
+        FieldDoc previous = null;
+        int count = 0;
+        while (it.hasNext()) {
+            FieldDoc doc = it.next();
+            if (previous != null && previous.fields[0].equals(doc.fields[0])) {
+                assertThat(doc.doc, greaterThan(previous.doc));
+            }
+            previous = doc;
+            count++;
+        }
+        assertThat(count, is(NUM_SEGMENTS * DOCS_PER_SEGMENT));
+    }
+}
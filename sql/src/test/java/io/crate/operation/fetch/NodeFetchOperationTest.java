@@ -42,11 +42,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -117,4 +121,33 @@ public class NodeFetchOperationTest extends CrateUnitTest {
         SingleBucketBuilder singleBucketBuilder = new SingleBucketBuilder(new Streamer[0]);
         nodeFetchOperation.fetch(singleBucketBuilder);
     }
+
+    @Test
+    public void testSplitShardDocIdsBucket() throws Exception {
+        NodeFetchOperation.ShardDocIdsBucket bucket = new NodeFetchOperation.ShardDocIdsBucket();
+        for (int i = 0; i < 10; i++) {
+            bucket.add(i, 100 + i);
+        }
+        assertThat(bucket.split(10), contains(bucket));
+
+        List<NodeFetchOperation.ShardDocIdsBucket> ranges = bucket.split(4);
+        assertThat(ranges.size(), is(3));
+        int position = 0;
+        for (NodeFetchOperation.ShardDocIdsBucket range : ranges) {
+            assertThat(range.size(), lessThanOrEqualTo(4));
+            for (int i = 0; i < range.size(); i++) {
+                assertThat(range.position(i), is(position));
+                assertThat(range.docId(i), is(100 + position));
+                position++;
+            }
+        }
+        assertThat(position, is(10));
+    }
+
+    @Test
+    public void testMaxDocsPerFetcher() throws Exception {
+        assertThat(NodeFetchOperation.maxDocsPerFetcher(10, 4), is(NodeFetchOperation.MIN_DOCS_PER_FETCHER));
+        assertThat(NodeFetchOperation.maxDocsPerFetcher(50000, 8), is(6250));
+        assertThat(NodeFetchOperation.maxDocsPerFetcher(50001, 8), is(6251));
+    }
 }
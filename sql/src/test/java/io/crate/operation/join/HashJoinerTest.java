@@ -0,0 +1,195 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.join;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import io.crate.testing.RowSender;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.core.Is.is;
+
+public class HashJoinerTest extends CrateUnitTest {
+
+    private static final List<DataType> TYPES = ImmutableList.<DataType>of(DataTypes.INTEGER, DataTypes.STRING);
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.Name.FIELDDATA));
+
+    private static List<Row> rows(Object[]... rows) {
+        List<Row> result = new ArrayList<>(rows.length);
+        for (Object[] cells : rows) {
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] instanceof String) {
+                    cells[i] = new BytesRef((String) cells[i]);
+                }
+            }
+            result.add(new RowN(cells));
+        }
+        return result;
+    }
+
+    private static RowSender sender(List<Row> rows, HashJoiner joiner, byte inputId) {
+        return new RowSender(rows, joiner.receiver(inputId), MoreExecutors.directExecutor());
+    }
+
+    @Test
+    public void testJoinWithBuildInputFinishedFirst() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver();
+        HashJoiner joiner = new HashJoiner(RAM_ACCOUNTING_CONTEXT, TYPES, TYPES, 1, (byte) 1, receiver);
+        RowSender left = sender(rows(
+                new Object[]{1, "Arthur"},
+                new Object[]{2, "Trillian"},
+                new Object[]{null, "Marvin"},
+                new Object[]{3, "Ford"}), joiner, (byte) 0);
+        RowSender right = sender(rows(
+                new Object[]{1, "Earth"},
+                new Object[]{3, "Betelgeuse"},
+                new Object[]{3, "Magrathea"},
+                new Object[]{null, "Vogsphere"}), joiner, (byte) 1);
+
+        right.run();
+        assertThat(receiver.isFinished(), is(false));
+        left.run();
+
+        Bucket result = receiver.result();
+        assertThat(printedTable(result),
+                is("1| Arthur| 1| Earth\n" +
+                   "3| Ford| 3| Betelgeuse\n" +
+                   "3| Ford| 3| Magrathea\n"));
+        assertThat(left.numPauses(), is(0));
+    }
+
+    @Test
+    public void testProbeInputIsPausedUntilBuildInputFinished() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver();
+        HashJoiner joiner = new HashJoiner(RAM_ACCOUNTING_CONTEXT, TYPES, TYPES, 1, (byte) 0, receiver);
+        RowSender left = sender(rows(
+                new Object[]{1, "Arthur"},
+                new Object[]{2, "Trillian"}), joiner, (byte) 0);
+        RowSender right = sender(rows(
+                new Object[]{2, "Earth"},
+                new Object[]{1, "Betelgeuse"}), joiner, (byte) 1);
+
+        right.run();
+        assertThat(right.numPauses(), is(1));
+        assertThat(receiver.rows.size(), is(0));
+
+        left.run();
+        assertThat(right.numResumes(), is(1));
+        assertThat(printedTable(receiver.result()),
+                is("2| Trillian| 2| Earth\n" +
+                   "1| Arthur| 1| Betelgeuse\n"));
+    }
+
+    @Test
+    public void testJoinOnMultipleKeys() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver();
+        HashJoiner joiner = new HashJoiner(RAM_ACCOUNTING_CONTEXT, TYPES, TYPES, 2, (byte) 1, receiver);
+        sender(rows(
+                new Object[]{1, "a"},
+                new Object[]{1, "b"},
+                new Object[]{1, null}), joiner, (byte) 1).run();
+        sender(rows(
+                new Object[]{1, "b"},
+                new Object[]{2, "a"},
+                new Object[]{1, null}), joiner, (byte) 0).run();
+
+        assertThat(printedTable(receiver.result()), is("1| b| 1| b\n"));
+    }
+
+    @Test
+    public void testEmptyBuildInputStopsProbeInput() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver();
+        HashJoiner joiner = new HashJoiner(RAM_ACCOUNTING_CONTEXT, TYPES, TYPES, 1, (byte) 1, receiver);
+        sender(rows(), joiner, (byte) 1).run();
+
+        assertThat(joiner.leftReceiver().setNextRow(rows(new Object[]{1, "Arthur"}).get(0)), is(false));
+        joiner.leftReceiver().finish();
+        assertThat(receiver.result().size(), is(0));
+    }
+
+    @Test
+    public void testLimitedDownstreamStopsProbeInput() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver() {
+            @Override
+            public boolean setNextRow(Row row) {
+                super.setNextRow(row);
+                return false;
+            }
+        };
+        HashJoiner joiner = new HashJoiner(RAM_ACCOUNTING_CONTEXT, TYPES, TYPES, 1, (byte) 1, receiver);
+        sender(rows(new Object[]{1, "Earth"}), joiner, (byte) 1).run();
+
+        assertThat(joiner.leftReceiver().setNextRow(rows(new Object[]{1, "Arthur"}).get(0)), is(false));
+        joiner.leftReceiver().finish();
+        assertThat(receiver.result().size(), is(1));
+    }
+
+    @Test
+    public void testCircuitBreakerTripsOnBigBuildInput() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver();
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", new MemoryCircuitBreaker(
+                new ByteSizeValue(256), 1.0, Loggers.getLogger(HashJoinerTest.class)));
+        HashJoiner joiner = new HashJoiner(ramAccountingContext, TYPES, TYPES, 1, (byte) 1, receiver);
+        List<Row> buildRows = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            buildRows.add(new RowN(new Object[]{i, new BytesRef("Row number " + i)}));
+        }
+        RowSender right = sender(buildRows, joiner, (byte) 1);
+        right.run();
+        joiner.leftReceiver().finish();
+
+        expectedException.expect(CircuitBreakingException.class);
+        receiver.result();
+    }
+
+    @Test
+    public void testFailureOfProbeInputFailsDownstream() throws Exception {
+        CollectingRowReceiver receiver = new CollectingRowReceiver();
+        HashJoiner joiner = new HashJoiner(RAM_ACCOUNTING_CONTEXT, TYPES, TYPES, 1, (byte) 1, receiver);
+        joiner.leftReceiver().fail(new IllegalStateException("dummy"));
+        joiner.rightReceiver().finish();
+
+        expectedException.expect(IllegalStateException.class);
+        receiver.result();
+    }
+}
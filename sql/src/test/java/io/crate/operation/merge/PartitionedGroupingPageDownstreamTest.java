@@ -0,0 +1,170 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.merge;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import io.crate.core.collections.ArrayBucket;
+import io.crate.core.collections.Bucket;
+import io.crate.core.collections.BucketPage;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowN;
+import io.crate.operation.projectors.AbstractProjector;
+import io.crate.operation.projectors.IterableRowEmitter;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static io.crate.operation.merge.IteratorPageDownstreamTest.PAGE_CONSUME_LISTENER;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PartitionedGroupingPageDownstreamTest extends CrateUnitTest {
+
+    private static final Executor REJECTING_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@Nonnull Runnable command) {
+            throw new EsRejectedExecutionException("rejected");
+        }
+    };
+
+    /**
+     * buffers all rows and emits them on finish, like a grouping projector
+     */
+    private static class BufferingProjector extends AbstractProjector {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public boolean setNextRow(Row row) {
+            rows.add(row.materialize());
+            return true;
+        }
+
+        @Override
+        public void finish() {
+            List<Row> emitRows = new ArrayList<>(rows.size());
+            for (Object[] cells : rows) {
+                emitRows.add(new RowN(cells));
+            }
+            new IterableRowEmitter(downstream, executionState, emitRows).run();
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            downstream.fail(throwable);
+        }
+    }
+
+    private static List<BufferingProjector> reducers(int numReducers) {
+        List<BufferingProjector> reducers = new ArrayList<>(numReducers);
+        for (int i = 0; i < numReducers; i++) {
+            reducers.add(new BufferingProjector());
+        }
+        return reducers;
+    }
+
+    private static BucketPage page(int fromKey, int toKey) {
+        Object[][] rows = new Object[toKey - fromKey][];
+        for (int i = fromKey; i < toKey; i++) {
+            rows[i - fromKey] = new Object[]{i % 10, i};
+        }
+        return new BucketPage(ImmutableList.of(Futures.<Bucket>immediateFuture(new ArrayBucket(rows))));
+    }
+
+    @Test
+    public void testRowsAreReducedByKeyPartitionEvenIfExecutionIsRejected() throws Exception {
+        List<BufferingProjector> reducers = reducers(3);
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        PartitionedGroupingPageDownstream pageDownstream = new PartitionedGroupingPageDownstream(
+                reducers, new int[]{0}, rowReceiver, REJECTING_EXECUTOR);
+
+        pageDownstream.nextPage(page(0, 50), PAGE_CONSUME_LISTENER);
+        pageDownstream.nextPage(page(50, 100), PAGE_CONSUME_LISTENER);
+        pageDownstream.finish();
+
+        assertThat(rowReceiver.result().size(), is(100));
+        Set<Object> seenKeys = new HashSet<>();
+        for (BufferingProjector reducer : reducers) {
+            Set<Object> keys = new HashSet<>();
+            for (Object[] row : reducer.rows) {
+                keys.add(row[0]);
+            }
+            // every key is only reduced by a single reducer
+            for (Object key : keys) {
+                assertTrue(seenKeys.add(key));
+            }
+        }
+        assertThat(seenKeys.size(), is(10));
+    }
+
+    @Test
+    public void testPartitionDependsOnlyOnKeys() throws Exception {
+        int[] keyIndices = new int[]{0, 2};
+        for (int i = 0; i < 100; i++) {
+            Row row = new RowN(new Object[]{i, "foo", "bar"});
+            Row otherRow = new RowN(new Object[]{i, "baz", "bar"});
+            int partition = PartitionedGroupingPageDownstream.partition(row, keyIndices, 7);
+            assertThat(PartitionedGroupingPageDownstream.partition(otherRow, keyIndices, 7), is(partition));
+            assertTrue(partition >= 0 && partition < 7);
+        }
+    }
+
+    @Test
+    public void testPauseAndResumeWhileEmitting() throws Exception {
+        CollectingRowReceiver rowReceiver = CollectingRowReceiver.withPauseAfter(2);
+        PartitionedGroupingPageDownstream pageDownstream = new PartitionedGroupingPageDownstream(
+                reducers(2), new int[]{0}, rowReceiver, REJECTING_EXECUTOR);
+
+        pageDownstream.nextPage(page(0, 5), PAGE_CONSUME_LISTENER);
+        pageDownstream.finish();
+        assertThat(rowReceiver.rows.size(), is(2));
+        assertThat(rowReceiver.isFinished(), is(false));
+
+        pageDownstream.resume(false);
+        assertThat(rowReceiver.rows.size(), is(5));
+        assertThat(rowReceiver.isFinished(), is(true));
+    }
+
+    @Test
+    public void testMultipleFinishPropagatesOnlyOnceToDownstream() throws Exception {
+        RowReceiver rowReceiver = mock(RowReceiver.class);
+        PartitionedGroupingPageDownstream pageDownstream = new PartitionedGroupingPageDownstream(
+                reducers(2), new int[]{0}, rowReceiver, REJECTING_EXECUTOR);
+
+        pageDownstream.finish();
+        pageDownstream.finish();
+
+        verify(rowReceiver, times(1)).finish();
+    }
+}
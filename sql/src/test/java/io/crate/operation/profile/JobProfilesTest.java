@@ -0,0 +1,143 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.profile;
+
+import io.crate.core.collections.Row1;
+import io.crate.jobs.ExecutionSubContext;
+import io.crate.jobs.SubExecutionContextFuture;
+import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.RowReceiver;
+import io.crate.planner.node.ExecutionPhase;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class JobProfilesTest extends CrateUnitTest {
+
+    private JobProfiles jobProfiles;
+    private ExecutionPhase phase;
+
+    @Before
+    public void prepare() throws Exception {
+        jobProfiles = new JobProfiles();
+        phase = mock(ExecutionPhase.class);
+        when(phase.executionPhaseId()).thenReturn(1);
+        when(phase.name()).thenReturn("collect");
+    }
+
+    @Test
+    public void testJobIsOnlyProfiledIfStarted() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        assertThat(jobProfiles.get(jobId), nullValue());
+        assertThat(jobProfiles.remove(jobId, "n1").size(), is(0));
+
+        JobProfile profile = jobProfiles.start(jobId);
+        assertThat(jobProfiles.get(jobId), sameInstance(profile));
+        assertThat(jobProfiles.start(jobId), sameInstance(profile));
+        assertThat(profile.phase(phase), sameInstance(profile.phase(phase)));
+
+        assertThat(jobProfiles.remove(jobId, "n1").size(), is(1));
+        assertThat(jobProfiles.get(jobId), nullValue());
+        assertThat(jobProfiles.size(), is(0L));
+    }
+
+    @Test
+    public void testRowsAndPauseResumeAreCounted() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        CollectingRowReceiver collectingRowReceiver = CollectingRowReceiver.withPauseAfter(2);
+        RowReceiver rowReceiver = jobProfiles.start(jobId).phase(phase).profile(collectingRowReceiver);
+
+        RowUpstream upstream = mock(RowUpstream.class);
+        rowReceiver.setUpstream(upstream);
+        rowReceiver.setNextRow(new Row1(1));
+        rowReceiver.setNextRow(new Row1(2));
+        collectingRowReceiver.resumeUpstream(false);
+        rowReceiver.setNextRow(new Row1(3));
+        rowReceiver.finish();
+
+        verify(upstream, times(1)).pause();
+        verify(upstream, times(1)).resume(false);
+        assertThat(collectingRowReceiver.result().size(), is(3));
+
+        List<PhaseProfile> profiles = jobProfiles.remove(jobId, "n1");
+        assertThat(profiles.size(), is(1));
+        PhaseProfile profile = profiles.get(0);
+        assertThat(profile.phaseId(), is(1));
+        assertThat(profile.phaseName(), is("collect"));
+        assertThat(profile.nodeId(), is("n1"));
+        assertThat(profile.rows(), is(3L));
+        assertThat(profile.pauses(), is(1L));
+        assertThat(profile.resumes(), is(1L));
+        assertThat(profile.bytesSent(), is(0L));
+        assertThat(profile.bytesUsed(), is(-1L));
+        assertThat(profile.failed(), is(false));
+        assertThat(profile.durationNanos(), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void testBytesUsedAndFailureOfSubContextAreRecorded() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        PhaseProfiler profiler = jobProfiles.start(jobId).phase(phase);
+
+        SubExecutionContextFuture future = new SubExecutionContextFuture();
+        ExecutionSubContext subContext = mock(ExecutionSubContext.class);
+        when(subContext.future()).thenReturn(future);
+        profiler.profile(subContext);
+
+        future.bytesUsed(1024L);
+        future.close(null);
+        PhaseProfile profile = profiler.snapshot("n1");
+        assertThat(profile.bytesUsed(), is(1024L));
+        assertThat(profile.failed(), is(false));
+
+        SubExecutionContextFuture failedFuture = new SubExecutionContextFuture();
+        when(subContext.future()).thenReturn(failedFuture);
+        profiler.profile(subContext);
+        failedFuture.close(new IllegalStateException("dummy"));
+        assertThat(profiler.snapshot("n1").failed(), is(true));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        PhaseProfile profile = new PhaseProfile(2, "merge", "n1", 1000L, 10L, 1L, 1L, 512L, 2048L, true);
+        BytesStreamOutput out = new BytesStreamOutput();
+        profile.writeTo(out);
+
+        BytesStreamInput in = new BytesStreamInput(out.bytes());
+        PhaseProfile streamed = new PhaseProfile();
+        streamed.readFrom(in);
+
+        assertThat(streamed.toMap(), is(profile.toMap()));
+        assertThat(streamed.durationNanos(), is(1000L));
+        assertThat(streamed.bytesUsed(), is(2048L));
+        assertThat(streamed.phaseName(), is("merge"));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
+import io.crate.core.collections.RowN;
+import io.crate.operation.Input;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.CollectingRowReceiver;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+public class FilterProjectorTest extends CrateUnitTest {
+
+    private FilterProjector filterProjector;
+
+    @Before
+    public void prepare() throws Exception {
+        final InputCollectExpression expression = new InputCollectExpression(0);
+        filterProjector = new FilterProjector(
+                ImmutableList.<CollectExpression<Row, ?>>of(expression),
+                new Input<Boolean>() {
+                    @Override
+                    public Boolean value() {
+                        return (Integer) expression.value() % 2 == 0;
+                    }
+                });
+    }
+
+    private static RowBatchReceiver batchReceiver() {
+        RowBatchReceiver receiver = mock(RowBatchReceiver.class);
+        when(receiver.acceptsBatches()).thenReturn(true);
+        when(receiver.setNextBatch(any(RowBatch.class))).thenReturn(true);
+        return receiver;
+    }
+
+    @Test
+    public void testBatchesAreOnlyAcceptedIfTheDownstreamAcceptsThem() throws Exception {
+        filterProjector.downstream(new CollectingRowReceiver());
+        assertThat(filterProjector.acceptsBatches(), is(false));
+
+        filterProjector.downstream(batchReceiver());
+        assertThat(filterProjector.acceptsBatches(), is(true));
+    }
+
+    @Test
+    public void testBatchIsFiltered() throws Exception {
+        RowBatchReceiver receiver = batchReceiver();
+        filterProjector.downstream(receiver);
+
+        RowBatch batch = new RowBatch(1, 10);
+        for (int i = 0; i < 5; i++) {
+            batch.add(new RowN(new Object[]{i}));
+        }
+        assertThat(filterProjector.setNextBatch(batch), is(true));
+
+        ArgumentCaptor<RowBatch> captor = ArgumentCaptor.forClass(RowBatch.class);
+        verify(receiver).setNextBatch(captor.capture());
+        RowBatch filtered = captor.getValue();
+        assertThat(filtered.size(), is(3));
+        assertThat(filtered.row(0).get(0), is((Object) 0));
+        assertThat(filtered.row(1).get(0), is((Object) 2));
+        assertThat(filtered.row(2).get(0), is((Object) 4));
+    }
+
+    @Test
+    public void testEmptyBatchIsNotPassedOn() throws Exception {
+        RowBatchReceiver receiver = batchReceiver();
+        filterProjector.downstream(receiver);
+
+        RowBatch batch = new RowBatch(1, 10);
+        batch.add(new RowN(new Object[]{1}));
+        assertThat(filterProjector.setNextBatch(batch), is(true));
+        verify(receiver, never()).setNextBatch(any(RowBatch.class));
+    }
+}
@@ -22,6 +22,8 @@
 package io.crate.operation.projectors;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import com.ning.compress.lzf.LZFInputStream;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.Row;
 import io.crate.core.collections.Row1;
@@ -35,17 +37,27 @@ import io.crate.testing.TestingHelpers;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.Matchers.contains;
@@ -59,6 +71,12 @@ public class WriterProjectorTest extends CrateUnitTest {
     @Rule
     public TemporaryFolder folder = new TemporaryFolder();
 
+    @After
+    public void shutdownExecutor() throws Exception {
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
     @Test
     public void testWriteRawToFile() throws Exception {
 
@@ -66,6 +84,7 @@ public class WriterProjectorTest extends CrateUnitTest {
         String uri = Paths.get(fileAbsolutePath).toUri().toString();
         Settings settings = ImmutableSettings.EMPTY;
         WriterProjector projector = new WriterProjector(
+                executorService,
                 executorService,
                 uri,
                 settings,
@@ -112,6 +131,7 @@ public class WriterProjectorTest extends CrateUnitTest {
         String uri = Paths.get(folder.newFolder().toURI()).toUri().toString();
         Settings settings = ImmutableSettings.EMPTY;
         WriterProjector projector = new WriterProjector(
+                executorService,
                 executorService,
                 uri,
                 settings,
@@ -134,6 +154,98 @@ public class WriterProjectorTest extends CrateUnitTest {
         String uri = Paths.get(folder.newFile().toURI()).resolve("out.json").toUri().toString();
         Settings settings = ImmutableSettings.EMPTY;
         WriterProjector projector = new WriterProjector(
+                executorService,
+                executorService,
+                uri,
+                settings,
+                null,
+                ImmutableSet.<CollectExpression<Row, ?>>of(),
+                new HashMap<ColumnIdent, Object>()
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+        projector.prepare(mock(ExecutionState.class));
+        projector.finish();
+        rowReceiver.result();
+    }
+
+    @Test
+    public void testSplitIntoPartsByRows() throws Exception {
+        File folder = this.folder.newFolder();
+        String uri = Paths.get(folder.toURI()).resolve("out.json").toUri().toString();
+        Settings settings = ImmutableSettings.builder().put(WriterProjector.MAX_ROWS_PER_FILE, 2).build();
+        WriterProjector projector = new WriterProjector(
+                executorService,
+                executorService,
+                uri,
+                settings,
+                null,
+                ImmutableSet.<CollectExpression<Row, ?>>of(),
+                new HashMap<ColumnIdent, Object>()
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+
+        projector.prepare(mock(ExecutionState.class));
+        for (int i = 0; i < 5; i++) {
+            projector.setNextRow(new Row1(new BytesRef(String.format(Locale.ENGLISH, "input line %02d", i))));
+        }
+        projector.finish();
+
+        assertThat(rowReceiver.result(), contains(isRow(5L)));
+        assertThat(folder.list().length, is(3));
+        assertEquals("input line 00\ninput line 01\n",
+                TestingHelpers.readFile(new File(folder, "out.part0.json").getAbsolutePath()));
+        assertEquals("input line 02\ninput line 03\n",
+                TestingHelpers.readFile(new File(folder, "out.part1.json").getAbsolutePath()));
+        assertEquals("input line 04\n",
+                TestingHelpers.readFile(new File(folder, "out.part2.json").getAbsolutePath()));
+    }
+
+    @Test
+    public void testPartsAreWrittenByCallerIfWriteExecutorRejects() throws Exception {
+        File folder = this.folder.newFolder();
+        String uri = Paths.get(folder.toURI()).resolve("out.json").toUri().toString();
+        Settings settings = ImmutableSettings.builder().put(WriterProjector.MAX_ROWS_PER_FILE, 2).build();
+        Executor rejectingExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("queue is full");
+            }
+        };
+        WriterProjector projector = new WriterProjector(
+                executorService,
+                rejectingExecutor,
+                uri,
+                settings,
+                null,
+                ImmutableSet.<CollectExpression<Row, ?>>of(),
+                new HashMap<ColumnIdent, Object>()
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+
+        projector.prepare(mock(ExecutionState.class));
+        for (int i = 0; i < 3; i++) {
+            projector.setNextRow(new Row1(new BytesRef(String.format(Locale.ENGLISH, "input line %02d", i))));
+        }
+        projector.finish();
+
+        assertThat(rowReceiver.result(), contains(isRow(3L)));
+        assertEquals("input line 00\ninput line 01\n",
+                TestingHelpers.readFile(new File(folder, "out.part0.json").getAbsolutePath()));
+        assertEquals("input line 02\n",
+                TestingHelpers.readFile(new File(folder, "out.part1.json").getAbsolutePath()));
+    }
+
+    @Test
+    public void testSplitIntoPartsBySize() throws Exception {
+        File folder = this.folder.newFolder();
+        String uri = Paths.get(folder.toURI()).resolve("out.json").toUri().toString();
+        // every line is 14 bytes, a part is finished after the line which exceeds the size
+        Settings settings = ImmutableSettings.builder().put(WriterProjector.MAX_FILE_SIZE, "20b").build();
+        WriterProjector projector = new WriterProjector(
+                executorService,
                 executorService,
                 uri,
                 settings,
@@ -143,8 +255,101 @@ public class WriterProjectorTest extends CrateUnitTest {
         );
         CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
         projector.downstream(rowReceiver);
+
         projector.prepare(mock(ExecutionState.class));
+        for (int i = 0; i < 4; i++) {
+            projector.setNextRow(new Row1(new BytesRef(String.format(Locale.ENGLISH, "input line %02d", i))));
+        }
+        projector.finish();
+
+        assertThat(rowReceiver.result(), contains(isRow(4L)));
+        assertThat(folder.list().length, is(2));
+        assertEquals("input line 00\ninput line 01\n",
+                TestingHelpers.readFile(new File(folder, "out.part0.json").getAbsolutePath()));
+        assertEquals("input line 02\ninput line 03\n",
+                TestingHelpers.readFile(new File(folder, "out.part1.json").getAbsolutePath()));
+    }
+
+    @Test
+    public void testWriteLzfCompressed() throws Exception {
+        File file = folder.newFile("out.json.lzf");
+        Settings settings = ImmutableSettings.builder().put("compression", "lzf").build();
+        WriterProjector projector = new WriterProjector(
+                executorService,
+                executorService,
+                Paths.get(file.toURI()).toUri().toString(),
+                settings,
+                null,
+                ImmutableSet.<CollectExpression<Row, ?>>of(),
+                new HashMap<ColumnIdent, Object>()
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+
+        projector.prepare(mock(ExecutionState.class));
+        for (int i = 0; i < 2; i++) {
+            projector.setNextRow(new Row1(new BytesRef(String.format(Locale.ENGLISH, "input line %02d", i))));
+        }
         projector.finish();
         rowReceiver.result();
+
+        try (InputStream in = new LZFInputStream(new FileInputStream(file))) {
+            assertThat(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8),
+                    is("input line 00\ninput line 01\n"));
+        }
+    }
+
+    @Test
+    public void testUnsupportedCompression() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Unsupported compression type: 'zip'");
+        new WriterProjector(
+                executorService,
+                executorService,
+                Paths.get(folder.newFile().toURI()).toUri().toString(),
+                ImmutableSettings.builder().put("compression", "zip").build(),
+                null,
+                ImmutableSet.<CollectExpression<Row, ?>>of(),
+                new HashMap<ColumnIdent, Object>()
+        );
+    }
+
+    @Test
+    public void testOverwritesAreAppendedToRawSource() throws Exception {
+        String fileAbsolutePath = folder.newFile("out.json").getAbsolutePath();
+        Map<ColumnIdent, Object> overwrites = new HashMap<>();
+        overwrites.put(new ColumnIdent("p"), "x");
+        WriterProjector projector = new WriterProjector(
+                executorService,
+                executorService,
+                Paths.get(fileAbsolutePath).toUri().toString(),
+                ImmutableSettings.EMPTY,
+                null,
+                ImmutableSet.<CollectExpression<Row, ?>>of(),
+                overwrites
+        );
+        CollectingRowReceiver rowReceiver = new CollectingRowReceiver();
+        projector.downstream(rowReceiver);
+
+        projector.prepare(mock(ExecutionState.class));
+        projector.setNextRow(new Row1(new BytesRef("{\"id\":1}")));
+        projector.setNextRow(new Row1(new BytesRef(" { } ")));
+        Map<String, Object> doc = new TreeMap<>();
+        doc.put("id", 2);
+        projector.setNextRow(new Row1(doc));
+        projector.finish();
+
+        assertThat(rowReceiver.result(), contains(isRow(3L)));
+        assertEquals("{\"id\":1,\"p\":\"x\"}\n" +
+                "{\"p\":\"x\"}\n" +
+                "{\"id\":2,\"p\":\"x\"}\n", TestingHelpers.readFile(fileAbsolutePath));
+    }
+
+    @Test
+    public void testPartUri() throws Exception {
+        assertThat(WriterProjector.partUri(URI.create("file:///tmp/out.json.gz"), 3).toString(),
+                is("file:///tmp/out.part3.json.gz"));
+        assertThat(WriterProjector.partUri(URI.create("s3://bucket/dir.d/out"), 0).toString(),
+                is("s3://bucket/dir.d/out.part0"));
     }
 }
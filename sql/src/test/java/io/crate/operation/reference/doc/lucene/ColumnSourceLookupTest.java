@@ -0,0 +1,72 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.doc.lucene;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+
+public class ColumnSourceLookupTest extends CrateUnitTest {
+
+    private static final BytesReference SOURCE = new BytesArray(
+            "{\"id\": 1, \"name\": \"Arthur\", \"tags\": [\"a\", [\"b\"], {\"c\": 1}], " +
+            "\"details\": {\"age\": 42, \"nested\": {\"x\": true}}, \"empty\": null}");
+
+    @Test
+    public void testOnlyRegisteredColumnsAreParsed() throws Exception {
+        Map<String, Object> values = ColumnSourceLookup.parse(SOURCE, ImmutableSet.of("name", "details"));
+        assertThat(values.keySet(), containsInAnyOrder("name", "details"));
+        assertThat((String) values.get("name"), is("Arthur"));
+        assertThat(values.get("details"), is(XContentHelper.convertToMap(SOURCE, false).v2().get("details")));
+    }
+
+    @Test
+    public void testValuesMatchTheSourceMap() throws Exception {
+        Map<String, Object> expected = XContentHelper.convertToMap(SOURCE, false).v2();
+        expected.remove("name");
+        expected.remove("details");
+        assertThat(ColumnSourceLookup.parse(SOURCE, ImmutableSet.of("id", "tags", "empty")), is(expected));
+        assertThat((Iterable<?>) ColumnSourceLookup.parse(SOURCE, ImmutableSet.of("tags")).get("tags"),
+                contains("a", Arrays.asList("b"), Collections.singletonMap("c", 1)));
+    }
+
+    @Test
+    public void testAllColumnsAreParsedIfNoneIsRegistered() throws Exception {
+        assertThat(ColumnSourceLookup.parse(SOURCE, Collections.<String>emptySet()),
+                is(XContentHelper.convertToMap(SOURCE, false).v2()));
+    }
+
+    @Test
+    public void testMissingColumn() throws Exception {
+        assertThat(ColumnSourceLookup.parse(SOURCE, ImmutableSet.of("unknown")).size(), is(0));
+        assertThat(ColumnSourceLookup.parse(null, ImmutableSet.of("name")).size(), is(0));
+    }
+}
@@ -27,6 +27,7 @@ import io.crate.metadata.shard.ShardReferenceImplementation;
 import io.crate.metadata.shard.ShardReferenceResolver;
 import io.crate.metadata.sys.MetaDataSysModule;
 import io.crate.metadata.sys.SysShardsTableInfo;
+import io.crate.operation.cache.ResultCache;
 import io.crate.operation.reference.sys.cluster.SysClusterExpressionModule;
 import io.crate.operation.reference.sys.shard.SysShardExpressionModule;
 import io.crate.planner.RowGranularity;
@@ -140,6 +141,12 @@ public class SysShardsExpressionsTest extends CrateUnitTest {
             TransportPutIndexTemplateAction transportPutIndexTemplateAction = mock(TransportPutIndexTemplateAction.class);
             bind(TransportPutIndexTemplateAction.class).toInstance(transportPutIndexTemplateAction);
 
+            when(indexShard.shardId()).thenReturn(shardId);
+            ResultCache resultCache = mock(ResultCache.class);
+            when(resultCache.hits(shardId)).thenReturn(3L);
+            when(resultCache.misses(shardId)).thenReturn(2L);
+            bind(ResultCache.class).toInstance(resultCache);
+
             when(indexShard.state()).thenReturn(IndexShardState.STARTED);
 
             MetaData metaData = mock(MetaData.class);
@@ -264,6 +271,17 @@ public class SysShardsExpressionsTest extends CrateUnitTest {
         indexName = "wikipedia_de";
     }
 
+    @Test
+    public void testResultCacheHitsAndMisses() throws Exception {
+        ReferenceInfo refInfo = refInfo("sys.shards.result_cache_hits", DataTypes.LONG, RowGranularity.SHARD);
+        ShardReferenceImplementation<Long> shardExpression = (ShardReferenceImplementation<Long>) resolver.getImplementation(refInfo);
+        assertEquals(new Long(3L), shardExpression.value());
+
+        refInfo = refInfo("sys.shards.result_cache_misses", DataTypes.LONG, RowGranularity.SHARD);
+        shardExpression = (ShardReferenceImplementation<Long>) resolver.getImplementation(refInfo);
+        assertEquals(new Long(2L), shardExpression.value());
+    }
+
     @Test
     public void testSchemaName() throws Exception {
         ReferenceInfo refInfo = refInfo("sys.shards.schema_name", DataTypes.STRING, RowGranularity.SHARD);
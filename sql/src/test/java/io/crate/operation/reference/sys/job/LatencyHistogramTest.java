@@ -0,0 +1,75 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.reference.sys.job;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest extends CrateUnitTest {
+
+    @Test
+    public void testEmptyHistogram() throws Exception {
+        assertThat(new LatencyHistogram().percentile(0.5), is(-1L));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.percentile(0.5), is(5L));
+        assertThat(histogram.percentile(0.9), is(9L));
+        assertThat(histogram.percentile(1.0), is(10L));
+    }
+
+    @Test
+    public void testRelativeError() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i);
+        }
+        long p99 = histogram.percentile(0.99);
+        assertThat(Math.abs(p99 - 99000L), lessThanOrEqualTo(99000L / LatencyHistogram.SUB_BUCKETS));
+    }
+
+    @Test
+    public void testIndexRoundTrip() throws Exception {
+        for (long value : new long[]{0L, 31L, 32L, 33L, 1000L, 123456789L, Integer.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertThat(value, lessThanOrEqualTo(LatencyHistogram.highestEquivalentValue(index)));
+            assertThat(LatencyHistogram.index(LatencyHistogram.highestEquivalentValue(index)), is(index));
+        }
+    }
+
+    @Test
+    public void testNegativeAndHugeValuesAreClamped() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1L);
+        histogram.record(Long.MAX_VALUE);
+        assertThat(histogram.percentile(0.5), is(0L));
+        assertThat(histogram.percentile(1.0), is((1L << 33) - 1));
+    }
+}
@@ -7,6 +7,7 @@ import io.crate.Constants;
 import io.crate.analyze.Analyzer;
 import io.crate.analyze.BaseAnalyzerTest;
 import io.crate.analyze.ParameterContext;
+import io.crate.analyze.TableSample;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.relations.PlannedAnalyzedRelation;
 import io.crate.core.collections.TreeMapBuilder;
@@ -26,12 +27,15 @@ import io.crate.operation.operator.EqOperator;
 import io.crate.operation.operator.OperatorModule;
 import io.crate.operation.predicate.PredicateModule;
 import io.crate.operation.scalar.ScalarFunctionModule;
+import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.ShardDistribution;
 import io.crate.planner.node.PlanNode;
 import io.crate.planner.node.ddl.DropTableNode;
 import io.crate.planner.node.ddl.ESClusterUpdateSettingsNode;
 import io.crate.planner.node.ddl.ESDeletePartitionNode;
 import io.crate.planner.node.dml.*;
 import io.crate.planner.node.dql.*;
+import io.crate.planner.node.management.ExplainAnalyzePlan;
 import io.crate.planner.node.management.KillPlan;
 import io.crate.planner.projection.*;
 import io.crate.planner.symbol.*;
@@ -56,6 +60,8 @@ import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.inject.Injector;
 import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.Is;
@@ -93,6 +99,12 @@ public class PlannerTest extends CrateUnitTest {
             .put("nodeTwo", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put(".partitioned.clustered_parted.04732cpp6ksjcc9i60o30c1g",  Arrays.asList(3)).map())
             .map());
 
+    final Routing multiNodeRouting = new Routing(TreeMapBuilder.<String, Map<String, List<Integer>>>newMapBuilder()
+            .put("nodeOne", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("multi_node", Arrays.asList(1, 2, 3, 4)).map())
+            .put("nodeTwo", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("multi_node", Arrays.asList(5, 6, 7, 8)).map())
+            .put("nodeThree", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("multi_node", Arrays.asList(9, 10, 11, 12)).map())
+            .map());
+
     private ClusterService clusterService;
 
     private final static String LOCAL_NODE_ID = "foo";
@@ -125,6 +137,7 @@ public class PlannerTest extends CrateUnitTest {
         @Override
         protected void configure() {
             bind(ThreadPool.class).toInstance(threadPool);
+            bind(Settings.class).toInstance(ImmutableSettings.EMPTY);
             clusterService = mock(ClusterService.class);
             DiscoveryNode localNode = mock(DiscoveryNode.class);
             when(localNode.id()).thenReturn(LOCAL_NODE_ID);
@@ -222,6 +235,12 @@ public class PlannerTest extends CrateUnitTest {
                             new PartitionName("clustered_parted", Arrays.asList(new BytesRef("1395874800000"))).asIndexName(),
                             new PartitionName("clustered_parted", Arrays.asList(new BytesRef("1395961200000"))).asIndexName())
                     .build();
+            TableIdent multiNodeTableIdent = new TableIdent(Schemas.DEFAULT_SCHEMA_NAME, "multi_node");
+            TableInfo multiNodeTableInfo = TestingTableInfo.builder(multiNodeTableIdent, multiNodeRouting)
+                    .add("id", DataTypes.INTEGER, null)
+                    .add("name", DataTypes.STRING, null)
+                    .build();
+            when(multiNodeTableInfo.schemaInfo().name()).thenReturn(Schemas.DEFAULT_SCHEMA_NAME);
             when(emptyPartedTableInfo.schemaInfo().name()).thenReturn(Schemas.DEFAULT_SCHEMA_NAME);
             when(schemaInfo.getTableInfo(charactersTableIdent.name())).thenReturn(charactersTableInfo);
             when(schemaInfo.getTableInfo(userTableIdent.name())).thenReturn(userTableInfo);
@@ -229,6 +248,7 @@ public class PlannerTest extends CrateUnitTest {
             when(schemaInfo.getTableInfo(emptyPartedTableIdent.name())).thenReturn(emptyPartedTableInfo);
             when(schemaInfo.getTableInfo(multiplePartitionedTableIdent.name())).thenReturn(multiplePartitionedTableInfo);
             when(schemaInfo.getTableInfo(clusteredByParitionedIdent.name())).thenReturn(clusteredByPartitionedTableInfo);
+            when(schemaInfo.getTableInfo(multiNodeTableIdent.name())).thenReturn(multiNodeTableInfo);
             when(schemaInfo.getTableInfo(BaseAnalyzerTest.IGNORED_NESTED_TABLE_IDENT.name())).thenReturn(BaseAnalyzerTest.IGNORED_NESTED_TABLE_INFO);
             schemaBinder.addBinding(Schemas.DEFAULT_SCHEMA_NAME).toInstance(schemaInfo);
             schemaBinder.addBinding(SysSchemaInfo.NAME).toInstance(mockSysSchemaInfo());
@@ -1160,6 +1180,16 @@ public class PlannerTest extends CrateUnitTest {
         assertThat(plan, instanceOf(NoopPlan.class));
     }
 
+    @Test
+    public void testExplainAnalyzePlan() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        Plan plan = planner.plan(analyzer.analyze(SqlParser.createStatement("explain analyze select count(*) from users"),
+                new ParameterContext(new Object[0], new Object[0][], Schemas.DEFAULT_SCHEMA_NAME)), jobId);
+        assertThat(plan, instanceOf(ExplainAnalyzePlan.class));
+        assertThat(((ExplainAnalyzePlan) plan).subPlan(), instanceOf(CountPlan.class));
+        assertThat(plan.jobId(), is(jobId));
+    }
+
     @Test
     public void testGlobalCountPlan() throws Exception {
         CountPlan plan = (CountPlan) plan("select count(*) from users");
@@ -1319,15 +1349,18 @@ public class PlannerTest extends CrateUnitTest {
     @Test
     public void testInsertFromSubQueryESGet() throws Exception {
         // doesn't use ESGetNode but CollectNode.
-        // Round-trip to handler can be skipped by writing from the shards directly
+        // Round-trip to handler is skipped by sending the rows from the shards to the writers directly
         InsertFromSubQuery planNode = (InsertFromSubQuery) plan(
                 "insert into users (date, id, name) (select date, id, name from users where id=1)");
         CollectAndMerge queryAndFetch = (CollectAndMerge)planNode.innerPlan();
         CollectPhase collectPhase = queryAndFetch.collectPhase();
+        assertThat(collectPhase.projections().size(), is(0));
+        assertThat(collectPhase.distributionType(), is(DistributionType.SHARD));
 
-        assertThat(collectPhase.projections().size(), is(1));
-        assertThat(collectPhase.projections().get(0), instanceOf(ColumnIndexWriterProjection.class));
-        ColumnIndexWriterProjection projection = (ColumnIndexWriterProjection)collectPhase.projections().get(0);
+        MergePhase writerPhase = queryAndFetch.localMerge();
+        assertThat(writerPhase.projections().size(), is(1));
+        assertThat(writerPhase.projections().get(0), instanceOf(ColumnIndexWriterProjection.class));
+        ColumnIndexWriterProjection projection = (ColumnIndexWriterProjection)writerPhase.projections().get(0);
 
         assertThat(projection.columnReferences().size(), is(3));
         assertThat(projection.columnReferences().get(0).ident().columnIdent().fqn(), is("date"));
@@ -1375,9 +1408,19 @@ public class PlannerTest extends CrateUnitTest {
                 "insert into users (date, id, name) (select date, id, name from users)");
         CollectAndMerge queryAndFetch = (CollectAndMerge)planNode.innerPlan();
         CollectPhase collectPhase = queryAndFetch.collectPhase();
-        assertThat(collectPhase.projections().size(), is(1));
-        assertThat(collectPhase.projections().get(0), instanceOf(ColumnIndexWriterProjection.class));
-        assertNull(queryAndFetch.localMerge());
+        assertThat(collectPhase.projections().size(), is(0));
+        assertThat(collectPhase.distributionType(), is(DistributionType.SHARD));
+        ShardDistribution shardDistribution = collectPhase.shardDistribution();
+        assertThat(shardDistribution.indexName(), is("users"));
+        assertThat(shardDistribution.primaryKeys().get(0).fqn(), is("id"));
+        assertThat(((InputColumn) shardDistribution.primaryKeySymbols().get(0)).index(), is(1));
+        assertThat(((InputColumn) shardDistribution.clusteredBySymbol()).index(), is(1));
+
+        MergePhase writerPhase = queryAndFetch.localMerge();
+        assertThat(writerPhase.projections().size(), is(1));
+        assertThat(writerPhase.projections().get(0), instanceOf(ColumnIndexWriterProjection.class));
+        assertThat(writerPhase.executionNodes(), containsInAnyOrder("nodeOne", "nodeTow"));
+        assertThat(writerPhase.numUpstreams(), is(2));
 
         MergePhase localMergeNode = planNode.handlerMergeNode().get();
 
@@ -1385,6 +1428,19 @@ public class PlannerTest extends CrateUnitTest {
         assertThat(localMergeNode.projections().get(0), instanceOf(AggregationProjection.class));
     }
 
+    @Test
+    public void testInsertFromSubQueryIntoPartitionedTableIsWrittenOnCollectNodes() throws Exception {
+        InsertFromSubQuery planNode = (InsertFromSubQuery) plan(
+                "insert into parted (id, date) (select id, date from users)");
+        CollectAndMerge queryAndFetch = (CollectAndMerge)planNode.innerPlan();
+        CollectPhase collectPhase = queryAndFetch.collectPhase();
+        assertThat(collectPhase.projections().size(), is(1));
+        assertThat(collectPhase.projections().get(0), instanceOf(ColumnIndexWriterProjection.class));
+        assertThat(collectPhase.shardDistribution(), nullValue());
+        assertNull(queryAndFetch.localMerge());
+        assertThat(planNode.handlerMergeNode().isPresent(), is(true));
+    }
+
     @Test
     public void testGroupByHaving() throws Exception {
         DistributedGroupBy distributedGroupBy = (DistributedGroupBy) plan(
@@ -1741,6 +1797,41 @@ public class PlannerTest extends CrateUnitTest {
         assertThat(whereClause.noMatch(), is(false));
     }
 
+    @Test
+    public void testGlobalAggregateFromIndexStats() throws Exception {
+        GlobalAggregate globalAggregate = (GlobalAggregate) plan(
+                "select min(date), max(name), count(*) from users");
+        CollectPhase collectPhase = globalAggregate.collectPhase();
+        assertThat(collectPhase.toCollect().size(), is(3));
+        for (Symbol symbol : collectPhase.toCollect()) {
+            assertThat(symbol, instanceOf(Function.class));
+        }
+        assertThat(collectPhase.outputTypes(), contains(
+                (DataType) DataTypes.TIMESTAMP, DataTypes.STRING, DataTypes.LONG));
+
+        AggregationProjection projection = (AggregationProjection) collectPhase.projections().get(0);
+        for (Aggregation aggregation : projection.aggregations()) {
+            assertThat(aggregation.fromStep(), is(Aggregation.Step.PARTIAL));
+            assertThat(aggregation.toStep(), is(Aggregation.Step.PARTIAL));
+        }
+        AggregationProjection mergeProjection =
+                (AggregationProjection) globalAggregate.localMerge().projections().get(0);
+        assertThat(mergeProjection.aggregations().get(0).toStep(), is(Aggregation.Step.FINAL));
+    }
+
+    @Test
+    public void testGlobalAggregateWithQueryDoesNotUseIndexStats() throws Exception {
+        GlobalAggregate globalAggregate = (GlobalAggregate) plan(
+                "select min(date), count(*) from users where name = 'Arthur'");
+        assertThat(globalAggregate.collectPhase().toCollect().get(0), instanceOf(Reference.class));
+
+        globalAggregate = (GlobalAggregate) plan("select min(date), avg(id) from users");
+        assertThat(globalAggregate.collectPhase().toCollect().get(0), instanceOf(Reference.class));
+
+        globalAggregate = (GlobalAggregate) plan("select max(date) from parted");
+        assertThat(globalAggregate.collectPhase().toCollect().get(0), instanceOf(Reference.class));
+    }
+
     private void assertNoop(Plan plan){
         assertThat(plan, instanceOf(NoopPlan.class));
     }
@@ -1907,4 +1998,121 @@ public class PlannerTest extends CrateUnitTest {
         assertThat(killJobsPlan.jobId(), notNullValue());
         assertThat(killJobsPlan.jobToKill().get().toString(), is("6a3d6fb6-1401-4333-933d-b38c9322fca7"));
     }
+
+    @Test
+    public void testHashJoinBroadcastsSmallerSide() throws Exception {
+        HashJoin plan = (HashJoin) plan("select u.name, p.name from users u join parted p on u.name = p.name " +
+                                        "where u.id > 10 order by u.name limit 5");
+        HashJoinPhase joinPhase = plan.joinPhase();
+        assertThat(joinPhase.strategy(), is(HashJoinPhase.Strategy.BROADCAST));
+        assertThat(joinPhase.buildInputId(), is((byte) 1));
+        assertThat(joinPhase.numKeys(), is(1));
+        assertThat(joinPhase.executionNodes(), contains("nodeOne", "nodeTow"));
+
+        assertThat(plan.leftCollectPhase().distributionType(), is(DistributionType.SAME_NODE));
+        assertThat(plan.rightCollectPhase().distributionType(), is(DistributionType.BROADCAST));
+        assertThat(joinPhase.numUpstreams((byte) 0), is(1));
+        assertThat(joinPhase.numUpstreams((byte) 1), is(2));
+        assertThat(plan.leftCollectPhase().whereClause().hasQuery(), is(true));
+
+        TopNProjection topN = (TopNProjection) Iterables.getLast(joinPhase.projections());
+        assertThat(topN.limit(), is(5));
+        assertThat(topN.isOrdered(), is(true));
+
+        MergePhase localMerge = plan.localMergePhase();
+        assertThat(localMerge.executionNodes(), contains(LOCAL_NODE_ID));
+        assertThat(localMerge.sortedInputOutput(), is(true));
+        assertThat(localMerge.outputTypes(), contains((DataType) DataTypes.STRING, DataTypes.STRING));
+    }
+
+    @Test
+    public void testHashJoinRepartitionsBigTables() throws Exception {
+        HashJoin plan = (HashJoin) plan("select a.name, b.name from multi_node a, multi_node b " +
+                                        "where a.id = b.id and a.name != b.name");
+        HashJoinPhase joinPhase = plan.joinPhase();
+        assertThat(joinPhase.strategy(), is(HashJoinPhase.Strategy.REPARTITION));
+        assertThat(joinPhase.executionNodes(), contains("nodeOne", "nodeThree", "nodeTwo"));
+        assertThat(plan.leftCollectPhase().distributionType(), is(DistributionType.MODULO));
+        assertThat(plan.rightCollectPhase().distributionType(), is(DistributionType.MODULO));
+        assertThat(joinPhase.numUpstreams((byte) 0), is(3));
+        assertThat(joinPhase.numUpstreams((byte) 1), is(3));
+
+        // the non equi condition is evaluated after the join
+        assertThat(joinPhase.projections().get(0), instanceOf(FilterProjection.class));
+        assertThat(plan.localMergePhase().sortedInputOutput(), is(false));
+    }
+
+    @Test
+    public void testUnionAllPushesOrderByAndLimitIntoBranches() throws Exception {
+        Union plan = (Union) plan("select id, name from users union all select id, name from multi_node " +
+                                  "order by name limit 10 offset 2");
+        assertThat(plan.collectPhases().size(), is(2));
+        for (CollectPhase collectPhase : plan.collectPhases()) {
+            assertThat(collectPhase.limit(), is(12));
+            assertThat(collectPhase.orderBy(), notNullValue());
+            TopNProjection topN = (TopNProjection) Iterables.getOnlyElement(collectPhase.projections());
+            assertThat(topN.limit(), is(12));
+            assertThat(topN.offset(), is(0));
+        }
+        // the int column of multi_node is casted to the long column of users
+        assertThat(plan.collectPhases().get(1).outputTypes(), contains((DataType) DataTypes.LONG, DataTypes.STRING));
+
+        MergePhase localMerge = plan.localMergePhase();
+        int usersNodes = plan.collectPhases().get(0).executionNodes().size();
+        assertThat(localMerge.executionNodes(), contains(LOCAL_NODE_ID));
+        assertThat(localMerge.sortedInputOutput(), is(true));
+        assertThat(localMerge.numInputs(), is(2));
+        assertThat(localMerge.numUpstreams(), is(usersNodes + 3));
+        assertThat(localMerge.inputBucketOffsets()[1], is(usersNodes));
+        TopNProjection topN = (TopNProjection) Iterables.getOnlyElement(localMerge.projections());
+        assertThat(topN.limit(), is(10));
+        assertThat(topN.offset(), is(2));
+    }
+
+    @Test
+    public void testUnionDistinctRemovesDuplicatesInBranchesAndOnHandler() throws Exception {
+        Union plan = (Union) plan("select name from users union select name from multi_node order by name limit 5");
+        for (CollectPhase collectPhase : plan.collectPhases()) {
+            // branches must not be limited before the duplicates are removed
+            assertThat(collectPhase.limit(), nullValue());
+            assertThat(collectPhase.projections().get(0), instanceOf(GroupProjection.class));
+            TopNProjection topN = (TopNProjection) collectPhase.projections().get(1);
+            assertThat(topN.limit(), is(5));
+            assertThat(topN.isOrdered(), is(true));
+        }
+        MergePhase localMerge = plan.localMergePhase();
+        assertThat(localMerge.sortedInputOutput(), is(false));
+        assertThat(localMerge.projections().get(0), instanceOf(GroupProjection.class));
+        assertThat(((TopNProjection) localMerge.projections().get(1)).isOrdered(), is(true));
+    }
+
+    @Test
+    public void testUnionSkipsBranchesWithoutMatch() throws Exception {
+        Union plan = (Union) plan("select name from users where 1 = 2 union all select name from multi_node");
+        assertThat(plan.collectPhases().size(), is(1));
+        assertThat(plan.localMergePhase().numInputs(), is(1));
+        assertThat(plan.localMergePhase().numUpstreams(), is(3));
+    }
+
+    @Test
+    public void testCountOnSampledTableIsCollected() throws Exception {
+        CollectAndMerge plan = (CollectAndMerge) plan("select count(*) from users tablesample system (10) repeatable (1)");
+        CollectPhase collectPhase = plan.collectPhase();
+        assertThat(collectPhase.tableSample(), is(new TableSample(TableSample.Method.SYSTEM, 10.0, 1L)));
+        // the partial counts can't be computed from index statistics
+        assertThat(collectPhase.toCollect().size(), is(0));
+    }
+
+    @Test
+    public void testPrimaryKeyLookupOnSampledTableIsCollected() throws Exception {
+        Plan plan = plan("select name from users tablesample bernoulli (50) where id = 1");
+        assertThat(plan, not(instanceOf(IterablePlan.class)));
+        assertThat(((CollectAndMerge) plan).collectPhase().tableSample().method(), is(TableSample.Method.BERNOULLI));
+    }
+
+    @Test
+    public void testGroupByOnSampledTable() throws Exception {
+        DistributedGroupBy plan = (DistributedGroupBy) plan("select name, count(*) from users tablesample system (5) group by name");
+        assertThat(plan.collectNode().tableSample().percentage(), is(5.0));
+    }
 }
@@ -22,12 +22,16 @@
 package io.crate.planner.node;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.analyze.TableSample;
 import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Routing;
 import io.crate.planner.RowGranularity;
 import io.crate.planner.distribution.DistributionType;
+import io.crate.planner.distribution.ShardDistribution;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.projection.Projection;
+import io.crate.planner.symbol.InputColumn;
 import io.crate.planner.symbol.Symbol;
 import io.crate.planner.symbol.Value;
 import io.crate.test.integration.CrateUnitTest;
@@ -58,6 +62,13 @@ public class CollectNodeTest extends CrateUnitTest {
                 WhereClause.MATCH_ALL,
                 DistributionType.MODULO
         );
+        cn.tableSample(new TableSample(TableSample.Method.SYSTEM, 12.5, 42L));
+        cn.shardDistribution(new ShardDistribution(
+                "t",
+                ImmutableList.of(new ColumnIdent("id")),
+                ImmutableList.<Symbol>of(new InputColumn(0, DataTypes.INTEGER)),
+                null,
+                null));
 
         BytesStreamOutput out = new BytesStreamOutput();
         cn.writeTo(out);
@@ -73,5 +84,7 @@ public class CollectNodeTest extends CrateUnitTest {
         assertThat(cn.executionPhaseId(), is(cn2.executionPhaseId()));
         assertThat(cn.maxRowGranularity(), is(cn2.maxRowGranularity()));
         assertThat(cn.distributionType(), is(cn2.distributionType()));
+        assertThat(cn.tableSample(), is(cn2.tableSample()));
+        assertThat(cn.shardDistribution(), is(cn2.shardDistribution()));
     }
 }
@@ -88,5 +88,26 @@ public class MergeNodeTest extends CrateUnitTest {
         assertEquals(node.inputTypes(), node2.inputTypes());
         assertThat(node.executionPhaseId(), is(node2.executionPhaseId()));
         assertThat(node.distributionType(), is(node2.distributionType()));
+        assertThat(node2.numInputs(), is(1));
+    }
+
+    @Test
+    public void testSerializationOfMultipleInputs() throws Exception {
+        MergePhase node = new MergePhase(
+                UUID.randomUUID(), 0, "merge", 1,
+                Arrays.<DataType>asList(DataTypes.STRING),
+                ImmutableList.<Projection>of(),
+                DistributionType.SAME_NODE);
+        node.inputNumUpstreams(new int[] { 2, 3 });
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        node.writeTo(output);
+        BytesStreamInput input = new BytesStreamInput(output.bytes());
+        MergePhase node2 = MergePhase.FACTORY.create();
+        node2.readFrom(input);
+
+        assertThat(node2.numUpstreams(), is(5));
+        assertThat(node2.numInputs(), is(2));
+        assertThat(node2.inputBucketOffsets()[1], is(2));
     }
 }
@@ -0,0 +1,60 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.symbol;
+
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.is;
+
+public class SymbolsTest extends CrateUnitTest {
+
+    private static Function function(boolean deterministic, Symbol... arguments) {
+        List<Symbol> args = Arrays.asList(arguments);
+        return new Function(
+                new FunctionInfo(
+                        new FunctionIdent("dummy", Symbols.extractTypes(args)),
+                        DataTypes.BOOLEAN, FunctionInfo.Type.SCALAR, deterministic),
+                args);
+    }
+
+    @Test
+    public void testIsDeterministic() throws Exception {
+        assertThat(Symbols.isDeterministic(Literal.newLiteral(1)), is(true));
+        assertThat(Symbols.isDeterministic(createReference("x", DataTypes.INTEGER)), is(true));
+        assertThat(Symbols.isDeterministic(function(true, createReference("x", DataTypes.INTEGER))), is(true));
+        assertThat(Symbols.isDeterministic(function(false)), is(false));
+    }
+
+    @Test
+    public void testFunctionWithNonDeterministicArgumentIsNotDeterministic() throws Exception {
+        assertThat(Symbols.isDeterministic(function(true, function(true, function(false)))), is(false));
+    }
+}
@@ -28,8 +28,10 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.crate.core.collections.Bucket;
 import io.crate.core.collections.CollectionBucket;
 import io.crate.core.collections.Row;
+import io.crate.core.collections.RowBatch;
 import io.crate.jobs.ExecutionState;
 import io.crate.operation.RowUpstream;
+import io.crate.operation.projectors.RowBatchReceiver;
 import io.crate.operation.projectors.RowReceiver;
 
 import java.util.ArrayList;
@@ -49,6 +51,14 @@ public class CollectingRowReceiver implements RowReceiver {
         return new PausingReceiver(pauseAfter);
     }
 
+    /**
+     * a receiver which accepts {@link RowBatch}es and pauses its upstream once it received
+     * <code>pauseAfter</code> rows (the remaining rows of the batch are still collected)
+     */
+    public static CollectingRowReceiver batchesWithPauseAfter(int pauseAfter) {
+        return new BatchReceiver(pauseAfter);
+    }
+
     public CollectingRowReceiver() {
     }
 
@@ -125,4 +135,25 @@ public class CollectingRowReceiver implements RowReceiver {
             return wantsMore;
         }
     }
-}
\ No newline at end of file
+
+    private static class BatchReceiver extends PausingReceiver implements RowBatchReceiver {
+
+        public BatchReceiver(int pauseAfter) {
+            super(pauseAfter);
+        }
+
+        @Override
+        public boolean acceptsBatches() {
+            return true;
+        }
+
+        @Override
+        public boolean setNextBatch(RowBatch batch) {
+            boolean wantsMore = true;
+            for (int i = 0; i < batch.size(); i++) {
+                wantsMore = setNextRow(batch.row(i)) && wantsMore;
+            }
+            return wantsMore;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import com.carrotsearch.hppc.IntArrayList;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+
+public class BulkRetryCoordinatorTest extends CrateUnitTest {
+
+    private BulkRetryCoordinator coordinator;
+    private List<ActionListener<TestResponse>> listeners;
+    private BulkRequestExecutor<TestRequest, TestResponse> executor;
+
+    @Before
+    public void prepare() throws Exception {
+        coordinator = new BulkRetryCoordinator(ImmutableSettings.EMPTY);
+        listeners = Collections.synchronizedList(new ArrayList<ActionListener<TestResponse>>());
+        executor = new BulkRequestExecutor<TestRequest, TestResponse>() {
+            @Override
+            public void execute(TestRequest request, ActionListener<TestResponse> listener) {
+                listeners.add(listener);
+            }
+        };
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        coordinator.shutdown();
+    }
+
+    private void execute(ActionListener<TestResponse> listener) {
+        coordinator.execute(new TestRequest(), executor, listener, null);
+    }
+
+    @Test
+    public void testRequestsExceedingInFlightLimitAreQueued() throws Exception {
+        for (int i = 0; i < BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT + 1; i++) {
+            execute(new NoopListener());
+        }
+        assertThat(listeners.size(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT));
+        assertThat(coordinator.inFlight(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT));
+        assertThat(coordinator.queued(), is(1));
+
+        listeners.get(0).onResponse(new TestResponse());
+        assertThat(listeners.size(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT + 1));
+        assertThat(coordinator.queued(), is(0));
+    }
+
+    @Test
+    public void testOnDispatchIsCalledOnceRequestIsSent() throws Exception {
+        for (int i = 0; i < BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT; i++) {
+            execute(new NoopListener());
+        }
+        final CountDownLatch dispatched = new CountDownLatch(1);
+        coordinator.execute(new TestRequest(), executor, new NoopListener(), new Runnable() {
+            @Override
+            public void run() {
+                dispatched.countDown();
+            }
+        });
+        assertThat(dispatched.getCount(), is(1L));
+        listeners.get(0).onResponse(new TestResponse());
+        assertThat(dispatched.getCount(), is(0L));
+    }
+
+    @Test
+    public void testRejectionHalvesLimitsOncePerWindow() throws Exception {
+        execute(new NoopListener());
+        execute(new NoopListener());
+
+        listeners.get(0).onFailure(new EsRejectedExecutionException());
+        assertThat(coordinator.inFlightLimit(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT / 2));
+        assertThat(coordinator.bulkSize(100), is(50));
+
+        // was sent before the limits were decreased, so it doesn't decrease them again
+        listeners.get(1).onFailure(new EsRejectedExecutionException());
+        assertThat(coordinator.inFlightLimit(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT / 2));
+        assertThat(coordinator.bulkSize(100), is(50));
+    }
+
+    @Test
+    public void testRejectedRequestIsRetried() throws Exception {
+        final CountDownLatch responded = new CountDownLatch(1);
+        execute(new NoopListener() {
+            @Override
+            public void onResponse(TestResponse response) {
+                responded.countDown();
+            }
+        });
+        listeners.get(0).onFailure(new EsRejectedExecutionException());
+
+        // retry is scheduled after a short delay
+        for (int i = 0; i < 100 && listeners.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(listeners.size(), is(2));
+        listeners.get(1).onResponse(new TestResponse());
+        assertTrue(responded.await(10, TimeUnit.SECONDS));
+        assertThat(coordinator.inFlight(), is(0));
+    }
+
+    @Test
+    public void testOtherFailuresAreNotRetried() throws Exception {
+        final CountDownLatch failed = new CountDownLatch(1);
+        execute(new NoopListener() {
+            @Override
+            public void onFailure(Throwable e) {
+                failed.countDown();
+            }
+        });
+        listeners.get(0).onFailure(new IllegalStateException("dummy"));
+        assertThat(failed.getCount(), is(0L));
+        assertThat(coordinator.inFlight(), is(0));
+        assertThat(coordinator.inFlightLimit(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT));
+    }
+
+    @Test
+    public void testSteadyLatencyIncreasesLimits() throws Exception {
+        execute(new NoopListener());
+        listeners.get(0).onFailure(new EsRejectedExecutionException());
+        assertThat(coordinator.bulkSize(160), is(80));
+
+        for (int i = 0; i < 100; i++) {
+            coordinator.onResponse(1, 1000L, 10);
+        }
+        assertThat(coordinator.inFlightLimit(), greaterThan(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT));
+        assertThat(coordinator.inFlightLimit(), lessThanOrEqualTo(BulkRetryCoordinator.MAX_IN_FLIGHT_LIMIT));
+        assertThat(coordinator.bulkSize(160), is(160));
+    }
+
+    @Test
+    public void testLatencySpikeDecreasesLimits() throws Exception {
+        coordinator.onResponse(0, 1000L, 10);
+        int limit = coordinator.inFlightLimit();
+
+        coordinator.onResponse(0, 10000L, 10);
+        assertThat(coordinator.inFlightLimit(), is(limit / 2));
+        assertThat(coordinator.bulkSize(100), is(50));
+    }
+
+    @Test
+    public void testQueuedRequestsAreSentOnClose() throws Exception {
+        for (int i = 0; i < BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT * 2; i++) {
+            execute(new NoopListener());
+        }
+        coordinator.close();
+        assertThat(listeners.size(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT * 2));
+        assertThat(coordinator.queued(), is(0));
+    }
+
+    private static class TestRequest implements BulkProcessorRequest {
+
+        private final IntArrayList itemIndices = IntArrayList.from(0);
+
+        @Override
+        public IntArrayList itemIndices() {
+            return itemIndices;
+        }
+    }
+
+    private static class TestResponse implements BulkProcessorResponse<Object> {
+
+        @Override
+        public IntArrayList itemIndices() {
+            return IntArrayList.from(0);
+        }
+
+        @Override
+        public List<Object> responses() {
+            return Collections.singletonList(new Object());
+        }
+    }
+
+    private static class NoopListener implements ActionListener<TestResponse> {
+
+        @Override
+        public void onResponse(TestResponse response) {
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+        }
+    }
+}
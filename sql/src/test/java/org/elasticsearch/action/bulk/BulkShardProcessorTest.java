@@ -57,9 +57,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -152,7 +152,7 @@ public class BulkShardProcessorTest extends CrateUnitTest {
     }
 
     @Test
-    public void testThatAddAfterFailureBlocksDueToRetry() throws Exception {
+    public void testRejectedRequestIsRetriedWithoutBlockingAdd() throws Exception {
         ClusterService clusterService = mock(ClusterService.class);
         OperationRouting operationRouting = mock(OperationRouting.class);
 
@@ -161,8 +161,8 @@ public class BulkShardProcessorTest extends CrateUnitTest {
         mockShard(operationRouting, 3);
         when(clusterService.operationRouting()).thenReturn(operationRouting);
 
-        // listener will be executed 2 times, once for the successfully added row and once for the failure
-        final CountDownLatch listenerLatch = new CountDownLatch(2);
+        // executed 3 times, for the rejected row, the second row and the retry of the rejected row
+        final CountDownLatch listenerLatch = new CountDownLatch(3);
         final AtomicReference<ActionListener<ShardUpsertResponse>> ref = new AtomicReference<>();
         TransportShardUpsertActionDelegate transportShardUpsertActionDelegate = new TransportShardUpsertActionDelegate() {
             @Override
@@ -217,37 +217,13 @@ public class BulkShardProcessorTest extends CrateUnitTest {
                 UUID.randomUUID()
         );
         bulkShardProcessor.add("foo", new RowN(new Object[]{1, "bar1"}), null);
-        final ActionListener<ShardUpsertResponse> listener = ref.get();
+        ref.get().onFailure(new EsRejectedExecutionException());
 
-        listener.onFailure(new EsRejectedExecutionException());
-        // wait, failure retry lock is done in decoupled thread
-        listenerLatch.await(10, TimeUnit.SECONDS);
-
-        final ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(2);
-        try {
-            final AtomicBoolean hadBlocked = new AtomicBoolean(false);
-            final AtomicBoolean hasBlocked = new AtomicBoolean(true);
-            final CountDownLatch latch = new CountDownLatch(1);
-            scheduledExecutorService.execute(new Runnable() {
-                @Override
-                public void run() {
-                    scheduledExecutorService.schedule(new Runnable() {
-                        @Override
-                        public void run() {
-                            hadBlocked.set(hasBlocked.get());
-                            latch.countDown();
-                        }
-                    }, 10, TimeUnit.MILLISECONDS);
-                    bulkShardProcessor.add("foo", new RowN(new Object[]{2, "bar2"}), null);
-                    hasBlocked.set(false);
-                }
-            });
-            latch.await();
-            assertTrue(hadBlocked.get());
-        } finally {
-            scheduledExecutorService.shutdownNow();
-            bulkRetryCoordinator.close();
-        }
+        // the retry is scheduled, adding further rows must not block
+        assertTrue(bulkShardProcessor.add("foo", new RowN(new Object[]{2, "bar2"}), null));
+        assertTrue(listenerLatch.await(10, TimeUnit.SECONDS));
+        assertThat(bulkRetryCoordinator.inFlightLimit(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT / 2));
+        bulkRetryCoordinator.close();
     }
 
     private void mockShard(OperationRouting operationRouting, Integer shardId) {
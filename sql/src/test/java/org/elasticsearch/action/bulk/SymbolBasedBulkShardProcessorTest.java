@@ -27,6 +27,7 @@ import io.crate.executor.transport.TransportActionProvider;
 import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.ReferenceInfo;
 import io.crate.metadata.TableIdent;
+import io.crate.operation.RowUpstream;
 import io.crate.planner.RowGranularity;
 import io.crate.planner.symbol.Reference;
 import io.crate.test.integration.CrateUnitTest;
@@ -37,6 +38,7 @@ import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.ShardIterator;
 import org.elasticsearch.cluster.routing.operation.OperationRouting;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -44,15 +46,19 @@ import org.elasticsearch.index.shard.ShardId;
 import org.junit.Test;
 import org.mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SymbolBasedBulkShardProcessorTest extends CrateUnitTest {
@@ -123,7 +129,7 @@ public class SymbolBasedBulkShardProcessorTest extends CrateUnitTest {
     }
 
     @Test
-    public void testThatAddAfterFailureBlocksDueToRetry() throws Exception {
+    public void testRejectedRequestIsRetriedWithoutBlockingAdd() throws Exception {
         ClusterService clusterService = mock(ClusterService.class);
         OperationRouting operationRouting = mock(OperationRouting.class);
 
@@ -132,8 +138,8 @@ public class SymbolBasedBulkShardProcessorTest extends CrateUnitTest {
         mockShard(operationRouting, 3);
         when(clusterService.operationRouting()).thenReturn(operationRouting);
 
-        // listener will be executed 2 times, once for the successfully added row and once for the failure
-        final CountDownLatch listenerLatch = new CountDownLatch(2);
+        // executed 3 times, for the rejected row, the second row and the retry of the rejected row
+        final CountDownLatch listenerLatch = new CountDownLatch(3);
         final AtomicReference<ActionListener<ShardUpsertResponse>> ref = new AtomicReference<>();
         SymbolBasedTransportShardUpsertActionDelegate transportShardUpsertActionDelegate = new SymbolBasedTransportShardUpsertActionDelegate() {
             @Override
@@ -173,37 +179,76 @@ public class SymbolBasedBulkShardProcessorTest extends CrateUnitTest {
                 UUID.randomUUID()
         );
         bulkShardProcessor.add("foo", "1", new Object[]{"bar1"}, null, null);
-        final ActionListener<ShardUpsertResponse> listener = ref.get();
+        ref.get().onFailure(new EsRejectedExecutionException());
 
-        listener.onFailure(new EsRejectedExecutionException());
-        // wait, failure retry lock is done in decoupled thread
-        listenerLatch.await(10, TimeUnit.SECONDS);
+        // the retry is scheduled, adding further rows must not block
+        assertTrue(bulkShardProcessor.add("foo", "2", new Object[]{"bar2"}, null, null));
+        assertTrue(listenerLatch.await(10, TimeUnit.SECONDS));
+        assertThat(bulkRetryCoordinator.inFlightLimit(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT / 2));
+        bulkRetryCoordinator.close();
+    }
 
-        final ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(2);
-        try {
-            final AtomicBoolean hadBlocked = new AtomicBoolean(false);
-            final AtomicBoolean hasBlocked = new AtomicBoolean(true);
-            final CountDownLatch latch = new CountDownLatch(1);
-            scheduledExecutorService.execute(new Runnable() {
-                @Override
-                public void run() {
-                    scheduledExecutorService.schedule(new Runnable() {
-                        @Override
-                        public void run() {
-                            hadBlocked.set(hasBlocked.get());
-                            latch.countDown();
-                        }
-                    }, 10, TimeUnit.MILLISECONDS);
-                    bulkShardProcessor.add("foo", "2", new Object[]{"bar2"}, null, null);
-                    hasBlocked.set(false);
-                }
-            });
-            latch.await();
-            assertTrue(hadBlocked.get());
-        } finally {
-            scheduledExecutorService.shutdownNow();
-            bulkRetryCoordinator.close();
+    @Test
+    public void testUpstreamIsPausedIfNodeIsSaturated() throws Exception {
+        ClusterService clusterService = mock(ClusterService.class);
+        OperationRouting operationRouting = mock(OperationRouting.class);
+        for (int i = 1; i <= BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT + 1; i++) {
+            mockShard(operationRouting, i);
+        }
+        when(clusterService.operationRouting()).thenReturn(operationRouting);
+
+        final List<ActionListener<ShardUpsertResponse>> listeners = new ArrayList<>();
+        SymbolBasedTransportShardUpsertActionDelegate transportShardUpsertActionDelegate = new SymbolBasedTransportShardUpsertActionDelegate() {
+            @Override
+            public void execute(SymbolBasedShardUpsertRequest request, ActionListener<ShardUpsertResponse> listener) {
+                listeners.add(listener);
+            }
+        };
+
+        BulkRetryCoordinator bulkRetryCoordinator = new BulkRetryCoordinator(ImmutableSettings.EMPTY);
+        BulkRetryCoordinatorPool coordinatorPool = mock(BulkRetryCoordinatorPool.class);
+        when(coordinatorPool.coordinator(any(ShardId.class))).thenReturn(bulkRetryCoordinator);
+
+        SymbolBasedShardUpsertRequest.Builder builder = new SymbolBasedShardUpsertRequest.Builder(
+                TimeValue.timeValueMillis(10),
+                false,
+                false,
+                null,
+                new Reference[]{fooRef},
+                UUID.randomUUID()
+        );
+        SymbolBasedBulkShardProcessor<SymbolBasedShardUpsertRequest, ShardUpsertResponse> bulkShardProcessor = new SymbolBasedBulkShardProcessor<>(
+                clusterService,
+                mock(TransportBulkCreateIndicesAction.class),
+                ImmutableSettings.EMPTY,
+                coordinatorPool,
+                false,
+                1,
+                builder,
+                transportShardUpsertActionDelegate,
+                UUID.randomUUID()
+        );
+        RowUpstream upstream = mock(RowUpstream.class);
+        bulkShardProcessor.upstream(upstream);
+
+        for (int i = 1; i <= BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT; i++) {
+            bulkShardProcessor.add("foo", String.valueOf(i), new Object[]{"bar"}, null, null);
         }
+        verify(upstream, never()).pause();
+        assertThat(listeners.size(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT));
+
+        // in-flight limit is reached, the next request is queued
+        bulkShardProcessor.add("foo", String.valueOf(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT + 1),
+                new Object[]{"bar"}, null, null);
+        verify(upstream, times(1)).pause();
+        assertThat(bulkRetryCoordinator.queued(), is(1));
+
+        ShardUpsertResponse response = new ShardUpsertResponse();
+        response.add(0, ShardUpsertResponse.Response.readResponse(new BytesArray(new byte[0]).streamInput()));
+        listeners.get(0).onResponse(response);
+        assertThat(bulkRetryCoordinator.queued(), is(0));
+        assertThat(listeners.size(), is(BulkRetryCoordinator.INITIAL_IN_FLIGHT_LIMIT + 1));
+        verify(upstream, times(1)).resume(true);
     }
 
     @Test
@@ -0,0 +1,223 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.action.get;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.operation.cache.RowCache;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilter;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.get.GetField;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransportCoalescingGetActionTest extends CrateUnitTest {
+
+    private ThreadPool threadPool;
+    private ClusterService clusterService;
+
+    @Before
+    public void prepare() throws Exception {
+        threadPool = new ThreadPool("testing");
+        MetaData metaData = mock(MetaData.class);
+        when(metaData.index("t")).thenReturn(indexMetaData("t", false));
+        when(metaData.index("cached")).thenReturn(indexMetaData("cached", true));
+        ClusterState clusterState = mock(ClusterState.class);
+        when(clusterState.metaData()).thenReturn(metaData);
+        clusterService = mock(ClusterService.class);
+        when(clusterService.state()).thenReturn(clusterState);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        threadPool.shutdown();
+        threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private static IndexMetaData indexMetaData(String index, boolean rowCacheEnabled) {
+        return IndexMetaData.builder(index)
+                .settings(ImmutableSettings.builder()
+                        .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+                        .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                        .put(RowCache.INDEX_ROW_CACHE_ENABLED, rowCacheEnabled))
+                .build();
+    }
+
+    private static GetRequest getRequest(String index, String id) {
+        GetRequest request = new GetRequest(index, "default", id);
+        request.realtime(true);
+        return request;
+    }
+
+    private static GetResponse getResponse(String index, String id) {
+        return new GetResponse(new org.elasticsearch.index.get.GetResult(
+                index, "default", id, 1L, true, null, Collections.<String, GetField>emptyMap()));
+    }
+
+    private static Settings settings(boolean enabled, int batchSize, int delayMicros) {
+        return ImmutableSettings.builder()
+                .put(TransportCoalescingGetAction.ENABLED_SETTING, enabled)
+                .put(TransportCoalescingGetAction.BATCH_SIZE_SETTING, batchSize)
+                .put(TransportCoalescingGetAction.DELAY_SETTING, delayMicros)
+                .build();
+    }
+
+    private static class ResponseCollector implements ActionListener<GetResponse> {
+
+        private final List<GetResponse> responses = Collections.synchronizedList(new ArrayList<GetResponse>());
+        private final CountDownLatch responded = new CountDownLatch(1);
+
+        @Override
+        public void onResponse(GetResponse getResponse) {
+            responses.add(getResponse);
+            responded.countDown();
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static class RecordingAction extends TransportCoalescingGetAction {
+
+        private final List<GetRequest> gets = Collections.synchronizedList(new ArrayList<GetRequest>());
+        private final List<MultiGetRequest> multiGets = Collections.synchronizedList(new ArrayList<MultiGetRequest>());
+        private final String failingId;
+
+        RecordingAction(Settings settings, ThreadPool threadPool, ClusterService clusterService, String failingId) {
+            super(settings, threadPool, new ActionFilters(ImmutableSet.<ActionFilter>of()), clusterService, null, null);
+            this.failingId = failingId;
+        }
+
+        @Override
+        void executeGet(GetRequest request, ActionListener<GetResponse> listener) {
+            gets.add(request);
+            listener.onResponse(getResponse(request.index(), request.id()));
+        }
+
+        @Override
+        void executeMultiGet(MultiGetRequest request, ActionListener<MultiGetResponse> listener) {
+            multiGets.add(request);
+            MultiGetItemResponse[] responses = new MultiGetItemResponse[request.getItems().size()];
+            for (int i = 0; i < responses.length; i++) {
+                MultiGetRequest.Item item = request.getItems().get(i);
+                if (item.id().equals(failingId)) {
+                    responses[i] = new MultiGetItemResponse(null,
+                            new MultiGetResponse.Failure(item.index(), item.type(), item.id(), "failed"));
+                } else {
+                    responses[i] = new MultiGetItemResponse(getResponse(item.index(), item.id()), null);
+                }
+            }
+            listener.onResponse(new MultiGetResponse(responses));
+        }
+    }
+
+    @Test
+    public void testGetsAreCoalescedOnceBatchIsFull() throws Exception {
+        RecordingAction action = new RecordingAction(settings(true, 3, 10000000), threadPool, clusterService, null);
+        ResponseCollector[] collectors = new ResponseCollector[3];
+        for (int i = 0; i < 3; i++) {
+            collectors[i] = new ResponseCollector();
+            action.execute(getRequest("t", String.valueOf(i)), collectors[i]);
+        }
+
+        assertThat(action.gets.size(), is(0));
+        assertThat(action.multiGets.size(), is(1));
+        assertThat(action.multiGets.get(0).getItems().size(), is(3));
+        assertThat(action.multiGets.get(0).realtime(), is(true));
+        for (int i = 0; i < 3; i++) {
+            assertThat(collectors[i].responses.size(), is(1));
+            assertThat(collectors[i].responses.get(0).getId(), is(String.valueOf(i)));
+        }
+    }
+
+    @Test
+    public void testGetsAreSentAfterDelay() throws Exception {
+        RecordingAction action = new RecordingAction(settings(true, 100, 100000), threadPool, clusterService, null);
+        ResponseCollector first = new ResponseCollector();
+        ResponseCollector second = new ResponseCollector();
+        action.execute(getRequest("t", "1"), first);
+        action.execute(getRequest("t", "2"), second);
+
+        assertThat(first.responded.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(second.responded.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(action.multiGets.size(), is(1));
+        assertThat(first.responses.get(0).getId(), is("1"));
+        assertThat(second.responses.get(0).getId(), is("2"));
+    }
+
+    @Test
+    public void testFailedItemIsRetriedAsSingleGet() throws Exception {
+        RecordingAction action = new RecordingAction(settings(true, 2, 10000000), threadPool, clusterService, "2");
+        ResponseCollector first = new ResponseCollector();
+        ResponseCollector second = new ResponseCollector();
+        action.execute(getRequest("t", "1"), first);
+        action.execute(getRequest("t", "2"), second);
+
+        assertThat(action.multiGets.size(), is(1));
+        assertThat(action.gets.size(), is(1));
+        assertThat(action.gets.get(0).id(), is("2"));
+        assertThat(first.responses.get(0).getId(), is("1"));
+        assertThat(second.responses.get(0).getId(), is("2"));
+    }
+
+    @Test
+    public void testGetsAreNotCoalescedIfDisabled() throws Exception {
+        RecordingAction action = new RecordingAction(settings(false, 1, 500), threadPool, clusterService, null);
+        ResponseCollector collector = new ResponseCollector();
+        action.execute(getRequest("t", "1"), collector);
+
+        assertThat(action.gets.size(), is(1));
+        assertThat(action.multiGets, empty());
+        assertThat(collector.responses.size(), is(1));
+    }
+
+    @Test
+    public void testGetsOnRowCachedIndexAreNotCoalesced() throws Exception {
+        RecordingAction action = new RecordingAction(settings(true, 1, 500), threadPool, clusterService, null);
+        action.execute(getRequest("cached", "1"), new ResponseCollector());
+        action.execute(getRequest("cached", "2"), new ResponseCollector());
+
+        assertThat(action.gets.size(), is(2));
+        assertThat(action.multiGets, empty());
+    }
+}